@@ -0,0 +1,38 @@
+package redis.clients.jedis;
+
+import java.nio.ByteBuffer;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * Source of the I/O buffers of connections.
+ * <p>
+ * When an allocator is configured (see {@link JedisClientConfig#getBufferAllocator()}), a connection
+ * leases its buffers only while a command is in flight and returns them as soon as the reply has
+ * been consumed, so that idle connections do not hold any buffer memory.
+ * <p>
+ * Implementations must be thread-safe, as one allocator is usually shared by many connections.
+ */
+@Experimental
+public interface BufferAllocator {
+
+  /**
+   * @return a heap buffer of at least {@code size} bytes; it may be larger
+   */
+  byte[] allocate(int size);
+
+  /**
+   * Return a buffer obtained by {@link #allocate(int)}. It must not be used afterwards.
+   */
+  void release(byte[] buffer);
+
+  /**
+   * @return a direct buffer, cleared, with a capacity of at least {@code size} bytes
+   */
+  ByteBuffer allocateDirect(int size);
+
+  /**
+   * Return a buffer obtained by {@link #allocateDirect(int)}. It must not be used afterwards.
+   */
+  void release(ByteBuffer buffer);
+}
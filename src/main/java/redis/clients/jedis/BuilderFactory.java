@@ -11,6 +11,7 @@ import redis.clients.jedis.resps.LCSMatchResult.Position;
 import redis.clients.jedis.util.DoublePrecision;
 import redis.clients.jedis.util.JedisByteHashMap;
 import redis.clients.jedis.util.KeyValue;
+import redis.clients.jedis.util.RedisInputStream;
 import redis.clients.jedis.util.SafeEncoder;
 
 public final class BuilderFactory {
@@ -262,7 +263,7 @@ public final class BuilderFactory {
     }
   };
 
-  public static final Builder<List<String>> STRING_LIST = new Builder<List<String>>() {
+  public static final Builder<List<String>> STRING_LIST = new StreamingBuilder<List<String>>() {
     @Override
     @SuppressWarnings("unchecked")
     public List<String> build(Object data) {
@@ -270,6 +271,17 @@ public final class BuilderFactory {
       return ((List<Object>) data).stream().map(STRING::build).collect(Collectors.toList());
     }
 
+    @Override
+    public List<String> read(RedisInputStream is) {
+      final int num = Protocol.readAggregateLength(is);
+      if (num == -1) return null;
+      final List<String> list = new ArrayList<>(num);
+      for (int i = 0; i < num; i++) {
+        list.add(Protocol.readString(is));
+      }
+      return list;
+    }
+
     @Override
     public String toString() {
       return "List<String>";
@@ -290,7 +302,7 @@ public final class BuilderFactory {
     }
   };
 
-  public static final Builder<Map<byte[], byte[]>> BINARY_MAP = new Builder<Map<byte[], byte[]>>() {
+  public static final Builder<Map<byte[], byte[]>> BINARY_MAP = new StreamingBuilder<Map<byte[], byte[]>>() {
     @Override
     @SuppressWarnings("unchecked")
     public Map<byte[], byte[]> build(Object data) {
@@ -315,13 +327,30 @@ public final class BuilderFactory {
       }
     }
 
+    @Override
+    public Map<byte[], byte[]> read(RedisInputStream is) {
+      final int num = Protocol.readAggregateLength(is);
+      if (num == -1) return null;
+      if (num == 0) return Collections.emptyMap();
+
+      final Map<byte[], byte[]> map = new JedisByteHashMap();
+      for (int i = 0; i < num; i += 2) {
+        final byte[] key = Protocol.readBinary(is);
+        final byte[] value = Protocol.readBinary(is);
+        if (key != null) { // null only for an error, which is thrown once the reply has been read
+          map.put(key, value);
+        }
+      }
+      return map;
+    }
+
     @Override
     public String toString() {
       return "Map<byte[], byte[]>";
     }
   };
 
-  public static final Builder<Map<String, String>> STRING_MAP = new Builder<Map<String, String>>() {
+  public static final Builder<Map<String, String>> STRING_MAP = new StreamingBuilder<Map<String, String>>() {
     @Override
     @SuppressWarnings("unchecked")
     public Map<String, String> build(Object data) {
@@ -346,6 +375,19 @@ public final class BuilderFactory {
       }
     }
 
+    @Override
+    public Map<String, String> read(RedisInputStream is) {
+      final int num = Protocol.readAggregateLength(is);
+      if (num == -1) return null;
+      if (num == 0) return Collections.emptyMap();
+
+      final Map<String, String> map = new HashMap<>(num / 2, 1f);
+      for (int i = 0; i < num; i += 2) {
+        map.put(Protocol.readString(is), Protocol.readString(is));
+      }
+      return map;
+    }
+
     @Override
     public String toString() {
       return "Map<String, String>";
@@ -626,7 +668,7 @@ public final class BuilderFactory {
     }
   };
 
-  public static final Builder<List<Tuple>> TUPLE_LIST = new Builder<List<Tuple>>() {
+  public static final Builder<List<Tuple>> TUPLE_LIST = new StreamingBuilder<List<Tuple>>() {
     @Override
     @SuppressWarnings("unchecked")
     public List<Tuple> build(Object data) {
@@ -642,13 +684,18 @@ public final class BuilderFactory {
       return result;
     }
 
+    @Override
+    public List<Tuple> read(RedisInputStream is) {
+      return readTupleList(is);
+    }
+
     @Override
     public String toString() {
       return "List<Tuple>";
     }
   };
 
-  public static final Builder<List<Tuple>> TUPLE_LIST_RESP3 = new Builder<List<Tuple>>() {
+  public static final Builder<List<Tuple>> TUPLE_LIST_RESP3 = new StreamingBuilder<List<Tuple>>() {
     @Override
     @SuppressWarnings("unchecked")
     public List<Tuple> build(Object data) {
@@ -656,6 +703,11 @@ public final class BuilderFactory {
       return ((List<Object>) data).stream().map(TUPLE::build).collect(Collectors.toList());
     }
 
+    @Override
+    public List<Tuple> read(RedisInputStream is) {
+      return readTupleList(is);
+    }
+
     @Override
     public String toString() {
       return "List<Tuple>";
@@ -1295,7 +1347,7 @@ public final class BuilderFactory {
     }
   };
 
-  public static final Builder<List<StreamEntry>> STREAM_ENTRY_LIST = new Builder<List<StreamEntry>>() {
+  public static final Builder<List<StreamEntry>> STREAM_ENTRY_LIST = new StreamingBuilder<List<StreamEntry>>() {
     @Override
     @SuppressWarnings("unchecked")
     public List<StreamEntry> build(Object data) {
@@ -1333,6 +1385,17 @@ public final class BuilderFactory {
       return responses;
     }
 
+    @Override
+    public List<StreamEntry> read(RedisInputStream is) {
+      final int num = Protocol.readAggregateLength(is);
+      if (num == -1) return null;
+      final List<StreamEntry> responses = new ArrayList<>(num);
+      for (int i = 0; i < num; i++) {
+        responses.add(readStreamEntry(is));
+      }
+      return responses;
+    }
+
     @Override
     public String toString() {
       return "List<StreamEntry>";
@@ -2119,6 +2182,51 @@ public final class BuilderFactory {
     }
   }
 
+  /**
+   * Reads both the flat RESP2 form and the RESP3 form (array of pairs) of a list of tuples.
+   */
+  private static List<Tuple> readTupleList(RedisInputStream is) {
+    final int num = Protocol.readAggregateLength(is);
+    if (num == -1) return null;
+    if (num > 0 && is.peek(Protocol.ASTERISK_BYTE)) {
+      final List<Tuple> result = new ArrayList<>(num);
+      for (int i = 0; i < num; i++) {
+        final int pair = Protocol.readNestedAggregateLength(is);
+        result.add(pair <= 0 ? null : new Tuple(Protocol.readBinary(is), Protocol.readDouble(is)));
+      }
+      return result;
+    }
+    final List<Tuple> result = new ArrayList<>(num / 2);
+    for (int i = 0; i < num; i += 2) {
+      result.add(new Tuple(Protocol.readBinary(is), Protocol.readDouble(is)));
+    }
+    return result;
+  }
+
+  private static StreamEntry readStreamEntry(RedisInputStream is) {
+    final int num = Protocol.readNestedAggregateLength(is);
+    if (num == -1) return null;
+    final String id = Protocol.readString(is);
+    final StreamEntryID entryID = id == null ? null : new StreamEntryID(id);
+    final int hashSize = Protocol.readNestedAggregateLength(is);
+    Map<String, String> map = null;
+    if (hashSize != -1) {
+      map = new HashMap<>(hashSize / 2, 1f);
+      for (int i = 0; i < hashSize; i += 2) {
+        map.put(Protocol.readString(is), Protocol.readString(is));
+      }
+    }
+    // ignore any further elements of the entry
+    for (int i = 2; i < num; i++) {
+      try {
+        Protocol.read(is);
+      } catch (JedisDataException e) {
+        is.addElementError(e);
+      }
+    }
+    return new StreamEntry(entryID, map);
+  }
+
   private BuilderFactory() {
     throw new InstantiationError("Must not instantiate this class");
   }
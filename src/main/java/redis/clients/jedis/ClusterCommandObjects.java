@@ -6,9 +6,11 @@ import static redis.clients.jedis.Protocol.Keyword.TYPE;
 
 import java.util.Set;
 
+import redis.clients.jedis.args.Rawable;
 import redis.clients.jedis.commands.ProtocolCommand;
 import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.util.JedisClusterCRC16;
 import redis.clients.jedis.util.JedisClusterHashTag;
 import redis.clients.jedis.util.KeyValue;
 
@@ -21,6 +23,22 @@ public class ClusterCommandObjects extends CommandObjects {
     return comArgs;
   }
 
+  /**
+   * @return the hash slot of the key, as it will be sent to the server
+   */
+  int getKeySlot(Object key) {
+    if (keyPreProcessor != null) {
+      key = keyPreProcessor.actualKey(key);
+    }
+    if (key instanceof Rawable) {
+      return JedisClusterCRC16.getSlot(((Rawable) key).getRaw());
+    } else if (key instanceof byte[]) {
+      return JedisClusterCRC16.getSlot((byte[]) key);
+    } else {
+      return JedisClusterCRC16.getSlot(key.toString());
+    }
+  }
+
   private static final String CLUSTER_UNSUPPORTED_MESSAGE = "Not supported in cluster mode.";
 
   @Override
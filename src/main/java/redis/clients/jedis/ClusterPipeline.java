@@ -3,6 +3,8 @@ package redis.clients.jedis;
 import java.time.Duration;
 import java.util.Set;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
 import redis.clients.jedis.providers.ClusterConnectionProvider;
 import redis.clients.jedis.util.IOUtils;
 
@@ -10,6 +12,7 @@ public class ClusterPipeline extends MultiNodePipelineBase {
 
   private final ClusterConnectionProvider provider;
   private AutoCloseable closeable = null;
+  private int maxRedirections = JedisCluster.DEFAULT_MAX_ATTEMPTS;
 
   public ClusterPipeline(Set<HostAndPort> clusterNodes, JedisClientConfig clientConfig) {
     this(new ClusterConnectionProvider(clusterNodes, clientConfig),
@@ -53,6 +56,19 @@ public class ClusterPipeline extends MultiNodePipelineBase {
     super.prepareGraphCommands(provider);
   }
 
+  /**
+   * Set how many times a command which is redirected (MOVED or ASK) is sent again during
+   * {@link #sync()}. Redirected commands are sent again only to their new nodes, after the moved
+   * slots are updated in the slot cache. If {@code 0}, the redirection is the reply of the command.
+   */
+  @Experimental
+  public void setMaxRedirections(int maxRedirections) {
+    if (maxRedirections < 0) {
+      throw new IllegalArgumentException("maxRedirections < 0");
+    }
+    this.maxRedirections = maxRedirections;
+  }
+
   @Override
   public void close() {
     try {
@@ -72,6 +88,16 @@ public class ClusterPipeline extends MultiNodePipelineBase {
     return provider.getConnection(nodeKey);
   }
 
+  @Override
+  protected int getMaxRedirections() {
+    return maxRedirections;
+  }
+
+  @Override
+  protected void onMovedRedirection(JedisMovedDataException moved) {
+    provider.applyMovedRedirection(moved);
+  }
+
   public Response<Long> spublish(String channel, String message) {
     return appendCommand(commandObjects.spublish(channel, message));
   }
@@ -0,0 +1,277 @@
+package redis.clients.jedis;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import redis.clients.jedis.Protocol.Keyword;
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.providers.ClusterConnectionProvider;
+import redis.clients.jedis.resps.ScanResult;
+
+/**
+ * Scans the keys of all the primaries of a cluster, several primaries at a time.
+ * <p>
+ * The cursor of each primary is recorded after its keys have been handed to the consumer, and can be
+ * saved at any time as a {@link Checkpoint}, so that a scan which has been stopped or has failed can
+ * be resumed with {@link #run(Consumer, Checkpoint)}. A primary whose slots are not the same as in the
+ * checkpoint is scanned again from the start. As with {@code SCAN}, a key may be returned more than
+ * once, especially when a scan is resumed.
+ * <p>
+ * An instance runs one scan at a time.
+ */
+@Experimental
+public class ClusterScan {
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  private final ClusterConnectionProvider provider;
+  private final ScanParams params;
+  private final String type;
+  private int parallelism = 4;
+
+  private final Map<String, String> cursors = new ConcurrentHashMap<>();
+  private volatile List<String> shards = Collections.emptyList();
+  private volatile boolean stopped;
+
+  public ClusterScan(ClusterConnectionProvider provider, ScanParams params) {
+    this(provider, params, null);
+  }
+
+  /**
+   * @param type the type of the keys to scan, or {@code null} for all types
+   */
+  public ClusterScan(ClusterConnectionProvider provider, ScanParams params, String type) {
+    this.provider = Objects.requireNonNull(provider, "provider");
+    this.params = params != null ? params : new ScanParams();
+    this.type = type;
+  }
+
+  /**
+   * Set the maximum number of primaries which are scanned at the same time. The default is 4.
+   */
+  public ClusterScan parallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism < 1");
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Scan the whole cluster.
+   * @see #run(Consumer, Checkpoint)
+   */
+  public Checkpoint run(Consumer<List<String>> consumer) {
+    return run(consumer, null);
+  }
+
+  /**
+   * Scan the cluster, resuming from a checkpoint. This method returns when all the primaries have
+   * been scanned, or after {@link #stop()}.
+   *
+   * @param consumer receives the keys of each {@code SCAN} reply; it is called by several threads at
+   * the same time
+   * @param from the checkpoint to resume from, or {@code null} to scan the whole cluster
+   * @return the checkpoint at the end of the scan, which is {@link Checkpoint#isCompleted() completed}
+   * unless the scan has been stopped
+   * @throws JedisException the first error of a primary; the other primaries are not scanned further,
+   * and {@link #checkpoint()} tells where to resume from
+   */
+  public Checkpoint run(Consumer<List<String>> consumer, Checkpoint from) {
+    Objects.requireNonNull(consumer, "consumer");
+    stopped = false;
+    cursors.clear();
+
+    Map<String, HostAndPort> primaries = getPrimaries();
+    shards = Collections.unmodifiableList(new ArrayList<>(primaries.keySet()));
+    for (String shard : shards) {
+      String cursor = from != null ? from.cursors.get(shard) : null;
+      cursors.put(shard, cursor != null ? cursor : ScanParams.SCAN_POINTER_START);
+    }
+
+    final AtomicReference<RuntimeException> error = new AtomicReference<>();
+    final int threads = Math.max(1, Math.min(parallelism, shards.size()));
+    final ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+      Thread thread = new Thread(task, "jedis-cluster-scan-" + THREAD_COUNTER.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<Future<?>> futures = new ArrayList<>(shards.size());
+      for (Map.Entry<String, HostAndPort> primary : primaries.entrySet()) {
+        futures.add(executor.submit(() -> {
+          try {
+            scan(primary.getKey(), primary.getValue(), consumer);
+          } catch (RuntimeException re) {
+            error.compareAndSet(null, re);
+            stopped = true;
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          stopped = true;
+          throw new JedisException("Interrupted during cluster scan.", ie);
+        } catch (ExecutionException ee) {
+          // errors are caught by the task
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    if (error.get() != null) {
+      throw error.get();
+    }
+    return checkpoint();
+  }
+
+  /**
+   * Make the running scan return after the current {@code SCAN} replies have been consumed.
+   */
+  public void stop() {
+    stopped = true;
+  }
+
+  /**
+   * @return the progress of the running or last scan
+   */
+  public Checkpoint checkpoint() {
+    Map<String, String> snapshot = new LinkedHashMap<>();
+    for (String shard : shards) {
+      snapshot.put(shard, cursors.get(shard));
+    }
+    return new Checkpoint(snapshot);
+  }
+
+  private void scan(String shard, HostAndPort node, Consumer<List<String>> consumer) {
+    String cursor = cursors.get(shard);
+    if (Checkpoint.COMPLETED.equals(cursor)) {
+      return;
+    }
+    try (Connection connection = provider.getConnection(node)) {
+      while (!stopped) {
+        CommandArguments args = new CommandArguments(Protocol.Command.SCAN).add(cursor).addParams(params);
+        if (type != null) {
+          args.add(Keyword.TYPE).add(type);
+        }
+        ScanResult<String> reply = connection.executeCommand(new CommandObject<>(args, BuilderFactory.SCAN_RESPONSE));
+        if (!reply.getResult().isEmpty()) {
+          consumer.accept(reply.getResult());
+        }
+        if (reply.isCompleteIteration()) {
+          cursors.put(shard, Checkpoint.COMPLETED);
+          return;
+        }
+        cursor = reply.getCursor();
+        cursors.put(shard, cursor);
+      }
+    }
+  }
+
+  /**
+   * @return the primaries, by the slot ranges they serve
+   */
+  private Map<String, HostAndPort> getPrimaries() {
+    Map<HostAndPort, StringBuilder> ranges = new LinkedHashMap<>();
+    int slot = 0;
+    while (slot < Protocol.CLUSTER_HASHSLOTS) {
+      HostAndPort node = provider.getNode(slot);
+      int end = slot;
+      while (end + 1 < Protocol.CLUSTER_HASHSLOTS && Objects.equals(node, provider.getNode(end + 1))) {
+        end++;
+      }
+      if (node != null) {
+        StringBuilder shard = ranges.computeIfAbsent(node, n -> new StringBuilder());
+        if (shard.length() > 0) {
+          shard.append(',');
+        }
+        shard.append(slot).append('-').append(end);
+      }
+      slot = end + 1;
+    }
+
+    Map<String, HostAndPort> primaries = new LinkedHashMap<>();
+    ranges.forEach((node, shard) -> primaries.put(shard.toString(), node));
+    return primaries;
+  }
+
+  /**
+   * The cursor of each primary of a cluster scan, by the slot ranges of the primary. It can be saved
+   * with {@link #toString()} and restored with {@link #parse(String)}.
+   */
+  public static final class Checkpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String COMPLETED = "done";
+
+    private static final Pattern ENTRY = Pattern.compile("\\d+-\\d+(,\\d+-\\d+)*:(\\d+|" + COMPLETED + ")");
+
+    private final Map<String, String> cursors;
+
+    private Checkpoint(Map<String, String> cursors) {
+      this.cursors = cursors;
+    }
+
+    /**
+     * @return whether all primaries have been scanned to the end
+     */
+    public boolean isCompleted() {
+      return cursors.values().stream().allMatch(COMPLETED::equals);
+    }
+
+    /**
+     * @param token a string returned by {@link #toString()}
+     * @throws IllegalArgumentException if the token is not a checkpoint
+     */
+    public static Checkpoint parse(String token) {
+      Map<String, String> cursors = new LinkedHashMap<>();
+      if (!token.isEmpty()) {
+        for (String entry : token.split(";", -1)) {
+          if (!ENTRY.matcher(entry).matches()) {
+            throw new IllegalArgumentException("Invalid cluster scan checkpoint: " + token);
+          }
+          int separator = entry.lastIndexOf(':');
+          cursors.put(entry.substring(0, separator), entry.substring(separator + 1));
+        }
+      }
+      return new Checkpoint(cursors);
+    }
+
+    /**
+     * @return the checkpoint as {@code ranges:cursor} entries separated by {@code ;}, where the cursor
+     * is {@code done} for the primaries which have been scanned to the end
+     */
+    @Override
+    public String toString() {
+      StringBuilder token = new StringBuilder();
+      cursors.forEach((shard, cursor) -> {
+        if (token.length() > 0) {
+          token.append(';');
+        }
+        token.append(shard).append(':').append(cursor);
+      });
+      return token.toString();
+    }
+  }
+}
@@ -24,6 +24,8 @@ public class CommandArguments implements Iterable<Rawable> {
 
   private boolean blocking;
 
+  private byte[] frame;
+
   private CommandArguments() {
     throw new InstantiationError();
   }
@@ -45,6 +47,7 @@ public class CommandArguments implements Iterable<Rawable> {
   }
 
   public CommandArguments add(Rawable arg) {
+    frame = null;
     args.add(arg);
     return this;
   }
@@ -74,6 +77,7 @@ public class CommandArguments implements Iterable<Rawable> {
   }
 
   public CommandArguments add(Object arg) {
+    frame = null;
     if (arg == null) {
       throw new IllegalArgumentException("null is not a valid argument.");
     } else if (arg instanceof Rawable) {
@@ -89,7 +93,7 @@ public class CommandArguments implements Iterable<Rawable> {
     } else if (arg instanceof Double) {
       args.add(RawableFactory.from((Double) arg));
     } else if (arg instanceof float[]) {
-      args.add(RawableFactory.from(RediSearchUtil.toByteArray((float[]) arg)));
+      args.add(RawableFactory.wrap(RediSearchUtil.toByteArray((float[]) arg)));
     } else if (arg instanceof String) {
       args.add(RawableFactory.from((String) arg));
     } else if (arg instanceof GeoCoordinate) {
@@ -114,6 +118,7 @@ public class CommandArguments implements Iterable<Rawable> {
   }
 
   public CommandArguments key(Object key) {
+    frame = null;
     if (keyPreProc != null) {
       key = keyPreProc.actualKey(key);
     }
@@ -205,6 +210,19 @@ public class CommandArguments implements Iterable<Rawable> {
     return keys;
   }
 
+  /**
+   * Serialize the complete RESP frame of the command, to be written as is until the arguments are
+   * modified.
+   */
+  @Experimental
+  void prepare() {
+    frame = Protocol.encode(this);
+  }
+
+  byte[] getPreparedFrame() {
+    return frame;
+  }
+
   public boolean isBlocking() {
     return blocking;
   }
@@ -4,15 +4,18 @@ import static redis.clients.jedis.util.SafeEncoder.encode;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import redis.clients.jedis.Protocol.Command;
@@ -20,6 +23,7 @@ import redis.clients.jedis.Protocol.Keyword;
 import redis.clients.jedis.annots.Experimental;
 import redis.clients.jedis.args.ClientAttributeOption;
 import redis.clients.jedis.args.Rawable;
+import redis.clients.jedis.args.RawableFactory;
 import redis.clients.jedis.commands.ProtocolCommand;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisDataException;
@@ -37,9 +41,12 @@ public class Connection implements Closeable {
   private Socket socket;
   private RedisOutputStream outputStream;
   private RedisInputStream inputStream;
+  private BulkReplyStream bulkReplyStream;
+  private BufferAllocator bufferAllocator;
   private int soTimeout = 0;
   private int infiniteSoTimeout = 0;
   private boolean broken = false;
+  private boolean askingSent = false;
   private boolean strValActive;
   private String strVal;
   protected String server;
@@ -69,6 +76,7 @@ public class Connection implements Closeable {
     this.socketFactory = socketFactory;
     this.soTimeout = clientConfig.getSocketTimeoutMillis();
     this.infiniteSoTimeout = clientConfig.getBlockingSocketTimeoutMillis();
+    this.bufferAllocator = clientConfig.getBufferAllocator();
     initializeFromClientConfig(clientConfig);
   }
 
@@ -167,21 +175,47 @@ public class Connection implements Closeable {
     final CommandArguments args = commandObject.getArguments();
     sendCommand(args);
     if (!args.isBlocking()) {
-      return commandObject.getBuilder().build(getOne());
+      return readReply(commandObject.getBuilder());
     } else {
       try {
         setTimeoutInfinite();
-        return commandObject.getBuilder().build(getOne());
+        return readReply(commandObject.getBuilder());
       } finally {
         rollbackTimeout();
       }
     }
   }
 
+  private <T> T readReply(final Builder<T> builder) {
+    if (builder instanceof StreamingBuilder) {
+      flush();
+      return readProtocolWithCheckingBroken(((StreamingBuilder<T>) builder)::read);
+    }
+    return builder.build(getOne());
+  }
+
   public void sendCommand(final ProtocolCommand cmd) {
     sendCommand(new CommandArguments(cmd));
   }
 
+  /**
+   * Send {@code ASKING}, to be flushed together with the next command. Its reply is read and discarded
+   * before the reply of the next command; if it is an error, the reply of the command tells why.
+   */
+  @Experimental
+  public void sendAsking() {
+    sendCommand(Command.ASKING);
+    askingSent = true;
+  }
+
+  /**
+   * @return whether {@code ASKING} has been sent and the next command has not been executed yet
+   */
+  @Experimental
+  protected boolean isAskingSent() {
+    return askingSent;
+  }
+
   public void sendCommand(final ProtocolCommand cmd, Rawable keyword) {
     sendCommand(new CommandArguments(cmd).add(keyword));
   }
@@ -218,6 +252,10 @@ public class Connection implements Closeable {
       // Any other exceptions related to connection?
       setBroken();
       throw ex;
+    } catch (JedisException ex) {
+      // e.g. an argument which cannot be sent again; the command may have been partly written
+      setBroken();
+      throw ex;
     }
   }
 
@@ -227,8 +265,14 @@ public class Connection implements Closeable {
         socket = socketFactory.createSocket();
         soTimeout = socket.getSoTimeout(); //?
 
-        outputStream = new RedisOutputStream(socket.getOutputStream());
-        inputStream = new RedisInputStream(socket.getInputStream());
+        if (bufferAllocator != null) {
+          outputStream = new RedisOutputStream(socket.getOutputStream(), bufferAllocator);
+          inputStream = new RedisInputStream(socket.getInputStream(), bufferAllocator);
+        } else {
+          outputStream = new RedisOutputStream(socket.getOutputStream());
+          inputStream = new RedisInputStream(socket.getInputStream());
+        }
+        bulkReplyStream = null;
 
         broken = false; // unset broken status when connection is (re)initialized
 
@@ -256,6 +300,10 @@ public class Connection implements Closeable {
     if (this.memberOf != null) {
       ConnectionPool pool = this.memberOf;
       this.memberOf = null;
+      if (askingSent) {
+        // the next command of the pool would be executed under ASKING
+        setBroken();
+      }
       if (isBroken()) {
         pool.returnBrokenResource(this);
       } else {
@@ -278,6 +326,10 @@ public class Connection implements Closeable {
         throw new JedisConnectionException(ex);
       } finally {
         IOUtils.closeQuietly(socket);
+        bulkReplyStream = null;
+        askingSent = false;
+        outputStream.releaseBuffer();
+        inputStream.releaseBuffer();
         setBroken();
       }
     }
@@ -320,6 +372,58 @@ public class Connection implements Closeable {
     return (byte[]) readProtocolWithCheckingBroken();
   }
 
+  /**
+   * Read a bulk reply straight into the buffer, without allocating a byte array for it.
+   *
+   * @return the length of the value, or -1 for a null reply
+   * @throws JedisException if the value does not fit in the remaining space of the buffer
+   */
+  @Experimental
+  public int getBulkReply(final ByteBuffer dst) {
+    flush();
+    return readProtocolWithCheckingBroken(is -> Protocol.readBulkReply(is, dst));
+  }
+
+  /**
+   * Read a bulk reply straight into the channel, without allocating a byte array for it.
+   *
+   * @return the length of the value, or -1 for a null reply
+   */
+  @Experimental
+  public long getBulkReply(final WritableByteChannel dst) {
+    flush();
+    return readProtocolWithCheckingBroken(is -> Protocol.readBulkReply(is, dst));
+  }
+
+  /**
+   * Read a bulk reply as a read-only view. Small values are not copied; the view is only valid until
+   * the next command is sent or read on this connection.
+   *
+   * @return the value, or {@code null} for a null reply
+   */
+  @Experimental
+  public ByteBuffer getBorrowedBulkReply() {
+    flush();
+    return readProtocolWithCheckingBroken(Protocol::readBorrowedBulkReply);
+  }
+
+  /**
+   * Read a bulk reply as a stream over the connection, without buffering the whole value. The
+   * stream should be read to its end or closed before the next reply is read; otherwise the rest of
+   * the value is skipped at that point.
+   *
+   * @return the value, or {@code null} for a null reply
+   */
+  @Experimental
+  public InputStream getBulkReplyStream() {
+    flush();
+    // the stream is attached while the reply is being read
+    return readProtocolWithCheckingBroken(is -> {
+      final int len = Protocol.readBulkLength(is);
+      return len == -1 ? null : new BulkReplyStream(len);
+    });
+  }
+
   public Long getIntegerReply() {
     flush();
     return (Long) readProtocolWithCheckingBroken();
@@ -383,26 +487,68 @@ public class Connection implements Closeable {
   protected void protocolReadPushes(RedisInputStream is) {
   }
 
+  /**
+   * Read a reply with a custom reader, which consumes the reply directly from the stream.
+   */
+  @Experimental
+  protected <T> T protocolRead(RedisInputStream is, Function<RedisInputStream, T> reader) {
+    return reader.apply(is);
+  }
+
   protected Object readProtocolWithCheckingBroken() {
     if (broken) {
       throw new JedisConnectionException("Attempting to read from a broken connection.");
     }
 
     try {
+      skipBulkReplyStream();
+      skipAskingReply();
       return protocolRead(inputStream);
     } catch (JedisConnectionException exc) {
       broken = true;
       throw exc;
+    } finally {
+      inputStream.releaseBufferIfDrained();
     }
   }
 
+  @Experimental
+  protected <T> T readProtocolWithCheckingBroken(Function<RedisInputStream, T> reader) {
+    if (broken) {
+      throw new JedisConnectionException("Attempting to read from a broken connection.");
+    }
+
+    try {
+      skipBulkReplyStream();
+      skipAskingReply();
+      final T reply = protocolRead(inputStream, reader);
+      // the connection can still be used, since the whole reply has been read
+      final JedisDataException error = inputStream.takeElementError();
+      if (error != null) {
+        throw error;
+      }
+      return reply;
+    } catch (JedisConnectionException exc) {
+      broken = true;
+      throw exc;
+    } finally {
+      inputStream.releaseBufferIfDrained();
+    }
+  }
+
+  /**
+   * Read the messages pushed by the server which have already been received. This may be called by
+   * other threads than the one which uses the connection, so neither a value which is being streamed
+   * is skipped nor the input buffer is given back.
+   */
   protected void readPushesWithCheckingBroken() {
     if (broken) {
       throw new JedisConnectionException("Attempting to read from a broken connection.");
     }
 
     try {
-      if (inputStream.available() > 0) {
+      // the pushed messages come after the value which is being streamed, if any
+      if (bulkReplyStream == null && inputStream.available() > 0) {
         protocolReadPushes(inputStream);
       }
     } catch (IOException e) {
@@ -414,6 +560,114 @@ public class Connection implements Closeable {
     }
   }
 
+  private void skipAskingReply() {
+    if (askingSent) {
+      askingSent = false;
+      try {
+        protocolRead(inputStream);
+      } catch (JedisDataException e) {
+        // not in a cluster, or not importing the slot anymore
+      }
+    }
+  }
+
+  private void skipBulkReplyStream() {
+    if (bulkReplyStream != null) {
+      bulkReplyStream.close();
+    }
+  }
+
+  /**
+   * Value of a bulk reply, read straight from the input stream of the connection.
+   */
+  private final class BulkReplyStream extends InputStream {
+
+    private long remaining;
+
+    BulkReplyStream(int length) {
+      this.remaining = length;
+      bulkReplyStream = this;
+      if (length == 0) {
+        consumed(0);
+      }
+    }
+
+    @Override
+    public int read() {
+      if (remaining == 0) {
+        return -1;
+      }
+      ensureAttached();
+      try {
+        final int b = inputStream.readByte() & 0xff;
+        consumed(1);
+        return b;
+      } catch (JedisConnectionException jce) {
+        setBroken();
+        throw jce;
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (remaining == 0) {
+        return -1;
+      }
+      ensureAttached();
+      try {
+        final int read = inputStream.read(b, off, (int) Math.min(len, remaining));
+        consumed(read);
+        return read;
+      } catch (JedisConnectionException jce) {
+        setBroken();
+        throw jce;
+      }
+    }
+
+    @Override
+    public long skip(long n) {
+      if (n <= 0 || remaining == 0) {
+        return 0;
+      }
+      ensureAttached();
+      try {
+        final long skipped = inputStream.skip(Math.min(n, remaining));
+        consumed(skipped);
+        return skipped;
+      } catch (JedisConnectionException jce) {
+        setBroken();
+        throw jce;
+      }
+    }
+
+    /**
+     * Skip the rest of the value, so that the connection can be used for the next reply.
+     */
+    @Override
+    public void close() {
+      skip(remaining);
+    }
+
+    private void ensureAttached() {
+      if (bulkReplyStream != this) {
+        throw new JedisConnectionException("The connection of the stream has been closed.");
+      }
+    }
+
+    private void consumed(long n) {
+      remaining -= n;
+      if (remaining == 0) {
+        // read 2 more bytes for the command delimiter
+        inputStream.readByte();
+        inputStream.readByte();
+        bulkReplyStream = null;
+      }
+    }
+  }
+
   public List<Object> getMany(final int count) {
     flush();
     final List<Object> responses = new ArrayList<>(count);
@@ -445,7 +699,12 @@ public class Connection implements Closeable {
     return true;
   }
 
+  /**
+   * All the commands of the handshake are sent in one write and their replies are read at once, so
+   * that a new connection is ready after a single round trip.
+   */
   protected void initializeFromClientConfig(final JedisClientConfig config) {
+    final List<HandshakeCommand> handshake = new ArrayList<>();
     try {
       connect();
 
@@ -456,20 +715,18 @@ public class Connection implements Closeable {
         final RedisCredentialsProvider redisCredentialsProvider = (RedisCredentialsProvider) credentialsProvider;
         try {
           redisCredentialsProvider.prepare();
-          helloAndAuth(protocol, redisCredentialsProvider.get());
+          helloAndAuth(handshake, protocol, redisCredentialsProvider.get());
         } finally {
           redisCredentialsProvider.cleanUp();
         }
       } else {
-        helloAndAuth(protocol, credentialsProvider != null ? credentialsProvider.get()
+        helloAndAuth(handshake, protocol, credentialsProvider != null ? credentialsProvider.get()
             : new DefaultRedisCredentials(config.getUser(), config.getPassword()));
       }
 
-      List<CommandArguments> fireAndForgetMsg = new ArrayList<>();
-
       String clientName = config.getClientName();
       if (clientName != null && validateClientInfo(clientName)) {
-        fireAndForgetMsg.add(new CommandArguments(Command.CLIENT).add(Keyword.SETNAME).add(clientName));
+        handshake.add(HandshakeCommand.optional(new CommandArguments(Command.CLIENT).add(Keyword.SETNAME).add(clientName)));
       }
 
       ClientSetInfoConfig setInfoConfig = config.getClientSetInfoConfig();
@@ -484,32 +741,31 @@ public class Connection implements Closeable {
           if (libNameSuffix != null) { // validation is moved into ClientSetInfoConfig constructor
             libName = libName + '(' + libNameSuffix + ')';
           }
-          fireAndForgetMsg.add(new CommandArguments(Command.CLIENT).add(Keyword.SETINFO)
-              .add(ClientAttributeOption.LIB_NAME.getRaw()).add(libName));
+          handshake.add(HandshakeCommand.optional(new CommandArguments(Command.CLIENT).add(Keyword.SETINFO)
+              .add(ClientAttributeOption.LIB_NAME.getRaw()).add(libName)));
         }
 
         String libVersion = JedisMetaInfo.getVersion();
         if (libVersion != null && validateClientInfo(libVersion)) {
-          fireAndForgetMsg.add(new CommandArguments(Command.CLIENT).add(Keyword.SETINFO)
-              .add(ClientAttributeOption.LIB_VER.getRaw()).add(libVersion));
+          handshake.add(HandshakeCommand.optional(new CommandArguments(Command.CLIENT).add(Keyword.SETINFO)
+              .add(ClientAttributeOption.LIB_VER.getRaw()).add(libVersion)));
         }
       }
 
       // set READONLY flag to ALL connections (including master nodes) when enable read from replica
       if (config.isReadOnlyForRedisClusterReplicas()) {
-        fireAndForgetMsg.add(new CommandArguments(Command.READONLY));
+        handshake.add(HandshakeCommand.optional(new CommandArguments(Command.READONLY)));
       }
 
-      for (CommandArguments arg : fireAndForgetMsg) {
-        sendCommand(arg);
-      }
-      getMany(fireAndForgetMsg.size());
-
       int dbIndex = config.getDatabase();
       if (dbIndex > 0) {
-        select(dbIndex);
+        handshake.add(HandshakeCommand.required(new CommandArguments(Command.SELECT).add(dbIndex)));
       }
 
+      prepareHandshake(config, handshake);
+
+      executeHandshake(handshake);
+
     } catch (JedisException je) {
       try {
         disconnect();
@@ -517,46 +773,159 @@ public class Connection implements Closeable {
         // the first exception 'je' will be thrown
       }
       throw je;
+    } finally {
+      for (HandshakeCommand command : handshake) {
+        command.clearSecret();
+      }
     }
   }
 
-  private void helloAndAuth(final RedisProtocol protocol, final RedisCredentials credentials) {
-    Map<String, Object> helloResult = null;
-    if (protocol != null && credentials != null && credentials.getUser() != null) {
-      byte[] rawPass = encodeToBytes(credentials.getPassword());
+  /**
+   * Add commands to the handshake of the connection. They are sent after the ones built from the
+   * {@link JedisClientConfig}, in the same round trip.
+   */
+  @Experimental
+  protected void prepareHandshake(final JedisClientConfig config, final List<HandshakeCommand> handshake) {
+  }
+
+  /**
+   * Send the commands of the handshake in one write and read their replies, see
+   * {@link #completeHandshake(List, List)}.
+   */
+  @Experimental
+  protected void executeHandshake(final List<HandshakeCommand> handshake) {
+    if (handshake.isEmpty()) {
+      return;
+    }
+    for (HandshakeCommand command : handshake) {
+      sendCommand(command.args);
+      command.clearSecret();
+    }
+    flush();
+    final List<Object> replies = new ArrayList<>(handshake.size());
+    for (int i = 0; i < handshake.size(); i++) {
       try {
-        helloResult = hello(encode(protocol.version()), Keyword.AUTH.getRaw(), encode(credentials.getUser()), rawPass);
-      } finally {
-        Arrays.fill(rawPass, (byte) 0); // clear sensitive data
+        replies.add(readProtocolWithCheckingBroken());
+      } catch (JedisDataException e) {
+        replies.add(e);
       }
-    } else {
-      auth(credentials);
-      helloResult = protocol == null ? null : hello(encode(protocol.version()));
     }
-    if (helloResult != null) {
-      server = (String) helloResult.get("server");
-      version = (String) helloResult.get("version");
+    completeHandshake(handshake, replies);
+  }
+
+  /**
+   * Apply the replies of the handshake, in the order of its commands; an error reply is given as a
+   * {@link JedisDataException}.
+   *
+   * @throws JedisDataException the error of the first required command which failed
+   */
+  @Experimental
+  protected final void completeHandshake(final List<HandshakeCommand> handshake, final List<Object> replies) {
+    for (int i = 0; i < handshake.size(); i++) {
+      handshake.get(i).reply = replies.get(i);
+    }
+
+    // the error of the first failed command is thrown, not the ones it caused (e.g. NOAUTH)
+    for (HandshakeCommand command : handshake) {
+      if (command.required && command.reply instanceof JedisDataException) {
+        throw (JedisDataException) command.reply;
+      }
+      if (command.hello) {
+        Map<String, Object> helloResult = BuilderFactory.ENCODED_OBJECT_MAP.build(command.reply);
+        server = (String) helloResult.get("server");
+        version = (String) helloResult.get("version");
+      }
+    }
+  }
+
+  private void helloAndAuth(final List<HandshakeCommand> handshake, final RedisProtocol protocol,
+      final RedisCredentials credentials) {
+    if (protocol != null && credentials != null && credentials.getUser() != null) {
+      byte[] rawPass = encodeToBytes(credentials.getPassword());
+      handshake.add(HandshakeCommand.hello(new CommandArguments(Command.HELLO).add(encode(protocol.version()))
+          .add(Keyword.AUTH).add(encode(credentials.getUser())).add(RawableFactory.wrap(rawPass)), rawPass));
+    } else {
+      auth(handshake, credentials);
+      if (protocol != null) {
+        handshake.add(HandshakeCommand.hello(new CommandArguments(Command.HELLO).add(encode(protocol.version())), null));
+      }
     }
 
     // clearing 'char[] credentials.getPassword()' should be
     // handled in RedisCredentialsProvider.cleanUp()
   }
 
-  private void auth(RedisCredentials credentials) {
+  private void auth(final List<HandshakeCommand> handshake, final RedisCredentials credentials) {
     if (credentials == null || credentials.getPassword() == null) {
       return;
     }
     byte[] rawPass = encodeToBytes(credentials.getPassword());
-    try {
-      if (credentials.getUser() == null) {
-        sendCommand(Command.AUTH, rawPass);
-      } else {
-        sendCommand(Command.AUTH, encode(credentials.getUser()), rawPass);
+    CommandArguments args = new CommandArguments(Command.AUTH);
+    if (credentials.getUser() != null) {
+      args.add(encode(credentials.getUser()));
+    }
+    handshake.add(HandshakeCommand.required(args.add(RawableFactory.wrap(rawPass)), rawPass));
+  }
+
+  /**
+   * A command of the connection handshake, with its reply once the handshake is executed.
+   */
+  @Experimental
+  protected static final class HandshakeCommand {
+
+    private final CommandArguments args;
+    private final boolean required;
+    private final boolean hello;
+    private byte[] secret;
+    private Object reply;
+
+    private HandshakeCommand(CommandArguments args, boolean required, boolean hello, byte[] secret) {
+      this.args = args;
+      this.required = required;
+      this.hello = hello;
+      this.secret = secret;
+    }
+
+    /**
+     * An error reply to this command fails the handshake.
+     */
+    public static HandshakeCommand required(CommandArguments args) {
+      return new HandshakeCommand(args, true, false, null);
+    }
+
+    /**
+     * An error reply to this command is only available through {@link #getReply()}.
+     */
+    public static HandshakeCommand optional(CommandArguments args) {
+      return new HandshakeCommand(args, false, false, null);
+    }
+
+    private static HandshakeCommand required(CommandArguments args, byte[] secret) {
+      return new HandshakeCommand(args, true, false, secret);
+    }
+
+    private static HandshakeCommand hello(CommandArguments args, byte[] secret) {
+      return new HandshakeCommand(args, true, true, secret);
+    }
+
+    public CommandArguments getArguments() {
+      return args;
+    }
+
+    /**
+     * @return the reply, a {@link JedisDataException} if the command failed, or {@code null} if the
+     * handshake has not been executed
+     */
+    public Object getReply() {
+      return reply;
+    }
+
+    private void clearSecret() {
+      if (secret != null) {
+        Arrays.fill(secret, (byte) 0); // clear sensitive data
+        secret = null;
       }
-    } finally {
-      Arrays.fill(rawPass, (byte) 0); // clear sensitive data
     }
-    getStatusCodeReply();
   }
 
   protected Map<String, Object> hello(byte[]... args) {
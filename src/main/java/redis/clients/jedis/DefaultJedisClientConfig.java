@@ -5,6 +5,8 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSocketFactory;
 
+import redis.clients.jedis.annots.Experimental;
+
 public final class DefaultJedisClientConfig implements JedisClientConfig {
 
   private final RedisProtocol redisProtocol;
@@ -28,11 +30,14 @@ public final class DefaultJedisClientConfig implements JedisClientConfig {
 
   private final boolean readOnlyForRedisClusterReplicas;
 
+  private final BufferAllocator bufferAllocator;
+
   private DefaultJedisClientConfig(RedisProtocol protocol, int connectionTimeoutMillis, int soTimeoutMillis,
       int blockingSocketTimeoutMillis, Supplier<RedisCredentials> credentialsProvider, int database,
       String clientName, boolean ssl, SSLSocketFactory sslSocketFactory, SSLParameters sslParameters,
       HostnameVerifier hostnameVerifier, HostAndPortMapper hostAndPortMapper,
-      ClientSetInfoConfig clientSetInfoConfig, boolean readOnlyForRedisClusterReplicas) {
+      ClientSetInfoConfig clientSetInfoConfig, boolean readOnlyForRedisClusterReplicas,
+      BufferAllocator bufferAllocator) {
     this.redisProtocol = protocol;
     this.connectionTimeoutMillis = connectionTimeoutMillis;
     this.socketTimeoutMillis = soTimeoutMillis;
@@ -47,6 +52,7 @@ public final class DefaultJedisClientConfig implements JedisClientConfig {
     this.hostAndPortMapper = hostAndPortMapper;
     this.clientSetInfoConfig = clientSetInfoConfig;
     this.readOnlyForRedisClusterReplicas = readOnlyForRedisClusterReplicas;
+    this.bufferAllocator = bufferAllocator;
   }
 
   @Override
@@ -130,6 +136,11 @@ public final class DefaultJedisClientConfig implements JedisClientConfig {
     return readOnlyForRedisClusterReplicas;
   }
 
+  @Override
+  public BufferAllocator getBufferAllocator() {
+    return bufferAllocator;
+  }
+
   public static Builder builder() {
     return new Builder();
   }
@@ -159,6 +170,8 @@ public final class DefaultJedisClientConfig implements JedisClientConfig {
 
     private boolean readOnlyForRedisClusterReplicas = false;
 
+    private BufferAllocator bufferAllocator = null;
+
     private Builder() {
     }
 
@@ -171,7 +184,7 @@ public final class DefaultJedisClientConfig implements JedisClientConfig {
       return new DefaultJedisClientConfig(redisProtocol, connectionTimeoutMillis, socketTimeoutMillis,
           blockingSocketTimeoutMillis, credentialsProvider, database, clientName, ssl,
           sslSocketFactory, sslParameters, hostnameVerifier, hostAndPortMapper, clientSetInfoConfig,
-          readOnlyForRedisClusterReplicas);
+          readOnlyForRedisClusterReplicas, bufferAllocator);
     }
 
     /**
@@ -272,6 +285,16 @@ public final class DefaultJedisClientConfig implements JedisClientConfig {
       this.readOnlyForRedisClusterReplicas = true;
       return this;
     }
+
+    /**
+     * Lease the I/O buffers of the connections from the allocator, only while commands are in flight.
+     * @see PooledBufferAllocator#shared()
+     */
+    @Experimental
+    public Builder bufferAllocator(BufferAllocator bufferAllocator) {
+      this.bufferAllocator = bufferAllocator;
+      return this;
+    }
   }
 
   public static DefaultJedisClientConfig create(int connectionTimeoutMillis, int soTimeoutMillis,
@@ -282,7 +305,7 @@ public final class DefaultJedisClientConfig implements JedisClientConfig {
         connectionTimeoutMillis, soTimeoutMillis, blockingSocketTimeoutMillis,
         new DefaultRedisCredentialsProvider(new DefaultRedisCredentials(user, password)), database,
         clientName, ssl, sslSocketFactory, sslParameters, hostnameVerifier, hostAndPortMapper, null,
-        false);
+        false, null);
   }
 
   public static DefaultJedisClientConfig copyConfig(JedisClientConfig copy) {
@@ -291,6 +314,7 @@ public final class DefaultJedisClientConfig implements JedisClientConfig {
         copy.getBlockingSocketTimeoutMillis(), copy.getCredentialsProvider(),
         copy.getDatabase(), copy.getClientName(), copy.isSsl(), copy.getSslSocketFactory(),
         copy.getSslParameters(), copy.getHostnameVerifier(), copy.getHostAndPortMapper(),
-        copy.getClientSetInfoConfig(), copy.isReadOnlyForRedisClusterReplicas());
+        copy.getClientSetInfoConfig(), copy.isReadOnlyForRedisClusterReplicas(),
+        copy.getBufferAllocator());
   }
 }
@@ -7,7 +7,10 @@ import static redis.clients.jedis.Protocol.toByteArray;
 import static redis.clients.jedis.util.SafeEncoder.encode;
 
 import java.io.Closeable;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +24,7 @@ import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSocketFactory;
 
 import redis.clients.jedis.Protocol.*;
+import redis.clients.jedis.annots.Experimental;
 import redis.clients.jedis.args.*;
 import redis.clients.jedis.commands.*;
 import redis.clients.jedis.exceptions.InvalidURIException;
@@ -338,6 +342,24 @@ public class Jedis implements ServerCommands, DatabaseCommands, JedisCommands, J
     }
   }
 
+  private int readBulkReply(final CommandObject<byte[]> commandObject, final ByteBuffer dst) {
+    checkIsInMultiOrPipeline();
+    connection.sendCommand(commandObject.getArguments());
+    return connection.getBulkReply(dst);
+  }
+
+  private long readBulkReply(final CommandObject<byte[]> commandObject, final WritableByteChannel dst) {
+    checkIsInMultiOrPipeline();
+    connection.sendCommand(commandObject.getArguments());
+    return connection.getBulkReply(dst);
+  }
+
+  private ByteBuffer readBorrowedBulkReply(final CommandObject<byte[]> commandObject) {
+    checkIsInMultiOrPipeline();
+    connection.sendCommand(commandObject.getArguments());
+    return connection.getBorrowedBulkReply();
+  }
+
   public int getDB() {
     return this.db;
   }
@@ -505,6 +527,56 @@ public class Jedis implements ServerCommands, DatabaseCommands, JedisCommands, J
     return connection.executeCommand(commandObjects.get(key));
   }
 
+  /**
+   * Same as {@link #get(byte[])}, but the value is written straight into the buffer instead of a
+   * newly allocated byte array.
+   * @param key
+   * @param dst heap or direct buffer with enough remaining space for the value
+   * @return the length of the value, or -1 if the key does not exist
+   * @throws JedisException if the value does not fit in the buffer; nothing is written in that case
+   */
+  @Experimental
+  public int get(final byte[] key, final ByteBuffer dst) {
+    return readBulkReply(commandObjects.get(key), dst);
+  }
+
+  /**
+   * Same as {@link #get(byte[])}, but the value is written straight into the channel instead of a
+   * newly allocated byte array.
+   * @param key
+   * @param dst
+   * @return the length of the value, or -1 if the key does not exist
+   */
+  @Experimental
+  public long get(final byte[] key, final WritableByteChannel dst) {
+    return readBulkReply(commandObjects.get(key), dst);
+  }
+
+  /**
+   * Same as {@link #get(byte[])}, but the value is returned as a read-only view over the input
+   * buffer of the connection whenever it fits there. The view is only valid until the next command.
+   * @param key
+   * @return the value, or {@code null} if the key does not exist
+   */
+  @Experimental
+  public ByteBuffer getBorrowed(final byte[] key) {
+    return readBorrowedBulkReply(commandObjects.get(key));
+  }
+
+  /**
+   * Same as {@link #get(byte[])}, but the value is streamed from the connection instead of being
+   * buffered in a byte array. The stream should be read to its end or closed before the next
+   * command; otherwise the rest of the value is skipped at that point.
+   * @param key
+   * @return the value, or {@code null} if the key does not exist
+   */
+  @Experimental
+  public InputStream getStream(final byte[] key) {
+    checkIsInMultiOrPipeline();
+    connection.sendCommand(commandObjects.get(key).getArguments());
+    return connection.getBulkReplyStream();
+  }
+
   @Override
   public byte[] setGet(final byte[] key, final byte[] value) {
     checkIsInMultiOrPipeline();
@@ -1183,6 +1255,33 @@ public class Jedis implements ServerCommands, DatabaseCommands, JedisCommands, J
     return connection.executeCommand(commandObjects.hget(key, field));
   }
 
+  /**
+   * Same as {@link #hget(byte[], byte[])}, but the value is written straight into the buffer.
+   * @see #get(byte[], ByteBuffer)
+   */
+  @Experimental
+  public int hget(final byte[] key, final byte[] field, final ByteBuffer dst) {
+    return readBulkReply(commandObjects.hget(key, field), dst);
+  }
+
+  /**
+   * Same as {@link #hget(byte[], byte[])}, but the value is written straight into the channel.
+   * @see #get(byte[], WritableByteChannel)
+   */
+  @Experimental
+  public long hget(final byte[] key, final byte[] field, final WritableByteChannel dst) {
+    return readBulkReply(commandObjects.hget(key, field), dst);
+  }
+
+  /**
+   * Same as {@link #hget(byte[], byte[])}, but the value is returned as a borrowed read-only view.
+   * @see #getBorrowed(byte[])
+   */
+  @Experimental
+  public ByteBuffer hgetBorrowed(final byte[] key, final byte[] field) {
+    return readBorrowedBulkReply(commandObjects.hget(key, field));
+  }
+
   /**
    * Set the specified hash field to the specified value if the field not exists. <b>Time
    * complexity:</b> O(1)
@@ -3796,6 +3895,35 @@ public class Jedis implements ServerCommands, DatabaseCommands, JedisCommands, J
     return connection.executeCommand(commandObjects.getrange(key, startOffset, endOffset));
   }
 
+  /**
+   * Same as {@link #getrange(byte[], long, long)}, but the range is written straight into the buffer.
+   * @see #get(byte[], ByteBuffer)
+   */
+  @Experimental
+  public int getrange(final byte[] key, final long startOffset, final long endOffset, final ByteBuffer dst) {
+    return readBulkReply(commandObjects.getrange(key, startOffset, endOffset), dst);
+  }
+
+  /**
+   * Same as {@link #getrange(byte[], long, long)}, but the range is written straight into the channel.
+   * @see #get(byte[], WritableByteChannel)
+   */
+  @Experimental
+  public long getrange(final byte[] key, final long startOffset, final long endOffset,
+      final WritableByteChannel dst) {
+    return readBulkReply(commandObjects.getrange(key, startOffset, endOffset), dst);
+  }
+
+  /**
+   * Same as {@link #getrange(byte[], long, long)}, but the range is returned as a borrowed read-only
+   * view.
+   * @see #getBorrowed(byte[])
+   */
+  @Experimental
+  public ByteBuffer getrangeBorrowed(final byte[] key, final long startOffset, final long endOffset) {
+    return readBorrowedBulkReply(commandObjects.getrange(key, startOffset, endOffset));
+  }
+
   public long publish(final byte[] channel, final byte[] message) {
     checkIsInMultiOrPipeline();
     return connection.executeCommand(commandObjects.publish(channel, message));
@@ -5,6 +5,8 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSocketFactory;
 
+import redis.clients.jedis.annots.Experimental;
+
 public interface JedisClientConfig {
 
   default RedisProtocol getRedisProtocol() {
@@ -98,4 +100,14 @@ public interface JedisClientConfig {
   default ClientSetInfoConfig getClientSetInfoConfig() {
     return ClientSetInfoConfig.DEFAULT;
   }
+
+  /**
+   * Source of the I/O buffers of the connections. If {@code null} (the default), each connection
+   * allocates its buffers once and keeps them for its lifetime.
+   * @return buffer allocator
+   */
+  @Experimental
+  default BufferAllocator getBufferAllocator() {
+    return null;
+  }
 }
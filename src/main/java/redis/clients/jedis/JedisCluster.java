@@ -1,9 +1,14 @@
 package redis.clients.jedis;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
@@ -13,6 +18,7 @@ import redis.clients.jedis.providers.ClusterConnectionProvider;
 import redis.clients.jedis.csc.Cache;
 import redis.clients.jedis.csc.CacheConfig;
 import redis.clients.jedis.csc.CacheFactory;
+import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.util.JedisClusterCRC16;
 
 public class JedisCluster extends UnifiedJedis {
@@ -372,11 +378,176 @@ public class JedisCluster extends UnifiedJedis {
       jedisPubSub.proceed(connection, channels);
     }
   }
+
+  /*
+   * Multi-key commands with keys of different slots are split into one command per slot; see
+   * ClusterCommandExecutor#executeCommands. Each of these commands is atomic on its own, but they are
+   * not atomic as a whole.
+   */
+
+  @Override
+  public long exists(String... keys) {
+    Long count = scatterCount(keys, String[]::new, commandObjects::exists);
+    return count != null ? count : super.exists(keys);
+  }
+
+  @Override
+  public long exists(byte[]... keys) {
+    Long count = scatterCount(keys, byte[][]::new, commandObjects::exists);
+    return count != null ? count : super.exists(keys);
+  }
+
+  @Override
+  public long touch(String... keys) {
+    Long count = scatterCount(keys, String[]::new, commandObjects::touch);
+    return count != null ? count : super.touch(keys);
+  }
+
+  @Override
+  public long touch(byte[]... keys) {
+    Long count = scatterCount(keys, byte[][]::new, commandObjects::touch);
+    return count != null ? count : super.touch(keys);
+  }
+
+  @Override
+  public long del(String... keys) {
+    Long count = scatterCount(keys, String[]::new, commandObjects::del);
+    return count != null ? count : super.del(keys);
+  }
+
+  @Override
+  public long del(byte[]... keys) {
+    Long count = scatterCount(keys, byte[][]::new, commandObjects::del);
+    return count != null ? count : super.del(keys);
+  }
+
+  @Override
+  public long unlink(String... keys) {
+    Long count = scatterCount(keys, String[]::new, commandObjects::unlink);
+    return count != null ? count : super.unlink(keys);
+  }
+
+  @Override
+  public long unlink(byte[]... keys) {
+    Long count = scatterCount(keys, byte[][]::new, commandObjects::unlink);
+    return count != null ? count : super.unlink(keys);
+  }
+
+  @Override
+  public List<String> mget(String... keys) {
+    List<String> values = scatterValues(keys, String[]::new, commandObjects::mget);
+    return values != null ? values : super.mget(keys);
+  }
+
+  @Override
+  public List<byte[]> mget(byte[]... keys) {
+    List<byte[]> values = scatterValues(keys, byte[][]::new, commandObjects::mget);
+    return values != null ? values : super.mget(keys);
+  }
+
+  @Override
+  public String mset(String... keysvalues) {
+    String status = scatterStatus(keysvalues, String[]::new, commandObjects::mset);
+    return status != null ? status : super.mset(keysvalues);
+  }
+
+  @Override
+  public String mset(byte[]... keysvalues) {
+    String status = scatterStatus(keysvalues, byte[][]::new, commandObjects::mset);
+    return status != null ? status : super.mset(keysvalues);
+  }
+
+  /**
+   * @param step 1 for keys, 2 for key-value pairs
+   * @return indexes of the keys per slot, or {@code null} if all keys belong to the same slot or the
+   * commands cannot be split
+   */
+  private Map<Integer, List<Integer>> groupBySlot(Object[] keys, int step) {
+    if (keys.length <= step || !(executor instanceof ClusterCommandExecutor)) {
+      return null;
+    }
+    final ClusterCommandObjects clusterCommandObjects = (ClusterCommandObjects) commandObjects;
+    final Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < keys.length; i += step) {
+      groups.computeIfAbsent(clusterCommandObjects.getKeySlot(keys[i]), slot -> new ArrayList<>()).add(i);
+    }
+    return groups.size() > 1 ? groups : null;
+  }
+
+  private <K, T> List<T> scatter(K[] args, int step, Map<Integer, List<Integer>> groups,
+      IntFunction<K[]> arrayFactory, Function<K[], CommandObject<T>> command) {
+    final List<CommandObject<T>> commands = new ArrayList<>(groups.size());
+    for (List<Integer> group : groups.values()) {
+      final K[] part = arrayFactory.apply(group.size() * step);
+      int p = 0;
+      for (Integer index : group) {
+        for (int j = 0; j < step; j++) {
+          part[p++] = args[index + j];
+        }
+      }
+      commands.add(command.apply(part));
+    }
+    return ((ClusterCommandExecutor) executor).executeCommands(commands);
+  }
+
+  private <K> Long scatterCount(K[] keys, IntFunction<K[]> arrayFactory,
+      Function<K[], CommandObject<Long>> command) {
+    final Map<Integer, List<Integer>> groups = groupBySlot(keys, 1);
+    if (groups == null) {
+      return null;
+    }
+    long count = 0;
+    for (Long part : scatter(keys, 1, groups, arrayFactory, command)) {
+      count += part;
+    }
+    return count;
+  }
+
+  private <K, V> List<V> scatterValues(K[] keys, IntFunction<K[]> arrayFactory,
+      Function<K[], CommandObject<List<V>>> command) {
+    final Map<Integer, List<Integer>> groups = groupBySlot(keys, 1);
+    if (groups == null) {
+      return null;
+    }
+    final List<List<V>> parts = scatter(keys, 1, groups, arrayFactory, command);
+    final List<V> values = new ArrayList<>(Collections.nCopies(keys.length, null));
+    int g = 0;
+    for (List<Integer> group : groups.values()) {
+      final List<V> part = parts.get(g++);
+      for (int i = 0; i < group.size(); i++) {
+        values.set(group.get(i), part.get(i));
+      }
+    }
+    return values;
+  }
+
+  private <K> String scatterStatus(K[] keysvalues, IntFunction<K[]> arrayFactory,
+      Function<K[], CommandObject<String>> command) {
+    if (keysvalues.length % 2 != 0) {
+      return null; // let the server reply with the error
+    }
+    final Map<Integer, List<Integer>> groups = groupBySlot(keysvalues, 2);
+    if (groups == null) {
+      return null;
+    }
+    String status = null;
+    for (String part : scatter(keysvalues, 2, groups, arrayFactory, command)) {
+      if (status == null || !"OK".equals(part)) {
+        status = part;
+      }
+    }
+    return status;
+  }
   // commands
 
   @Override
   public ClusterPipeline pipelined() {
-    return new ClusterPipeline((ClusterConnectionProvider) provider, (ClusterCommandObjects) commandObjects);
+    ClusterPipeline pipeline = new ClusterPipeline((ClusterConnectionProvider) provider,
+        (ClusterCommandObjects) commandObjects);
+    if (executor instanceof ClusterCommandExecutor) {
+      pipeline.setSyncExecutor(((ClusterCommandExecutor) executor).getMultiNodeExecutor());
+    }
+    return pipeline;
   }
 
   /**
@@ -389,6 +560,24 @@ public class JedisCluster extends UnifiedJedis {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * @return a scan of the keys of all the primaries, which runs on several primaries at a time and can
+   * be resumed from a checkpoint
+   */
+  @Experimental
+  public ClusterScan clusterScan(ScanParams params) {
+    return new ClusterScan((ClusterConnectionProvider) provider, params);
+  }
+
+  /**
+   * @return a scan of the keys of the given type of all the primaries
+   * @see #clusterScan(ScanParams)
+   */
+  @Experimental
+  public ClusterScan clusterScan(ScanParams params, String type) {
+    return new ClusterScan((ClusterConnectionProvider) provider, params, type);
+  }
+
   public final <T> T executeCommandToReplica(CommandObject<T> commandObject) {
     if (!(executor instanceof ClusterCommandExecutor)) {
       throw new UnsupportedOperationException("Support only execute to replica in ClusterCommandExecutor");
@@ -2,7 +2,7 @@ package redis.clients.jedis;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -13,8 +13,10 @@ import java.util.Map.Entry;
 import java.util.Set;
 
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -25,9 +27,16 @@ import org.slf4j.LoggerFactory;
 
 import redis.clients.jedis.annots.Experimental;
 import redis.clients.jedis.annots.Internal;
+import redis.clients.jedis.args.Rawable;
 import redis.clients.jedis.csc.Cache;
+import redis.clients.jedis.csc.CacheEntry;
+import redis.clients.jedis.csc.CacheKey;
 import redis.clients.jedis.exceptions.JedisClusterOperationException;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.resps.ClusterShardInfo;
+import redis.clients.jedis.resps.ClusterShardNodeInfo;
+import redis.clients.jedis.util.JedisClusterCRC16;
 import redis.clients.jedis.util.SafeEncoder;
 
 import static redis.clients.jedis.JedisCluster.INIT_NO_ERROR_PROPERTY;
@@ -38,9 +47,12 @@ public class JedisClusterInfoCache {
   private static final Logger logger = LoggerFactory.getLogger(JedisClusterInfoCache.class);
 
   private final Map<String, ConnectionPool> nodes = new HashMap<>();
-  private final ConnectionPool[] slots = new ConnectionPool[Protocol.CLUSTER_HASHSLOTS];
-  private final HostAndPort[] slotNodes = new HostAndPort[Protocol.CLUSTER_HASHSLOTS];
-  private final List<ConnectionPool>[] replicaSlots;
+
+  /**
+   * The slot routing table. It is never modified once published, so that routing a command is a plain
+   * array load; changes are made on a copy, under the write lock, which then replaces it.
+   */
+  private volatile SlotTable slotTable;
 
   private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
   private final Lock r = rwl.readLock();
@@ -54,11 +66,24 @@ public class JedisClusterInfoCache {
 
   private static final int MASTER_NODE_INDEX = 2;
 
+  private static final String NODE_ROLE_PRIMARY = "master";
+  private static final String NODE_HEALTH_ONLINE = "online";
+
+  /**
+   * Delay of a refresh requested by {@link #renewClusterSlotsInBackground()}. The requests made in the
+   * meantime are served by the same refresh.
+   */
+  private static final long BACKGROUND_REFRESH_DELAY_MILLIS = 100;
+
   /**
    * The single thread executor for the topology refresh task.
    */
   private ScheduledExecutorService topologyRefreshExecutor = null;
 
+  private final AtomicBoolean backgroundRefreshPending = new AtomicBoolean();
+  private volatile boolean clusterShardsSupported = true;
+  private boolean closed = false;
+
   class TopologyRefreshTask implements Runnable {
     @Override
     public void run() {
@@ -109,75 +134,48 @@ public class JedisClusterInfoCache {
       topologyRefreshExecutor.scheduleWithFixedDelay(new TopologyRefreshTask(), topologyRefreshPeriod.toMillis(),
           topologyRefreshPeriod.toMillis(), TimeUnit.MILLISECONDS);
     }
-    if (clientConfig.isReadOnlyForRedisClusterReplicas()) {
-      replicaSlots = new ArrayList[Protocol.CLUSTER_HASHSLOTS];
-    } else {
-      replicaSlots = null;
-    }
+    this.slotTable = new SlotTable(clientConfig.isReadOnlyForRedisClusterReplicas());
   }
 
   /**
-   * Check whether the number and order of slots in the cluster topology are equal to CLUSTER_HASHSLOTS
-   * @param slotsInfo the cluster topology
+   * Check whether the slots in the cluster topology cover each of the CLUSTER_HASHSLOTS slots once
+   * @param shards the cluster topology
    * @return if slots is ok, return true, elese return false.
    */
-  private boolean checkClusterSlotSequence(List<Object> slotsInfo) {
-    List<Integer> slots = new ArrayList<>();
-    for (Object slotInfoObj : slotsInfo) {
-      List<Object> slotInfo = (List<Object>)slotInfoObj;
-      slots.addAll(getAssignedSlotArray(slotInfo));
-    }
-    Collections.sort(slots);
-    if (slots.size() != Protocol.CLUSTER_HASHSLOTS) {
-      return false;
-    }
-    for (int i = 0; i < Protocol.CLUSTER_HASHSLOTS; ++i) {
-      if (i != slots.get(i)) {
-        return false;
+  private static boolean checkClusterSlotSequence(List<ShardTopology> shards) {
+    BitSet assigned = new BitSet(Protocol.CLUSTER_HASHSLOTS);
+    int count = 0;
+    for (ShardTopology shard : shards) {
+      for (int[] range : shard.ranges) {
+        assigned.set(range[0], range[1] + 1);
+        count += range[1] - range[0] + 1;
       }
     }
-    return true;
+    return count == Protocol.CLUSTER_HASHSLOTS && assigned.cardinality() == Protocol.CLUSTER_HASHSLOTS;
   }
 
-  public void discoverClusterNodesAndSlots(Connection jedis) {
-    List<Object> slotsInfo = executeClusterSlots(jedis);
+  private List<ShardTopology> discoverTopology(Connection jedis) {
+    List<ShardTopology> shards = clusterShardsSupported ? executeClusterShards(jedis) : null;
+    if (shards == null) {
+      shards = executeClusterSlots(jedis);
+    }
     if (System.getProperty(INIT_NO_ERROR_PROPERTY) == null) {
-      if (slotsInfo.isEmpty()) {
+      if (shards.stream().allMatch(shard -> shard.ranges.isEmpty())) {
         throw new JedisClusterOperationException("Cluster slots list is empty.");
       }
-      if (!checkClusterSlotSequence(slotsInfo)) {
+      if (!checkClusterSlotSequence(shards)) {
         throw new JedisClusterOperationException("Cluster slots have holes.");
       }
     }
+    return shards;
+  }
+
+  public void discoverClusterNodesAndSlots(Connection jedis) {
+    List<ShardTopology> shards = discoverTopology(jedis);
     w.lock();
     try {
       reset();
-      for (Object slotInfoObj : slotsInfo) {
-        List<Object> slotInfo = (List<Object>) slotInfoObj;
-
-        if (slotInfo.size() <= MASTER_NODE_INDEX) {
-          continue;
-        }
-
-        List<Integer> slotNums = getAssignedSlotArray(slotInfo);
-
-        // hostInfos
-        int size = slotInfo.size();
-        for (int i = MASTER_NODE_INDEX; i < size; i++) {
-          List<Object> hostInfos = (List<Object>) slotInfo.get(i);
-          if (hostInfos.isEmpty()) {
-            continue;
-          }
-
-          HostAndPort targetNode = generateHostAndPort(hostInfos);
-          setupNodeIfNotExist(targetNode);
-          if (i == MASTER_NODE_INDEX) {
-            assignSlotsToNode(slotNums, targetNode);
-          } else if (clientConfig.isReadOnlyForRedisClusterReplicas()) {
-            assignSlotsToReplicaNode(slotNums, targetNode);
-          }
-        }
-      }
+      applyTopology(shards);
     } finally {
       w.unlock();
     }
@@ -231,78 +229,66 @@ public class JedisClusterInfoCache {
   }
 
   private void discoverClusterSlots(Connection jedis) {
-    List<Object> slotsInfo = executeClusterSlots(jedis);
-    if (System.getProperty(INIT_NO_ERROR_PROPERTY) == null) {
-      if (slotsInfo.isEmpty()) {
-        throw new JedisClusterOperationException("Cluster slots list is empty.");
-      }
-      if (!checkClusterSlotSequence(slotsInfo)) {
-        throw new JedisClusterOperationException("Cluster slots have holes.");
-      }
-    }
+    List<ShardTopology> shards = discoverTopology(jedis);
     w.lock();
     try {
-      Arrays.fill(slots, null);
-      Arrays.fill(slotNodes, null);
-      if (clientSideCache != null) {
-        clientSideCache.flush();
-      }
-      Set<String> hostAndPortKeys = new HashSet<>();
-
-      for (Object slotInfoObj : slotsInfo) {
-        List<Object> slotInfo = (List<Object>) slotInfoObj;
+      applyTopology(shards);
+    } finally {
+      w.unlock();
+    }
+  }
 
-        if (slotInfo.size() <= MASTER_NODE_INDEX) {
-          continue;
+  /**
+   * Publish the slot table of the given topology, and destroy the pools of the nodes which are not
+   * part of it anymore. The pools of the other nodes are kept, whatever slots they serve now. Must be
+   * called with the write lock held.
+   */
+  private void applyTopology(List<ShardTopology> shards) {
+    SlotTable table = new SlotTable(clientConfig.isReadOnlyForRedisClusterReplicas());
+    Set<String> hostAndPortKeys = new HashSet<>();
+
+    for (ShardTopology shard : shards) {
+      // like CLUSTER SLOTS, only the shards which serve slots are used
+      if (shard.primary == null || shard.ranges.isEmpty()) {
+        continue;
+      }
+      List<Integer> slotNums = new ArrayList<>();
+      for (int[] range : shard.ranges) {
+        for (int slot = range[0]; slot <= range[1]; slot++) {
+          slotNums.add(slot);
         }
+      }
 
-        List<Integer> slotNums = getAssignedSlotArray(slotInfo);
-
-        int size = slotInfo.size();
-        for (int i = MASTER_NODE_INDEX; i < size; i++) {
-          List<Object> hostInfos = (List<Object>) slotInfo.get(i);
-          if (hostInfos.isEmpty()) {
-            continue;
-          }
-
-          HostAndPort targetNode = generateHostAndPort(hostInfos);
-          hostAndPortKeys.add(getNodeKey(targetNode));
-          setupNodeIfNotExist(targetNode);
-          if (i == MASTER_NODE_INDEX) {
-            assignSlotsToNode(slotNums, targetNode);
-          } else if (clientConfig.isReadOnlyForRedisClusterReplicas()) {
-            assignSlotsToReplicaNode(slotNums, targetNode);
-          }
+      hostAndPortKeys.add(getNodeKey(shard.primary));
+      table.assign(slotNums, shard.primary, setupNodeIfNotExist(shard.primary));
+      for (HostAndPort replica : shard.replicas) {
+        hostAndPortKeys.add(getNodeKey(replica));
+        ConnectionPool replicaPool = setupNodeIfNotExist(replica);
+        if (clientConfig.isReadOnlyForRedisClusterReplicas()) {
+          table.assignReplica(slotNums, replica, replicaPool);
         }
       }
-
-      // Remove dead nodes according to the latest query
-      Iterator<Entry<String, ConnectionPool>> entryIt = nodes.entrySet().iterator();
-      while (entryIt.hasNext()) {
-        Entry<String, ConnectionPool> entry = entryIt.next();
-        if (!hostAndPortKeys.contains(entry.getKey())) {
-          ConnectionPool pool = entry.getValue();
-          try {
-            if (pool != null) {
-              pool.destroy();
-            }
-          } catch (Exception e) {
-            // pass, may be this node dead
+    }
+    publish(table);
+
+    // Remove dead nodes according to the latest query
+    Iterator<Entry<String, ConnectionPool>> entryIt = nodes.entrySet().iterator();
+    while (entryIt.hasNext()) {
+      Entry<String, ConnectionPool> entry = entryIt.next();
+      if (!hostAndPortKeys.contains(entry.getKey())) {
+        ConnectionPool pool = entry.getValue();
+        try {
+          if (pool != null) {
+            pool.destroy();
           }
-          entryIt.remove();
+        } catch (Exception e) {
+          // pass, may be this node dead
         }
+        entryIt.remove();
       }
-    } finally {
-      w.unlock();
     }
   }
 
-  private HostAndPort generateHostAndPort(List<Object> hostInfos) {
-    String host = SafeEncoder.encode((byte[]) hostInfos.get(0));
-    int port = ((Long) hostInfos.get(1)).intValue();
-    return new HostAndPort(host, port);
-  }
-
   public ConnectionPool setupNodeIfNotExist(final HostAndPort node) {
     w.lock();
     try {
@@ -338,8 +324,9 @@ public class JedisClusterInfoCache {
     w.lock();
     try {
       ConnectionPool targetPool = setupNodeIfNotExist(targetNode);
-      slots[slot] = targetPool;
-      slotNodes[slot] = targetNode;
+      SlotTable table = slotTable.copy();
+      table.assign(Collections.singletonList(slot), targetNode, targetPool);
+      publish(table);
     } finally {
       w.unlock();
     }
@@ -349,10 +336,9 @@ public class JedisClusterInfoCache {
     w.lock();
     try {
       ConnectionPool targetPool = setupNodeIfNotExist(targetNode);
-      for (Integer slot : targetSlots) {
-        slots[slot] = targetPool;
-        slotNodes[slot] = targetNode;
-      }
+      SlotTable table = slotTable.copy();
+      table.assign(targetSlots, targetNode, targetPool);
+      publish(table);
     } finally {
       w.unlock();
     }
@@ -362,17 +348,96 @@ public class JedisClusterInfoCache {
     w.lock();
     try {
       ConnectionPool targetPool = setupNodeIfNotExist(targetNode);
-      for (Integer slot : targetSlots) {
-        if (replicaSlots[slot] == null) {
-          replicaSlots[slot] = new ArrayList<>();
-        }
-        replicaSlots[slot].add(targetPool);
-      }
+      SlotTable table = slotTable.copy();
+      table.assignReplica(targetSlots, targetNode, targetPool);
+      publish(table);
     } finally {
       w.unlock();
     }
   }
 
+  /**
+   * Replace the slot table. The entries of the client-side cache whose keys belong to a slot served by
+   * another node than before are invalidated. Must be called with the write lock held.
+   */
+  private void publish(SlotTable table) {
+    SlotTable previous = slotTable;
+    slotTable = table;
+
+    if (clientSideCache == null) {
+      return;
+    }
+    BitSet moved = new BitSet(Protocol.CLUSTER_HASHSLOTS);
+    for (int slot = 0; slot < Protocol.CLUSTER_HASHSLOTS; slot++) {
+      if (previous.nodes[slot] != null && !previous.nodes[slot].equals(table.nodes[slot])) {
+        moved.set(slot);
+      }
+    }
+    if (moved.isEmpty()) {
+      return;
+    }
+    if (moved.cardinality() == Protocol.CLUSTER_HASHSLOTS) {
+      clientSideCache.flush();
+      return;
+    }
+    List<CacheKey> stale = new ArrayList<>();
+    for (CacheEntry entry : clientSideCache.getCacheEntries()) {
+      for (Object key : entry.getCacheKey().getRedisKeys()) {
+        if (moved.get(getSlot(key))) {
+          stale.add(entry.getCacheKey());
+          break;
+        }
+      }
+    }
+    if (!stale.isEmpty()) {
+      clientSideCache.delete(stale);
+    }
+  }
+
+  private static int getSlot(Object key) {
+    if (key instanceof byte[]) {
+      return JedisClusterCRC16.getSlot((byte[]) key);
+    } else if (key instanceof Rawable) {
+      return JedisClusterCRC16.getSlot(((Rawable) key).getRaw());
+    } else {
+      return JedisClusterCRC16.getSlot(key.toString());
+    }
+  }
+
+  /**
+   * Renew the slots of the cluster, from a background thread, shortly after the first request. This
+   * is meant to reconcile the whole topology after a slot has been assigned on a redirection, without
+   * a rediscovery per redirected command.
+   */
+  public void renewClusterSlotsInBackground() {
+    if (!backgroundRefreshPending.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      getTopologyRefreshExecutor().schedule(() -> {
+        backgroundRefreshPending.set(false);
+        renewClusterSlots(null);
+      }, BACKGROUND_REFRESH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ree) {
+      // closed
+      backgroundRefreshPending.set(false);
+    }
+  }
+
+  private synchronized ScheduledExecutorService getTopologyRefreshExecutor() {
+    if (closed) {
+      throw new RejectedExecutionException("Closed");
+    }
+    if (topologyRefreshExecutor == null) {
+      topologyRefreshExecutor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "jedis-cluster-topology-refresh");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return topologyRefreshExecutor;
+  }
+
   public ConnectionPool getNode(String nodeKey) {
     r.lock();
     try {
@@ -387,30 +452,22 @@ public class JedisClusterInfoCache {
   }
 
   public ConnectionPool getSlotPool(int slot) {
-    r.lock();
-    try {
-      return slots[slot];
-    } finally {
-      r.unlock();
-    }
+    return slotTable.pools[slot];
   }
 
   public HostAndPort getSlotNode(int slot) {
-    r.lock();
-    try {
-      return slotNodes[slot];
-    } finally {
-      r.unlock();
-    }
+    return slotTable.nodes[slot];
   }
 
   public List<ConnectionPool> getSlotReplicaPools(int slot) {
-    r.lock();
-    try {
-      return replicaSlots[slot];
-    } finally {
-      r.unlock();
-    }
+    return slotTable.replicas[slot];
+  }
+
+  /**
+   * @return the replica nodes of the slot, in the order of {@link #getSlotReplicaPools(int)}
+   */
+  public List<HostAndPort> getSlotReplicaNodes(int slot) {
+    return slotTable.replicaNodes[slot];
   }
 
   public Map<String, ConnectionPool> getNodes() {
@@ -449,8 +506,7 @@ public class JedisClusterInfoCache {
         }
       }
       nodes.clear();
-      Arrays.fill(slots, null);
-      Arrays.fill(slotNodes, null);
+      slotTable = new SlotTable(clientConfig.isReadOnlyForRedisClusterReplicas());
     } finally {
       w.unlock();
     }
@@ -458,9 +514,12 @@ public class JedisClusterInfoCache {
 
   public void close() {
     reset();
-    if (topologyRefreshExecutor != null) {
-      logger.info("Cluster topology refresh shutdown, startNodes: {}", startNodes);
-      topologyRefreshExecutor.shutdownNow();
+    synchronized (this) {
+      closed = true;
+      if (topologyRefreshExecutor != null) {
+        logger.info("Cluster topology refresh shutdown, startNodes: {}", startNodes);
+        topologyRefreshExecutor.shutdownNow();
+      }
     }
   }
 
@@ -469,17 +528,155 @@ public class JedisClusterInfoCache {
     return hnp.toString();
   }
 
-  private List<Object> executeClusterSlots(Connection jedis) {
+  /**
+   * @return the topology reported by {@code CLUSTER SHARDS}, or {@code null} if the server does not
+   * support it (before Redis 7.0)
+   */
+  private List<ShardTopology> executeClusterShards(Connection jedis) {
+    List<ClusterShardInfo> shardInfos;
+    try {
+      jedis.sendCommand(Protocol.Command.CLUSTER, Protocol.ClusterKeyword.SHARDS);
+      shardInfos = BuilderFactory.CLUSTER_SHARD_INFO_LIST.build(jedis.getObjectMultiBulkReply());
+    } catch (JedisDataException e) {
+      logger.debug("CLUSTER SHARDS is not available, falling back to CLUSTER SLOTS.", e);
+      clusterShardsSupported = false;
+      return null;
+    }
+
+    List<ShardTopology> shards = new ArrayList<>(shardInfos.size());
+    for (ClusterShardInfo shardInfo : shardInfos) {
+      ShardTopology shard = new ShardTopology();
+      for (List<Long> range : shardInfo.getSlots()) {
+        shard.ranges.add(new int[]{ range.get(0).intValue(), range.get(1).intValue() });
+      }
+      for (ClusterShardNodeInfo nodeInfo : shardInfo.getNodes()) {
+        HostAndPort node = generateHostAndPort(nodeInfo);
+        if (node == null) {
+          continue;
+        }
+        boolean online = NODE_HEALTH_ONLINE.equals(nodeInfo.getHealth());
+        if (NODE_ROLE_PRIMARY.equals(nodeInfo.getRole())) {
+          // a failed primary is still the owner of the slots until another one is elected
+          if (shard.primary == null || online) {
+            shard.primary = node;
+          }
+        } else if (online) {
+          // replicas which are loading or failed are not used
+          shard.replicas.add(node);
+        }
+      }
+      shards.add(shard);
+    }
+    return shards;
+  }
+
+  private HostAndPort generateHostAndPort(ClusterShardNodeInfo nodeInfo) {
+    String host = nodeInfo.getEndpoint();
+    if (host == null || host.isEmpty() || "?".equals(host)) {
+      host = nodeInfo.getIp();
+    }
+    Long port = clientConfig.isSsl() && nodeInfo.getTlsPort() != null ? nodeInfo.getTlsPort() : nodeInfo.getPort();
+    if (port == null) {
+      port = nodeInfo.getTlsPort();
+    }
+    return host == null || port == null ? null : new HostAndPort(host, port.intValue());
+  }
+
+  private List<ShardTopology> executeClusterSlots(Connection jedis) {
     jedis.sendCommand(Protocol.Command.CLUSTER, "SLOTS");
-    return jedis.getObjectMultiBulkReply();
+    List<Object> slotsInfo = jedis.getObjectMultiBulkReply();
+
+    List<ShardTopology> shards = new ArrayList<>(slotsInfo.size());
+    for (Object slotInfoObj : slotsInfo) {
+      List<Object> slotInfo = (List<Object>) slotInfoObj;
+      ShardTopology shard = new ShardTopology();
+      shard.ranges.add(new int[]{ ((Long) slotInfo.get(0)).intValue(), ((Long) slotInfo.get(1)).intValue() });
+
+      int size = slotInfo.size();
+      for (int i = MASTER_NODE_INDEX; i < size; i++) {
+        List<Object> hostInfos = (List<Object>) slotInfo.get(i);
+        if (hostInfos.isEmpty()) {
+          continue;
+        }
+
+        HostAndPort targetNode = generateHostAndPort(hostInfos);
+        if (i == MASTER_NODE_INDEX) {
+          shard.primary = targetNode;
+        } else {
+          shard.replicas.add(targetNode);
+        }
+      }
+      shards.add(shard);
+    }
+    return shards;
   }
 
-  private List<Integer> getAssignedSlotArray(List<Object> slotInfo) {
-    List<Integer> slotNums = new ArrayList<>();
-    for (int slot = ((Long) slotInfo.get(0)).intValue(); slot <= ((Long) slotInfo.get(1))
-        .intValue(); slot++) {
-      slotNums.add(slot);
+  private HostAndPort generateHostAndPort(List<Object> hostInfos) {
+    String host = SafeEncoder.encode((byte[]) hostInfos.get(0));
+    int port = ((Long) hostInfos.get(1)).intValue();
+    return new HostAndPort(host, port);
+  }
+
+  /**
+   * Slot ranges, primary and replicas of a shard, as reported by {@code CLUSTER SHARDS} or
+   * {@code CLUSTER SLOTS}.
+   */
+  private static final class ShardTopology {
+
+    private final List<int[]> ranges = new ArrayList<>(1);
+    private HostAndPort primary;
+    private final List<HostAndPort> replicas = new ArrayList<>(1);
+  }
+
+  /**
+   * Primary node and pool, and replica nodes and pools, of each slot. A table may be modified only
+   * before it is published; the replica lists are never modified once they are in a table.
+   */
+  private static final class SlotTable {
+
+    private final ConnectionPool[] pools;
+    private final HostAndPort[] nodes;
+    private final List<ConnectionPool>[] replicas;
+    private final List<HostAndPort>[] replicaNodes;
+
+    @SuppressWarnings("unchecked")
+    SlotTable(boolean withReplicas) {
+      this(new ConnectionPool[Protocol.CLUSTER_HASHSLOTS], new HostAndPort[Protocol.CLUSTER_HASHSLOTS],
+          withReplicas ? new List[Protocol.CLUSTER_HASHSLOTS] : null,
+          withReplicas ? new List[Protocol.CLUSTER_HASHSLOTS] : null);
+    }
+
+    private SlotTable(ConnectionPool[] pools, HostAndPort[] nodes, List<ConnectionPool>[] replicas,
+        List<HostAndPort>[] replicaNodes) {
+      this.pools = pools;
+      this.nodes = nodes;
+      this.replicas = replicas;
+      this.replicaNodes = replicaNodes;
+    }
+
+    SlotTable copy() {
+      return new SlotTable(pools.clone(), nodes.clone(), replicas == null ? null : replicas.clone(),
+          replicaNodes == null ? null : replicaNodes.clone());
+    }
+
+    void assign(List<Integer> slots, HostAndPort node, ConnectionPool pool) {
+      for (Integer slot : slots) {
+        pools[slot] = pool;
+        nodes[slot] = node;
+      }
+    }
+
+    void assignReplica(List<Integer> slots, HostAndPort node, ConnectionPool pool) {
+      for (Integer slot : slots) {
+        replicas[slot] = append(replicas[slot], pool);
+        replicaNodes[slot] = append(replicaNodes[slot], node);
+      }
+    }
+
+    private static <E> List<E> append(List<E> current, E element) {
+      List<E> updated = current == null ? new ArrayList<>(1) : new ArrayList<>(current);
+      updated.add(element);
+      return updated;
     }
-    return slotNums;
   }
 }
@@ -1,19 +1,28 @@
 package redis.clients.jedis;
 
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.exceptions.JedisAskDataException;
 import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
 import redis.clients.jedis.graph.GraphCommandObjects;
 import redis.clients.jedis.providers.ConnectionProvider;
 import redis.clients.jedis.util.IOUtils;
@@ -23,15 +32,30 @@ public abstract class MultiNodePipelineBase extends PipelineBase {
   private final Logger log = LoggerFactory.getLogger(getClass());
 
   /**
-   * The number of processes for {@code sync()}. If you have enough cores for client (and you have
-   * more than 3 cluster nodes), you may increase this number of workers.
-   * Suggestion:&nbsp;&le;&nbsp;cluster&nbsp;nodes.
+   * The default number of nodes whose replies are read concurrently by {@code sync()}. If you have
+   * enough cores for client (and you have more than 3 cluster nodes), you may increase this number of
+   * workers. Suggestion:&nbsp;&le;&nbsp;cluster&nbsp;nodes.
+   * @see #setSyncWorkers(int)
    */
   public static volatile int MULTI_NODE_PIPELINE_SYNC_WORKERS = 3;
 
-  private final Map<HostAndPort, Queue<Response<?>>> pipelinedResponses;
+  private static final AtomicInteger SYNC_THREAD_COUNTER = new AtomicInteger();
+
+  /**
+   * Runs the workers of {@code sync()}, unless another executor is set. Idle threads are discarded
+   * after a minute.
+   */
+  private static final ExecutorService DEFAULT_SYNC_EXECUTOR = Executors.newCachedThreadPool(task -> {
+    Thread thread = new Thread(task, "jedis-pipeline-sync-" + SYNC_THREAD_COUNTER.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Map<HostAndPort, Queue<PipelinedCommand>> pipelinedResponses;
   private final Map<HostAndPort, Connection> connections;
   private volatile boolean syncing = false;
+  private Executor syncExecutor = DEFAULT_SYNC_EXECUTOR;
+  private int syncWorkers = MULTI_NODE_PIPELINE_SYNC_WORKERS;
 
   public MultiNodePipelineBase(CommandObjects commandObjects) {
     super(commandObjects);
@@ -49,15 +73,52 @@ public abstract class MultiNodePipelineBase extends PipelineBase {
     super.setGraphCommands(graphCommandObjects);
   }
 
+  /**
+   * Set the executor which runs the workers of {@link #sync()}. The calling thread is always one of
+   * the workers, so a pipeline whose commands are all sent to a single node does not use it.
+   * <p>
+   * On Java 21 and later, {@code Executors.newVirtualThreadPerTaskExecutor()} is a good fit.
+   */
+  @Experimental
+  public void setSyncExecutor(Executor syncExecutor) {
+    this.syncExecutor = Objects.requireNonNull(syncExecutor, "syncExecutor");
+  }
+
+  /**
+   * Set the maximum number of nodes whose replies are read concurrently by {@link #sync()}. The
+   * actual number of workers is never more than the number of nodes the pipeline has sent commands to.
+   */
+  @Experimental
+  public void setSyncWorkers(int syncWorkers) {
+    if (syncWorkers < 1) {
+      throw new IllegalArgumentException("syncWorkers < 1");
+    }
+    this.syncWorkers = syncWorkers;
+  }
+
   protected abstract HostAndPort getNodeKey(CommandArguments args);
 
   protected abstract Connection getConnection(HostAndPort nodeKey);
 
+  /**
+   * Number of times a command which is redirected by the server (MOVED or ASK) is sent again to the
+   * node it is redirected to. If {@code 0} (default), the redirection is the reply of the command.
+   */
+  protected int getMaxRedirections() {
+    return 0;
+  }
+
+  /**
+   * Called for each MOVED redirection, before the redirected commands are sent again.
+   */
+  protected void onMovedRedirection(JedisMovedDataException moved) {
+  }
+
   @Override
   protected final <T> Response<T> appendCommand(CommandObject<T> commandObject) {
     HostAndPort nodeKey = getNodeKey(commandObject.getArguments());
 
-    Queue<Response<?>> queue;
+    Queue<PipelinedCommand> queue;
     Connection connection;
     if (pipelinedResponses.containsKey(nodeKey)) {
       queue = pipelinedResponses.get(nodeKey);
@@ -77,7 +138,7 @@ public abstract class MultiNodePipelineBase extends PipelineBase {
 
     connection.sendCommand(commandObject.getArguments());
     Response<T> response = new Response<>(commandObject.getBuilder());
-    queue.add(response);
+    queue.add(new PipelinedCommand(commandObject.getArguments(), response));
     return response;
   }
 
@@ -97,33 +158,31 @@ public abstract class MultiNodePipelineBase extends PipelineBase {
     }
     syncing = true;
 
-    ExecutorService executorService = Executors.newFixedThreadPool(MULTI_NODE_PIPELINE_SYNC_WORKERS);
-
-    CountDownLatch countDownLatch = new CountDownLatch(pipelinedResponses.size());
-    Iterator<Map.Entry<HostAndPort, Queue<Response<?>>>> pipelinedResponsesIterator
-        = pipelinedResponses.entrySet().iterator();
-    while (pipelinedResponsesIterator.hasNext()) {
-      Map.Entry<HostAndPort, Queue<Response<?>>> entry = pipelinedResponsesIterator.next();
-      HostAndPort nodeKey = entry.getKey();
-      Queue<Response<?>> queue = entry.getValue();
-      Connection connection = connections.get(nodeKey);
-      executorService.submit(() -> {
+    final boolean redirect = getMaxRedirections() > 0;
+    final Queue<PipelinedCommand> redirected = new ConcurrentLinkedQueue<>();
+    final Queue<HostAndPort> broken = new ConcurrentLinkedQueue<>();
+
+    final List<HostAndPort> nodeKeys = new ArrayList<>(pipelinedResponses.keySet());
+    final int workers = Math.max(1, Math.min(nodeKeys.size(), syncWorkers));
+
+    // the calling thread is one of the workers
+    CountDownLatch countDownLatch = new CountDownLatch(workers - 1);
+    for (int w = 1; w < workers; w++) {
+      final int worker = w;
+      Runnable task = () -> {
         try {
-          List<Object> unformatted = connection.getMany(queue.size());
-          for (Object o : unformatted) {
-            queue.poll().set(o);
-          }
-        } catch (JedisConnectionException jce) {
-          log.error("Error with connection to " + nodeKey, jce);
-          // cleanup the connection
-          pipelinedResponsesIterator.remove();
-          connections.remove(nodeKey);
-          IOUtils.closeQuietly(connection);
+          syncNodes(nodeKeys, worker, workers, redirect, redirected, broken);
         } finally {
           countDownLatch.countDown();
         }
-      });
+      };
+      try {
+        syncExecutor.execute(task);
+      } catch (RejectedExecutionException ree) {
+        task.run();
+      }
     }
+    syncNodes(nodeKeys, 0, workers, redirect, redirected, broken);
 
     try {
       countDownLatch.await();
@@ -131,13 +190,149 @@ public abstract class MultiNodePipelineBase extends PipelineBase {
       log.error("Thread is interrupted during sync.", e);
     }
 
-    executorService.shutdownNow();
+    for (HostAndPort nodeKey : broken) {
+      // cleanup the connection
+      pipelinedResponses.remove(nodeKey);
+      IOUtils.closeQuietly(connections.remove(nodeKey));
+    }
+
+    if (!redirected.isEmpty()) {
+      redispatch(new ArrayList<>(redirected));
+    }
 
     syncing = false;
   }
 
+  /**
+   * Read the replies of every {@code workers}-th node, starting from {@code worker}. The buffered
+   * commands of all those nodes are flushed before any reply is read.
+   */
+  private void syncNodes(List<HostAndPort> nodeKeys, int worker, int workers, boolean redirect,
+      Queue<PipelinedCommand> redirected, Queue<HostAndPort> broken) {
+    for (int i = worker; i < nodeKeys.size(); i += workers) {
+      HostAndPort nodeKey = nodeKeys.get(i);
+      try {
+        connections.get(nodeKey).flush();
+      } catch (JedisConnectionException jce) {
+        log.error("Error with connection to " + nodeKey, jce);
+        broken.add(nodeKey);
+      }
+    }
+
+    for (int i = worker; i < nodeKeys.size(); i += workers) {
+      HostAndPort nodeKey = nodeKeys.get(i);
+      if (broken.contains(nodeKey)) {
+        continue;
+      }
+      Queue<PipelinedCommand> queue = pipelinedResponses.get(nodeKey);
+      try {
+        List<Object> unformatted = connections.get(nodeKey).getMany(queue.size());
+        for (Object o : unformatted) {
+          PipelinedCommand command = queue.poll();
+          if (redirect && o instanceof JedisRedirectionException) {
+            command.redirection = (JedisRedirectionException) o;
+            redirected.add(command);
+          } else {
+            command.response.set(o);
+          }
+        }
+      } catch (JedisConnectionException jce) {
+        log.error("Error with connection to " + nodeKey, jce);
+        broken.add(nodeKey);
+      }
+    }
+  }
+
+  /**
+   * Send the redirected commands again, in rounds, until they get a reply which is not a redirection
+   * or the redirection budget is exhausted. The commands redirected from one node keep their order.
+   */
+  private void redispatch(List<PipelinedCommand> commands) {
+    for (int round = 0; round < getMaxRedirections() && !commands.isEmpty(); round++) {
+      for (PipelinedCommand command : commands) {
+        if (command.redirection instanceof JedisMovedDataException) {
+          onMovedRedirection((JedisMovedDataException) command.redirection);
+        }
+      }
+
+      Map<HostAndPort, List<PipelinedCommand>> targets = new LinkedHashMap<>();
+      for (PipelinedCommand command : commands) {
+        HostAndPort target = command.redirection instanceof JedisAskDataException ? null
+            : getNodeKey(command.arguments);
+        if (target == null) {
+          target = command.redirection.getTargetNode();
+        }
+        targets.computeIfAbsent(target, t -> new ArrayList<>()).add(command);
+      }
+
+      List<PipelinedCommand> next = new ArrayList<>();
+      for (Map.Entry<HostAndPort, List<PipelinedCommand>> entry : targets.entrySet()) {
+        redispatch(entry.getKey(), entry.getValue(), next);
+      }
+      commands = next;
+    }
+
+    for (PipelinedCommand command : commands) {
+      command.response.set(command.redirection);
+    }
+  }
+
+  private void redispatch(HostAndPort nodeKey, List<PipelinedCommand> commands, List<PipelinedCommand> next) {
+    Connection connection = connections.get(nodeKey);
+    try {
+      if (connection == null) {
+        connection = getConnection(nodeKey);
+        connections.put(nodeKey, connection);
+      }
+
+      int count = 0;
+      for (PipelinedCommand command : commands) {
+        if (command.redirection instanceof JedisAskDataException) {
+          connection.sendCommand(Protocol.Command.ASKING);
+          count++;
+        }
+        connection.sendCommand(command.arguments);
+        count++;
+      }
+
+      List<Object> unformatted = connection.getMany(count);
+      int index = 0;
+      for (PipelinedCommand command : commands) {
+        if (command.redirection instanceof JedisAskDataException) {
+          index++; // reply of ASKING
+        }
+        Object o = unformatted.get(index++);
+        if (o instanceof JedisRedirectionException) {
+          command.redirection = (JedisRedirectionException) o;
+          next.add(command);
+        } else {
+          command.response.set(o);
+        }
+      }
+    } catch (JedisConnectionException jce) {
+      log.error("Error with connection to " + nodeKey, jce);
+      connections.remove(nodeKey);
+      IOUtils.closeQuietly(connection);
+      for (PipelinedCommand command : commands) {
+        command.response.set(command.redirection);
+      }
+    }
+  }
+
   @Deprecated
   public Response<Long> waitReplicas(int replicas, long timeout) {
     return appendCommand(commandObjects.waitReplicas(replicas, timeout));
   }
+
+  private static class PipelinedCommand {
+
+    private final CommandArguments arguments;
+    private final Response<?> response;
+    private JedisRedirectionException redirection;
+
+    PipelinedCommand(CommandArguments arguments, Response<?> response) {
+      this.arguments = arguments;
+      this.response = response;
+    }
+  }
 }
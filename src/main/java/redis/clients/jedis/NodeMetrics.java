@@ -0,0 +1,100 @@
+package redis.clients.jedis;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * Latency, outstanding commands and failures of the nodes of a cluster, as observed by the commands
+ * which are routed by a {@link ReadRoutingStrategy}.
+ * <p>
+ * The latency of a node is a moving average of the durations of its commands, where the latest
+ * duration has a weight of 1/8.
+ */
+@Experimental
+public final class NodeMetrics {
+
+  private final ConcurrentMap<HostAndPort, Stats> stats = new ConcurrentHashMap<>();
+
+  /**
+   * @return the average latency of the node in nanoseconds, or {@code 0} if no command has completed
+   */
+  public long getLatencyNanos(HostAndPort node) {
+    Stats nodeStats = stats.get(node);
+    return nodeStats == null ? 0 : nodeStats.latency.get();
+  }
+
+  /**
+   * @return the number of commands which have been sent to the node and have not completed yet
+   */
+  public int getOutstanding(HostAndPort node) {
+    Stats nodeStats = stats.get(node);
+    return nodeStats == null ? 0 : nodeStats.outstanding.get();
+  }
+
+  /**
+   * @return the number of commands which have failed with a connection error since the last command
+   * which completed
+   */
+  public int getConsecutiveFailures(HostAndPort node) {
+    Stats nodeStats = stats.get(node);
+    return nodeStats == null ? 0 : nodeStats.failures.get();
+  }
+
+  /**
+   * Claim a retry of a node whose last commands have failed, at most once per interval, so that a
+   * node which is reachable again gets commands again.
+   *
+   * @return {@code true} if the node has not failed, or if the caller may send a command to it
+   * because no command has been sent to it for {@code intervalNanos} since the last failure or retry
+   */
+  public boolean tryRetry(HostAndPort node, long intervalNanos) {
+    Stats nodeStats = stats.get(node);
+    if (nodeStats == null || nodeStats.failures.get() == 0) {
+      return true;
+    }
+    final long last = nodeStats.lastRetry.get();
+    final long now = System.nanoTime();
+    return now - last >= intervalNanos && nodeStats.lastRetry.compareAndSet(last, now);
+  }
+
+  /**
+   * Record that a command is sent to the node, before it waits for a connection.
+   */
+  public void started(HostAndPort node) {
+    stats.computeIfAbsent(node, n -> new Stats()).outstanding.incrementAndGet();
+  }
+
+  /**
+   * Record that a command to the node has completed, with or without an error reply.
+   */
+  public void completed(HostAndPort node, long nanos) {
+    Stats nodeStats = stats.computeIfAbsent(node, n -> new Stats());
+    nodeStats.outstanding.decrementAndGet();
+    nodeStats.failures.set(0);
+    nodeStats.latency.accumulateAndGet(nanos, (average, latest) -> average == 0 ? latest
+        : average + ((latest - average) >> 3));
+  }
+
+  /**
+   * Record that a command to the node has failed because of a connection error, including when no
+   * connection could be got.
+   */
+  public void failed(HostAndPort node) {
+    Stats nodeStats = stats.computeIfAbsent(node, n -> new Stats());
+    nodeStats.outstanding.decrementAndGet();
+    nodeStats.lastRetry.set(System.nanoTime());
+    nodeStats.failures.incrementAndGet();
+  }
+
+  private static final class Stats {
+
+    private final AtomicLong latency = new AtomicLong();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicLong lastRetry = new AtomicLong();
+  }
+}
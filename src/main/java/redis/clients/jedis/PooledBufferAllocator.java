@@ -0,0 +1,155 @@
+package redis.clients.jedis;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * A {@link BufferAllocator} which keeps released buffers in slabs of power-of-two sizes.
+ * <p>
+ * Requests are rounded up to the next size class, so a released buffer can serve any later request
+ * of the same class. Each class retains a bounded number of buffers; buffers released beyond that
+ * bound, and requests larger than the biggest class, are left to the garbage collector.
+ */
+@Experimental
+public class PooledBufferAllocator implements BufferAllocator {
+
+  public static final int DEFAULT_MIN_SIZE = 256;
+  public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+  public static final int DEFAULT_MAX_POOLED_PER_SIZE = 64;
+
+  private static final PooledBufferAllocator SHARED = new PooledBufferAllocator();
+
+  /**
+   * @return an allocator with the default settings, shared by the whole process
+   */
+  public static PooledBufferAllocator shared() {
+    return SHARED;
+  }
+
+  private final int minShift;
+  private final int maxShift;
+  private final Slab<byte[]>[] heapSlabs;
+  private final Slab<ByteBuffer>[] directSlabs;
+
+  public PooledBufferAllocator() {
+    this(DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_MAX_POOLED_PER_SIZE);
+  }
+
+  /**
+   * @param minSize smallest size class, rounded up to a power of two
+   * @param maxSize biggest size class, rounded up to a power of two
+   * @param maxPooledPerSize number of released buffers retained per size class
+   */
+  @SuppressWarnings("unchecked")
+  public PooledBufferAllocator(int minSize, int maxSize, int maxPooledPerSize) {
+    if (minSize <= 0 || maxSize < minSize || maxSize > (1 << 30)) {
+      throw new IllegalArgumentException("Invalid size classes: " + minSize + " to " + maxSize);
+    }
+    if (maxPooledPerSize < 0) {
+      throw new IllegalArgumentException("Pooled buffers per size < 0");
+    }
+    this.minShift = ceilLog2(minSize);
+    this.maxShift = ceilLog2(maxSize);
+    final int classes = maxShift - minShift + 1;
+    this.heapSlabs = new Slab[classes];
+    this.directSlabs = new Slab[classes];
+    for (int i = 0; i < classes; i++) {
+      heapSlabs[i] = new Slab<>(maxPooledPerSize);
+      directSlabs[i] = new Slab<>(maxPooledPerSize);
+    }
+  }
+
+  @Override
+  public byte[] allocate(int size) {
+    final int index = indexForRequest(size);
+    if (index < 0) {
+      return new byte[size];
+    }
+    final byte[] buffer = heapSlabs[index].poll();
+    return buffer != null ? buffer : new byte[1 << (index + minShift)];
+  }
+
+  @Override
+  public void release(byte[] buffer) {
+    final int index = indexForCapacity(buffer.length);
+    if (index >= 0) {
+      heapSlabs[index].offer(buffer);
+    }
+  }
+
+  @Override
+  public ByteBuffer allocateDirect(int size) {
+    final int index = indexForRequest(size);
+    if (index < 0) {
+      return ByteBuffer.allocateDirect(size);
+    }
+    final ByteBuffer buffer = directSlabs[index].poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(1 << (index + minShift));
+    }
+    buffer.clear();
+    return buffer;
+  }
+
+  @Override
+  public void release(ByteBuffer buffer) {
+    if (!buffer.isDirect()) {
+      return;
+    }
+    final int index = indexForCapacity(buffer.capacity());
+    if (index >= 0) {
+      directSlabs[index].offer(buffer);
+    }
+  }
+
+  private int indexForRequest(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Buffer size <= 0");
+    }
+    final int shift = Math.max(ceilLog2(size), minShift);
+    return shift > maxShift ? -1 : shift - minShift;
+  }
+
+  private int indexForCapacity(int capacity) {
+    if (Integer.bitCount(capacity) != 1) {
+      return -1;
+    }
+    final int shift = Integer.numberOfTrailingZeros(capacity);
+    return shift < minShift || shift > maxShift ? -1 : shift - minShift;
+  }
+
+  private static int ceilLog2(int value) {
+    return value <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(value - 1);
+  }
+
+  private static final class Slab<T> {
+
+    private final Queue<T> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    Slab(int capacity) {
+      this.capacity = capacity;
+    }
+
+    T poll() {
+      final T buffer = free.poll();
+      if (buffer != null) {
+        size.decrementAndGet();
+      }
+      return buffer;
+    }
+
+    void offer(T buffer) {
+      if (size.incrementAndGet() > capacity) {
+        size.decrementAndGet();
+        return;
+      }
+      free.offer(buffer);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package redis.clients.jedis;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * A {@link CommandObject} whose complete RESP frame is serialized once, so that it can be executed
+ * any number of times without encoding its arguments again. The hash slot of a cluster command is
+ * likewise computed only once, when its arguments are built.
+ * <p>
+ * The arguments must not be modified afterwards; if they are, the cached frame is dropped and the
+ * command is encoded as usual again.
+ *
+ * @see UnifiedJedis#prepare(java.util.function.Function)
+ */
+@Experimental
+public class PreparedCommand<T> extends CommandObject<T> {
+
+  public PreparedCommand(CommandArguments args, Builder<T> builder) {
+    super(args, builder);
+    args.prepare();
+  }
+
+  public PreparedCommand(CommandObject<T> commandObject) {
+    this(commandObject.getArguments(), commandObject.getBuilder());
+  }
+
+  /**
+   * @return the hash slot of the keys of a cluster command, or -1
+   */
+  public int getHashSlot() {
+    final CommandArguments args = getArguments();
+    return args instanceof ClusterCommandArguments
+        ? ((ClusterCommandArguments) args).getCommandHashSlot() : -1;
+  }
+}
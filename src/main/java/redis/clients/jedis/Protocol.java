@@ -1,6 +1,9 @@
 package redis.clients.jedis;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -12,8 +15,10 @@ import java.util.Locale;
 import redis.clients.jedis.annots.Experimental;
 import redis.clients.jedis.exceptions.*;
 import redis.clients.jedis.args.Rawable;
+import redis.clients.jedis.args.StreamingRawable;
 import redis.clients.jedis.commands.ProtocolCommand;
 import redis.clients.jedis.csc.Cache;
+import redis.clients.jedis.util.DoublePrecision;
 import redis.clients.jedis.util.KeyValue;
 import redis.clients.jedis.util.RedisInputStream;
 import redis.clients.jedis.util.RedisOutputStream;
@@ -71,11 +76,35 @@ public final class Protocol {
   }
 
   public static void sendCommand(final RedisOutputStream os, CommandArguments args) {
+    final byte[] frame = args.getPreparedFrame();
+    if (frame != null) {
+      try {
+        os.write(frame);
+      } catch (IOException e) {
+        throw new JedisConnectionException(e);
+      }
+      return;
+    }
     try {
       os.write(ASTERISK_BYTE);
       os.writeIntCrLf(args.size());
       for (Rawable arg : args) {
+        if (arg instanceof Command) {
+          os.write(((Command) arg).bulk);
+          continue;
+        }
+        if (arg instanceof Keyword) {
+          os.write(((Keyword) arg).bulk);
+          continue;
+        }
         os.write(DOLLAR_BYTE);
+        if (arg instanceof StreamingRawable) {
+          final StreamingRawable streaming = (StreamingRawable) arg;
+          os.writeLongCrLf(streaming.getLength());
+          streaming.writeTo(os);
+          os.writeCrLf();
+          continue;
+        }
         final byte[] bin = arg.getRaw();
         os.writeIntCrLf(bin.length);
         os.write(bin);
@@ -86,28 +115,43 @@ public final class Protocol {
     }
   }
 
+  static byte[] encode(CommandArguments args) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final RedisOutputStream os = new RedisOutputStream(bytes);
+    sendCommand(os, args);
+    try {
+      os.flush();
+    } catch (IOException e) {
+      throw new JedisConnectionException(e);
+    }
+    return bytes.toByteArray();
+  }
+
   private static void processError(final RedisInputStream is) {
-    String message = is.readLine();
+    throw buildError(is.readLine());
+  }
+
+  static JedisDataException buildError(final String message) {
     // TODO: I'm not sure if this is the best way to do this.
     // Maybe Read only first 5 bytes instead?
     if (message.startsWith(MOVED_PREFIX)) {
       String[] movedInfo = parseTargetHostAndSlot(message);
-      throw new JedisMovedDataException(message, HostAndPort.from(movedInfo[1]), Integer.parseInt(movedInfo[0]));
+      return new JedisMovedDataException(message, HostAndPort.from(movedInfo[1]), Integer.parseInt(movedInfo[0]));
     } else if (message.startsWith(ASK_PREFIX)) {
       String[] askInfo = parseTargetHostAndSlot(message);
-      throw new JedisAskDataException(message, HostAndPort.from(askInfo[1]), Integer.parseInt(askInfo[0]));
+      return new JedisAskDataException(message, HostAndPort.from(askInfo[1]), Integer.parseInt(askInfo[0]));
     } else if (message.startsWith(CLUSTERDOWN_PREFIX)) {
-      throw new JedisClusterException(message);
+      return new JedisClusterException(message);
     } else if (message.startsWith(BUSY_PREFIX)) {
-      throw new JedisBusyException(message);
+      return new JedisBusyException(message);
     } else if (message.startsWith(NOSCRIPT_PREFIX)) {
-      throw new JedisNoScriptException(message);
+      return new JedisNoScriptException(message);
     } else if (message.startsWith(NOAUTH_PREFIX)
         || message.startsWith(WRONGPASS_PREFIX)
         || message.startsWith(NOPERM_PREFIX)) {
-      throw new JedisAccessControlException(message);
+      return new JedisAccessControlException(message);
     }
-    throw new JedisDataException(message);
+    return new JedisDataException(message);
   }
 
   public static String readErrorLineIfPossible(RedisInputStream is) {
@@ -246,6 +290,206 @@ public final class Protocol {
     }
   }
 
+  /**
+   * Read a bulk reply into the buffer, without materializing the value as a byte array. If the value
+   * does not fit in the remaining space of the buffer, it is skipped and nothing is written.
+   *
+   * @return the length of the value, or -1 for a null reply
+   * @throws JedisException if the value does not fit in the buffer
+   */
+  @Experimental
+  public static int readBulkReply(final RedisInputStream is, final ByteBuffer dst) {
+    final int len = readBulkLength(is);
+    if (len == -1) {
+      return -1;
+    }
+    if (len > dst.remaining()) {
+      is.skip(len + 2L);
+      throw new JedisException("Bulk reply of " + len + " bytes does not fit in the remaining "
+          + dst.remaining() + " bytes of the buffer.");
+    }
+    is.readFully(dst, len);
+    // read 2 more bytes for the command delimiter
+    is.readByte();
+    is.readByte();
+    return len;
+  }
+
+  /**
+   * Read a bulk reply into the channel, without materializing the value as a byte array.
+   *
+   * @return the length of the value, or -1 for a null reply
+   */
+  @Experimental
+  public static long readBulkReply(final RedisInputStream is, final WritableByteChannel dst) {
+    final int len = readBulkLength(is);
+    if (len == -1) {
+      return -1;
+    }
+    is.transferTo(dst, len);
+    // read 2 more bytes for the command delimiter
+    is.readByte();
+    is.readByte();
+    return len;
+  }
+
+  /**
+   * Read a bulk reply as a read-only view over the input buffer of the stream. The view is only
+   * valid until the next read from the stream. Values larger than the input buffer are copied.
+   *
+   * @return the value, or {@code null} for a null reply
+   */
+  @Experimental
+  public static ByteBuffer readBorrowedBulkReply(final RedisInputStream is) {
+    final int len = readBulkLength(is);
+    if (len == -1) {
+      return null;
+    }
+    // the delimiter is borrowed along, so that reading it does not overwrite the value
+    final ByteBuffer view = is.readBorrowed(len + 2);
+    if (view != null) {
+      view.limit(len);
+      return view.slice();
+    }
+    final ByteBuffer copy = ByteBuffer.allocate(len);
+    is.readFully(copy, len);
+    is.readByte();
+    is.readByte();
+    copy.flip();
+    return copy.asReadOnlyBuffer();
+  }
+
+  static int readBulkLength(final RedisInputStream is) {
+    final byte b = is.readByte();
+    switch (b) {
+      case DOLLAR_BYTE:
+      case EQUAL_BYTE:
+        return is.readIntCrLf();
+      case UNDERSCORE_BYTE:
+        is.readNullCrLf();
+        return -1;
+      case MINUS_BYTE:
+        processError(is);
+        return -1;
+      default:
+        throw new JedisConnectionException("Expected bulk reply but got: " + (char) b);
+    }
+  }
+
+  /**
+   * Read the header of an aggregate reply. The entries of a map are counted as separate elements, so
+   * that a RESP3 map can be read the same way as the flat RESP2 array of the same command.
+   *
+   * @return the number of elements to be read, or -1 for a null reply
+   */
+  @Experimental
+  public static int readAggregateLength(final RedisInputStream is) {
+    final byte b = is.readByte();
+    switch (b) {
+      case ASTERISK_BYTE:
+      case TILDE_BYTE:
+        return is.readIntCrLf();
+      case PERCENT_BYTE:
+        final int num = is.readIntCrLf();
+        return num < 0 ? num : num * 2;
+      case UNDERSCORE_BYTE:
+        is.readNullCrLf();
+        return -1;
+      case MINUS_BYTE:
+        processError(is);
+        return -1;
+      default:
+        throw unexpectedReply(b);
+    }
+  }
+
+  /**
+   * Same as {@link #readAggregateLength(RedisInputStream)}, for an aggregate nested in another one. An
+   * error element is read as a null reply, and kept to be thrown once the whole reply has been read,
+   * see {@link RedisInputStream#takeElementError()}.
+   */
+  @Experimental
+  public static int readNestedAggregateLength(final RedisInputStream is) {
+    if (is.peek(MINUS_BYTE)) {
+      is.readByte();
+      is.addElementError(buildError(is.readLine()));
+      return -1;
+    }
+    return readAggregateLength(is);
+  }
+
+  /**
+   * Read a bulk or simple string element of an aggregate reply. An error element is read as a null
+   * reply, and kept to be thrown once the whole reply has been read, see
+   * {@link RedisInputStream#takeElementError()}.
+   *
+   * @return the value, or {@code null} for a null reply
+   */
+  @Experimental
+  public static byte[] readBinary(final RedisInputStream is) {
+    final byte b = is.readByte();
+    switch (b) {
+      case DOLLAR_BYTE:
+      case EQUAL_BYTE:
+        return processBulkReply(is);
+      case PLUS_BYTE:
+        return is.readLineBytes();
+      case UNDERSCORE_BYTE:
+        is.readNullCrLf();
+        return null;
+      case MINUS_BYTE:
+        is.addElementError(buildError(is.readLine()));
+        return null;
+      default:
+        throw unexpectedReply(b);
+    }
+  }
+
+  /**
+   * @see #readBinary(RedisInputStream)
+   */
+  @Experimental
+  public static String readString(final RedisInputStream is) {
+    final byte[] value = readBinary(is);
+    return value == null ? null : SafeEncoder.encode(value);
+  }
+
+  /**
+   * Read a double element of an aggregate reply, which may also be sent as a bulk string or an
+   * integer. An error element is read as in {@link #readBinary(RedisInputStream)}.
+   *
+   * @return the value, or {@code null} for a null reply
+   */
+  @Experimental
+  public static Double readDouble(final RedisInputStream is) {
+    final byte b = is.readByte();
+    switch (b) {
+      case COMMA_BYTE:
+        return is.readDoubleCrLf();
+      case COLON_BYTE:
+        return (double) is.readLongCrLf();
+      case DOLLAR_BYTE:
+        final byte[] value = processBulkReply(is);
+        return value == null ? null : DoublePrecision.parseFloatingPointNumber(SafeEncoder.encode(value));
+      case UNDERSCORE_BYTE:
+        is.readNullCrLf();
+        return null;
+      case MINUS_BYTE:
+        is.addElementError(buildError(is.readLine()));
+        return null;
+      default:
+        throw unexpectedReply(b);
+    }
+  }
+
+  /**
+   * An element of an unexpected type leaves the rest of the reply unread, so the connection cannot
+   * be used anymore.
+   */
+  private static JedisConnectionException unexpectedReply(final byte b) {
+    return new JedisConnectionException("Unexpected reply: " + (char) b);
+  }
+
   private static void processPush(final RedisInputStream is, Cache cache) {
     List<Object> list = processMultiBulkReply(is);
     if (list.size() == 2 && list.get(0) instanceof byte[]
@@ -254,6 +498,25 @@ public final class Protocol {
     }
   }
 
+  /**
+   * @return the complete RESP bulk string of the value, so that it can be written at once
+   */
+  private static byte[] encodeBulk(final byte[] raw) {
+    final byte[] length = SafeEncoder.encode(String.valueOf(raw.length));
+    final byte[] bulk = new byte[1 + length.length + 2 + raw.length + 2];
+    int pos = 0;
+    bulk[pos++] = DOLLAR_BYTE;
+    System.arraycopy(length, 0, bulk, pos, length.length);
+    pos += length.length;
+    bulk[pos++] = '\r';
+    bulk[pos++] = '\n';
+    System.arraycopy(raw, 0, bulk, pos, raw.length);
+    pos += raw.length;
+    bulk[pos++] = '\r';
+    bulk[pos] = '\n';
+    return bulk;
+  }
+
   public static final byte[] toByteArray(final boolean value) {
     return value ? BYTES_TRUE : BYTES_FALSE;
   }
@@ -309,9 +572,11 @@ public final class Protocol {
     SENTINEL, MODULE, ACL, TOUCH, MEMORY, LOLWUT, COMMAND, RESET, LATENCY, WAITAOF;
 
     private final byte[] raw;
+    private final byte[] bulk;
 
     private Command() {
       raw = SafeEncoder.encode(name());
+      bulk = encodeBulk(raw);
     }
 
     @Override
@@ -337,9 +602,11 @@ public final class Protocol {
     CHANNELS, NUMPAT, NUMSUB, SHARDCHANNELS, SHARDNUMSUB, NOVALUES, MAXAGE;
 
     private final byte[] raw;
+    private final byte[] bulk;
 
     private Keyword() {
       raw = SafeEncoder.encode(name());
+      bulk = encodeBulk(raw);
     }
 
     @Override
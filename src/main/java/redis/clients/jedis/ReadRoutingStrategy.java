@@ -0,0 +1,150 @@
+package redis.clients.jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * Selects the node which serves a read-only command sent to replicas, see
+ * {@link JedisCluster#executeCommandToReplica(CommandObject)}. Replicas are known only if
+ * {@link JedisClientConfig#isReadOnlyForRedisClusterReplicas()} is enabled.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+@Experimental
+@FunctionalInterface
+public interface ReadRoutingStrategy {
+
+  /**
+   * @param primary the primary of the slot of the command, {@code null} if unknown
+   * @param replicas the replicas of the slot, possibly empty
+   * @param metrics what has been observed of the nodes so far
+   * @return the selected node; if {@code null}, the command is sent to the primary
+   */
+  HostAndPort select(HostAndPort primary, List<HostAndPort> replicas, NodeMetrics metrics);
+
+  /**
+   * A random replica, or the primary if there is none. This is the default strategy.
+   */
+  static ReadRoutingStrategy random() {
+    return (primary, replicas, metrics) -> replicas.isEmpty() ? primary
+        : replicas.get(ThreadLocalRandom.current().nextInt(replicas.size()));
+  }
+
+  /**
+   * The primary, unless its last commands have failed with connection errors, in which case a random
+   * replica. The primary is retried with one command per second until one succeeds.
+   */
+  static ReadRoutingStrategy primaryPreferred() {
+    return primaryPreferred(Duration.ofSeconds(1));
+  }
+
+  /**
+   * The primary, unless its last commands have failed with connection errors, in which case a random
+   * replica. The primary is retried with one command per {@code retryInterval} until one succeeds.
+   */
+  static ReadRoutingStrategy primaryPreferred(Duration retryInterval) {
+    final long retryIntervalNanos = retryInterval.toNanos();
+    return (primary, replicas, metrics) -> {
+      if (primary != null && metrics.tryRetry(primary, retryIntervalNanos) || replicas.isEmpty()) {
+        return primary;
+      }
+      return replicas.get(ThreadLocalRandom.current().nextInt(replicas.size()));
+    };
+  }
+
+  /**
+   * A random replica, with a probability inversely proportional to its average latency. A replica
+   * which has not served any command yet is as likely as the fastest one, so that it gets measured.
+   */
+  static ReadRoutingStrategy latencyWeighted() {
+    return (primary, replicas, metrics) -> {
+      if (replicas.size() <= 1) {
+        return replicas.isEmpty() ? primary : replicas.get(0);
+      }
+      long fastest = Long.MAX_VALUE;
+      long[] latencies = new long[replicas.size()];
+      for (int i = 0; i < latencies.length; i++) {
+        latencies[i] = metrics.getLatencyNanos(replicas.get(i));
+        if (latencies[i] > 0 && latencies[i] < fastest) {
+          fastest = latencies[i];
+        }
+      }
+      double[] weights = new double[latencies.length];
+      double total = 0;
+      for (int i = 0; i < latencies.length; i++) {
+        weights[i] = 1.0 / (latencies[i] > 0 ? latencies[i] : fastest == Long.MAX_VALUE ? 1 : fastest);
+        total += weights[i];
+      }
+      double point = ThreadLocalRandom.current().nextDouble() * total;
+      for (int i = 0; i < weights.length - 1; i++) {
+        point -= weights[i];
+        if (point < 0) {
+          return replicas.get(i);
+        }
+      }
+      return replicas.get(weights.length - 1);
+    };
+  }
+
+  /**
+   * The replica with the fewest commands in flight. Ties are broken randomly.
+   */
+  static ReadRoutingStrategy leastOutstanding() {
+    return (primary, replicas, metrics) -> {
+      if (replicas.isEmpty()) {
+        return primary;
+      }
+      final int size = replicas.size();
+      final int start = ThreadLocalRandom.current().nextInt(size);
+      HostAndPort selected = null;
+      int fewest = Integer.MAX_VALUE;
+      for (int i = 0; i < size; i++) {
+        HostAndPort replica = replicas.get((start + i) % size);
+        int outstanding = metrics.getOutstanding(replica);
+        if (outstanding < fewest) {
+          fewest = outstanding;
+          selected = replica;
+        }
+      }
+      return selected;
+    };
+  }
+
+  /**
+   * Prefer the nodes which have the given tag, for example those in the availability zone of the
+   * client. The replicas having the tag are selected from by the {@code fallback} strategy; if there is
+   * none, the primary is selected if it has the tag, otherwise the {@code fallback} strategy selects
+   * among all replicas.
+   *
+   * @param tagMapper returns the tag of a node, or {@code null}
+   * @param tag the preferred tag
+   * @param fallback the strategy which selects among the candidates
+   */
+  static ReadRoutingStrategy preferTag(Function<HostAndPort, String> tagMapper, String tag,
+      ReadRoutingStrategy fallback) {
+    Objects.requireNonNull(tagMapper, "tagMapper");
+    Objects.requireNonNull(tag, "tag");
+    Objects.requireNonNull(fallback, "fallback");
+    return (primary, replicas, metrics) -> {
+      List<HostAndPort> tagged = new ArrayList<>(replicas.size());
+      for (HostAndPort replica : replicas) {
+        if (tag.equals(tagMapper.apply(replica))) {
+          tagged.add(replica);
+        }
+      }
+      if (!tagged.isEmpty()) {
+        return fallback.select(primary, tagged, metrics);
+      }
+      if (primary != null && tag.equals(tagMapper.apply(primary))) {
+        return primary;
+      }
+      return fallback.select(primary, replicas, metrics);
+    };
+  }
+}
@@ -0,0 +1,389 @@
+package redis.clients.jedis;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.DoublePrecision;
+import redis.clients.jedis.util.KeyValue;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * An incremental, non-recursive RESP2/RESP3 decoder.
+ * <p>
+ * Bytes can be fed in slices of any size; the decoder suspends whenever a slice ends, be it inside a
+ * line, inside a bulk string or inside a nested aggregate, and resumes with the next slice. Nesting
+ * depth is bounded by the heap instead of the thread stack.
+ * <p>
+ * Decoded replies have the same representation as the ones returned by {@link Protocol#read}, except
+ * that error replies are returned (instead of thrown) as {@link JedisDataException}s. A reply can
+ * also be captured in RESP instead, see {@link #setRaw(boolean)}, so that it can be read later by the
+ * readers of {@link Protocol}.
+ * <p>
+ * This class is not thread-safe.
+ */
+@Experimental
+public final class RespDecoder {
+
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+  private static final byte BLOB_ERROR_BYTE = '!';
+
+  private static final int STATE_TYPE = 0;
+  private static final int STATE_LINE = 1;
+  private static final int STATE_BULK = 2;
+  private static final int STATE_BULK_CRLF = 3;
+
+  private int state = STATE_TYPE;
+  private byte type;
+
+  private byte[] line = new byte[64];
+  private int lineLength;
+  private boolean lineCr;
+
+  private byte[] bulk;
+  private int bulkLength;
+  private int bulkOffset;
+  private int crLfLeft;
+
+  private Aggregate top;
+  private byte rootType;
+
+  private boolean rawNext;
+  private boolean raw;
+  private byte[] rawBytes;
+  private int rawLength;
+
+  private boolean replyReady;
+  private Object reply;
+
+  /**
+   * Consume bytes from the buffer until one complete reply is decoded or the buffer is exhausted.
+   * The position of the buffer is advanced over the consumed bytes only, so any following replies
+   * remain in the buffer.
+   *
+   * @return {@code true} if a complete reply is available via {@link #getReply()}
+   */
+  public boolean decode(final ByteBuffer buffer) {
+    if (replyReady) {
+      throw new IllegalStateException("The previous reply has not been consumed.");
+    }
+    while (!replyReady && buffer.hasRemaining()) {
+      final int start = buffer.position();
+      switch (state) {
+        case STATE_TYPE:
+          type = buffer.get();
+          if (top == null) {
+            rootType = type;
+            raw = rawNext;
+            if (raw) {
+              rawBytes = new byte[64];
+              rawLength = 0;
+            }
+          }
+          lineLength = 0;
+          lineCr = false;
+          state = STATE_LINE;
+          break;
+        case STATE_LINE:
+          if (readLine(buffer)) {
+            processLine();
+          }
+          break;
+        case STATE_BULK:
+          final int length = Math.min(buffer.remaining(), bulkLength - bulkOffset);
+          if (raw) {
+            if (bulkOffset == 0) {
+              ensureRawCapacity(bulkLength + 2);
+            }
+            buffer.position(buffer.position() + length);
+          } else {
+            buffer.get(bulk, bulkOffset, length);
+          }
+          bulkOffset += length;
+          if (bulkOffset == bulkLength) {
+            crLfLeft = 2;
+            state = STATE_BULK_CRLF;
+          }
+          break;
+        case STATE_BULK_CRLF:
+          // skip the 2 bytes of the delimiter
+          buffer.get();
+          if (--crLfLeft == 0) {
+            state = STATE_TYPE;
+            final byte[] value = bulk;
+            bulk = null;
+            if (raw) {
+              complete(null);
+            } else if (type == BLOB_ERROR_BYTE) {
+              complete(Protocol.buildError(SafeEncoder.encode(value)));
+            } else {
+              complete(value);
+            }
+          }
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+      if (raw) {
+        capture(buffer, start);
+      }
+    }
+    return replyReady;
+  }
+
+  /**
+   * Capture the replies which start from now on in RESP, as they are read, instead of decoding them.
+   * A captured reply is only delimited, so it is copied once and its values are not materialized.
+   */
+  public void setRaw(final boolean raw) {
+    this.rawNext = raw;
+  }
+
+  /**
+   * @return the reply completed by the last successful {@link #decode(ByteBuffer)}; error replies
+   * are returned as {@link JedisDataException}s, and a captured reply as a {@link ByteBuffer} over
+   * its bytes in RESP
+   */
+  public Object getReply() {
+    if (!replyReady) {
+      throw new IllegalStateException("No reply is available.");
+    }
+    final Object value = raw ? ByteBuffer.wrap(rawBytes, 0, rawLength) : reply;
+    rawBytes = null;
+    reply = null;
+    replyReady = false;
+    return value;
+  }
+
+  /**
+   * @return {@code true} if the reply available via {@link #getReply()} is a RESP3 push message,
+   * which does not answer any command
+   */
+  public boolean isPush() {
+    return replyReady && rootType == Protocol.GREATER_THAN_BYTE;
+  }
+
+  /**
+   * @return {@code true} if the decoder is not in the middle of a reply
+   */
+  public boolean isIdle() {
+    return state == STATE_TYPE && top == null && !replyReady;
+  }
+
+  /**
+   * Drop any partially decoded reply.
+   */
+  public void reset() {
+    state = STATE_TYPE;
+    top = null;
+    bulk = null;
+    raw = false;
+    rawBytes = null;
+    reply = null;
+    replyReady = false;
+  }
+
+  private boolean readLine(final ByteBuffer buffer) {
+    while (buffer.hasRemaining()) {
+      final byte b = buffer.get();
+      if (lineCr) {
+        if (b == LF) {
+          return true;
+        }
+        appendLine(CR);
+        lineCr = false;
+      }
+      if (b == CR) {
+        lineCr = true;
+      } else {
+        appendLine(b);
+      }
+    }
+    return false;
+  }
+
+  private void capture(final ByteBuffer buffer, final int start) {
+    final int length = buffer.position() - start;
+    ensureRawCapacity(length);
+    buffer.position(start);
+    buffer.get(rawBytes, rawLength, length);
+    rawLength += length;
+  }
+
+  private void ensureRawCapacity(final int length) {
+    if (rawLength + length > rawBytes.length) {
+      rawBytes = Arrays.copyOf(rawBytes, Math.max(rawBytes.length << 1, rawLength + length));
+    }
+  }
+
+  private void appendLine(final byte b) {
+    if (lineLength == line.length) {
+      line = Arrays.copyOf(line, line.length << 1);
+    }
+    line[lineLength++] = b;
+  }
+
+  private void processLine() {
+    state = STATE_TYPE;
+    switch (type) {
+      case Protocol.PLUS_BYTE:
+        complete(raw ? null : Arrays.copyOf(line, lineLength));
+        break;
+      case Protocol.DOLLAR_BYTE:
+      case Protocol.EQUAL_BYTE:
+      case BLOB_ERROR_BYTE:
+        startBulk((int) lineAsLong());
+        break;
+      case Protocol.ASTERISK_BYTE:
+      case Protocol.TILDE_BYTE:
+      case Protocol.GREATER_THAN_BYTE:
+        startAggregate((int) lineAsLong(), false);
+        break;
+      case Protocol.PERCENT_BYTE:
+        startAggregate((int) lineAsLong(), true);
+        break;
+      case Protocol.UNDERSCORE_BYTE:
+        complete(null);
+        break;
+      case Protocol.HASH_BYTE:
+        complete(lineAsBoolean());
+        break;
+      case Protocol.COLON_BYTE:
+        complete(lineAsLong());
+        break;
+      case Protocol.COMMA_BYTE:
+        complete(raw ? null : DoublePrecision.parseFloatingPointNumber(lineAsString()));
+        break;
+      case Protocol.LEFT_BRACE_BYTE:
+        complete(raw ? null : new BigInteger(lineAsString()));
+        break;
+      case Protocol.MINUS_BYTE:
+        complete(raw ? null : Protocol.buildError(lineAsString()));
+        break;
+      default:
+        throw new JedisConnectionException("Unknown reply: " + (char) type);
+    }
+  }
+
+  private void startBulk(final int length) {
+    if (length < 0) {
+      complete(null);
+    } else if (length == 0) {
+      bulk = raw ? null : new byte[0];
+      crLfLeft = 2;
+      state = STATE_BULK_CRLF;
+    } else {
+      bulk = raw ? null : new byte[length];
+      bulkLength = length;
+      bulkOffset = 0;
+      state = STATE_BULK;
+    }
+  }
+
+  private void startAggregate(final int size, final boolean map) {
+    if (size < 0) {
+      complete(null);
+    } else if (size == 0) {
+      complete(raw ? null : map ? Protocol.PROTOCOL_EMPTY_MAP : new ArrayList<>(0));
+    } else {
+      top = new Aggregate(top, size, map, raw);
+    }
+  }
+
+  private void complete(Object value) {
+    while (true) {
+      final Aggregate aggregate = top;
+      if (aggregate == null) {
+        reply = value;
+        replyReady = true;
+        return;
+      }
+      if (!aggregate.add(value)) {
+        return;
+      }
+      top = aggregate.parent;
+      value = aggregate.values;
+    }
+  }
+
+  private long lineAsLong() {
+    int i = 0;
+    final boolean isNeg = lineLength > 0 && line[0] == '-';
+    if (isNeg) {
+      i++;
+    }
+    long value = 0;
+    for (; i < lineLength; i++) {
+      final int digit = line[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw new JedisConnectionException("Unexpected character!");
+      }
+      value = value * 10 + digit;
+    }
+    return isNeg ? -value : value;
+  }
+
+  private boolean lineAsBoolean() {
+    if (lineLength == 1) {
+      switch (line[0]) {
+        case 't':
+          return true;
+        case 'f':
+          return false;
+      }
+    }
+    throw new JedisConnectionException("Unexpected character!");
+  }
+
+  private String lineAsString() {
+    return new String(line, 0, lineLength, Protocol.CHARSET);
+  }
+
+  private static final class Aggregate {
+
+    private final Aggregate parent;
+    private final int size;
+    private final boolean map;
+    private final List values;
+    private Object key;
+    private boolean hasKey;
+    private int count;
+
+    /**
+     * The elements of a captured aggregate are only counted.
+     */
+    Aggregate(Aggregate parent, int size, boolean map, boolean raw) {
+      this.parent = parent;
+      this.size = size;
+      this.map = map;
+      this.values = raw ? null : new ArrayList<>(size);
+    }
+
+    /**
+     * @return {@code true} if the aggregate is complete
+     */
+    @SuppressWarnings("unchecked")
+    boolean add(Object value) {
+      if (values == null) {
+        return ++count == (map ? 2 * size : size);
+      } else if (!map) {
+        values.add(value);
+      } else if (!hasKey) {
+        key = value;
+        hasKey = true;
+        return false;
+      } else {
+        values.add(new KeyValue<>(key, value));
+        key = null;
+        hasKey = false;
+      }
+      return values.size() == size;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package redis.clients.jedis;
+
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.util.RedisInputStream;
+
+/**
+ * A {@link Builder} which can also build its value in one pass, straight from the reply tokens in the
+ * input stream, instead of from the {@code List<Object>} tree returned by {@link Protocol#read}.
+ * <p>
+ * A connection uses {@link #read(RedisInputStream)} whenever it reads the reply of a single command
+ * itself. {@link #build(Object)} is still used wherever the reply has already been read, e.g. in
+ * pipelines and transactions, so both methods must produce the same value.
+ * <p>
+ * Implementations pull the reply with the token methods of {@link Protocol}, like
+ * {@link Protocol#readAggregateLength(RedisInputStream)} and
+ * {@link Protocol#readBinary(RedisInputStream)}. They must consume the whole reply. An error element
+ * is read as a null reply, and thrown by the connection once the whole reply has been read, as an
+ * error element of a reply tree fails the {@link #build(Object)} of the same reply.
+ */
+@Experimental
+public abstract class StreamingBuilder<T> extends Builder<T> {
+
+  public abstract T read(RedisInputStream is);
+
+  /**
+   * @return {@code false} if the value is not the reply itself but e.g. the length of a reply which
+   * has been written elsewhere, so that it must not be cached by client-side caching
+   */
+  public boolean isCacheable() {
+    return true;
+  }
+}
@@ -1,10 +1,15 @@
 package redis.clients.jedis;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.json.JSONArray;
@@ -49,6 +54,7 @@ import redis.clients.jedis.timeseries.*;
 import redis.clients.jedis.util.IOUtils;
 import redis.clients.jedis.util.JedisURIHelper;
 import redis.clients.jedis.util.KeyValue;
+import redis.clients.jedis.util.RedisInputStream;
 
 public class UnifiedJedis implements JedisCommands, JedisBinaryCommands,
     SampleKeyedCommands, SampleBinaryKeyedCommands, RedisModuleCommands,
@@ -247,6 +253,25 @@ public class UnifiedJedis implements JedisCommands, JedisBinaryCommands,
     this(new CircuitBreakerCommandExecutor(provider), provider);
   }
 
+  /**
+   * Constructor which executes the commands over non-blocking {@link redis.clients.jedis.nio.NioConnection}s.
+   * Use {@link UnifiedJedis#executeCommandAsync(CommandObject)} to execute commands without blocking the
+   * calling thread.
+   */
+  @Experimental
+  public UnifiedJedis(NioConnectionProvider provider) {
+    this(new NioCommandExecutor(provider), provider);
+  }
+
+  /**
+   * Constructor which shares a few non-blocking connections among all threads. Commands executed
+   * concurrently are automatically pipelined.
+   */
+  @Experimental
+  public UnifiedJedis(MultiplexedConnectionProvider provider) {
+    this(new MultiplexedCommandExecutor(provider), provider);
+  }
+
   /**
    * The constructor to use a custom {@link CommandExecutor}.
    * <p>
@@ -320,6 +345,109 @@ public class UnifiedJedis implements JedisCommands, JedisBinaryCommands,
     return executor.executeCommand(commandObject);
   }
 
+  @Experimental
+  public final <T> CompletableFuture<T> executeCommandAsync(CommandObject<T> commandObject) {
+    return executor.executeCommandAsync(commandObject);
+  }
+
+  /**
+   * The command is executed by the executor, so that it is redirected and retried like any other
+   * command. A retried command writes the value into the buffer again, from the same position.
+   */
+  private int readBulkReply(CommandObject<byte[]> commandObject, ByteBuffer dst) {
+    final int position = dst.position();
+    return executeCommand(new CommandObject<>(commandObject.getArguments(), new StreamingBuilder<Integer>() {
+      @Override
+      public Integer read(RedisInputStream is) {
+        dst.position(position);
+        return Protocol.readBulkReply(is, dst);
+      }
+
+      @Override
+      public Integer build(Object data) {
+        dst.position(position);
+        if (data == null) {
+          return -1;
+        }
+        final byte[] value = (byte[]) data;
+        if (value.length > dst.remaining()) {
+          throw new JedisException("Bulk reply of " + value.length + " bytes does not fit in the remaining "
+              + dst.remaining() + " bytes of the buffer.");
+        }
+        dst.put(value);
+        return value.length;
+      }
+
+      @Override
+      public boolean isCacheable() {
+        return false;
+      }
+    }));
+  }
+
+  /**
+   * The command is executed by the executor, so that it is redirected and retried like any other
+   * command. What has been written into a channel cannot be taken back though, so a command which
+   * is retried once its value has been partly written fails instead.
+   */
+  private long readBulkReply(CommandObject<byte[]> commandObject, WritableByteChannel dst) {
+    return executeCommand(new CommandObject<>(commandObject.getArguments(), new StreamingBuilder<Long>() {
+      private boolean written = false;
+
+      @Override
+      public Long read(RedisInputStream is) {
+        final int len = Protocol.readBulkLength(is);
+        if (len == -1) {
+          return -1L;
+        }
+        if (written) {
+          is.skip(len + 2L);
+          throw new JedisException("The value has already been partly written to the channel.");
+        }
+        written = true;
+        is.transferTo(dst, len);
+        // read 2 more bytes for the command delimiter
+        is.readByte();
+        is.readByte();
+        return (long) len;
+      }
+
+      @Override
+      public Long build(Object data) {
+        if (data == null) {
+          return -1L;
+        }
+        if (written) {
+          throw new JedisException("The value has already been partly written to the channel.");
+        }
+        written = true;
+        final ByteBuffer src = ByteBuffer.wrap((byte[]) data);
+        try {
+          while (src.hasRemaining()) {
+            dst.write(src);
+          }
+        } catch (IOException ioe) {
+          throw new JedisException("Failed to write bulk reply to channel.", ioe);
+        }
+        return (long) src.capacity();
+      }
+
+      @Override
+      public boolean isCacheable() {
+        return false;
+      }
+    }));
+  }
+
+  /**
+   * Build a command once, to be executed repeatedly via {@link #executeCommand(CommandObject)}
+   * without encoding it again, e.g. {@code jedis.prepare(c -> c.hgetAll("feature:flags"))}.
+   */
+  @Experimental
+  public final <T> PreparedCommand<T> prepare(Function<CommandObjects, CommandObject<T>> command) {
+    return new PreparedCommand<>(command.apply(commandObjects));
+  }
+
   public final <T> T broadcastCommand(CommandObject<T> commandObject) {
     return executor.broadcastCommand(commandObject);
   }
@@ -838,6 +966,27 @@ public class UnifiedJedis implements JedisCommands, JedisBinaryCommands,
     return executeCommand(commandObjects.get(key));
   }
 
+  /**
+   * Same as {@link #get(byte[])}, but the value is written straight into the buffer instead of a
+   * newly allocated byte array. The value is not cached by client-side caching.
+   * @return the length of the value, or -1 if the key does not exist
+   * @throws redis.clients.jedis.exceptions.JedisException if the value does not fit in the buffer
+   */
+  @Experimental
+  public int get(byte[] key, ByteBuffer dst) {
+    return readBulkReply(commandObjects.get(key), dst);
+  }
+
+  /**
+   * Same as {@link #get(byte[])}, but the value is written straight into the channel instead of a
+   * newly allocated byte array. The value is not cached by client-side caching.
+   * @return the length of the value, or -1 if the key does not exist
+   */
+  @Experimental
+  public long get(byte[] key, WritableByteChannel dst) {
+    return readBulkReply(commandObjects.get(key), dst);
+  }
+
   @Override
   public byte[] setGet(byte[] key, byte[] value) {
     return executeCommand(commandObjects.setGet(key, value));
@@ -898,6 +1047,22 @@ public class UnifiedJedis implements JedisCommands, JedisBinaryCommands,
     return executeCommand(commandObjects.getrange(key, startOffset, endOffset));
   }
 
+  /**
+   * @see #get(byte[], ByteBuffer)
+   */
+  @Experimental
+  public int getrange(byte[] key, long startOffset, long endOffset, ByteBuffer dst) {
+    return readBulkReply(commandObjects.getrange(key, startOffset, endOffset), dst);
+  }
+
+  /**
+   * @see #get(byte[], WritableByteChannel)
+   */
+  @Experimental
+  public long getrange(byte[] key, long startOffset, long endOffset, WritableByteChannel dst) {
+    return readBulkReply(commandObjects.getrange(key, startOffset, endOffset), dst);
+  }
+
   /**
    * @deprecated Use {@link UnifiedJedis#setGet(java.lang.String, java.lang.String)}.
    */
@@ -1515,6 +1680,22 @@ public class UnifiedJedis implements JedisCommands, JedisBinaryCommands,
     return executeCommand(commandObjects.hget(key, field));
   }
 
+  /**
+   * @see #get(byte[], ByteBuffer)
+   */
+  @Experimental
+  public int hget(byte[] key, byte[] field, ByteBuffer dst) {
+    return readBulkReply(commandObjects.hget(key, field), dst);
+  }
+
+  /**
+   * @see #get(byte[], WritableByteChannel)
+   */
+  @Experimental
+  public long hget(byte[] key, byte[] field, WritableByteChannel dst) {
+    return readBulkReply(commandObjects.hget(key, field), dst);
+  }
+
   @Override
   public long hsetnx(byte[] key, byte[] field, byte[] value) {
     return executeCommand(commandObjects.hsetnx(key, field, value));
@@ -2,7 +2,18 @@ package redis.clients.jedis.args;
 
 import static redis.clients.jedis.Protocol.toByteArray;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.util.RedisOutputStream;
 import redis.clients.jedis.util.SafeEncoder;
 
 /**
@@ -16,7 +27,7 @@ public final class RawableFactory {
    * @return raw
    */
   public static Rawable from(boolean b) {
-    return from(toByteArray(b));
+    return new RawLong(b ? 1 : 0);
   }
 
   /**
@@ -25,7 +36,7 @@ public final class RawableFactory {
    * @return raw
    */
   public static Rawable from(int i) {
-    return from(toByteArray(i));
+    return new RawLong(i);
   }
 
   /**
@@ -34,7 +45,7 @@ public final class RawableFactory {
    * @return raw
    */
   public static Rawable from(long l) {
-    return from(toByteArray(l));
+    return new RawLong(l);
   }
 
   /**
@@ -43,7 +54,7 @@ public final class RawableFactory {
    * @return raw
    */
   public static Rawable from(double d) {
-    return from(toByteArray(d));
+    return wrap(toByteArray(d));
   }
 
   /**
@@ -55,6 +66,16 @@ public final class RawableFactory {
     return new Raw(binary);
   }
 
+  /**
+   * Get a {@link Rawable} from a byte array, without copying it. The ownership of the array is
+   * transferred; it must not be modified afterwards.
+   * @param binary value
+   * @return raw
+   */
+  public static Rawable wrap(byte[] binary) {
+    return new Raw(binary, false);
+  }
+
   /**
    * Get a {@link Rawable} from a {@link String}.
    * @param string value
@@ -64,6 +85,45 @@ public final class RawableFactory {
     return new RawString(string);
   }
 
+  /**
+   * Get a {@link Rawable} streamed from an {@link InputStream}. The stream is read, but not closed,
+   * when the command is sent; so the argument can be sent only once. Sending it again, e.g. when a
+   * command is retried after a redirection or a connection error, fails with a
+   * {@link JedisException} instead of sending a drained stream.
+   * @param in stream with at least {@code length} more bytes
+   * @param length number of bytes to send
+   * @return raw
+   */
+  @Experimental
+  public static StreamingRawable from(InputStream in, long length) {
+    return new RawInputStream(in, length);
+  }
+
+  /**
+   * Get a {@link Rawable} streamed from a region of a file. The position of the channel is not
+   * changed, so the argument can be sent more than once.
+   * @param channel file
+   * @param position start of the region
+   * @param length number of bytes to send
+   * @return raw
+   */
+  @Experimental
+  public static StreamingRawable from(FileChannel channel, long position, long length) {
+    return new RawFileChannel(channel, position, length);
+  }
+
+  /**
+   * Get a {@link Rawable} streamed from a whole file. The file is opened each time the command is
+   * sent.
+   * @param path file
+   * @return raw
+   * @throws IOException if the size of the file cannot be read
+   */
+  @Experimental
+  public static StreamingRawable from(Path path) throws IOException {
+    return new RawPath(path, Files.size(path));
+  }
+
   /**
    * Default implementation of {@link Rawable}.
    */
@@ -72,7 +132,11 @@ public final class RawableFactory {
     private final byte[] raw;
 
     public Raw(byte[] raw) {
-      this.raw = Arrays.copyOf(raw, raw.length);
+      this(raw, true);
+    }
+
+    private Raw(byte[] raw, boolean copy) {
+      this.raw = copy ? Arrays.copyOf(raw, raw.length) : raw;
     }
 
     @Override
@@ -101,7 +165,152 @@ public final class RawableFactory {
     // TODO: private final String str; ^ implements Rawable
 
     public RawString(String str) {
-      super(SafeEncoder.encode(str));
+      super(SafeEncoder.encode(str), false);
+    }
+  }
+
+  /**
+   * A {@link Rawable} of an integer, whose digits are written straight to the output stream.
+   */
+  private static class RawLong implements StreamingRawable {
+
+    private final long value;
+
+    RawLong(long value) {
+      this.value = value;
+    }
+
+    @Override
+    public long getLength() {
+      return RedisOutputStream.decimalLength(value);
+    }
+
+    @Override
+    public void writeTo(RedisOutputStream out) throws IOException {
+      out.writeLong(value);
+    }
+
+    @Override
+    public byte[] getRaw() {
+      return toByteArray(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      return value == ((RawLong) o).value;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(value);
+    }
+  }
+
+  /**
+   * Base of the {@link StreamingRawable}s. Once {@link #getRaw()} is called, the materialized bytes
+   * are also used to send the argument.
+   */
+  private abstract static class StreamingRaw implements StreamingRawable {
+
+    private final long length;
+    private byte[] raw;
+
+    StreamingRaw(long length) {
+      if (length < 0) {
+        throw new IllegalArgumentException("length < 0");
+      }
+      this.length = length;
+    }
+
+    @Override
+    public long getLength() {
+      return length;
+    }
+
+    @Override
+    public void writeTo(RedisOutputStream out) throws IOException {
+      if (raw != null) {
+        out.write(raw);
+      } else {
+        stream(out);
+      }
+    }
+
+    abstract void stream(RedisOutputStream out) throws IOException;
+
+    @Override
+    public byte[] getRaw() {
+      if (raw == null) {
+        if (length > Integer.MAX_VALUE - 8) {
+          throw new JedisException("Argument of " + length + " bytes cannot be materialized.");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) length);
+        try {
+          RedisOutputStream out = new RedisOutputStream(bytes);
+          stream(out);
+          out.flush();
+        } catch (IOException ioe) {
+          throw new JedisException("Failed to read streamed argument.", ioe);
+        }
+        raw = bytes.toByteArray();
+      }
+      return raw;
+    }
+  }
+
+  private static class RawInputStream extends StreamingRaw {
+
+    private final InputStream in;
+    private boolean consumed = false;
+
+    RawInputStream(InputStream in, long length) {
+      super(length);
+      this.in = in;
+    }
+
+    @Override
+    void stream(RedisOutputStream out) throws IOException {
+      if (consumed) {
+        throw new JedisException("The InputStream argument has already been sent, so it cannot be sent again.");
+      }
+      consumed = true;
+      out.write(in, getLength());
+    }
+  }
+
+  private static class RawFileChannel extends StreamingRaw {
+
+    private final FileChannel channel;
+    private final long position;
+
+    RawFileChannel(FileChannel channel, long position, long length) {
+      super(length);
+      this.channel = channel;
+      this.position = position;
+    }
+
+    @Override
+    void stream(RedisOutputStream out) throws IOException {
+      out.write(channel, position, getLength());
+    }
+  }
+
+  private static class RawPath extends StreamingRaw {
+
+    private final Path path;
+
+    RawPath(Path path, long length) {
+      super(length);
+      this.path = path;
+    }
+
+    @Override
+    void stream(RedisOutputStream out) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        out.write(channel, 0, getLength());
+      }
     }
   }
 
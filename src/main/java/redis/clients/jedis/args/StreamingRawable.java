@@ -0,0 +1,31 @@
+package redis.clients.jedis.args;
+
+import java.io.IOException;
+
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.util.RedisOutputStream;
+
+/**
+ * A {@link Rawable} whose bytes are written straight to the socket output stream when the command is
+ * sent, instead of being held in a byte array; e.g. large values read from files or streams, or
+ * integers whose digits are encoded in place.
+ * <p>
+ * {@link #getRaw()} is still supported, but it materializes the whole value in memory.
+ *
+ * @see RawableFactory#from(java.io.InputStream, long)
+ * @see RawableFactory#from(java.nio.channels.FileChannel, long, long)
+ * @see RawableFactory#from(java.nio.file.Path)
+ */
+@Experimental
+public interface StreamingRawable extends Rawable {
+
+  /**
+   * @return number of bytes to be written
+   */
+  long getLength();
+
+  /**
+   * Write exactly {@link #getLength()} bytes to the stream.
+   */
+  void writeTo(RedisOutputStream out) throws IOException;
+}
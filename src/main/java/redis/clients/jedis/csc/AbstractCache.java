@@ -1,12 +1,15 @@
 package redis.clients.jedis.csc;
 
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -25,6 +28,16 @@ public abstract class AbstractCache implements Cache {
   private final int maximumSize;
   private ReentrantLock lock = new ReentrantLock();
   private volatile CacheStats stats = new CacheStats();
+  private volatile ValueCopier valueCopier = DefaultValueCopier.INSTANCE;
+  // null unless set, the entries are weighed only if a weigher or a maximum weight is set
+  private volatile Weigher weigher;
+  private volatile long maximumWeight = Long.MAX_VALUE;
+  private final AtomicLong weight = new AtomicLong();
+  private volatile Expiry expiry;
+  private volatile long expireAfterAccess = Long.MAX_VALUE;
+  private volatile long maxStaleness = Long.MAX_VALUE;
+  private volatile LongSupplier ticker = System::nanoTime;
+  private TimerWheel timerWheel;
 
   protected AbstractCache(int maximumSize) {
     this(maximumSize, DefaultCacheable.INSTANCE);
@@ -52,6 +65,14 @@ public abstract class AbstractCache implements Cache {
   public CacheEntry get(CacheKey cacheKey) {
     CacheEntry entry = getFromStore(cacheKey);
     if (entry != null) {
+      if (isExpiring()) {
+        long now = now();
+        if (isExpired(entry, now)) {
+          expire(cacheKey, entry);
+          return null;
+        }
+        entry.setAccessedAt(now);
+      }
       getEvictionPolicy().touch(cacheKey);
     }
     return entry;
@@ -61,7 +82,21 @@ public abstract class AbstractCache implements Cache {
   public CacheEntry set(CacheKey cacheKey, CacheEntry entry) {
     lock.lock();
     try {
-      entry = putIntoStore(cacheKey, entry);
+      entry.setWeight(weigh(cacheKey, entry));
+      final boolean expiring = isExpiring();
+      final long now = expiring ? now() : 0;
+      if (expiring) {
+        startExpiry(entry, now);
+      }
+      CacheEntry previous = putIntoStore(cacheKey, entry);
+      addWeight(entry.getWeight() - (previous != null ? previous.getWeight() : 0));
+      if (expiring) {
+        if (previous != null) {
+          stopExpiry(previous);
+        }
+        scheduleExpiry(entry, now);
+      }
+      entry = previous;
       EvictionPolicy policy = getEvictionPolicy();
       policy.touch(cacheKey);
       CacheKey evictedKey = policy.evictNext();
@@ -69,6 +104,11 @@ public abstract class AbstractCache implements Cache {
         delete(evictedKey);
         stats.evict();
       }
+      // a heavy entry may take the place of several light ones
+      while (getWeight() > getMaxWeight() && (evictedKey = policy.evictNext()) != null) {
+        delete(evictedKey);
+        stats.evict();
+      }
       for (Object redisKey : cacheKey.getRedisKeys()) {
         ByteBuffer mapKey = makeKeyForRedisKeysToCacheKeys(redisKey);
         if (redisKeysToCacheKeys.containsKey(mapKey)) {
@@ -79,6 +119,9 @@ public abstract class AbstractCache implements Cache {
           redisKeysToCacheKeys.put(mapKey, set);
         }
       }
+      if (expiring) {
+        expireEntries(now);
+      }
       stats.load();
       return entry;
     } finally {
@@ -90,7 +133,7 @@ public abstract class AbstractCache implements Cache {
   public boolean delete(CacheKey cacheKey) {
     lock.lock();
     try {
-      boolean removed = removeFromStore(cacheKey);
+      boolean removed = remove(cacheKey);
       getEvictionPolicy().reset(cacheKey);
 
       // removing it from redisKeysToCacheKeys as well
@@ -127,7 +170,7 @@ public abstract class AbstractCache implements Cache {
       Set<CacheKey<?>> commands = redisKeysToCacheKeys.get(mapKey);
       List<CacheKey> cacheKeys = new ArrayList<>();
       if (commands != null) {
-        cacheKeys.addAll(commands.stream().filter(this::removeFromStore).collect(Collectors.toList()));
+        cacheKeys.addAll(commands.stream().filter(this::remove).collect(Collectors.toList()));
         stats.invalidationByServer(cacheKeys.size());
         redisKeysToCacheKeys.remove(mapKey);
       }
@@ -159,6 +202,8 @@ public abstract class AbstractCache implements Cache {
     try {
       int result = this.getSize();
       clearStore();
+      weight.set(0);
+      clearExpiry();
       redisKeysToCacheKeys.clear();
       getEvictionPolicy().resetAll();
       getStats().flush();
@@ -197,6 +242,76 @@ public abstract class AbstractCache implements Cache {
   public boolean compatibilityMode() {
     return false;
   }
+
+  @Override
+  public ValueCopier getValueCopier() {
+    return valueCopier;
+  }
+
+  public void setValueCopier(ValueCopier valueCopier) {
+    this.valueCopier = valueCopier;
+  }
+
+  @Override
+  public long getWeight() {
+    return weight.get();
+  }
+
+  @Override
+  public long getMaxWeight() {
+    return maximumWeight;
+  }
+
+  /**
+   * Set the maximum total weight of the entries. Unless a {@link #setWeigher(Weigher) weigher} or a
+   * maximum weight is set, the entries are not weighed, and the entries stored before weigh nothing.
+   */
+  public void setMaxWeight(long maximumWeight) {
+    if (maximumWeight < 0) {
+      throw new IllegalArgumentException("maximumWeight < 0");
+    }
+    this.maximumWeight = maximumWeight;
+  }
+
+  @Override
+  public Expiry getExpiry() {
+    return expiry;
+  }
+
+  /**
+   * @param expiry how long the entries may be served after they have been stored, or {@code null} if
+   * they do not expire
+   */
+  public void setExpiry(Expiry expiry) {
+    this.expiry = expiry;
+  }
+
+  /**
+   * @param duration the time after which the entries which have not been read expire, or
+   * {@code null} if they do not expire
+   */
+  public void setExpireAfterAccess(Duration duration) {
+    this.expireAfterAccess = toNanos(duration);
+  }
+
+  /**
+   * Set the longest time an entry may be served, whatever the {@link #setExpiry(Expiry) expiry} is,
+   * as a safety net in case an invalidation message is lost.
+   *
+   * @param duration the maximum age of the entries, or {@code null} if there is none
+   */
+  public void setMaxStaleness(Duration duration) {
+    this.maxStaleness = toNanos(duration);
+  }
+
+  public Weigher getWeigher() {
+    Weigher weigher = this.weigher;
+    return weigher != null ? weigher : DefaultWeigher.INSTANCE;
+  }
+
+  public void setWeigher(Weigher weigher) {
+    this.weigher = weigher;
+  }
   // End of Cache interface methods
 
   // abstract methods to be implemented by the concrete classes
@@ -214,7 +329,166 @@ public abstract class AbstractCache implements Cache {
 
   // End of abstract methods to be implemented by the concrete classes
 
-  private ByteBuffer makeKeyForRedisKeysToCacheKeys(Object key) {
+  /**
+   * @return the weight of an entry which is about to be stored, {@code 0} if neither a weigher nor a
+   * maximum weight is set, so that the values are not walked for nothing
+   */
+  protected int weigh(CacheKey cacheKey, CacheEntry entry) {
+    Weigher weigher = this.weigher;
+    if (weigher == null) {
+      if (maximumWeight == Long.MAX_VALUE) {
+        return 0;
+      }
+      weigher = DefaultWeigher.INSTANCE;
+    }
+    return Math.max(0, weigher.weigh(cacheKey, entry.getStoredValue()));
+  }
+
+  /**
+   * Add to, or subtract from, the total weight of the entries, for the subclasses which manage the
+   * entries themselves.
+   */
+  protected void addWeight(long delta) {
+    weight.addAndGet(delta);
+  }
+
+  protected void resetWeight() {
+    weight.set(0);
+  }
+
+  private boolean remove(CacheKey cacheKey) {
+    CacheEntry entry = getFromStore(cacheKey);
+    boolean removed = removeFromStore(cacheKey);
+    if (removed && entry != null) {
+      addWeight(-entry.getWeight());
+      stopExpiry(entry);
+    }
+    return removed;
+  }
+
+  private void expire(CacheKey cacheKey, CacheEntry entry) {
+    lock.lock();
+    try {
+      if (getFromStore(cacheKey) == entry) {
+        delete(cacheKey);
+        stats.expire();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // expiry of the entries, for this class and ConcurrentCache; the timer wheel is guarded by the lock,
+  // or by the maintenance lock of ConcurrentCache
+
+  /**
+   * Replace the source of {@link System#nanoTime()}, before any entry is stored.
+   */
+  void setTicker(LongSupplier ticker) {
+    this.ticker = ticker;
+  }
+
+  long now() {
+    return ticker.getAsLong();
+  }
+
+  boolean isExpiring() {
+    return expiry != null || expireAfterAccess != Long.MAX_VALUE || maxStaleness != Long.MAX_VALUE;
+  }
+
+  /**
+   * Set when an entry which is about to be stored expires.
+   */
+  void startExpiry(CacheEntry entry, long now) {
+    long ttl = maxStaleness;
+    Expiry expiry = this.expiry;
+    if (expiry != null) {
+      long serverTtl = entry.getServerTtl();
+      Duration duration = expiry.expireAfterWrite(entry.getCacheKey(), entry.getStoredValue(),
+          serverTtl >= 0 ? Duration.ofMillis(serverTtl) : null);
+      ttl = Math.min(ttl, toNanos(duration));
+    }
+    entry.setExpiresAt(ttl == Long.MAX_VALUE ? Long.MAX_VALUE : now + ttl);
+    entry.setAccessedAt(now);
+  }
+
+  boolean isExpired(CacheEntry entry, long now) {
+    long expiresAt = entry.getExpiresAt();
+    return (expiresAt != Long.MAX_VALUE && now - expiresAt >= 0)
+        || (expireAfterAccess != Long.MAX_VALUE && now - entry.getAccessedAt() >= expireAfterAccess);
+  }
+
+  /**
+   * @return when the entry expires unless it is read again, or {@link Long#MAX_VALUE} if never
+   */
+  long nextExpiry(CacheEntry entry) {
+    long expiresAt = entry.getExpiresAt();
+    if (expireAfterAccess == Long.MAX_VALUE) {
+      return expiresAt;
+    }
+    long idleAt = entry.getAccessedAt() + expireAfterAccess;
+    return expiresAt == Long.MAX_VALUE || idleAt - expiresAt < 0 ? idleAt : expiresAt;
+  }
+
+  TimerWheel getTimerWheel(long now) {
+    if (timerWheel == null) {
+      timerWheel = new TimerWheel(now);
+    }
+    return timerWheel;
+  }
+
+  void scheduleExpiry(CacheEntry entry, long now) {
+    long deadline = nextExpiry(entry);
+    if (deadline != Long.MAX_VALUE) {
+      entry.setTimer(getTimerWheel(now).schedule(entry, deadline));
+    }
+  }
+
+  void stopExpiry(CacheEntry entry) {
+    TimerWheel.Node timer = entry.getTimer();
+    if (timer != null) {
+      timerWheel.deschedule(timer);
+      entry.setTimer(null);
+    }
+  }
+
+  void clearExpiry() {
+    if (timerWheel != null) {
+      timerWheel.clear();
+    }
+  }
+
+  private void expireEntries(long now) {
+    if (timerWheel == null) {
+      return;
+    }
+    timerWheel.advance(now, timer -> {
+      CacheEntry entry = timer.entry;
+      CacheKey cacheKey = entry.getCacheKey();
+      if (getFromStore(cacheKey) != entry) {
+        entry.setTimer(null);
+      } else if (isExpired(entry, now)) {
+        delete(cacheKey);
+        stats.expire();
+      } else {
+        // read since it was scheduled
+        timerWheel.reschedule(timer, nextExpiry(entry));
+      }
+    });
+  }
+
+  /**
+   * @return the number of nanoseconds, at most {@code 2^62}; or {@link Long#MAX_VALUE} if there is no
+   * duration or it is longer
+   */
+  static long toNanos(Duration duration) {
+    if (duration == null || duration.getSeconds() >= (1L << 62) / 1_000_000_000L) {
+      return Long.MAX_VALUE;
+    }
+    return Math.max(0, duration.toNanos());
+  }
+
+  protected static ByteBuffer makeKeyForRedisKeysToCacheKeys(Object key) {
     if (key instanceof byte[]) {
       return makeKeyForRedisKeysToCacheKeys((byte[]) key);
     } else if (key instanceof String) {
@@ -110,4 +110,39 @@ public interface Cache {
      * @return The compatibility of cache against different Redis versions
      */
     boolean compatibilityMode();
+
+    /**
+     * @return The total weight of the entries within the cache, see {@link Weigher}
+     */
+    default long getWeight() {
+        return 0;
+    }
+
+    /**
+     * @return The maximum total weight of the entries within the cache
+     */
+    default long getMaxWeight() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * @return True if the cache holds more entries, or a greater weight of entries, than it may
+     */
+    default boolean isOverCapacity() {
+        return getSize() > getMaxSize() || getWeight() > getMaxWeight();
+    }
+
+    /**
+     * @return How long the entries may be served, or {@code null} if they do not expire
+     */
+    default Expiry getExpiry() {
+        return null;
+    }
+
+    /**
+     * @return The copier of the values put into and read from the cache
+     */
+    default ValueCopier getValueCopier() {
+        return DefaultValueCopier.INSTANCE;
+    }
 }
@@ -1,16 +1,44 @@
 package redis.clients.jedis.csc;
 
+import java.time.Duration;
+
 public class CacheConfig {
 
     private int maxSize;
     private Cacheable cacheable;
     private EvictionPolicy evictionPolicy;
     private Class cacheClass;
+    private ValueCopier valueCopier;
+    private long maxWeight;
+    private Weigher weigher;
+    private Expiry expiry;
+    private Duration expireAfterAccess;
+    private Duration maxStaleness;
 
     public int getMaxSize() {
         return maxSize;
     }
 
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public Weigher getWeigher() {
+        return weigher;
+    }
+
+    public Expiry getExpiry() {
+        return expiry;
+    }
+
+    public Duration getExpireAfterAccess() {
+        return expireAfterAccess;
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
     public Cacheable getCacheable() {
         return cacheable;
     }
@@ -22,6 +50,11 @@ public class CacheConfig {
     public Class getCacheClass() {
         return cacheClass;
     }
+
+    public ValueCopier getValueCopier() {
+        return valueCopier;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -32,6 +65,12 @@ public class CacheConfig {
         private Cacheable cacheable = DefaultCacheable.INSTANCE;
         private EvictionPolicy evictionPolicy;
         private Class cacheClass;
+        private ValueCopier valueCopier;
+        private long maxWeight = Long.MAX_VALUE;
+        private Weigher weigher;
+        private Expiry expiry;
+        private Duration expireAfterAccess;
+        private Duration maxStaleness;
 
         public Builder maxSize(int maxSize) {
             this.maxSize = maxSize;
@@ -53,12 +92,77 @@ public class CacheConfig {
             return this;
         }
 
+        /**
+         * Set how the cached values are copied, {@link DefaultValueCopier#INSTANCE} by default.
+         */
+        public Builder valueCopier(ValueCopier valueCopier) {
+            this.valueCopier = valueCopier;
+            return this;
+        }
+
+        /**
+         * Set the maximum total weight of the entries, in addition to their maximum number. The weights
+         * are given by the {@link #weigher(Weigher) weigher}, in bytes for {@link DefaultWeigher}.
+         */
+        public Builder maxWeight(long maxWeight) {
+            this.maxWeight = maxWeight;
+            return this;
+        }
+
+        /**
+         * Set how the entries are weighed, {@link DefaultWeigher#INSTANCE} by default.
+         */
+        public Builder weigher(Weigher weigher) {
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * Set how long each entry may be served after it has been stored, see
+         * {@link Expiry#serverTtl(Duration)} to expire the entries with their Redis keys.
+         */
+        public Builder expiry(Expiry expiry) {
+            this.expiry = expiry;
+            return this;
+        }
+
+        /**
+         * Make the entries expire after the given time since they have been stored.
+         */
+        public Builder expireAfterWrite(Duration duration) {
+            this.expiry = Expiry.afterWrite(duration);
+            return this;
+        }
+
+        /**
+         * Make the entries expire when they have not been read for the given time.
+         */
+        public Builder expireAfterAccess(Duration duration) {
+            this.expireAfterAccess = duration;
+            return this;
+        }
+
+        /**
+         * Set the longest time an entry may be served, whatever the expiry is, in case an invalidation
+         * message is lost.
+         */
+        public Builder maxStaleness(Duration duration) {
+            this.maxStaleness = duration;
+            return this;
+        }
+
         public CacheConfig build() {
             CacheConfig cacheConfig = new CacheConfig();
             cacheConfig.maxSize = this.maxSize;
             cacheConfig.cacheable = this.cacheable;
             cacheConfig.evictionPolicy = this.evictionPolicy;
             cacheConfig.cacheClass = this.cacheClass;
+            cacheConfig.valueCopier = this.valueCopier;
+            cacheConfig.maxWeight = this.maxWeight;
+            cacheConfig.weigher = this.weigher;
+            cacheConfig.expiry = this.expiry;
+            cacheConfig.expireAfterAccess = this.expireAfterAccess;
+            cacheConfig.maxStaleness = this.maxStaleness;
             return cacheConfig;
         }
     }
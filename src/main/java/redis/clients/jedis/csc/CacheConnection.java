@@ -1,21 +1,31 @@
 package redis.clients.jedis.csc;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.concurrent.locks.ReentrantLock;
 
+import redis.clients.jedis.CommandArguments;
 import redis.clients.jedis.CommandObject;
 import redis.clients.jedis.Connection;
 import redis.clients.jedis.JedisClientConfig;
 import redis.clients.jedis.JedisSocketFactory;
 import redis.clients.jedis.Protocol;
 import redis.clients.jedis.RedisProtocol;
+import redis.clients.jedis.StreamingBuilder;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.jedis.util.RedisInputStream;
+import redis.clients.jedis.util.SafeEncoder;
 
 public class CacheConnection extends Connection {
 
   private final Cache cache;
   private ReentrantLock lock;
+  private HandshakeCommand tracking;
   private static final String REDIS = "redis";
   private static final String MIN_REDIS_VERSION = "7.4";
 
@@ -43,41 +53,143 @@ public class CacheConnection extends Connection {
   }
 
   @Override
-  protected Object protocolRead(RedisInputStream inputStream) {
+  protected void prepareHandshake(JedisClientConfig config, List<HandshakeCommand> handshake) {
+    // without RESP3 the connection is rejected by the constructor
+    if (config.getRedisProtocol() == RedisProtocol.RESP3) {
+      tracking = HandshakeCommand.optional(new CommandArguments(Protocol.Command.CLIENT).add("TRACKING").add("ON"));
+      handshake.add(tracking);
+    }
+  }
+
+  /**
+   * The whole reply is read under the lock, including the skipped bytes and the release of the input
+   * buffer, since the pushed messages may be read meanwhile by other threads which validate the
+   * entries of this connection.
+   */
+  @Override
+  protected Object readProtocolWithCheckingBroken() {
     lock.lock();
     try {
-      return Protocol.read(inputStream, cache);
+      return super.readProtocolWithCheckingBroken();
     } finally {
       lock.unlock();
     }
   }
 
   @Override
-  protected void protocolReadPushes(RedisInputStream inputStream) {
+  protected <T> T readProtocolWithCheckingBroken(Function<RedisInputStream, T> reader) {
+    lock.lock();
+    try {
+      return super.readProtocolWithCheckingBroken(reader);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  protected Object protocolRead(RedisInputStream inputStream) {
+    return Protocol.read(inputStream, cache);
+  }
+
+  @Override
+  protected <T> T protocolRead(RedisInputStream inputStream, Function<RedisInputStream, T> reader) {
+    Protocol.readPushes(inputStream, cache, false);
+    return reader.apply(inputStream);
+  }
+
+  /**
+   * The pushed messages are read only if no other thread is reading from the connection.
+   */
+  @Override
+  protected void readPushesWithCheckingBroken() {
     if (lock.tryLock()) {
       try {
-        Protocol.readPushes(inputStream, cache, true);
+        super.readPushesWithCheckingBroken();
       } finally {
         lock.unlock();
       }
     }
   }
 
+  @Override
+  protected void protocolReadPushes(RedisInputStream inputStream) {
+    Protocol.readPushes(inputStream, cache, true);
+  }
+
+  /**
+   * The value is read under the lock as well.
+   */
+  @Override
+  public InputStream getBulkReplyStream() {
+    final InputStream stream = super.getBulkReplyStream();
+    if (stream == null) {
+      return null;
+    }
+    return new FilterInputStream(stream) {
+      @Override
+      public int read() throws IOException {
+        lock.lock();
+        try {
+          return super.read();
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        lock.lock();
+        try {
+          return super.read(b, off, len);
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+        lock.lock();
+        try {
+          return super.skip(n);
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        lock.lock();
+        try {
+          super.close();
+        } finally {
+          lock.unlock();
+        }
+      }
+    };
+  }
+
   @Override
   public void disconnect() {
-    super.disconnect();
+    lock.lock();
+    try {
+      super.disconnect();
+    } finally {
+      lock.unlock();
+    }
     cache.flush();
   }
 
   @Override
   public <T> T executeCommand(final CommandObject<T> commandObject) {
     final CacheKey cacheKey = new CacheKey(commandObject);
-    if (!cache.isCacheable(cacheKey)) {
+    if (!cache.isCacheable(cacheKey) || (commandObject.getBuilder() instanceof StreamingBuilder
+        && !((StreamingBuilder<T>) commandObject.getBuilder()).isCacheable())) {
       cache.getStats().nonCacheable();
       return super.executeCommand(commandObject);
     }
 
-    CacheEntry<T> cacheEntry = cache.get(cacheKey);
+    // a pending ASKING must be followed by the command itself
+    CacheEntry<T> cacheEntry = isAskingSent() ? null : cache.get(cacheKey);
     if (cacheEntry != null) { // (probable) CACHE HIT !!
       cacheEntry = validateEntry(cacheEntry);
       if (cacheEntry != null) {
@@ -89,11 +201,50 @@ public class CacheConnection extends Connection {
 
     // CACHE MISS !!
     cache.getStats().miss();
-    T value = super.executeCommand(commandObject);
-    cacheEntry = new CacheEntry<>(cacheKey, value, this);
+    final Expiry expiry = cache.getExpiry();
+    final long[] serverTtl = { -1 };
+    T value;
+    if (expiry != null && expiry.usesServerTtl()) {
+      value = executeCommandWithTtl(commandObject, serverTtl);
+    } else {
+      value = super.executeCommand(commandObject);
+    }
+    // the entry holds its own copy of the value
+    cacheEntry = new CacheEntry<>(cacheKey, value, this, cache.getValueCopier());
+    cacheEntry.setServerTtl(serverTtl[0]);
     cache.set(cacheKey, cacheEntry);
-    // this line actually provides a deep copy of cached object instance 
-    value = cacheEntry.getValue();
+    return value;
+  }
+
+  /**
+   * Execute the command with a {@code PTTL} command for each of its keys, in the same round trip.
+   *
+   * @param serverTtl receives the shortest TTL of the keys in milliseconds, or {@code -1} if none
+   */
+  private <T> T executeCommandWithTtl(final CommandObject<T> commandObject, long[] serverTtl) {
+    final List<Object> keys = commandObject.getArguments().getKeys();
+    sendCommand(commandObject.getArguments());
+    for (Object key : keys) {
+      sendCommand(new CommandArguments(Protocol.Command.PTTL).key(key));
+    }
+    T value = null;
+    JedisDataException error = null;
+    try {
+      value = commandObject.getBuilder().build(getOne());
+    } catch (JedisDataException e) {
+      // the replies of PTTL are read anyway
+      error = e;
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      Object reply = getOne();
+      // -1 without TTL, -2 without the key
+      if (reply instanceof Long && (Long) reply >= 0 && (serverTtl[0] < 0 || (Long) reply < serverTtl[0])) {
+        serverTtl[0] = (Long) reply;
+      }
+    }
+    if (error != null) {
+      throw error;
+    }
     return value;
   }
 
@@ -102,10 +253,14 @@ public class CacheConnection extends Connection {
   }
 
   private void initializeClientSideCache() {
-    sendCommand(Protocol.Command.CLIENT, "TRACKING", "ON");
-    String reply = getStatusCodeReply();
-    if (!"OK".equals(reply)) {
-      throw new JedisException("Could not enable client tracking. Reply: " + reply);
+    // CLIENT TRACKING ON is sent with the handshake
+    Object reply = tracking.getReply();
+    if (reply instanceof JedisDataException) {
+      throw (JedisDataException) reply;
+    }
+    String status = reply == null ? null : SafeEncoder.encode((byte[]) reply);
+    if (!"OK".equals(status)) {
+      throw new JedisException("Could not enable client tracking. Reply: " + status);
     }
   }
 
@@ -122,7 +277,8 @@ public class CacheConnection extends Connection {
         return null;
       }
 
-      return cache.get(cacheEntry.getCacheKey());
+      // the entry has been read already, only its invalidation by the pushed messages is checked
+      return cache.hasCacheKey(cacheEntry.getCacheKey()) ? cacheEntry : null;
     }
   }
 }
@@ -1,56 +1,101 @@
 package redis.clients.jedis.csc;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.lang.ref.WeakReference;
 
-import redis.clients.jedis.exceptions.JedisCacheException;
-
 public class CacheEntry<T> {
 
   private final CacheKey<T> cacheKey;
   private final WeakReference<CacheConnection> connection;
-  private final byte[] bytes;
+  private final ValueCopier copier;
+  private final Object value;
+  private volatile int weight;
+  private volatile long serverTtl = -1;
+  private volatile long expiresAt = Long.MAX_VALUE;
+  private volatile long accessedAt;
+  private TimerWheel.Node timer;
 
   public CacheEntry(CacheKey<T> cacheKey, T value, CacheConnection connection) {
+    this(cacheKey, value, connection, DefaultValueCopier.INSTANCE);
+  }
+
+  /**
+   * @param copier copies the value when it is put into the entry and every time it is read
+   */
+  public CacheEntry(CacheKey<T> cacheKey, T value, CacheConnection connection, ValueCopier copier) {
     this.cacheKey = cacheKey;
     this.connection = new WeakReference<>(connection);
-    this.bytes = toBytes(value);
+    this.copier = copier;
+    this.value = copier.copy(value);
   }
 
   public CacheKey<T> getCacheKey() {
     return cacheKey;
   }
 
+  @SuppressWarnings("unchecked")
   public T getValue() {
-    return toObject(bytes);
+    return (T) copier.copy(value);
   }
 
   public CacheConnection getConnection() {
     return connection.get();
   }
 
-  private static byte[] toBytes(Object object) {
-    try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-      oos.writeObject(object);
-      oos.flush();
-      oos.close();
-      return baos.toByteArray();
-    } catch (IOException e) {
-      throw new JedisCacheException("Failed to serialize object", e);
-    }
-  }
-
-  private T toObject(byte[] data) {
-    try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
-        ObjectInputStream ois = new ObjectInputStream(bais)) {
-      return (T) ois.readObject();
-    } catch (IOException | ClassNotFoundException e) {
-      throw new JedisCacheException("Failed to deserialize object", e);
-    }
+  /**
+   * @return the value held by the entry, which must not be modified
+   */
+  Object getStoredValue() {
+    return value;
+  }
+
+  /**
+   * @return the weight of the entry, as set by the cache holding it
+   */
+  int getWeight() {
+    return weight;
+  }
+
+  void setWeight(int weight) {
+    this.weight = weight;
+  }
+
+  /**
+   * @return the shortest TTL of the Redis keys of the entry in milliseconds when the value was read,
+   * or {@code -1} if unknown or none
+   */
+  long getServerTtl() {
+    return serverTtl;
+  }
+
+  void setServerTtl(long serverTtl) {
+    this.serverTtl = serverTtl;
+  }
+
+  /**
+   * @return when the entry expires whether it is read or not, by {@link System#nanoTime()}; or
+   * {@link Long#MAX_VALUE} if never
+   */
+  long getExpiresAt() {
+    return expiresAt;
+  }
+
+  void setExpiresAt(long expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  long getAccessedAt() {
+    return accessedAt;
+  }
+
+  void setAccessedAt(long accessedAt) {
+    this.accessedAt = accessedAt;
+  }
+
+  TimerWheel.Node getTimer() {
+    return timer;
+  }
+
+  void setTimer(TimerWheel.Node timer) {
+    this.timer = timer;
   }
 }
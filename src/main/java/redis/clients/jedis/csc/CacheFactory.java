@@ -9,13 +9,39 @@ import redis.clients.jedis.exceptions.JedisCacheException;
 public final class CacheFactory {
 
     public static Cache getCache(CacheConfig config) {
+        Cache cache;
         if (config.getCacheClass() == null) {
             if (config.getCacheable() == null) {
                 throw new JedisCacheException("Cacheable is required to create the default cache!");
             }
-            return new DefaultCache(config.getMaxSize(), config.getCacheable(), getEvictionPolicy(config));
+            cache = new DefaultCache(config.getMaxSize(), config.getCacheable(), getEvictionPolicy(config));
+        } else {
+            cache = instantiateCustomCache(config);
         }
-        return instantiateCustomCache(config);
+        if (config.getValueCopier() != null) {
+            if (!(cache instanceof AbstractCache)) {
+                throw new JedisCacheException("Custom cache type must extend AbstractCache to use a value copier!");
+            }
+            ((AbstractCache) cache).setValueCopier(config.getValueCopier());
+        }
+        if (config.getWeigher() != null || config.getMaxWeight() != Long.MAX_VALUE) {
+            if (!(cache instanceof AbstractCache)) {
+                throw new JedisCacheException("Custom cache type must extend AbstractCache to be bounded by weight!");
+            }
+            if (config.getWeigher() != null) {
+                ((AbstractCache) cache).setWeigher(config.getWeigher());
+            }
+            ((AbstractCache) cache).setMaxWeight(config.getMaxWeight());
+        }
+        if (config.getExpiry() != null || config.getExpireAfterAccess() != null || config.getMaxStaleness() != null) {
+            if (!(cache instanceof AbstractCache)) {
+                throw new JedisCacheException("Custom cache type must extend AbstractCache to expire entries!");
+            }
+            ((AbstractCache) cache).setExpiry(config.getExpiry());
+            ((AbstractCache) cache).setExpireAfterAccess(config.getExpireAfterAccess());
+            ((AbstractCache) cache).setMaxStaleness(config.getMaxStaleness());
+        }
+        return cache;
     }
 
     private static Cache instantiateCustomCache(CacheConfig config) {
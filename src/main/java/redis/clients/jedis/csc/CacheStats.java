@@ -8,6 +8,7 @@ public class CacheStats {
     private AtomicLong misses = new AtomicLong(0);
     private AtomicLong loads = new AtomicLong(0);
     private AtomicLong evicts = new AtomicLong(0);
+    private AtomicLong expirations = new AtomicLong(0);
     private AtomicLong nonCacheable = new AtomicLong(0);
     private AtomicLong flush = new AtomicLong(0);
     private AtomicLong invalidationsByServer = new AtomicLong(0);
@@ -29,6 +30,10 @@ public class CacheStats {
         evicts.incrementAndGet();
     }
 
+    protected void expire() {
+        expirations.incrementAndGet();
+    }
+
     protected void nonCacheable() {
         nonCacheable.incrementAndGet();
     }
@@ -61,6 +66,10 @@ public class CacheStats {
         return evicts.get();
     }
 
+    public long getExpireCount() {
+        return expirations.get();
+    }
+
     public long getNonCacheableCount() {
         return nonCacheable.get();
     }
@@ -79,6 +88,7 @@ public class CacheStats {
                 ", misses=" + misses +
                 ", loads=" + loads +
                 ", evicts=" + evicts +
+                ", expirations=" + expirations +
                 ", nonCacheable=" + nonCacheable +
                 ", flush=" + flush +
                 ", invalidationsByServer=" + invalidationsByServer +
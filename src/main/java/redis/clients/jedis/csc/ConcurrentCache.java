@@ -0,0 +1,448 @@
+package redis.clients.jedis.csc;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * A cache for many threads, without a global lock.
+ * <p>
+ * The entries are stored in a {@link ConcurrentHashMap}. Storing an entry and invalidating a Redis key
+ * lock a stripe of the Redis keys only, so that an entry which is being stored cannot miss the
+ * invalidation of one of its Redis keys.
+ * <p>
+ * The accesses and the changes of the entries are recorded in buffers and replayed on the
+ * {@link EvictionPolicy} by one thread at a time, which also evicts the entries when the cache is full.
+ * The eviction policy does not need to be thread-safe, and the cache may hold a few more entries than
+ * its maximum size until the buffers are drained. Accesses are dropped when the read buffer is full,
+ * which only makes the eviction policy slightly less accurate.
+ * <p>
+ * The cache may also be bounded by the total weight of its entries, see {@link #setMaxWeight(long)}.
+ * The expired entries are never returned, and they are removed by the thread which drains the buffers.
+ * <p>
+ * It can be used with {@code CacheConfig.builder().cacheClass(ConcurrentCache.class)}.
+ */
+@Experimental
+public class ConcurrentCache extends AbstractCache {
+
+  private static final int STRIPES = 64;
+  private static final int READ_BUFFER_SIZE = 128;
+
+  private final ConcurrentMap<CacheKey, CacheEntry> store = new ConcurrentHashMap<>();
+  private final ConcurrentMap<ByteBuffer, Set<CacheKey>> redisKeysToCacheKeys = new ConcurrentHashMap<>();
+  private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+  private final EvictionPolicy evictionPolicy;
+
+  private final Queue<CacheKey> readBuffer = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger readBufferSize = new AtomicInteger();
+  private final Queue<PolicyTask> writeBuffer = new ConcurrentLinkedQueue<>();
+  private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+  public ConcurrentCache(int maximumSize) {
+    this(maximumSize, new LRUEviction(maximumSize), DefaultCacheable.INSTANCE);
+  }
+
+  public ConcurrentCache(int maximumSize, EvictionPolicy evictionPolicy) {
+    this(maximumSize, evictionPolicy, DefaultCacheable.INSTANCE);
+  }
+
+  public ConcurrentCache(int maximumSize, EvictionPolicy evictionPolicy, Cacheable cacheable) {
+    super(maximumSize, cacheable);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+    this.evictionPolicy = evictionPolicy;
+    this.evictionPolicy.setCache(this);
+  }
+
+  @Override
+  public int getSize() {
+    return store.size();
+  }
+
+  @Override
+  public Collection<CacheEntry> getCacheEntries() {
+    return Collections.unmodifiableCollection(store.values());
+  }
+
+  @Override
+  public EvictionPolicy getEvictionPolicy() {
+    return evictionPolicy;
+  }
+
+  @Override
+  public CacheEntry get(CacheKey cacheKey) {
+    CacheEntry entry = store.get(cacheKey);
+    if (entry != null && isExpiring()) {
+      long now = now();
+      if (isExpired(entry, now)) {
+        if (remove(cacheKey, entry)) {
+          getStats().expire();
+        }
+        maintenance();
+        return null;
+      }
+      entry.setAccessedAt(now);
+    }
+    if (entry != null && readBufferSize.get() < READ_BUFFER_SIZE) {
+      readBufferSize.incrementAndGet();
+      readBuffer.add(cacheKey);
+      if (readBufferSize.get() >= READ_BUFFER_SIZE) {
+        maintenance();
+      }
+    }
+    return entry;
+  }
+
+  @Override
+  public CacheEntry set(CacheKey cacheKey, CacheEntry entry) {
+    prepare(cacheKey, entry);
+    final List<Object> redisKeys = cacheKey.getRedisKeys();
+    final ReentrantLock[] locks = lockStripes(redisKeys);
+    CacheEntry previous;
+    try {
+      for (Object redisKey : redisKeys) {
+        redisKeysToCacheKeys.computeIfAbsent(makeKeyForRedisKeysToCacheKeys(redisKey),
+            k -> ConcurrentHashMap.newKeySet()).add(cacheKey);
+      }
+      previous = store.put(cacheKey, entry);
+      // recorded in the order of the changes of the key, which are made under the same locks
+      writeBuffer.add(new PolicyTask(cacheKey, entry, previous, true));
+    } finally {
+      unlock(locks);
+    }
+    addWeight(entry.getWeight() - (previous != null ? previous.getWeight() : 0));
+    if (previous != null) {
+      onRemoval(previous);
+    }
+    getStats().load();
+    maintenance();
+    return previous;
+  }
+
+  @Override
+  public boolean delete(CacheKey cacheKey) {
+    boolean removed = remove(cacheKey, null);
+    maintenance();
+    return removed;
+  }
+
+  @Override
+  public List<Boolean> delete(List<CacheKey> cacheKeys) {
+    List<Boolean> removed = new ArrayList<>(cacheKeys.size());
+    for (CacheKey cacheKey : cacheKeys) {
+      removed.add(remove(cacheKey, null));
+    }
+    maintenance();
+    return removed;
+  }
+
+  @Override
+  public List<CacheKey> deleteByRedisKey(Object key) {
+    List<CacheKey> cacheKeys = invalidate(key);
+    maintenance();
+    return cacheKeys;
+  }
+
+  /**
+   * Invalidate all Redis keys of an invalidation message, then update the eviction policy once.
+   */
+  @Override
+  public List<CacheKey> deleteByRedisKeys(List keys) {
+    if (keys == null) {
+      flush();
+      return null;
+    }
+    List<CacheKey> cacheKeys = new ArrayList<>();
+    for (Object key : keys) {
+      cacheKeys.addAll(invalidate(key));
+    }
+    maintenance();
+    return cacheKeys;
+  }
+
+  @Override
+  public int flush() {
+    for (ReentrantLock stripe : stripes) {
+      stripe.lock();
+    }
+    List<CacheEntry> entries;
+    try {
+      entries = new ArrayList<>(store.values());
+      store.clear();
+      redisKeysToCacheKeys.clear();
+    } finally {
+      unlock(stripes);
+    }
+    for (CacheEntry entry : entries) {
+      addWeight(-entry.getWeight());
+      onRemoval(entry);
+    }
+    maintenanceLock.lock();
+    try {
+      readBuffer.clear();
+      readBufferSize.set(0);
+      writeBuffer.clear();
+      evictionPolicy.resetAll();
+      clearExpiry();
+    } finally {
+      maintenanceLock.unlock();
+    }
+    getStats().flush();
+    return entries.size();
+  }
+
+  @Override
+  protected CacheEntry getFromStore(CacheKey cacheKey) {
+    return store.get(cacheKey);
+  }
+
+  @Override
+  protected CacheEntry putIntoStore(CacheKey cacheKey, CacheEntry entry) {
+    return store.put(cacheKey, entry);
+  }
+
+  @Override
+  protected boolean removeFromStore(CacheKey cacheKey) {
+    return store.remove(cacheKey) != null;
+  }
+
+  @Override
+  protected void clearStore() {
+    store.clear();
+  }
+
+  @Override
+  protected boolean containsKeyInStore(CacheKey cacheKey) {
+    return store.containsKey(cacheKey);
+  }
+
+  /**
+   * Weigh the entry and start its expiry, before it is stored.
+   */
+  void prepare(CacheKey cacheKey, CacheEntry entry) {
+    entry.setWeight(weigh(cacheKey, entry));
+    if (isExpiring()) {
+      startExpiry(entry, now());
+    }
+  }
+
+  /**
+   * Called once for every entry after it has left the cache, either removed or replaced.
+   */
+  protected void onRemoval(CacheEntry entry) {
+  }
+
+  /**
+   * @param expected the entry to remove, or {@code null} for any entry of the key
+   */
+  private boolean remove(CacheKey cacheKey, CacheEntry expected) {
+    final List<Object> redisKeys = cacheKey.getRedisKeys();
+    final ReentrantLock[] locks = lockStripes(redisKeys);
+    CacheEntry removed;
+    try {
+      if (expected == null) {
+        removed = store.remove(cacheKey);
+      } else {
+        removed = store.remove(cacheKey, expected) ? expected : null;
+      }
+      if (removed == null) {
+        return false;
+      }
+      for (Object redisKey : redisKeys) {
+        Set<CacheKey> cacheKeys = redisKeysToCacheKeys.get(makeKeyForRedisKeysToCacheKeys(redisKey));
+        if (cacheKeys != null) {
+          cacheKeys.remove(cacheKey);
+        }
+      }
+      writeBuffer.add(new PolicyTask(cacheKey, removed, null, false));
+    } finally {
+      unlock(locks);
+    }
+    addWeight(-removed.getWeight());
+    onRemoval(removed);
+    return true;
+  }
+
+  private List<CacheKey> invalidate(Object key) {
+    final ByteBuffer mapKey = makeKeyForRedisKeysToCacheKeys(key);
+    final ReentrantLock stripe = stripes[stripe(mapKey)];
+    List<CacheKey> cacheKeys = new ArrayList<>();
+    List<CacheEntry> entries = new ArrayList<>();
+    stripe.lock();
+    try {
+      Set<CacheKey> commands = redisKeysToCacheKeys.remove(mapKey);
+      if (commands != null) {
+        for (CacheKey cacheKey : commands) {
+          CacheEntry entry = store.remove(cacheKey);
+          if (entry != null) {
+            cacheKeys.add(cacheKey);
+            entries.add(entry);
+            writeBuffer.add(new PolicyTask(cacheKey, entry, null, false));
+          }
+        }
+      }
+    } finally {
+      stripe.unlock();
+    }
+    for (int i = 0; i < entries.size(); i++) {
+      addWeight(-entries.get(i).getWeight());
+      onRemoval(entries.get(i));
+    }
+    if (!cacheKeys.isEmpty()) {
+      getStats().invalidationByServer(cacheKeys.size());
+    }
+    getStats().invalidationMessages();
+    return cacheKeys;
+  }
+
+  private ReentrantLock[] lockStripes(List<Object> redisKeys) {
+    boolean[] selected = new boolean[STRIPES];
+    int count = 0;
+    for (Object redisKey : redisKeys) {
+      int index = stripe(makeKeyForRedisKeysToCacheKeys(redisKey));
+      if (!selected[index]) {
+        selected[index] = true;
+        count++;
+      }
+    }
+    // always in the same order, against deadlocks
+    ReentrantLock[] locks = new ReentrantLock[count];
+    for (int index = 0, i = 0; index < STRIPES; index++) {
+      if (selected[index]) {
+        locks[i++] = stripes[index];
+        stripes[index].lock();
+      }
+    }
+    return locks;
+  }
+
+  private static void unlock(ReentrantLock[] locks) {
+    for (int i = locks.length - 1; i >= 0; i--) {
+      locks[i].unlock();
+    }
+  }
+
+  private static int stripe(ByteBuffer mapKey) {
+    int hash = mapKey.hashCode();
+    return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+  }
+
+  /**
+   * Drain the buffers, unless another thread is doing it. The changes which are recorded while the
+   * buffers are drained are left to the thread draining them.
+   */
+  private void maintenance() {
+    do {
+      if (!maintenanceLock.tryLock()) {
+        return;
+      }
+      try {
+        drainReadBuffer();
+        drainWriteBuffer();
+        expire();
+        evict();
+      } finally {
+        maintenanceLock.unlock();
+      }
+    } while (!writeBuffer.isEmpty());
+  }
+
+  private void drainReadBuffer() {
+    for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+      CacheKey cacheKey = readBuffer.poll();
+      if (cacheKey == null) {
+        break;
+      }
+      readBufferSize.decrementAndGet();
+      if (store.containsKey(cacheKey)) {
+        evictionPolicy.touch(cacheKey);
+      }
+    }
+  }
+
+  private void drainWriteBuffer() {
+    PolicyTask task;
+    while ((task = writeBuffer.poll()) != null) {
+      if (!task.added) {
+        // unless the key has been stored again, whose task follows
+        if (!store.containsKey(task.cacheKey)) {
+          evictionPolicy.reset(task.cacheKey);
+        }
+        stopExpiry(task.entry);
+        continue;
+      }
+      if (task.replaced != null) {
+        stopExpiry(task.replaced);
+      }
+      // a replaced or removed entry is followed by a task of its own
+      if (store.get(task.cacheKey) == task.entry) {
+        evictionPolicy.touch(task.cacheKey);
+        if (isExpiring()) {
+          scheduleExpiry(task.entry, now());
+        }
+      }
+    }
+  }
+
+  private void expire() {
+    if (!isExpiring()) {
+      return;
+    }
+    final long now = now();
+    getTimerWheel(now).advance(now, timer -> {
+      CacheEntry entry = timer.entry;
+      if (store.get(entry.getCacheKey()) != entry) {
+        entry.setTimer(null);
+      } else if (!isExpired(entry, now)) {
+        // read since it was scheduled
+        getTimerWheel(now).reschedule(timer, nextExpiry(entry));
+      } else if (remove(entry.getCacheKey(), entry)) {
+        getStats().expire();
+      }
+    });
+    drainWriteBuffer();
+  }
+
+  private void evict() {
+    while (isOverCapacity()) {
+      CacheKey cacheKey = evictionPolicy.evictNext();
+      if (cacheKey == null) {
+        return;
+      }
+      if (remove(cacheKey, null)) {
+        getStats().evict();
+      }
+      drainWriteBuffer();
+    }
+  }
+
+  /**
+   * A change of the entries, to be replayed on the eviction policy.
+   */
+  private static final class PolicyTask {
+
+    private final CacheKey cacheKey;
+    private final CacheEntry entry;
+    private final CacheEntry replaced;
+    private final boolean added;
+
+    PolicyTask(CacheKey cacheKey, CacheEntry entry, CacheEntry replaced, boolean added) {
+      this.cacheKey = cacheKey;
+      this.entry = entry;
+      this.replaced = replaced;
+      this.added = added;
+    }
+  }
+}
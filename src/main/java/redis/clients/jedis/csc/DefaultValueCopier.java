@@ -0,0 +1,135 @@
+package redis.clients.jedis.csc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import redis.clients.jedis.GeoCoordinate;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.exceptions.JedisCacheException;
+import redis.clients.jedis.resps.Tuple;
+import redis.clients.jedis.util.KeyValue;
+
+/**
+ * Copies the values of the client-side cache without serializing them, where possible:
+ * <ul>
+ * <li>immutable values, such as {@code String}, {@code Long}, {@code Double} and {@code Boolean},
+ * are not copied;</li>
+ * <li>{@code byte[]} values are cloned;</li>
+ * <li>lists, sets and maps are copied with their elements;</li>
+ * <li>values of a type which has a {@link #register(Class, UnaryOperator) registered} copier are
+ * copied by it;</li>
+ * <li>any other {@link Serializable} value is serialized and deserialized.</li>
+ * </ul>
+ */
+@Experimental
+public final class DefaultValueCopier implements ValueCopier {
+
+  public static final DefaultValueCopier INSTANCE = new DefaultValueCopier(Collections.emptyMap());
+
+  private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(String.class,
+      Boolean.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+      Character.class, BigInteger.class, BigDecimal.class, GeoCoordinate.class, StreamEntryID.class));
+
+  private final Map<Class<?>, UnaryOperator<Object>> copiers;
+
+  private DefaultValueCopier(Map<Class<?>, UnaryOperator<Object>> copiers) {
+    this.copiers = copiers;
+  }
+
+  /**
+   * @param type the exact type of the values, for example a type of a module reply
+   * @param copier copies a value of the type
+   * @return a copier which also copies the values of the type
+   */
+  @SuppressWarnings("unchecked")
+  public <T> DefaultValueCopier register(Class<T> type, UnaryOperator<T> copier) {
+    Map<Class<?>, UnaryOperator<Object>> registered = new HashMap<>(copiers);
+    registered.put(type, value -> copier.apply((T) value));
+    return new DefaultValueCopier(registered);
+  }
+
+  @Override
+  public Object copy(Object value) {
+    if (value == null || IMMUTABLE_TYPES.contains(value.getClass()) || value instanceof Enum) {
+      return value;
+    }
+    if (value instanceof byte[]) {
+      return ((byte[]) value).clone();
+    }
+
+    UnaryOperator<Object> copier = copiers.get(value.getClass());
+    if (copier != null) {
+      return copier.apply(value);
+    }
+
+    if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      List<Object> copy = new ArrayList<>(list.size());
+      for (Object element : list) {
+        copy.add(copy(element));
+      }
+      return copy;
+    } else if (value instanceof Set) {
+      Set<?> set = (Set<?>) value;
+      Set<Object> copy = new LinkedHashSet<>(set.size() * 4 / 3 + 1);
+      for (Object element : set) {
+        copy.add(copy(element));
+      }
+      return copy;
+    } else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      Map<Object, Object> copy = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        copy.put(copy(entry.getKey()), copy(entry.getValue()));
+      }
+      return copy;
+    } else if (value instanceof KeyValue) {
+      KeyValue<?, ?> keyValue = (KeyValue<?, ?>) value;
+      return KeyValue.of(copy(keyValue.getKey()), copy(keyValue.getValue()));
+    } else if (value instanceof Tuple) {
+      Tuple tuple = (Tuple) value;
+      return new Tuple(tuple.getBinaryElement().clone(), tuple.getScore());
+    } else if (value instanceof Serializable) {
+      return deserialize(serialize(value));
+    }
+    throw new JedisCacheException("Failed to copy object of " + value.getClass()
+        + ", a copier has to be registered for it");
+  }
+
+  private static byte[] serialize(Object object) {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(object);
+    } catch (IOException e) {
+      throw new JedisCacheException("Failed to serialize object", e);
+    }
+    return baos.toByteArray();
+  }
+
+  private static Object deserialize(byte[] data) {
+    try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
+        ObjectInputStream ois = new ObjectInputStream(bais)) {
+      return ois.readObject();
+    } catch (IOException | ClassNotFoundException e) {
+      throw new JedisCacheException("Failed to deserialize object", e);
+    }
+  }
+}
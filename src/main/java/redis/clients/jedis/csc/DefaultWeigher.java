@@ -0,0 +1,28 @@
+package redis.clients.jedis.csc;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * Weighs an entry as the number of bytes of its value, as it would be serialized by
+ * {@link OffHeapCache}, plus a fixed overhead for the key and the entry. The values of other types
+ * count as the fixed overhead only.
+ */
+@Experimental
+public final class DefaultWeigher implements Weigher {
+
+  public static final DefaultWeigher INSTANCE = new DefaultWeigher();
+
+  /**
+   * The approximate size of a cache key, a cache entry and their slots in the cache structures.
+   */
+  public static final int ENTRY_OVERHEAD = 128;
+
+  private DefaultWeigher() {
+  }
+
+  @Override
+  public int weigh(CacheKey cacheKey, Object value) {
+    long length = ValueCodec.encodedLength(value);
+    return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD + Math.max(0, length));
+  }
+}
@@ -0,0 +1,65 @@
+package redis.clients.jedis.csc;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * Tells how long each entry of the client-side cache may be served after it has been stored.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @see CacheConfig.Builder#expiry(Expiry)
+ */
+@Experimental
+@FunctionalInterface
+public interface Expiry {
+
+  /**
+   * @param cacheKey the key of the entry
+   * @param value the value of the entry, which must not be modified
+   * @param serverTtl the shortest remaining TTL of the Redis keys of the entry when the value was read,
+   * or {@code null} if they have no TTL or {@link #usesServerTtl()} is {@code false}
+   * @return the time after which the entry expires, or {@code null} if it does not expire
+   */
+  Duration expireAfterWrite(CacheKey cacheKey, Object value, Duration serverTtl);
+
+  /**
+   * @return whether the TTLs of the Redis keys are read, with {@code PTTL} commands which are
+   * pipelined with the commands whose replies are cached
+   */
+  default boolean usesServerTtl() {
+    return false;
+  }
+
+  /**
+   * @return the entries expire after the given time
+   */
+  static Expiry afterWrite(Duration duration) {
+    Objects.requireNonNull(duration, "duration");
+    return (cacheKey, value, serverTtl) -> duration;
+  }
+
+  /**
+   * @param duration the time after which the entries of the Redis keys without TTL expire, or
+   * {@code null} if they do not expire
+   * @return the entries expire with their Redis keys, or after the given time if it is shorter
+   */
+  static Expiry serverTtl(Duration duration) {
+    return new Expiry() {
+      @Override
+      public Duration expireAfterWrite(CacheKey cacheKey, Object value, Duration serverTtl) {
+        if (serverTtl == null) {
+          return duration;
+        }
+        return duration == null || serverTtl.compareTo(duration) < 0 ? serverTtl : duration;
+      }
+
+      @Override
+      public boolean usesServerTtl() {
+        return true;
+      }
+    };
+  }
+}
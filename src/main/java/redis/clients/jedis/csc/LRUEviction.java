@@ -74,6 +74,14 @@ public class LRUEviction implements EvictionPolicy {
         while (cacheKey != null && !cache.hasCacheKey(cacheKey)) {
             cacheKey = pendingEvictions.pollFirst();
         }
+        // the number of entries is within bounds, but not their weight
+        while (cacheKey == null && cache.getWeight() > cache.getMaxWeight() && !accessTimes.isEmpty()) {
+            CacheKey eldest = accessTimes.keySet().iterator().next();
+            accessTimes.remove(eldest);
+            if (cache.hasCacheKey(eldest)) {
+                cacheKey = eldest;
+            }
+        }
         return cacheKey;
     }
 
@@ -0,0 +1,316 @@
+package redis.clients.jedis.csc;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.exceptions.JedisCacheException;
+
+/**
+ * A {@link ConcurrentCache} which stores the large values outside of the Java heap, so that a cache
+ * of gigabytes does not make the garbage collection pauses longer.
+ * <p>
+ * The values of at least {@link #setOffHeapThreshold(int) a threshold} of bytes are serialized into
+ * direct buffers: slabs of 1 MiB cut into chunks of a power of two bytes, from 64 bytes to 1 MiB, and
+ * a buffer of its own for each larger value. Only the keys, the index of the Redis keys and small
+ * entries stay on the heap. A value is deserialized every time it is read. The values of other types
+ * than those of the Redis replies, see {@link DefaultWeigher}, stay on the heap.
+ * <p>
+ * The direct memory is bounded by the {@link #setMaxWeight(long) maximum weight} of the cache, and an
+ * off-heap entry weighs the size of its chunk. The memory of the chunks is reused once their entries
+ * have been removed and are not read anymore; the memory of the slabs is kept for the new entries.
+ * While the direct memory is exhausted, the new entries stay on the heap, and they make the older
+ * entries be evicted as usual.
+ * <p>
+ * It can be used with
+ * {@code CacheConfig.builder().cacheClass(OffHeapCache.class).maxWeight(4L << 30)}.
+ */
+@Experimental
+public class OffHeapCache extends ConcurrentCache {
+
+  public static final int DEFAULT_OFF_HEAP_THRESHOLD = 256;
+
+  private static final ValueCopier NO_COPY = value -> value;
+
+  private final Arena arena = new Arena();
+  private volatile int offHeapThreshold = DEFAULT_OFF_HEAP_THRESHOLD;
+
+  public OffHeapCache(int maximumSize) {
+    super(maximumSize);
+  }
+
+  public OffHeapCache(int maximumSize, EvictionPolicy evictionPolicy) {
+    super(maximumSize, evictionPolicy);
+  }
+
+  public OffHeapCache(int maximumSize, EvictionPolicy evictionPolicy, Cacheable cacheable) {
+    super(maximumSize, evictionPolicy, cacheable);
+  }
+
+  /**
+   * Set the number of serialized bytes from which the values are stored off-heap,
+   * {@link #DEFAULT_OFF_HEAP_THRESHOLD} by default.
+   */
+  public void setOffHeapThreshold(int offHeapThreshold) {
+    this.offHeapThreshold = offHeapThreshold;
+  }
+
+  /**
+   * @return the number of bytes of direct memory held by the cache
+   */
+  public long getOffHeapMemory() {
+    return arena.getReserved();
+  }
+
+  /**
+   * @return a copy of the entry, whose value has been read from the direct memory if it is stored
+   * there; {@code null} if the entry is not in the cache or has just been removed
+   */
+  @Override
+  public CacheEntry get(CacheKey cacheKey) {
+    CacheEntry entry = super.get(cacheKey);
+    if (!(entry instanceof OffHeapEntry)) {
+      return entry;
+    }
+    OffHeapEntry offHeapEntry = (OffHeapEntry) entry;
+    if (!offHeapEntry.pin()) {
+      return null;
+    }
+    try {
+      return new CacheEntry(cacheKey, offHeapEntry.read(), offHeapEntry.getConnection(), NO_COPY);
+    } finally {
+      offHeapEntry.unpin();
+    }
+  }
+
+  /**
+   * Store the entry off-heap if its value is large enough and the direct memory is not exhausted.
+   */
+  @Override
+  public CacheEntry set(CacheKey cacheKey, CacheEntry entry) {
+    final Object value = entry.getStoredValue();
+    final long length = ValueCodec.encodedLength(value);
+    if (length < Math.max(1, offHeapThreshold)) {
+      return super.set(cacheKey, entry);
+    }
+    OffHeapEntry offHeapEntry = length <= Integer.MAX_VALUE ? arena.allocate(entry, (int) length) : null;
+    if (offHeapEntry == null) {
+      return super.set(cacheKey, entry);
+    }
+    if (isExpiring()) {
+      // with the value on the heap, rather than reading it back from the direct memory
+      startExpiry(entry, now());
+      offHeapEntry.setExpiresAt(entry.getExpiresAt());
+      offHeapEntry.setAccessedAt(entry.getAccessedAt());
+    }
+    offHeapEntry.write(value);
+    return super.set(cacheKey, offHeapEntry);
+  }
+
+  @Override
+  void prepare(CacheKey cacheKey, CacheEntry entry) {
+    if (entry instanceof OffHeapEntry) {
+      // the expiry has been started by set(CacheKey, CacheEntry)
+      entry.setWeight(DefaultWeigher.ENTRY_OVERHEAD + ((OffHeapEntry) entry).capacity);
+      return;
+    }
+    super.prepare(cacheKey, entry);
+  }
+
+  @Override
+  protected void onRemoval(CacheEntry entry) {
+    if (entry instanceof OffHeapEntry) {
+      ((OffHeapEntry) entry).unpin();
+    }
+  }
+
+  /**
+   * An entry whose value is in a chunk of direct memory, and which holds no value on the heap. The
+   * chunk is freed when the entry has left the cache and is not being read anymore.
+   */
+  private final class OffHeapEntry extends CacheEntry {
+
+    private final ByteBuffer buffer;
+    private final Slab slab;
+    private final int offset;
+    private final int capacity;
+    private final int length;
+    // the cache holds one pin until the entry is removed; 0 once the chunk is freed
+    private final AtomicInteger pins = new AtomicInteger(1);
+
+    OffHeapEntry(CacheEntry entry, ByteBuffer buffer, Slab slab, int offset, int capacity, int length) {
+      super(entry.getCacheKey(), null, entry.getConnection(), NO_COPY);
+      setServerTtl(entry.getServerTtl());
+      this.buffer = buffer;
+      this.slab = slab;
+      this.offset = offset;
+      this.capacity = capacity;
+      this.length = length;
+    }
+
+    @Override
+    public Object getValue() {
+      if (!pin()) {
+        throw new JedisCacheException("The entry has been removed from the cache.");
+      }
+      try {
+        return read();
+      } finally {
+        unpin();
+      }
+    }
+
+    boolean pin() {
+      for (;;) {
+        int current = pins.get();
+        if (current <= 0) {
+          return false;
+        }
+        if (pins.compareAndSet(current, current + 1)) {
+          return true;
+        }
+      }
+    }
+
+    void unpin() {
+      if (pins.decrementAndGet() == 0) {
+        arena.free(this);
+      }
+    }
+
+    void write(Object value) {
+      ValueCodec.encode(value, chunk());
+    }
+
+    Object read() {
+      return ValueCodec.decode(chunk());
+    }
+
+    private ByteBuffer chunk() {
+      // a view of its own, since the buffer of a slab is shared by the entries
+      ByteBuffer chunk = buffer.duplicate();
+      chunk.limit(offset + length).position(offset);
+      return chunk.slice();
+    }
+  }
+
+  /**
+   * A buffer of {@link Arena#SLAB_SIZE} bytes, cut into chunks of the same size.
+   */
+  private static final class Slab {
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(Arena.SLAB_SIZE);
+    private int sizeClass;
+    private int[] freeOffsets;
+    private int freeCount;
+
+    void format(int sizeClass) {
+      this.sizeClass = sizeClass;
+      int chunkSize = Arena.MIN_CHUNK_SIZE << sizeClass;
+      this.freeCount = Arena.SLAB_SIZE / chunkSize;
+      this.freeOffsets = new int[freeCount];
+      for (int i = 0; i < freeCount; i++) {
+        // the lowest offsets are taken first
+        freeOffsets[i] = (freeCount - 1 - i) * chunkSize;
+      }
+    }
+
+    boolean isFull() {
+      return freeCount == 0;
+    }
+
+    boolean isEmpty() {
+      return freeCount == freeOffsets.length;
+    }
+
+    int take() {
+      return freeOffsets[--freeCount];
+    }
+
+    void release(int offset) {
+      freeOffsets[freeCount++] = offset;
+    }
+  }
+
+  /**
+   * The direct memory of the cache.
+   */
+  private final class Arena {
+
+    static final int SLAB_SIZE = 1 << 20;
+    static final int MIN_CHUNK_SIZE = 64;
+    private static final int SIZE_CLASSES = 15; // 64 B to 1 MiB
+
+    @SuppressWarnings("unchecked")
+    private final Deque<Slab>[] partialSlabs = new Deque[SIZE_CLASSES];
+    private final Deque<Slab> emptySlabs = new ArrayDeque<>();
+    private long reserved;
+
+    Arena() {
+      for (int i = 0; i < SIZE_CLASSES; i++) {
+        partialSlabs[i] = new ArrayDeque<>();
+      }
+    }
+
+    synchronized long getReserved() {
+      return reserved;
+    }
+
+    /**
+     * @return an entry with a chunk of at least {@code length} bytes, or {@code null} if the direct
+     * memory of the cache is exhausted
+     */
+    synchronized OffHeapEntry allocate(CacheEntry entry, int length) {
+      if (length > SLAB_SIZE) {
+        if (length > getMaxWeight() - reserved) {
+          return null;
+        }
+        reserved += length;
+        return new OffHeapEntry(entry, ByteBuffer.allocateDirect(length), null, 0, length, length);
+      }
+      int sizeClass = sizeClass(length);
+      Slab slab = partialSlabs[sizeClass].peekFirst();
+      if (slab == null) {
+        slab = emptySlabs.pollFirst();
+        if (slab == null) {
+          if (SLAB_SIZE > getMaxWeight() - reserved) {
+            return null;
+          }
+          slab = new Slab();
+          reserved += SLAB_SIZE;
+        }
+        slab.format(sizeClass);
+        partialSlabs[sizeClass].addFirst(slab);
+      }
+      int offset = slab.take();
+      if (slab.isFull()) {
+        partialSlabs[sizeClass].remove(slab);
+      }
+      return new OffHeapEntry(entry, slab.buffer, slab, offset, MIN_CHUNK_SIZE << sizeClass, length);
+    }
+
+    synchronized void free(OffHeapEntry entry) {
+      Slab slab = entry.slab;
+      if (slab == null) {
+        // the buffer is released by the garbage collector
+        reserved -= entry.capacity;
+        return;
+      }
+      if (slab.isFull()) {
+        partialSlabs[slab.sizeClass].addFirst(slab);
+      }
+      slab.release(entry.offset);
+      if (slab.isEmpty()) {
+        partialSlabs[slab.sizeClass].remove(slab);
+        emptySlabs.addFirst(slab);
+      }
+    }
+
+    private int sizeClass(int length) {
+      int chunkSize = Math.max(MIN_CHUNK_SIZE, Integer.highestOneBit(length - 1) << 1);
+      return Integer.numberOfTrailingZeros(chunkSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package redis.clients.jedis.csc;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel of the entries which expire, so that the expired entries are found
+ * without scanning the cache.
+ * <p>
+ * Each of the 4 wheels has 64 buckets, of about 16 ms, 1 s, 69 s and 73 min. An entry is put in the
+ * bucket of its expiry time, in the finest wheel which spans it, and moves to a finer wheel as the time
+ * passes. The entries which expire beyond the last wheel, after about 78 h, are put in its last bucket
+ * and scheduled again when it is reached. This class is not thread-safe.
+ */
+final class TimerWheel {
+
+  private static final int BUCKETS = 64;
+  private static final int[] SHIFTS = { 24, 30, 36, 42 };
+
+  private final Node[][] wheels = new Node[SHIFTS.length][BUCKETS];
+  private long time;
+
+  TimerWheel(long time) {
+    this.time = time;
+    for (Node[] wheel : wheels) {
+      for (int i = 0; i < BUCKETS; i++) {
+        wheel[i] = new Node(null, 0);
+      }
+    }
+  }
+
+  /**
+   * A scheduled entry.
+   */
+  static final class Node {
+
+    final CacheEntry entry;
+    long deadline;
+    private Node previous;
+    private Node next;
+
+    Node(CacheEntry entry, long deadline) {
+      this.entry = entry;
+      this.deadline = deadline;
+      // the sentinel of a bucket is its own neighbour
+      this.previous = this;
+      this.next = this;
+    }
+  }
+
+  /**
+   * @param deadline the time at which the entry expires, by {@link System#nanoTime()}
+   */
+  Node schedule(CacheEntry entry, long deadline) {
+    Node node = new Node(entry, deadline);
+    link(node);
+    return node;
+  }
+
+  /**
+   * Move a node which has not expired yet, or has been removed by {@link #advance(long, Consumer)}.
+   */
+  void reschedule(Node node, long deadline) {
+    unlink(node);
+    node.deadline = deadline;
+    link(node);
+  }
+
+  void deschedule(Node node) {
+    unlink(node);
+  }
+
+  /**
+   * Move the time forward, and remove the nodes which have expired.
+   *
+   * @param expired receives the expired nodes, which may be rescheduled
+   */
+  void advance(long now, Consumer<Node> expired) {
+    long previous = time;
+    if (now - previous <= 0) {
+      return;
+    }
+    time = now;
+    for (int level = 0; level < SHIFTS.length; level++) {
+      long previousTicks = previous >> SHIFTS[level];
+      long delta = (now >> SHIFTS[level]) - previousTicks;
+      if (delta <= 0) {
+        break;
+      }
+      // the current bucket is included, for the nodes which have been scheduled in the current tick
+      int count = (int) Math.min(delta + 1, BUCKETS);
+      for (int i = 0; i < count; i++) {
+        expire(wheels[level][(int) ((previousTicks + i) & (BUCKETS - 1))], now, expired);
+      }
+    }
+  }
+
+  void clear() {
+    for (Node[] wheel : wheels) {
+      for (Node sentinel : wheel) {
+        while (sentinel.next != sentinel) {
+          unlink(sentinel.next);
+        }
+      }
+    }
+  }
+
+  private void expire(Node sentinel, long now, Consumer<Node> expired) {
+    // the nodes which have not expired are scheduled again, in the buckets of the new time
+    Node node = sentinel.next;
+    sentinel.next = sentinel;
+    sentinel.previous = sentinel;
+    while (node != sentinel) {
+      Node next = node.next;
+      node.previous = node;
+      node.next = node;
+      if (now - node.deadline >= 0) {
+        expired.accept(node);
+      } else {
+        link(node);
+      }
+      node = next;
+    }
+  }
+
+  private void link(Node node) {
+    long delay = node.deadline - time;
+    // a node which has already expired goes to the current bucket
+    long deadline = delay > 0 ? node.deadline : time;
+    Node sentinel = null;
+    for (int level = 0; level < SHIFTS.length; level++) {
+      if (delay < (long) BUCKETS << SHIFTS[level]) {
+        sentinel = wheels[level][(int) ((deadline >> SHIFTS[level]) & (BUCKETS - 1))];
+        break;
+      }
+    }
+    if (sentinel == null) {
+      int last = SHIFTS.length - 1;
+      sentinel = wheels[last][(int) (((time >> SHIFTS[last]) - 1) & (BUCKETS - 1))];
+    }
+    node.previous = sentinel.previous;
+    node.next = sentinel;
+    sentinel.previous.next = node;
+    sentinel.previous = node;
+  }
+
+  private static void unlink(Node node) {
+    node.previous.next = node.next;
+    node.next.previous = node.previous;
+    node.previous = node;
+    node.next = node;
+  }
+}
@@ -0,0 +1,256 @@
+package redis.clients.jedis.csc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * W(indow) Tiny L(east) F(requently) U(sed) eviction policy
+ * <p>
+ * New entries enter a small LRU window, which holds 1% of the cache. The entries leaving the window
+ * are candidates to the main space, which is a segmented LRU: entries are admitted on probation and
+ * become protected when they are accessed again. When the cache is full, the oldest entry on
+ * probation and the newest candidate are compared by how often their keys have been accessed lately,
+ * and the one accessed less often is evicted. The frequencies are estimated by a count-min sketch of
+ * 4-bit counters which are halved regularly, so that the keys which were popular a while ago are
+ * forgotten eventually.
+ * <p>
+ * Keys which are read only once, like in a scan, hardly ever make it into the main space, so that they
+ * do not flush out the keys which are read often.
+ */
+@Experimental
+public class TinyLFUEviction implements EvictionPolicy {
+
+    private static final int PROTECTED_PERCENT = 80;
+
+    /**
+     * The cache that is associated to that policy instance
+     */
+    protected Cache cache;
+
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    private final FrequencySketch sketch;
+
+    // the oldest first; an entry on probation leaves it when it is accessed
+    private final LinkedHashMap<CacheKey, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<CacheKey, Boolean> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<CacheKey, Boolean> protectedSpace = new LinkedHashMap<>(16, 0.75f, true);
+    private CacheKey candidate;
+
+    /**
+     * @param maximumSize The maximum size of the cache
+     */
+    public TinyLFUEviction(int maximumSize) {
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (int) ((long) (maximumSize - windowMaximum) * PROTECTED_PERCENT / 100);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Cache getCache() {
+        return this.cache;
+    }
+
+    @Override
+    public EvictionType getType() {
+        return EvictionType.HYBR;
+    }
+
+    @Override
+    public String getName() {
+        return "W(indow) Tiny L(east) F(requently) U(sed)";
+    }
+
+    @Override
+    public synchronized CacheKey evictNext() {
+        if (!cache.isOverCapacity() && size() <= cache.getMaxSize()) {
+            return null;
+        }
+        CacheKey evicted = selectVictim();
+        if (evicted != null) {
+            remove(evicted);
+        }
+        return evicted;
+    }
+
+    @Override
+    public synchronized List<CacheKey> evictMany(int n) {
+        List<CacheKey> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            CacheKey evicted = selectVictim();
+            if (evicted == null) {
+                break;
+            }
+            remove(evicted);
+            result.add(evicted);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void touch(CacheKey cacheKey) {
+        sketch.increment(cacheKey);
+        if (window.get(cacheKey) != null || protectedSpace.get(cacheKey) != null) {
+            return;
+        }
+        if (probation.remove(cacheKey) != null) {
+            protectedSpace.put(cacheKey, Boolean.TRUE);
+            if (protectedSpace.size() > protectedMaximum) {
+                CacheKey demoted = first(protectedSpace);
+                protectedSpace.remove(demoted);
+                probation.put(demoted, Boolean.TRUE);
+            }
+            return;
+        }
+        window.put(cacheKey, Boolean.TRUE);
+        if (window.size() > windowMaximum) {
+            candidate = first(window);
+            window.remove(candidate);
+            probation.put(candidate, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public synchronized boolean reset(CacheKey cacheKey) {
+        return remove(cacheKey);
+    }
+
+    @Override
+    public synchronized int resetAll() {
+        int result = size();
+        window.clear();
+        probation.clear();
+        protectedSpace.clear();
+        candidate = null;
+        sketch.clear();
+        return result;
+    }
+
+    /**
+     * @return The estimated number of recent accesses to the key, at most 15
+     */
+    public synchronized int frequency(CacheKey cacheKey) {
+        return sketch.frequency(cacheKey);
+    }
+
+    private int size() {
+        return window.size() + probation.size() + protectedSpace.size();
+    }
+
+    private CacheKey selectVictim() {
+        if (probation.isEmpty()) {
+            return !protectedSpace.isEmpty() ? first(protectedSpace) : first(window);
+        }
+        CacheKey victim = first(probation);
+        if (candidate == null || !probation.containsKey(candidate) || victim.equals(candidate)) {
+            return victim;
+        }
+        // ties are lost by the candidate, which resists scans
+        return sketch.frequency(candidate) > sketch.frequency(victim) ? victim : candidate;
+    }
+
+    private boolean remove(CacheKey cacheKey) {
+        return window.remove(cacheKey) != null || probation.remove(cacheKey) != null
+                || protectedSpace.remove(cacheKey) != null;
+    }
+
+    private static CacheKey first(LinkedHashMap<CacheKey, Boolean> space) {
+        Iterator<CacheKey> iterator = space.keySet().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters, 16 in each {@code long}. A key has a counter in each of 4
+     * rows, and its frequency is the smallest of them. All counters are halved once the number of
+     * increments reaches 10 times the maximum size of the cache.
+     */
+    static final class FrequencySketch {
+
+        private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+                0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long ONE_MASK = 0x1111111111111111L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int size;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 26)) - 1) << 1;
+            this.table = new long[width];
+            this.tableMask = width - 1;
+            this.sampleSize = 10 * Math.max(16, Math.min(maximumSize, 1 << 26));
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                added |= incrementAt(indexOf(hash, i), start + i);
+            }
+            if (added && ++size == sampleSize) {
+                halve();
+            }
+        }
+
+        void clear() {
+            Arrays.fill(table, 0L);
+            size = 0;
+        }
+
+        private boolean incrementAt(int index, int counter) {
+            int offset = counter << 2;
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                return true;
+            }
+            return false;
+        }
+
+        private void halve() {
+            int odd = 0;
+            for (int i = 0; i < table.length; i++) {
+                odd += Long.bitCount(table[i] & ONE_MASK);
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            size = (size - (odd >>> 2)) >>> 1;
+        }
+
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return ((int) h) & tableMask;
+        }
+
+        private static int spread(int hash) {
+            hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+            hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+            return (hash >>> 16) ^ hash;
+        }
+    }
+}
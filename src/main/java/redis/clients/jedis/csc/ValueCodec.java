@@ -0,0 +1,178 @@
+package redis.clients.jedis.csc;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * A compact binary form of the replies which are made of {@code byte[]}, {@code String},
+ * {@code Long}, {@code Double}, {@code Boolean}, lists, sets and maps, and {@code null}.
+ */
+final class ValueCodec {
+
+  private static final byte NULL = 0;
+  private static final byte BYTES = 1;
+  private static final byte STRING = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte BOOLEAN = 5;
+  private static final byte LIST = 6;
+  private static final byte SET = 7;
+  private static final byte MAP = 8;
+
+  private ValueCodec() {
+    throw new InstantiationError("Must not instantiate this class");
+  }
+
+  /**
+   * @return the number of bytes of the encoded value, or {@code -1} if a part of the value is of
+   * another type
+   */
+  static long encodedLength(Object value) {
+    if (value == null) {
+      return 1;
+    } else if (value instanceof byte[]) {
+      return 5 + ((byte[]) value).length;
+    } else if (value instanceof String) {
+      return 5 + utf8Length((String) value);
+    } else if (value instanceof Long || value instanceof Double) {
+      return 9;
+    } else if (value instanceof Boolean) {
+      return 2;
+    } else if (value instanceof List || value instanceof Set) {
+      long length = 5;
+      for (Object element : (Iterable<?>) value) {
+        long elementLength = encodedLength(element);
+        if (elementLength < 0) {
+          return -1;
+        }
+        length += elementLength;
+      }
+      return length;
+    } else if (value instanceof Map) {
+      long length = 5;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        long keyLength = encodedLength(entry.getKey());
+        long valueLength = encodedLength(entry.getValue());
+        if (keyLength < 0 || valueLength < 0) {
+          return -1;
+        }
+        length += keyLength + valueLength;
+      }
+      return length;
+    }
+    return -1;
+  }
+
+  /**
+   * @param buffer has at least {@link #encodedLength(Object)} bytes remaining
+   */
+  static void encode(Object value, ByteBuffer buffer) {
+    if (value == null) {
+      buffer.put(NULL);
+    } else if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      buffer.put(BYTES).putInt(bytes.length).put(bytes);
+    } else if (value instanceof String) {
+      byte[] bytes = SafeEncoder.encode((String) value);
+      buffer.put(STRING).putInt(bytes.length).put(bytes);
+    } else if (value instanceof Long) {
+      buffer.put(LONG).putLong((Long) value);
+    } else if (value instanceof Double) {
+      buffer.put(DOUBLE).putDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      buffer.put(BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+    } else if (value instanceof List || value instanceof Set) {
+      buffer.put(value instanceof List ? LIST : SET).putInt(((Collection<?>) value).size());
+      for (Object element : (Iterable<?>) value) {
+        encode(element, buffer);
+      }
+    } else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      buffer.put(MAP).putInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        encode(entry.getKey(), buffer);
+        encode(entry.getValue(), buffer);
+      }
+    } else {
+      throw new IllegalArgumentException(value.getClass() + " cannot be encoded.");
+    }
+  }
+
+  static Object decode(ByteBuffer buffer) {
+    final byte type = buffer.get();
+    switch (type) {
+      case NULL:
+        return null;
+      case BYTES: {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+      }
+      case STRING: {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return SafeEncoder.encode(bytes);
+      }
+      case LONG:
+        return buffer.getLong();
+      case DOUBLE:
+        return buffer.getDouble();
+      case BOOLEAN:
+        return buffer.get() != 0;
+      case LIST: {
+        int size = buffer.getInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(decode(buffer));
+        }
+        return list;
+      }
+      case SET: {
+        int size = buffer.getInt();
+        Set<Object> set = new LinkedHashSet<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+          set.add(decode(buffer));
+        }
+        return set;
+      }
+      case MAP: {
+        int size = buffer.getInt();
+        Map<Object, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+          Object key = decode(buffer);
+          map.put(key, decode(buffer));
+        }
+        return map;
+      }
+      default:
+        throw new IllegalStateException("Unknown type " + type + " of encoded value.");
+    }
+  }
+
+  private static long utf8Length(String string) {
+    long length = 0;
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < string.length()
+          && Character.isLowSurrogate(string.charAt(i + 1))) {
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+}
@@ -0,0 +1,23 @@
+package redis.clients.jedis.csc;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * Copies the values of the client-side cache, so that the value held by a {@link CacheEntry} cannot
+ * be changed through the values handed out by the cache. A value is copied when it is put into the
+ * cache and on every cache hit.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @see DefaultValueCopier
+ */
+@Experimental
+@FunctionalInterface
+public interface ValueCopier {
+
+  /**
+   * @param value a reply of a cacheable command, possibly {@code null}
+   * @return a copy of the value, or the value itself if it is immutable
+   */
+  Object copy(Object value);
+}
@@ -0,0 +1,23 @@
+package redis.clients.jedis.csc;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * Weighs the entries of the client-side cache, so that the cache can be bounded by the total weight
+ * of its entries, usually in bytes, in addition to their number.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @see DefaultWeigher
+ */
+@Experimental
+@FunctionalInterface
+public interface Weigher {
+
+  /**
+   * @param cacheKey the key of the entry
+   * @param value the value of the entry, which must not be modified
+   * @return the weight of the entry, at least {@code 0}
+   */
+  int weigh(CacheKey cacheKey, Object value);
+}
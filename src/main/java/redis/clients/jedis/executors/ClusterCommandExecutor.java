@@ -2,17 +2,32 @@ package redis.clients.jedis.executors;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import redis.clients.jedis.ClusterCommandArguments;
+import redis.clients.jedis.CommandArguments;
 import redis.clients.jedis.CommandObject;
 import redis.clients.jedis.Connection;
 import redis.clients.jedis.ConnectionPool;
 import redis.clients.jedis.HostAndPort;
-import redis.clients.jedis.Protocol;
+import redis.clients.jedis.NodeMetrics;
+import redis.clients.jedis.annots.Experimental;
 import redis.clients.jedis.annots.VisibleForTesting;
 import redis.clients.jedis.exceptions.*;
 import redis.clients.jedis.providers.ClusterConnectionProvider;
@@ -22,15 +37,31 @@ public class ClusterCommandExecutor implements CommandExecutor {
 
   private final Logger log = LoggerFactory.getLogger(getClass());
 
+  private static final AtomicInteger MULTI_NODE_THREAD_COUNTER = new AtomicInteger();
+
+  /**
+   * Runs the per node batches of {@link #executeCommands(List)} and the broadcast commands, unless
+   * another executor is set.
+   * Idle threads are discarded after a minute.
+   */
+  private static final ExecutorService DEFAULT_MULTI_NODE_EXECUTOR = Executors.newCachedThreadPool(task -> {
+    Thread thread = new Thread(task, "jedis-cluster-multi-node-" + MULTI_NODE_THREAD_COUNTER.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  });
+
   public final ClusterConnectionProvider provider;
   protected final int maxAttempts;
   protected final Duration maxTotalRetriesDuration;
+  private volatile Executor multiNodeExecutor = DEFAULT_MULTI_NODE_EXECUTOR;
+  private volatile Duration broadcastTimeout;
 
   public ClusterCommandExecutor(ClusterConnectionProvider provider, int maxAttempts,
       Duration maxTotalRetriesDuration) {
     this.provider = provider;
     this.maxAttempts = maxAttempts;
     this.maxTotalRetriesDuration = maxTotalRetriesDuration;
+    this.broadcastTimeout = maxTotalRetriesDuration;
   }
 
   @Override
@@ -38,18 +69,48 @@ public class ClusterCommandExecutor implements CommandExecutor {
     this.provider.close();
   }
 
+  /**
+   * Execute the command on all nodes at the same time, one of them by the calling thread and the others
+   * by the {@link #setMultiNodeExecutor(Executor) multi node executor}.
+   *
+   * @return the reply, if all nodes have replied the same
+   * @throws JedisBroadcastException with the reply or error of each node, if the replies differ, a
+   * node has failed or a node has not replied within the {@link #setBroadcastTimeout(Duration)
+   * broadcast timeout}
+   */
   @Override
   public final <T> T broadcastCommand(CommandObject<T> commandObject) {
     Map<String, ConnectionPool> connectionMap = provider.getConnectionMap();
+    final long deadline = System.nanoTime() + broadcastTimeout.toNanos();
 
-    boolean isErrored = false;
-    T reply = null;
-    JedisBroadcastException bcastError = new JedisBroadcastException();
+    final Map<HostAndPort, CompletableFuture<T>> futures = new LinkedHashMap<>();
+    ConnectionPool own = null;
     for (Map.Entry<String, ConnectionPool> entry : connectionMap.entrySet()) {
       HostAndPort node = HostAndPort.from(entry.getKey());
       ConnectionPool pool = entry.getValue();
-      try (Connection connection = pool.getResource()) {
-        T aReply = execute(connection, commandObject);
+      if (own == null) {
+        own = pool;
+        futures.put(node, new CompletableFuture<>());
+      } else {
+        futures.put(node, CompletableFuture.supplyAsync(() -> executeOn(pool, commandObject), multiNodeExecutor));
+      }
+    }
+    if (own != null) {
+      CompletableFuture<T> future = futures.values().iterator().next();
+      try {
+        future.complete(executeOn(own, commandObject));
+      } catch (Exception anError) {
+        future.completeExceptionally(anError);
+      }
+    }
+
+    boolean isErrored = false;
+    T reply = null;
+    JedisBroadcastException bcastError = new JedisBroadcastException();
+    for (Map.Entry<HostAndPort, CompletableFuture<T>> entry : futures.entrySet()) {
+      HostAndPort node = entry.getKey();
+      try {
+        T aReply = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
         bcastError.addReply(node, aReply);
         if (isErrored) { // already errored
         } else if (reply == null) {
@@ -60,8 +121,15 @@ public class ClusterCommandExecutor implements CommandExecutor {
           isErrored = true;
           reply = null;
         }
-      } catch (Exception anError) {
-        bcastError.addReply(node, anError);
+      } catch (ExecutionException ee) {
+        bcastError.addReply(node, ee.getCause());
+        isErrored = true;
+      } catch (TimeoutException te) {
+        bcastError.addReply(node, new JedisClusterOperationException("Broadcast deadline exceeded."));
+        isErrored = true;
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        bcastError.addReply(node, new JedisClusterOperationException(ie));
         isErrored = true;
       }
     }
@@ -71,6 +139,12 @@ public class ClusterCommandExecutor implements CommandExecutor {
     return reply;
   }
 
+  private <T> T executeOn(ConnectionPool pool, CommandObject<T> commandObject) {
+    try (Connection connection = pool.getResource()) {
+      return execute(connection, commandObject);
+    }
+  }
+
   @Override
   public final <T> T executeCommand(CommandObject<T> commandObject) {
     return doExecuteCommand(commandObject, false);
@@ -80,6 +154,140 @@ public class ClusterCommandExecutor implements CommandExecutor {
     return doExecuteCommand(commandObject, true);
   }
 
+  /**
+   * Set the executor which runs the per node batches of {@link #executeCommands(List)} and the
+   * {@link #broadcastCommand(CommandObject) broadcast} commands. The commands of one node are always
+   * run by the calling thread. Pipelines created by {@code JedisCluster} are synced with the same
+   * executor.
+   */
+  @Experimental
+  public void setMultiNodeExecutor(Executor multiNodeExecutor) {
+    this.multiNodeExecutor = multiNodeExecutor;
+  }
+
+  @Experimental
+  public Executor getMultiNodeExecutor() {
+    return multiNodeExecutor;
+  }
+
+  /**
+   * Set how long {@link #broadcastCommand(CommandObject)} waits for all nodes to reply. The default is
+   * the maximum total retries duration. A node which has not replied in time is reported with a
+   * {@link JedisClusterOperationException} in the {@link JedisBroadcastException}; its command is not
+   * interrupted.
+   */
+  @Experimental
+  public void setBroadcastTimeout(Duration broadcastTimeout) {
+    this.broadcastTimeout = broadcastTimeout;
+  }
+
+  /**
+   * Execute commands whose keys may be served by different nodes, each command having keys of a
+   * single slot.
+   * <p>
+   * The commands are grouped by the node serving their slot; the commands of a node are sent to it as
+   * one pipelined batch and the batches of different nodes run in parallel. A command which is
+   * redirected, or whose batch fails with a connection error, is executed again on its own with the
+   * usual redirection handling and retries.
+   *
+   * @return the replies, in the order of the commands
+   * @throws JedisException the first error, in the order of the commands, once all commands are done
+   */
+  @Experimental
+  public final <T> List<T> executeCommands(List<CommandObject<T>> commandObjects) {
+    final Map<HostAndPort, List<Integer>> batches = new LinkedHashMap<>();
+    final List<Integer> unassigned = new ArrayList<>();
+    for (int i = 0; i < commandObjects.size(); i++) {
+      final HostAndPort node = provider.getNode(getHashSlot(commandObjects.get(i).getArguments()));
+      if (node == null) {
+        unassigned.add(i);
+      } else {
+        batches.computeIfAbsent(node, n -> new ArrayList<>()).add(i);
+      }
+    }
+
+    final Object[] replies = new Object[commandObjects.size()];
+    final List<CompletableFuture<Void>> futures = new ArrayList<>(batches.size());
+    Map.Entry<HostAndPort, List<Integer>> own = null;
+    for (Map.Entry<HostAndPort, List<Integer>> batch : batches.entrySet()) {
+      if (own == null) {
+        own = batch;
+      } else {
+        futures.add(CompletableFuture.runAsync(
+            () -> executeBatch(batch.getKey(), batch.getValue(), commandObjects, replies), multiNodeExecutor));
+      }
+    }
+    if (own != null) {
+      executeBatch(own.getKey(), own.getValue(), commandObjects, replies);
+    }
+    for (Integer index : unassigned) {
+      replies[index] = executeAlone(commandObjects.get(index));
+    }
+    for (CompletableFuture<Void> future : futures) {
+      try {
+        future.join();
+      } catch (CompletionException ce) {
+        throw ce.getCause() instanceof RuntimeException ? (RuntimeException) ce.getCause() : ce;
+      }
+    }
+
+    for (Object reply : replies) {
+      if (reply instanceof JedisException) {
+        throw (JedisException) reply;
+      }
+    }
+    @SuppressWarnings("unchecked")
+    List<T> result = (List<T>) Arrays.asList(replies);
+    return result;
+  }
+
+  private static int getHashSlot(CommandArguments args) {
+    return args instanceof ClusterCommandArguments ? ((ClusterCommandArguments) args).getCommandHashSlot() : -1;
+  }
+
+  private <T> void executeBatch(HostAndPort node, List<Integer> indexes, List<CommandObject<T>> commandObjects,
+      Object[] replies) {
+    List<Object> unformatted = null;
+    if (indexes.size() > 1) {
+      try (Connection connection = provider.getConnection(node)) {
+        for (Integer index : indexes) {
+          connection.sendCommand(commandObjects.get(index).getArguments());
+        }
+        unformatted = connection.getMany(indexes.size());
+        // as for a single command, the moved slots are updated before the redirected commands are retried
+        unformatted.stream().filter(JedisMovedDataException.class::isInstance)
+            .forEach(reply -> provider.applyMovedRedirection((JedisMovedDataException) reply));
+      } catch (JedisConnectionException jce) {
+        log.debug("Failed executing batch on {}", node, jce);
+      }
+    }
+
+    for (int i = 0; i < indexes.size(); i++) {
+      final int index = indexes.get(i);
+      final CommandObject<T> commandObject = commandObjects.get(index);
+      final Object reply = unformatted == null ? null : unformatted.get(i);
+      if (unformatted == null || reply instanceof JedisRedirectionException) {
+        replies[index] = executeAlone(commandObject);
+      } else if (reply instanceof JedisDataException) {
+        replies[index] = reply;
+      } else {
+        try {
+          replies[index] = commandObject.getBuilder().build(reply);
+        } catch (JedisException je) {
+          replies[index] = je;
+        }
+      }
+    }
+  }
+
+  private Object executeAlone(CommandObject<?> commandObject) {
+    try {
+      return doExecuteCommand(commandObject, false);
+    } catch (JedisException je) {
+      return je;
+    }
+  }
+
   private <T> T doExecuteCommand(CommandObject<T> commandObject, boolean toReplica) {
     Instant deadline = Instant.now().plus(maxTotalRetriesDuration);
 
@@ -88,16 +296,25 @@ public class ClusterCommandExecutor implements CommandExecutor {
     Exception lastException = null;
     for (int attemptsLeft = this.maxAttempts; attemptsLeft > 0; attemptsLeft--) {
       Connection connection = null;
+      HostAndPort replicaNode;
+      HostAndPort askingNode;
       try {
         if (redirect != null) {
           connection = provider.getConnection(redirect.getTargetNode());
           if (redirect instanceof JedisAskDataException) {
-            // TODO: Pipeline asking with the original command to make it faster....
-            connection.executeCommand(Protocol.Command.ASKING);
+            // flushed with the command, saving a round trip
+            connection.sendAsking();
           }
+        } else if (attemptsLeft == this.maxAttempts
+            && (askingNode = provider.getAskingNode(commandObject.getArguments())) != null) {
+          // the keys have been migrated lately, the source node would redirect again
+          connection = provider.getConnection(askingNode);
+          connection.sendAsking();
+        } else if (toReplica
+            && (replicaNode = provider.getReplicaNode(commandObject.getArguments())) != null) {
+          return executeMeasured(replicaNode, commandObject);
         } else {
-          connection = toReplica ? provider.getReplicaConnection(commandObject.getArguments())
-              : provider.getConnection(commandObject.getArguments());
+          connection = provider.getConnection(commandObject.getArguments());
         }
 
         return execute(connection, commandObject);
@@ -124,8 +341,11 @@ public class ClusterCommandExecutor implements CommandExecutor {
         redirect = jre;
         // if MOVED redirection occurred,
         if (jre instanceof JedisMovedDataException) {
-          // it rebuilds cluster's slot cache recommended by Redis cluster specification
-          provider.renewSlotCache(connection);
+          // it updates the slot right away and rebuilds cluster's slot cache in the background, as
+          // recommended by Redis cluster specification
+          provider.applyMovedRedirection((JedisMovedDataException) jre);
+        } else if (jre instanceof JedisAskDataException) {
+          provider.applyAskRedirection((JedisAskDataException) jre, commandObject.getArguments());
         }
       } finally {
         IOUtils.closeQuietly(connection);
@@ -141,6 +361,38 @@ public class ClusterCommandExecutor implements CommandExecutor {
     throw maxAttemptsException;
   }
 
+  /**
+   * Execute the command on the node, feeding the metrics which the read routing strategy relies on.
+   * Getting the connection is part of the command: a command waiting for a connection is outstanding,
+   * and a node which cannot be connected to has failed.
+   */
+  private <T> T executeMeasured(HostAndPort node, CommandObject<T> commandObject) {
+    final NodeMetrics metrics = provider.getNodeMetrics();
+    metrics.started(node);
+    final long start = System.nanoTime();
+    Connection connection;
+    try {
+      connection = provider.getConnection(node);
+    } catch (RuntimeException re) {
+      metrics.failed(node);
+      throw re;
+    }
+    try {
+      T reply = execute(connection, commandObject);
+      metrics.completed(node, System.nanoTime() - start);
+      return reply;
+    } catch (JedisConnectionException jce) {
+      metrics.failed(node);
+      throw jce;
+    } catch (RuntimeException re) {
+      // an error reply is a completed command
+      metrics.completed(node, System.nanoTime() - start);
+      throw re;
+    } finally {
+      IOUtils.closeQuietly(connection);
+    }
+  }
+
   /**
    * WARNING: This method is accessible for the purpose of testing.
    * This should not be used or overriden.
@@ -1,6 +1,9 @@
 package redis.clients.jedis.executors;
 
+import java.util.concurrent.CompletableFuture;
+
 import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.annots.Experimental;
 
 public interface CommandExecutor extends AutoCloseable {
 
@@ -9,4 +12,19 @@ public interface CommandExecutor extends AutoCloseable {
   default <T> T broadcastCommand(CommandObject<T> commandObject) {
     return executeCommand(commandObject);
   }
+
+  /**
+   * Executors which are not backed by a non-blocking transport execute the command in the calling
+   * thread and return a completed future.
+   */
+  @Experimental
+  default <T> CompletableFuture<T> executeCommandAsync(CommandObject<T> commandObject) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      future.complete(executeCommand(commandObject));
+    } catch (RuntimeException re) {
+      future.completeExceptionally(re);
+    }
+    return future;
+  }
 }
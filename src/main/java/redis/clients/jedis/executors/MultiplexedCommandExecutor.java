@@ -0,0 +1,30 @@
+package redis.clients.jedis.executors;
+
+import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.providers.MultiplexedConnectionProvider;
+
+/**
+ * CommandExecutor of {@link MultiplexedConnectionProvider}. Commands are executed over the shared
+ * connections of the provider, except blocking commands which would stall every other command
+ * queued on the same connection. Those are executed over an exclusive connection. The asynchronous
+ * commands are executed as by {@link NioCommandExecutor}.
+ */
+@Experimental
+public class MultiplexedCommandExecutor extends NioCommandExecutor {
+
+  public MultiplexedCommandExecutor(MultiplexedConnectionProvider provider) {
+    super(provider);
+  }
+
+  @Override
+  public final <T> T executeCommand(CommandObject<T> commandObject) {
+    if (commandObject.getArguments().isBlocking()) {
+      try (Connection connection = provider.getConnection(commandObject.getArguments())) {
+        return connection.executeCommand(commandObject);
+      }
+    }
+    return provider.getSharedConnection().executeCommand(commandObject);
+  }
+}
@@ -0,0 +1,56 @@
+package redis.clients.jedis.executors;
+
+import java.util.concurrent.CompletableFuture;
+
+import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.nio.NioConnection;
+import redis.clients.jedis.providers.NioConnectionProvider;
+import redis.clients.jedis.util.IOUtils;
+
+/**
+ * CommandExecutor of {@link NioConnectionProvider}. Asynchronously executed commands are written to
+ * a {@link NioConnectionProvider#getSharedConnection() shared connection}, so neither the number of
+ * commands in flight is bounded by the pool nor the caller is blocked. Only blocking commands, which
+ * would stall every other command queued on the same connection, keep an exclusive connection
+ * borrowed until their reply is received.
+ */
+@Experimental
+public class NioCommandExecutor implements CommandExecutor {
+
+  protected final NioConnectionProvider provider;
+
+  public NioCommandExecutor(NioConnectionProvider provider) {
+    this.provider = provider;
+  }
+
+  @Override
+  public void close() {
+    IOUtils.closeQuietly(this.provider);
+  }
+
+  @Override
+  public <T> T executeCommand(CommandObject<T> commandObject) {
+    try (Connection connection = provider.getConnection(commandObject.getArguments())) {
+      return connection.executeCommand(commandObject);
+    }
+  }
+
+  @Override
+  public final <T> CompletableFuture<T> executeCommandAsync(CommandObject<T> commandObject) {
+    final NioConnection connection;
+    final boolean exclusive = commandObject.getArguments().isBlocking();
+    try {
+      connection = exclusive ? provider.getConnection(commandObject.getArguments())
+          : provider.getSharedConnection();
+    } catch (JedisException je) {
+      CompletableFuture<T> failed = new CompletableFuture<>();
+      failed.completeExceptionally(je);
+      return failed;
+    }
+    CompletableFuture<T> future = connection.executeCommandAsync(commandObject);
+    return exclusive ? future.whenComplete((reply, error) -> connection.close()) : future;
+  }
+}
@@ -0,0 +1,765 @@
+package redis.clients.jedis.nio;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import redis.clients.jedis.BufferAllocator;
+import redis.clients.jedis.Builder;
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.DefaultJedisSocketFactory;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.HostAndPortMapper;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.RespDecoder;
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisValidationException;
+import redis.clients.jedis.util.AdaptiveBufferSize;
+import redis.clients.jedis.util.IOUtils;
+import redis.clients.jedis.util.RedisInputStream;
+import redis.clients.jedis.util.RedisOutputStream;
+
+/**
+ * A {@link Connection} built on a non-blocking {@link SocketChannel} which is driven by a
+ * {@link NioEventLoop}.
+ * <p>
+ * Commands are encoded in the calling thread and written by the event loop; replies are matched to
+ * the commands in FIFO order, except RESP3 push messages which do not answer a command; those are
+ * read like the messages of pub/sub, e.g. by {@link #getUnflushedObject()}.
+ * {@link #executeCommandAsync(CommandObject)} can be called from any number of threads concurrently.
+ * The channel is connected by the event loop too, and the commands sent meanwhile are queued.
+ * <p>
+ * The blocking {@link Connection} API (e.g. {@link #sendCommand(CommandArguments)} followed by
+ * {@link #getOne()}) is supported as well, so this connection can be used by pipelines and
+ * transactions, but like any other {@link Connection} only by one thread at a time.
+ * <p>
+ * TLS is not supported.
+ */
+@Experimental
+public class NioConnection extends Connection {
+
+  /**
+   * Commands which are answered by push messages with RESP3.
+   */
+  private static final Set<ProtocolCommand> PUSH_REPLY_COMMANDS = new HashSet<>(Arrays.asList(
+      Command.SUBSCRIBE, Command.PSUBSCRIBE, Command.SSUBSCRIBE,
+      Command.UNSUBSCRIBE, Command.PUNSUBSCRIBE, Command.SUNSUBSCRIBE));
+
+  private static final int INPUT_BUFFER_SIZE = Integer.parseInt(
+      System.getProperty("jedis.bufferSize.input",
+          System.getProperty("jedis.bufferSize", "8192")));
+
+  private final NioEventLoop eventLoop;
+  private final HostAndPort hostAndPort;
+  private final int connectionTimeout;
+  private final HostAndPortMapper hostAndPortMapper;
+  private int soTimeout;
+  private final int infiniteSoTimeout;
+  private volatile int readTimeout;
+
+  private final boolean awaitHandshake;
+
+  private final Object writeLock = new Object();
+  private volatile SocketChannel channel;
+  private volatile JedisConnectionException failure;
+  private volatile CompletableFuture<Void> connected = new CompletableFuture<>();
+
+  // guarded by writeLock
+  private final WriteBuffer writeBuffer = new WriteBuffer();
+  private final RedisOutputStream encoder = new RedisOutputStream(writeBuffer);
+
+  private final Queue<PendingReply> inFlight = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+  // accessed only by the event loop
+  private Connector connector;
+  private SelectionKey key;
+  private ByteBuffer outbound;
+  private ByteBuffer readBuffer;
+  private final BufferAllocator bufferAllocator;
+  private final AdaptiveBufferSize readSize;
+  private final RespDecoder decoder = new RespDecoder();
+  private PendingReply nextReply;
+
+  // accessed only by the (single) user of the blocking API
+  private final ArrayDeque<PendingReply> unclaimed = new ArrayDeque<>();
+  private final LinkedBlockingQueue<PendingReply> unsolicited = new LinkedBlockingQueue<>();
+
+  public NioConnection(NioEventLoop eventLoop, HostAndPort hostAndPort, JedisClientConfig clientConfig) {
+    this(eventLoop, hostAndPort, clientConfig, true);
+  }
+
+  /**
+   * @param awaitHandshake if {@code false}, the constructor returns as soon as the commands of the
+   * handshake are queued, without waiting for the connection to be established nor for their replies;
+   * the commands sent meanwhile are queued after them, and fail if the handshake fails
+   */
+  public NioConnection(NioEventLoop eventLoop, HostAndPort hostAndPort, JedisClientConfig clientConfig,
+      boolean awaitHandshake) {
+    super(new DefaultJedisSocketFactory(hostAndPort, clientConfig));
+    if (clientConfig.isSsl()) {
+      throw new JedisValidationException("TLS is not supported by " + getClass().getSimpleName() + ".");
+    }
+    this.eventLoop = eventLoop;
+    this.awaitHandshake = awaitHandshake;
+    this.hostAndPort = hostAndPort;
+    this.connectionTimeout = clientConfig.getConnectionTimeoutMillis();
+    this.hostAndPortMapper = clientConfig.getHostAndPortMapper();
+    this.soTimeout = clientConfig.getSocketTimeoutMillis();
+    this.infiniteSoTimeout = clientConfig.getBlockingSocketTimeoutMillis();
+    this.readTimeout = this.soTimeout;
+    this.bufferAllocator = clientConfig.getBufferAllocator();
+    if (this.bufferAllocator == null) {
+      this.readBuffer = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+      this.readSize = null;
+    } else {
+      this.readSize = new AdaptiveBufferSize(INPUT_BUFFER_SIZE);
+    }
+    initializeFromClientConfig(clientConfig);
+    if (awaitHandshake) {
+      try {
+        // the handshake may be empty
+        await(connected);
+      } catch (JedisException je) {
+        disconnect();
+        throw je;
+      }
+    }
+  }
+
+  public final NioEventLoop getEventLoop() {
+    return eventLoop;
+  }
+
+  /**
+   * Send the command and return a future which is completed, in the event loop thread, with the
+   * reply built by the {@link Builder} of the command.
+   * <p>
+   * This method never blocks on network I/O and can be called from multiple threads concurrently.
+   */
+  public <T> CompletableFuture<T> executeCommandAsync(final CommandObject<T> commandObject) {
+    final CommandArguments args = commandObject.getArguments();
+    final Builder<T> builder = commandObject.getBuilder();
+    return enqueue(args, args.isBlocking() ? infiniteSoTimeout : soTimeout, false).thenApply(builder::build);
+  }
+
+  @Override
+  public <T> T executeCommand(final CommandObject<T> commandObject) {
+    return await(executeCommandAsync(commandObject));
+  }
+
+  @Override
+  public void sendCommand(final CommandArguments args) {
+    unclaimed.add(enqueue(args, readTimeout, true));
+  }
+
+  /**
+   * Unless the handshake is awaited, its replies are checked by the event loop as soon as the last
+   * one is received, so a failed handshake fails the commands queued after it.
+   */
+  @Override
+  protected void executeHandshake(final List<HandshakeCommand> handshake) {
+    if (awaitHandshake || handshake.isEmpty()) {
+      super.executeHandshake(handshake);
+      return;
+    }
+    final List<PendingReply> pending = new ArrayList<>(handshake.size());
+    for (HandshakeCommand command : handshake) {
+      pending.add(enqueue(command.getArguments(), soTimeout, false));
+    }
+    CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+      final List<Object> replies = new ArrayList<>(pending.size());
+      for (PendingReply reply : pending) {
+        try {
+          replies.add(reply.join());
+        } catch (CompletionException ce) {
+          if (!(ce.getCause() instanceof JedisDataException)) {
+            return; // the connection has failed
+          }
+          replies.add(ce.getCause());
+        }
+      }
+      try {
+        completeHandshake(handshake, replies);
+      } catch (JedisException je) {
+        fail(new JedisConnectionException("Failed to initialize the connection.", je));
+      }
+    });
+  }
+
+  /**
+   * The replies read by the blocking API are captured in RESP by the event loop, and parsed here.
+   */
+  @Override
+  protected Object readProtocolWithCheckingBroken() {
+    final Object reply = awaitReply();
+    return reply instanceof ByteBuffer ? Protocol.read(stream((ByteBuffer) reply)) : reply;
+  }
+
+  /**
+   * The reader is applied to the reply in RESP, as it has been received.
+   */
+  @Override
+  protected <T> T readProtocolWithCheckingBroken(Function<RedisInputStream, T> reader) {
+    final Object reply = awaitReply();
+    if (!(reply instanceof ByteBuffer)) {
+      throw new JedisException("A message pushed while asynchronous commands are in flight can only be"
+          + " read as a whole.");
+    }
+    final RedisInputStream is = stream((ByteBuffer) reply);
+    final T value = reader.apply(is);
+    final JedisDataException error = is.takeElementError();
+    if (error != null) {
+      throw error;
+    }
+    return value;
+  }
+
+  private static RedisInputStream stream(final ByteBuffer reply) {
+    return new RedisInputStream(reply.array(), reply.arrayOffset() + reply.position(), reply.remaining());
+  }
+
+  private Object awaitReply() {
+    PendingReply reply = unclaimed.poll();
+    if (reply != null) {
+      return await(reply);
+    }
+
+    // nothing has been sent; wait for a message pushed by the server, e.g. in pub/sub mode
+    if (isBroken()) {
+      throw new JedisConnectionException("Attempting to read from a broken connection.");
+    }
+    try {
+      int timeout = readTimeout;
+      reply = timeout > 0 ? unsolicited.poll(timeout, TimeUnit.MILLISECONDS) : unsolicited.take();
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new JedisConnectionException(ie);
+    }
+    if (reply == null) {
+      JedisConnectionException timeout = new JedisConnectionException(
+          new SocketTimeoutException("Read timed out"));
+      fail(timeout);
+      throw timeout;
+    }
+    return await(reply);
+  }
+
+  @Override
+  public InputStream getBulkReplyStream() {
+    final byte[] value = getBinaryBulkReply();
+    return value == null ? null : new ByteArrayInputStream(value);
+  }
+
+  @Override
+  protected void readPushesWithCheckingBroken() {
+    // push messages are decoded by the event loop and delivered as unsolicited replies
+  }
+
+  @Override
+  protected void flush() {
+    // commands are flushed by the event loop as soon as they are enqueued
+  }
+
+  @Override
+  public int getSoTimeout() {
+    return soTimeout;
+  }
+
+  @Override
+  public void setSoTimeout(int soTimeout) {
+    this.soTimeout = soTimeout;
+    this.readTimeout = soTimeout;
+  }
+
+  @Override
+  public void setTimeoutInfinite() {
+    if (!isConnected()) {
+      connect();
+    }
+    this.readTimeout = infiniteSoTimeout;
+  }
+
+  @Override
+  public void rollbackTimeout() {
+    this.readTimeout = soTimeout;
+  }
+
+  /**
+   * The channel is connected by the event loop; the commands sent meanwhile are queued. Only the
+   * host name is resolved by the calling thread.
+   */
+  @Override
+  public void connect() throws JedisConnectionException {
+    if (isConnected()) {
+      return;
+    }
+    final Connector newConnector = resolve();
+    synchronized (writeLock) {
+      if (isConnected()) {
+        return;
+      }
+      final SocketChannel newChannel = openChannel();
+      channel = newChannel;
+      failure = null;
+      if (connected.isDone()) {
+        connected = new CompletableFuture<>();
+      }
+      writeBuffer.reset();
+      unsolicited.clear();
+      try {
+        eventLoop.execute(() -> connectNext(newConnector, newChannel));
+      } catch (JedisConnectionException jce) {
+        fail(jce);
+        throw jce;
+      }
+    }
+  }
+
+  @Override
+  public void disconnect() {
+    if (channel != null) {
+      fail(new JedisConnectionException("Connection is closed."));
+    }
+  }
+
+  /**
+   * @return {@code true} if the channel is connected or being connected
+   */
+  @Override
+  public boolean isConnected() {
+    final SocketChannel ch = channel;
+    return ch != null && ch.isOpen() && failure == null;
+  }
+
+  @Override
+  public boolean isBroken() {
+    return failure != null;
+  }
+
+  @Override
+  public void setBroken() {
+    if (failure == null) {
+      fail(new JedisConnectionException("Connection is broken."));
+    }
+  }
+
+  private Connector resolve() {
+    HostAndPort target = hostAndPort;
+    if (hostAndPortMapper != null) {
+      HostAndPort mapped = hostAndPortMapper.getHostAndPort(target);
+      if (mapped != null) {
+        target = mapped;
+      }
+    }
+
+    final InetAddress[] hosts;
+    try {
+      hosts = InetAddress.getAllByName(target.getHost());
+    } catch (IOException ioe) {
+      throw new JedisConnectionException("Failed to connect to " + target + ".", ioe);
+    }
+    final List<InetSocketAddress> addresses = new ArrayList<>(hosts.length);
+    for (InetAddress host : hosts) {
+      addresses.add(new InetSocketAddress(host, target.getPort()));
+    }
+    if (addresses.size() > 1) {
+      Collections.shuffle(addresses);
+    }
+    return new Connector(target, addresses);
+  }
+
+  private static SocketChannel openChannel() {
+    SocketChannel ch = null;
+    try {
+      ch = SocketChannel.open();
+      ch.configureBlocking(false);
+      ch.socket().setKeepAlive(true);
+      ch.socket().setTcpNoDelay(true);
+      return ch;
+    } catch (IOException ioe) {
+      IOUtils.closeQuietly(ch);
+      throw new JedisConnectionException("Failed to open channel.", ioe);
+    }
+  }
+
+  private PendingReply enqueue(final CommandArguments args, final int timeoutMillis, final boolean raw) {
+    final PendingReply reply = new PendingReply(timeoutMillis, raw,
+        PUSH_REPLY_COMMANDS.contains(args.getCommand()));
+    if (channel == null) {
+      try {
+        connect();
+      } catch (JedisConnectionException jce) {
+        reply.completeExceptionally(jce);
+        return reply;
+      }
+    }
+    synchronized (writeLock) {
+      try {
+        if (failure != null) {
+          reply.completeExceptionally(failure);
+          return reply;
+        }
+        Protocol.sendCommand(encoder, args);
+        encoder.flush(); // into the write buffer
+      } catch (IOException | JedisException ex) {
+        reply.completeExceptionally(ex instanceof JedisException ? ex : new JedisConnectionException(ex));
+        if (channel != null) {
+          // the command may have been partly encoded into the write buffer
+          fail(ex instanceof JedisConnectionException ? (JedisConnectionException) ex
+              : new JedisConnectionException(ex));
+        }
+        return reply;
+      }
+      inFlight.add(reply);
+    }
+    if (flushScheduled.compareAndSet(false, true)) {
+      eventLoop.execute(this::flushWrites);
+    }
+    return reply;
+  }
+
+  // ----- event loop side -----
+
+  private void connectNext(final Connector connector, final SocketChannel ch) {
+    if (ch != channel || failure != null) {
+      IOUtils.closeQuietly(ch);
+      return; // the connection has been closed meanwhile
+    }
+    this.connector = connector;
+    connector.deadline = connectionTimeout > 0
+        ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(connectionTimeout) : 0;
+    try {
+      if (ch.connect(connector.addresses.next())) {
+        registered(eventLoop.register(ch, SelectionKey.OP_READ, this));
+      } else {
+        eventLoop.register(ch, SelectionKey.OP_CONNECT, this);
+      }
+    } catch (IOException | RuntimeException ex) {
+      connectFailed(ch, ex);
+    }
+  }
+
+  void onConnectable(final SelectionKey key) {
+    final SocketChannel ch = (SocketChannel) key.channel();
+    try {
+      ch.finishConnect();
+    } catch (IOException | RuntimeException ex) {
+      connectFailed(ch, ex);
+      return;
+    }
+    key.interestOps(SelectionKey.OP_READ);
+    registered(key);
+  }
+
+  /**
+   * Try the next address of the host, if any.
+   */
+  private void connectFailed(final SocketChannel ch, final Exception cause) {
+    IOUtils.closeQuietly(ch);
+    final Connector current = connector;
+    if (current == null || ch != channel || failure != null) {
+      return;
+    }
+    current.failure.addSuppressed(cause);
+    if (!current.addresses.hasNext()) {
+      connector = null;
+      fail(current.failure);
+      return;
+    }
+    final SocketChannel next;
+    try {
+      next = openChannel();
+    } catch (JedisConnectionException jce) {
+      fail(jce);
+      return;
+    }
+    synchronized (writeLock) {
+      if (ch != channel || failure != null) {
+        IOUtils.closeQuietly(next);
+        return;
+      }
+      channel = next;
+    }
+    connectNext(current, next);
+  }
+
+  void registered(SelectionKey key) {
+    this.connector = null;
+    this.key = key;
+    this.outbound = null;
+    if (this.readBuffer != null) {
+      this.readBuffer.clear();
+    }
+    this.decoder.reset();
+    this.nextReply = null;
+    if (failure != null) {
+      key.cancel();
+      return;
+    }
+    connected.complete(null);
+    flushWrites();
+  }
+
+  private void flushWrites() {
+    flushScheduled.set(false);
+    if (key == null || !key.isValid()) {
+      return; // will be flushed once registered
+    }
+    try {
+      while (true) {
+        if (outbound == null || !outbound.hasRemaining()) {
+          synchronized (writeLock) {
+            outbound = writeBuffer.drain();
+          }
+          if (outbound == null) {
+            key.interestOps(SelectionKey.OP_READ);
+            return;
+          }
+        }
+        channel.write(outbound);
+        if (outbound.hasRemaining()) {
+          key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+          return;
+        }
+      }
+    } catch (IOException | RuntimeException ex) {
+      fail(new JedisConnectionException(ex));
+    }
+  }
+
+  void onWritable() {
+    flushWrites();
+  }
+
+  void onReadable() {
+    // the decoder copies everything it consumes, so a leased buffer is only needed for one read
+    final ByteBuffer buffer = bufferAllocator != null
+        ? bufferAllocator.allocateDirect(readSize.next()) : readBuffer;
+    try {
+      final int read = channel.read(buffer);
+      if (read < 0) {
+        fail(new JedisConnectionException("Unexpected end of stream."));
+        return;
+      }
+      if (bufferAllocator != null) {
+        // a full buffer means that more bytes were waiting
+        readSize.record(buffer.hasRemaining() ? read : 2L * read);
+      }
+      buffer.flip();
+      while (true) {
+        if (decoder.isIdle()) {
+          // the replies to the blocking API, and unsolicited ones, are parsed by their readers
+          nextReply = inFlight.peek();
+          decoder.setRaw(nextReply == null || nextReply.raw);
+        }
+        if (!decoder.decode(buffer)) {
+          break;
+        }
+        final boolean push = decoder.isPush();
+        onReply(decoder.getReply(), push);
+      }
+    } catch (IOException | RuntimeException ex) {
+      fail(ex instanceof JedisConnectionException ? (JedisConnectionException) ex
+          : new JedisConnectionException(ex));
+    } finally {
+      if (bufferAllocator != null) {
+        bufferAllocator.release(buffer);
+      } else {
+        buffer.clear();
+      }
+    }
+  }
+
+  /**
+   * A push message answers the command in flight only if that command is answered by push messages,
+   * e.g. SUBSCRIBE; any other one, e.g. a published message or an invalidation, is delivered to the
+   * readers of unsolicited messages without shifting the replies of the commands in flight.
+   */
+  private void onReply(final Object data, final boolean push) {
+    // a reply which started before any command was in flight does not answer any of them
+    final PendingReply head = nextReply;
+    nextReply = null;
+    PendingReply reply = null;
+    if (head != null && (!push || head.push) && inFlight.remove(head)) {
+      reply = head;
+    }
+    if (reply == null) {
+      reply = new PendingReply(0, false, false);
+      unsolicited.add(reply);
+    }
+    if (data instanceof JedisDataException) {
+      reply.completeExceptionally((JedisDataException) data);
+    } else {
+      reply.complete(data);
+    }
+  }
+
+  void checkTimeout(final long now) {
+    final Connector current = connector;
+    if (current != null) {
+      // the replies are not awaited before the channel is connected
+      if (current.deadline != 0 && now - current.deadline > 0) {
+        current.deadline = 0;
+        // the next address is registered after the keys have been checked
+        final SocketChannel ch = channel;
+        eventLoop.execute(() -> connectFailed(ch, new SocketTimeoutException("Connect timed out")));
+      }
+      return;
+    }
+    PendingReply head = inFlight.peek();
+    if (head != null && head.timed && now - head.deadline > 0) {
+      fail(new JedisConnectionException(new SocketTimeoutException("Read timed out")));
+    }
+  }
+
+  /**
+   * Close the channel and fail all replies which are still awaited.
+   */
+  void fail(final JedisConnectionException cause) {
+    final SocketChannel ch;
+    synchronized (writeLock) {
+      if (failure == null) {
+        failure = cause;
+      }
+      ch = channel;
+    }
+    IOUtils.closeQuietly(ch);
+    connected.completeExceptionally(failure);
+
+    PendingReply reply;
+    while ((reply = inFlight.poll()) != null) {
+      reply.completeExceptionally(failure);
+    }
+
+    // wake up a reader which is waiting for pushed messages
+    reply = new PendingReply(0, false, false);
+    reply.completeExceptionally(failure);
+    unsolicited.add(reply);
+  }
+
+  private static <T> T await(final CompletableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new JedisConnectionException(ie);
+    } catch (ExecutionException ee) {
+      Throwable cause = ee.getCause();
+      if (cause instanceof CompletionException && cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new JedisException(cause);
+    }
+  }
+
+  /**
+   * The addresses of the host which are left to try, and the errors of the ones which failed.
+   */
+  private static final class Connector {
+
+    private final Iterator<InetSocketAddress> addresses;
+    private final JedisConnectionException failure;
+    private long deadline;
+
+    Connector(HostAndPort target, List<InetSocketAddress> addresses) {
+      this.addresses = addresses.iterator();
+      this.failure = new JedisConnectionException("Failed to connect to " + target + ".");
+    }
+  }
+
+  private static final class PendingReply extends CompletableFuture<Object> {
+
+    private final boolean timed;
+    private final long deadline;
+    private final boolean raw;
+    private final boolean push;
+
+    PendingReply(int timeoutMillis, boolean raw, boolean push) {
+      this.raw = raw;
+      this.push = push;
+      this.timed = timeoutMillis > 0;
+      this.deadline = timed ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+    }
+  }
+
+  /**
+   * Double buffered sink of the encoder. The drained buffer is handed to the event loop and is not
+   * touched again before the next drain.
+   */
+  private static final class WriteBuffer extends OutputStream {
+
+    private byte[] current = new byte[1024];
+    private byte[] spare = new byte[1024];
+    private int count = 0;
+
+    @Override
+    public void write(int b) {
+      ensureCapacity(1);
+      current[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      ensureCapacity(len);
+      System.arraycopy(b, off, current, count, len);
+      count += len;
+    }
+
+    private void ensureCapacity(int len) {
+      if (count + len > current.length) {
+        current = Arrays.copyOf(current, Math.max(current.length << 1, count + len));
+      }
+    }
+
+    ByteBuffer drain() {
+      if (count == 0) {
+        return null;
+      }
+      ByteBuffer drained = ByteBuffer.wrap(current, 0, count);
+      current = spare;
+      spare = drained.array();
+      count = 0;
+      return drained;
+    }
+
+    void reset() {
+      count = 0;
+    }
+  }
+}
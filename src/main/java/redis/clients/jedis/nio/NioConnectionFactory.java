@@ -0,0 +1,72 @@
+package redis.clients.jedis.nio;
+
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.PooledObjectFactory;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * PoolableObjectFactory of {@link NioConnection}s sharing one {@link NioEventLoop}.
+ */
+public class NioConnectionFactory implements PooledObjectFactory<Connection> {
+
+  private static final Logger logger = LoggerFactory.getLogger(NioConnectionFactory.class);
+
+  private final NioEventLoop eventLoop;
+  private final HostAndPort hostAndPort;
+  private final JedisClientConfig clientConfig;
+
+  public NioConnectionFactory(NioEventLoop eventLoop, HostAndPort hostAndPort,
+      JedisClientConfig clientConfig) {
+    this.eventLoop = eventLoop;
+    this.hostAndPort = hostAndPort;
+    this.clientConfig = clientConfig;
+  }
+
+  @Override
+  public void activateObject(PooledObject<Connection> pooledConnection) throws Exception {
+  }
+
+  @Override
+  public void destroyObject(PooledObject<Connection> pooledConnection) throws Exception {
+    final Connection connection = pooledConnection.getObject();
+    if (connection.isConnected()) {
+      try {
+        connection.close();
+      } catch (RuntimeException e) {
+        logger.debug("Error while close", e);
+      }
+    }
+  }
+
+  @Override
+  public PooledObject<Connection> makeObject() throws Exception {
+    try {
+      return new DefaultPooledObject<>(new NioConnection(eventLoop, hostAndPort, clientConfig));
+    } catch (JedisException je) {
+      logger.debug("Error while makeObject", je);
+      throw je;
+    }
+  }
+
+  @Override
+  public void passivateObject(PooledObject<Connection> pooledConnection) throws Exception {
+  }
+
+  @Override
+  public boolean validateObject(PooledObject<Connection> pooledConnection) {
+    final Connection connection = pooledConnection.getObject();
+    try {
+      return connection.isConnected() && connection.ping();
+    } catch (final Exception e) {
+      logger.warn("Error while validating pooled Connection object.", e);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package redis.clients.jedis.nio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * A single selector thread which performs all socket reads and writes of the {@link NioConnection}s
+ * registered to it.
+ * <p>
+ * One event loop can serve any number of connections. Application threads never touch the sockets;
+ * they only enqueue encoded commands and wait on (or chain) the returned futures.
+ */
+public class NioEventLoop implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(NioEventLoop.class);
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  /**
+   * Upper bound of a single select() call, so that reply timeouts are detected in time.
+   */
+  private static final long SELECT_TIMEOUT_MILLIS = 10;
+
+  private final Selector selector;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final Thread thread;
+  private volatile boolean running = true;
+
+  public NioEventLoop() {
+    try {
+      this.selector = Selector.open();
+    } catch (IOException ioe) {
+      throw new JedisConnectionException("Failed to open selector.", ioe);
+    }
+    this.thread = new Thread(this::run, "jedis-nio-" + THREAD_COUNTER.incrementAndGet());
+    // whether the event loop thread is alive or not, process can be stopped
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Run the task in the event loop thread.
+   */
+  public void execute(Runnable task) {
+    if (!running) {
+      throw new JedisConnectionException("Event loop is closed.");
+    }
+    tasks.add(task);
+    if (Thread.currentThread() != thread) {
+      selector.wakeup();
+    }
+  }
+
+  public boolean inEventLoop() {
+    return Thread.currentThread() == thread;
+  }
+
+  /**
+   * Must be called in the event loop thread.
+   */
+  SelectionKey register(SocketChannel channel, int ops, NioConnection connection) throws ClosedChannelException {
+    return channel.register(selector, ops, connection);
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        selector.select(SELECT_TIMEOUT_MILLIS);
+
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+          runSafely(task);
+        }
+
+        Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+        while (selected.hasNext()) {
+          SelectionKey key = selected.next();
+          selected.remove();
+          process(key);
+        }
+
+        long now = System.nanoTime();
+        for (SelectionKey key : selector.keys()) {
+          if (key.isValid()) {
+            ((NioConnection) key.attachment()).checkTimeout(now);
+          }
+        }
+      } catch (ClosedSelectorException cse) {
+        break;
+      } catch (IOException | RuntimeException ex) {
+        log.warn("Unexpected error in event loop.", ex);
+      }
+    }
+    shutdown();
+  }
+
+  private void process(SelectionKey key) {
+    NioConnection connection = (NioConnection) key.attachment();
+    try {
+      if (key.isConnectable()) {
+        connection.onConnectable(key);
+      }
+      if (key.isValid() && key.isReadable()) {
+        connection.onReadable();
+      }
+      if (key.isValid() && key.isWritable()) {
+        connection.onWritable();
+      }
+    } catch (CancelledKeyException cke) {
+      // connection is being closed
+    }
+  }
+
+  private static void runSafely(Runnable task) {
+    try {
+      task.run();
+    } catch (RuntimeException ex) {
+      log.warn("Error while running task in event loop.", ex);
+    }
+  }
+
+  private void shutdown() {
+    JedisConnectionException closed = new JedisConnectionException("Event loop is closed.");
+    try {
+      for (SelectionKey key : selector.keys()) {
+        ((NioConnection) key.attachment()).fail(closed);
+      }
+    } catch (ClosedSelectorException cse) {
+      // already closed
+    }
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      runSafely(task);
+    }
+    try {
+      selector.close();
+    } catch (IOException ioe) {
+      log.debug("Error while closing selector.", ioe);
+    }
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Stop the event loop. All connections still registered are failed and closed.
+   */
+  @Override
+  public void close() {
+    if (running) {
+      running = false;
+      selector.wakeup();
+      if (!inEventLoop()) {
+        try {
+          thread.join(1000);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+}
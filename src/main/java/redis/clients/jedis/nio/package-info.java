@@ -0,0 +1,7 @@
+/**
+ * This package contains the classes related to the non-blocking connection engine.
+ */
+@Experimental
+package redis.clients.jedis.nio;
+
+import redis.clients.jedis.annots.Experimental;
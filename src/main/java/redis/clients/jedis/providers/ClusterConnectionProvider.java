@@ -1,12 +1,16 @@
 package redis.clients.jedis.providers;
 
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
@@ -17,16 +21,28 @@ import redis.clients.jedis.JedisClientConfig;
 import redis.clients.jedis.Connection;
 import redis.clients.jedis.ConnectionPool;
 import redis.clients.jedis.JedisClusterInfoCache;
+import redis.clients.jedis.NodeMetrics;
+import redis.clients.jedis.ReadRoutingStrategy;
 import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.args.Rawable;
 import redis.clients.jedis.csc.Cache;
+import redis.clients.jedis.exceptions.JedisAskDataException;
 import redis.clients.jedis.exceptions.JedisClusterOperationException;
 import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.util.SafeEncoder;
 
 import static redis.clients.jedis.JedisCluster.INIT_NO_ERROR_PROPERTY;
 
 public class ClusterConnectionProvider implements ConnectionProvider {
 
   protected final JedisClusterInfoCache cache;
+  private final NodeMetrics nodeMetrics = new NodeMetrics();
+  private volatile ReadRoutingStrategy readRoutingStrategy = ReadRoutingStrategy.random();
+
+  private static final long ASK_HINT_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final int ASK_HINT_MAX_KEYS = 1024;
+  private final ConcurrentMap<Integer, AskHint> askHints = new ConcurrentHashMap<>();
 
   public ClusterConnectionProvider(Set<HostAndPort> clusterNodes, JedisClientConfig clientConfig) {
     this.cache = new JedisClusterInfoCache(clientConfig, clusterNodes);
@@ -108,6 +124,80 @@ public class ClusterConnectionProvider implements ConnectionProvider {
     cache.renewClusterSlots(jedis);
   }
 
+  /**
+   * Route the moved slot to the node it has been moved to, right away, and renew the whole slot cache
+   * shortly after, in the background. The redirections received until then share that renewal.
+   */
+  @Experimental
+  public void applyMovedRedirection(JedisMovedDataException moved) {
+    askHints.remove(moved.getSlot());
+    cache.assignSlotToNode(moved.getSlot(), moved.getTargetNode());
+    cache.renewClusterSlotsInBackground();
+  }
+
+  /**
+   * Remember, for a short while, that the keys of the command have been migrated to the node the
+   * command has been redirected to, see {@link #getAskingNode(CommandArguments)}.
+   */
+  @Experimental
+  public void applyAskRedirection(JedisAskDataException ask, CommandArguments args) {
+    final List<Object> keys = args.getKeys();
+    if (keys.isEmpty()) {
+      return;
+    }
+    final long now = System.nanoTime();
+    AskHint hint = askHints.compute(ask.getSlot(), (slot, current) -> current != null
+        && current.target.equals(ask.getTargetNode()) && !current.isExpired(now) ? current
+        : new AskHint(ask.getTargetNode(), now));
+    for (Object key : keys) {
+      if (hint.keys.size() >= ASK_HINT_MAX_KEYS) {
+        break;
+      }
+      hint.keys.add(toBuffer(key));
+    }
+  }
+
+  /**
+   * The keys of a slot which is being migrated are served by the importing node, with {@code ASKING},
+   * once they have been migrated. The source node redirects the commands of these keys, so that a
+   * command whose keys have all been redirected lately can be sent straight to the importing node.
+   *
+   * @return the importing node, if the command has to be sent to it with {@code ASKING}, otherwise
+   * {@code null}
+   */
+  @Experimental
+  public HostAndPort getAskingNode(CommandArguments args) {
+    if (askHints.isEmpty() || !(args instanceof ClusterCommandArguments)) {
+      return null;
+    }
+    final int slot = ((ClusterCommandArguments) args).getCommandHashSlot();
+    final AskHint hint = slot >= 0 ? askHints.get(slot) : null;
+    if (hint == null) {
+      return null;
+    }
+    if (hint.isExpired(System.nanoTime())) {
+      askHints.remove(slot, hint);
+      return null;
+    }
+    final List<Object> keys = args.getKeys();
+    for (Object key : keys) {
+      if (!hint.keys.contains(toBuffer(key))) {
+        return null;
+      }
+    }
+    return keys.isEmpty() ? null : hint.target;
+  }
+
+  private static ByteBuffer toBuffer(Object key) {
+    if (key instanceof Rawable) {
+      return ByteBuffer.wrap(((Rawable) key).getRaw());
+    } else if (key instanceof byte[]) {
+      return ByteBuffer.wrap((byte[]) key);
+    } else {
+      return ByteBuffer.wrap(SafeEncoder.encode(key.toString()));
+    }
+  }
+
   public Map<String, ConnectionPool> getNodes() {
     return cache.getNodes();
   }
@@ -131,6 +221,33 @@ public class ClusterConnectionProvider implements ConnectionProvider {
     return slot >= 0 ? getReplicaConnectionFromSlot(slot) : getConnection();
   }
 
+  /**
+   * Set the strategy which selects the node of the commands sent to replicas. The default is
+   * {@link ReadRoutingStrategy#random()}.
+   */
+  @Experimental
+  public void setReadRoutingStrategy(ReadRoutingStrategy readRoutingStrategy) {
+    this.readRoutingStrategy = Objects.requireNonNull(readRoutingStrategy, "readRoutingStrategy");
+  }
+
+  /**
+   * @return the metrics of the nodes, fed by the commands sent to replicas
+   */
+  @Experimental
+  public NodeMetrics getNodeMetrics() {
+    return nodeMetrics;
+  }
+
+  /**
+   * @return the node selected by the read routing strategy for a command sent to replicas, or
+   * {@code null} if the command has no key or the slot has no known node
+   */
+  @Experimental
+  public HostAndPort getReplicaNode(CommandArguments args) {
+    final int slot = ((ClusterCommandArguments) args).getCommandHashSlot();
+    return slot >= 0 ? getReplicaNodeFromSlot(slot) : null;
+  }
+
   @Override
   public Connection getConnection() {
     // In antirez's redis-rb-cluster implementation, getRandomConnection always return
@@ -187,26 +304,44 @@ public class ClusterConnectionProvider implements ConnectionProvider {
   }
 
   public Connection getReplicaConnectionFromSlot(int slot) {
-    List<ConnectionPool> connectionPools = cache.getSlotReplicaPools(slot);
-    ThreadLocalRandom random = ThreadLocalRandom.current();
-    if (connectionPools != null && !connectionPools.isEmpty()) {
-      // pick up randomly a connection
-      int idx = random.nextInt(connectionPools.size());
-      return connectionPools.get(idx).getResource();
-    }
+    HostAndPort node = getReplicaNodeFromSlot(slot);
+    return node != null ? getConnection(node) : getConnectionFromSlot(slot);
+  }
 
-    renewSlotCache();
-    connectionPools = cache.getSlotReplicaPools(slot);
-    if (connectionPools != null && !connectionPools.isEmpty()) {
-      int idx = random.nextInt(connectionPools.size());
-      return connectionPools.get(idx).getResource();
+  private HostAndPort getReplicaNodeFromSlot(int slot) {
+    List<HostAndPort> replicas = cache.getSlotReplicaNodes(slot);
+    if (replicas == null || replicas.isEmpty()) {
+      renewSlotCache();
+      replicas = cache.getSlotReplicaNodes(slot);
     }
 
-    return getConnectionFromSlot(slot);
+    HostAndPort primary = cache.getSlotNode(slot);
+    HostAndPort node = readRoutingStrategy.select(primary,
+        replicas != null ? replicas : Collections.emptyList(), nodeMetrics);
+    return node != null ? node : primary;
   }
 
   @Override
   public Map<String, ConnectionPool> getConnectionMap() {
     return Collections.unmodifiableMap(getNodes());
   }
+
+  /**
+   * The keys of a migrating slot which have been redirected to the importing node.
+   */
+  private static final class AskHint {
+
+    private final HostAndPort target;
+    private final long expiresAt;
+    private final Set<ByteBuffer> keys = ConcurrentHashMap.newKeySet();
+
+    AskHint(HostAndPort target, long now) {
+      this.target = target;
+      this.expiresAt = now + ASK_HINT_TTL_NANOS;
+    }
+
+    boolean isExpired(long now) {
+      return now - expiresAt >= 0;
+    }
+  }
 }
@@ -0,0 +1,42 @@
+package redis.clients.jedis.providers;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.nio.NioEventLoop;
+
+/**
+ * A {@link NioConnectionProvider} whose synchronous commands are executed over the
+ * {@link #getSharedConnection() shared connections} too, see
+ * {@link redis.clients.jedis.executors.MultiplexedCommandExecutor}, with a configurable number of
+ * shared connections.
+ * <p>
+ * {@link #getConnection()} still hands out exclusive connections from the pool, e.g. for pipelines,
+ * transactions and blocking commands.
+ */
+@Experimental
+public class MultiplexedConnectionProvider extends NioConnectionProvider {
+
+  public static final int DEFAULT_SHARED_CONNECTIONS = 1;
+
+  public MultiplexedConnectionProvider(HostAndPort hostAndPort, JedisClientConfig clientConfig) {
+    this(hostAndPort, clientConfig, DEFAULT_SHARED_CONNECTIONS);
+  }
+
+  public MultiplexedConnectionProvider(HostAndPort hostAndPort, JedisClientConfig clientConfig,
+      int sharedConnections) {
+    super(new NioEventLoop(), true, hostAndPort, clientConfig, sharedConnections,
+        new GenericObjectPoolConfig<>());
+  }
+
+  /**
+   * The given event loop is not closed when this provider is closed.
+   */
+  public MultiplexedConnectionProvider(NioEventLoop eventLoop, HostAndPort hostAndPort,
+      JedisClientConfig clientConfig, int sharedConnections, GenericObjectPoolConfig<Connection> poolConfig) {
+    super(eventLoop, false, hostAndPort, clientConfig, sharedConnections, poolConfig);
+  }
+}
@@ -0,0 +1,146 @@
+package redis.clients.jedis.providers;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.ConnectionPool;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.annots.Experimental;
+import redis.clients.jedis.nio.NioConnection;
+import redis.clients.jedis.nio.NioConnectionFactory;
+import redis.clients.jedis.nio.NioEventLoop;
+import redis.clients.jedis.util.IOUtils;
+import redis.clients.jedis.util.Pool;
+
+/**
+ * A pool of {@link NioConnection}s which share one {@link NioEventLoop}, and a fixed number of
+ * connections which are shared by all threads, see {@link #getSharedConnection()}.
+ */
+@Experimental
+public class NioConnectionProvider implements ConnectionProvider {
+
+  private final NioEventLoop eventLoop;
+  private final boolean ownEventLoop;
+  private final HostAndPort hostAndPort;
+  private final JedisClientConfig clientConfig;
+  private final ConnectionPool pool;
+  private final AtomicReferenceArray<NioConnection> sharedConnections;
+  private final AtomicInteger roundRobin = new AtomicInteger();
+  private volatile boolean closed = false;
+
+  public NioConnectionProvider(HostAndPort hostAndPort, JedisClientConfig clientConfig) {
+    this(hostAndPort, clientConfig, new GenericObjectPoolConfig<>());
+  }
+
+  public NioConnectionProvider(HostAndPort hostAndPort, JedisClientConfig clientConfig,
+      GenericObjectPoolConfig<Connection> poolConfig) {
+    this(new NioEventLoop(), true, hostAndPort, clientConfig, poolConfig);
+  }
+
+  /**
+   * The given event loop is not closed when this provider is closed.
+   */
+  public NioConnectionProvider(NioEventLoop eventLoop, HostAndPort hostAndPort,
+      JedisClientConfig clientConfig, GenericObjectPoolConfig<Connection> poolConfig) {
+    this(eventLoop, false, hostAndPort, clientConfig, poolConfig);
+  }
+
+  protected NioConnectionProvider(NioEventLoop eventLoop, boolean ownEventLoop, HostAndPort hostAndPort,
+      JedisClientConfig clientConfig, GenericObjectPoolConfig<Connection> poolConfig) {
+    this(eventLoop, ownEventLoop, hostAndPort, clientConfig, 1, poolConfig);
+  }
+
+  protected NioConnectionProvider(NioEventLoop eventLoop, boolean ownEventLoop, HostAndPort hostAndPort,
+      JedisClientConfig clientConfig, int sharedConnections, GenericObjectPoolConfig<Connection> poolConfig) {
+    if (sharedConnections < 1) {
+      throw new IllegalArgumentException("At least one shared connection is required.");
+    }
+    this.eventLoop = eventLoop;
+    this.ownEventLoop = ownEventLoop;
+    this.hostAndPort = hostAndPort;
+    this.clientConfig = clientConfig;
+    this.pool = new ConnectionPool(new NioConnectionFactory(eventLoop, hostAndPort, clientConfig), poolConfig);
+    this.sharedConnections = new AtomicReferenceArray<>(sharedConnections);
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      for (int i = 0; i < sharedConnections.length(); i++) {
+        IOUtils.closeQuietly(sharedConnections.getAndSet(i, null));
+      }
+    }
+    pool.close();
+    if (ownEventLoop) {
+      eventLoop.close();
+    }
+  }
+
+  public final NioEventLoop getEventLoop() {
+    return eventLoop;
+  }
+
+  public final Pool<Connection> getPool() {
+    return pool;
+  }
+
+  /**
+   * Commands submitted concurrently through a shared connection are written back-to-back by the
+   * event loop (automatic pipelining) and their replies are matched in FIFO order, so the number of
+   * commands in flight is not bounded by the size of the pool.
+   *
+   * @return a connection which is shared with other threads; it must NOT be closed, nor be used
+   * for anything but {@link NioConnection#executeCommand(redis.clients.jedis.CommandObject)} and
+   * {@link NioConnection#executeCommandAsync(redis.clients.jedis.CommandObject)} of commands which
+   * neither block nor change the state of the connection
+   */
+  public NioConnection getSharedConnection() {
+    final int length = sharedConnections.length();
+    final int index = length == 1 ? 0 : Math.floorMod(roundRobin.getAndIncrement(), length);
+    NioConnection connection = sharedConnections.get(index);
+    if (connection == null || connection.isBroken()) {
+      connection = replaceSharedConnection(index, connection);
+    }
+    return connection;
+  }
+
+  private synchronized NioConnection replaceSharedConnection(int index, NioConnection broken) {
+    NioConnection connection = sharedConnections.get(index);
+    if (connection == broken) {
+      if (closed) {
+        throw new IllegalStateException("Connection provider is closed.");
+      }
+      IOUtils.closeQuietly(broken);
+      // neither the connection nor its handshake is awaited; the commands are queued after them
+      connection = new NioConnection(eventLoop, hostAndPort, clientConfig, false);
+      sharedConnections.set(index, connection);
+    }
+    return connection;
+  }
+
+  /**
+   * @return an exclusive connection from the pool, e.g. for pipelines, transactions and blocking
+   * commands
+   */
+  @Override
+  public NioConnection getConnection() {
+    return (NioConnection) pool.getResource();
+  }
+
+  @Override
+  public NioConnection getConnection(CommandArguments args) {
+    return getConnection();
+  }
+
+  @Override
+  public Map<?, Pool<Connection>> getConnectionMap() {
+    return Collections.singletonMap(hostAndPort, pool);
+  }
+}
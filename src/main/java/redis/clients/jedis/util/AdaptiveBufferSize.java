@@ -0,0 +1,57 @@
+package redis.clients.jedis.util;
+
+import redis.clients.jedis.annots.Experimental;
+
+/**
+ * Predicts the size of the next buffer lease of a connection from the number of bytes which went
+ * through the previous leases.
+ * <p>
+ * The prediction is a moving average of the observed sizes, rounded up to a power of two and bounded
+ * by a minimum and a maximum, so that a connection serving small replies holds small buffers and one
+ * serving large replies needs fewer reads per reply.
+ * <p>
+ * This class is not thread-safe.
+ */
+@Experimental
+public final class AdaptiveBufferSize {
+
+  public static final int DEFAULT_MIN_SIZE = 512;
+  public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+
+  private final int min;
+  private final int max;
+  private int average;
+
+  /**
+   * @param initial size of the first lease
+   */
+  public AdaptiveBufferSize(int initial) {
+    this(Math.min(DEFAULT_MIN_SIZE, initial), initial, Math.max(DEFAULT_MAX_SIZE, initial));
+  }
+
+  public AdaptiveBufferSize(int min, int initial, int max) {
+    if (min <= 0 || initial < min || max < initial) {
+      throw new IllegalArgumentException("Invalid buffer sizes: " + min + " <= " + initial + " <= " + max);
+    }
+    this.min = min;
+    this.max = max;
+    this.average = initial;
+  }
+
+  /**
+   * Record the number of bytes which went through a lease.
+   */
+  public void record(long bytes) {
+    final int observed = (int) Math.min(bytes, max);
+    // weight of the latest observation is 1/4
+    average += (observed - average) >> 2;
+  }
+
+  /**
+   * @return the size of the next lease
+   */
+  public int next() {
+    final int rounded = average <= 1 ? 1 : Integer.highestOneBit(average - 1) << 1;
+    return Math.max(min, Math.min(max, rounded));
+  }
+}
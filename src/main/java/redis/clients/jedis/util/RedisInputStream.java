@@ -9,14 +9,19 @@
 
 package redis.clients.jedis.util;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
+import redis.clients.jedis.BufferAllocator;
 import redis.clients.jedis.annots.Experimental;
 import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
 
 /**
  * This class assumes (to some degree) that we are reading a RESP stream. As such it assumes certain
@@ -29,22 +34,117 @@ public class RedisInputStream extends FilterInputStream {
       System.getProperty("jedis.bufferSize.input",
           System.getProperty("jedis.bufferSize", "8192")));
 
-  protected final byte[] buf;
+  protected byte[] buf;
 
   protected int count, limit;
 
+  private final BufferAllocator allocator;
+  private final AdaptiveBufferSize leaseSize;
+  private long leasedBytes;
+  private boolean borrowed;
+  private JedisDataException elementError;
+
   public RedisInputStream(InputStream in, int size) {
     super(in);
     if (size <= 0) {
       throw new IllegalArgumentException("Buffer size <= 0");
     }
     buf = new byte[size];
+    allocator = null;
+    leaseSize = null;
   }
 
   public RedisInputStream(InputStream in) {
     this(in, INPUT_BUFFER_SIZE);
   }
 
+  /**
+   * Read the given bytes in place, e.g. a reply which has already been received; nothing follows
+   * them.
+   */
+  @Experimental
+  public RedisInputStream(byte[] buf, int offset, int length) {
+    super(new ByteArrayInputStream(new byte[0]));
+    this.buf = buf;
+    this.count = offset;
+    this.limit = offset + length;
+    this.allocator = null;
+    this.leaseSize = null;
+  }
+
+  /**
+   * The buffer is leased from the allocator when bytes have to be read, and given back by
+   * {@link #releaseBufferIfDrained()}. Its size follows the sizes of the replies read lately.
+   */
+  @Experimental
+  public RedisInputStream(InputStream in, BufferAllocator allocator) {
+    super(in);
+    this.allocator = allocator;
+    this.leaseSize = new AdaptiveBufferSize(INPUT_BUFFER_SIZE);
+  }
+
+  /**
+   * Keep an error element of the aggregate reply being read, to be thrown once the whole reply has
+   * been read. Only the first error of a reply is kept.
+   */
+  @Experimental
+  public void addElementError(JedisDataException error) {
+    if (elementError == null) {
+      elementError = error;
+    }
+  }
+
+  /**
+   * @return the first error element of the reply which has been read, or {@code null}; it is cleared
+   */
+  @Experimental
+  public JedisDataException takeElementError() {
+    final JedisDataException error = elementError;
+    elementError = null;
+    return error;
+  }
+
+  /**
+   * Give the leased buffer back to the allocator, if all buffered bytes have been consumed. A buffer
+   * which is still viewed by the result of {@link #readBorrowed(int)} is kept until the next call.
+   */
+  @Experimental
+  public void releaseBufferIfDrained() {
+    if (allocator == null || buf == null) {
+      return;
+    }
+    if (borrowed) {
+      borrowed = false;
+      return;
+    }
+    if (count >= limit) {
+      releaseBuffer();
+    }
+  }
+
+  /**
+   * Give the leased buffer back to the allocator, discarding any buffered bytes.
+   */
+  @Experimental
+  public void releaseBuffer() {
+    if (allocator == null || buf == null) {
+      return;
+    }
+    leaseSize.record(leasedBytes);
+    allocator.release(buf);
+    buf = null;
+    count = limit = 0;
+    leasedBytes = 0;
+    borrowed = false;
+  }
+
+  private byte[] ensureBuffer() {
+    if (buf == null) {
+      buf = allocator.allocate(leaseSize.next());
+    }
+    return buf;
+  }
+
   @Experimental
   public boolean peek(byte b) throws JedisConnectionException {
     ensureFill(); // in current design, at least one reply is expected. so ensureFillSafe() is not necessary.
@@ -57,9 +157,8 @@ public class RedisInputStream extends FilterInputStream {
   }
 
   private void ensureCrLf() {
-    final byte[] buf = this.buf;
-
     ensureFill();
+    final byte[] buf = this.buf;
     if (buf[count++] == '\r') {
 
       ensureFill();
@@ -177,8 +276,6 @@ public class RedisInputStream extends FilterInputStream {
   }
 
   public boolean readBooleanCrLf() {
-    final byte[] buf = this.buf;
-
     ensureFill();
     final byte b = buf[count++];
 
@@ -198,9 +295,8 @@ public class RedisInputStream extends FilterInputStream {
   }
 
   public long readLongCrLf() {
-    final byte[] buf = this.buf;
-
     ensureFill();
+    final byte[] buf = this.buf;
 
     final boolean isNeg = buf[count] == '-';
     if (isNeg) {
@@ -246,6 +342,110 @@ public class RedisInputStream extends FilterInputStream {
     return length;
   }
 
+  /**
+   * Read exactly {@code len} bytes into the buffer. Bytes which are not buffered yet are read from
+   * the underlying stream straight into the backing array of a heap buffer, skipping the internal
+   * buffer.
+   */
+  @Experimental
+  public void readFully(final ByteBuffer dst, int len) throws JedisConnectionException {
+    while (len > 0) {
+      if (count >= limit && dst.hasArray() && len >= ensureBuffer().length) {
+        final int read;
+        try {
+          read = in.read(dst.array(), dst.arrayOffset() + dst.position(), len);
+        } catch (IOException e) {
+          throw new JedisConnectionException(e);
+        }
+        if (read == -1) {
+          throw new JedisConnectionException("Unexpected end of stream.");
+        }
+        dst.position(dst.position() + read);
+        len -= read;
+      } else {
+        ensureFill();
+        final int length = Math.min(limit - count, len);
+        dst.put(buf, count, length);
+        count += length;
+        len -= length;
+      }
+    }
+  }
+
+  /**
+   * Write exactly {@code len} bytes to the channel, directly from the internal buffer.
+   */
+  @Experimental
+  public void transferTo(final WritableByteChannel dst, int len) throws JedisConnectionException {
+    while (len > 0) {
+      ensureFill();
+      final int length = Math.min(limit - count, len);
+      final ByteBuffer chunk = ByteBuffer.wrap(buf, count, length);
+      try {
+        while (chunk.hasRemaining()) {
+          dst.write(chunk);
+        }
+      } catch (IOException e) {
+        throw new JedisConnectionException(e);
+      }
+      count += length;
+      len -= length;
+    }
+  }
+
+  /**
+   * Read {@code len} bytes as a read-only view over the internal buffer. The view is only valid until
+   * the next read from this stream.
+   *
+   * @return the view, or {@code null} (nothing is consumed) if the bytes cannot fit in the internal
+   * buffer
+   */
+  @Experimental
+  public ByteBuffer readBorrowed(final int len) throws JedisConnectionException {
+    final byte[] buf = ensureBuffer();
+    if (len > buf.length) {
+      return null;
+    }
+    if (limit - count < len) {
+      if (count >= limit) {
+        count = limit = 0;
+      } else if (buf.length - count < len) {
+        System.arraycopy(buf, count, buf, 0, limit - count);
+        limit -= count;
+        count = 0;
+      }
+      while (limit - count < len) {
+        final int read;
+        try {
+          read = in.read(buf, limit, buf.length - limit);
+        } catch (IOException e) {
+          throw new JedisConnectionException(e);
+        }
+        if (read == -1) {
+          throw new JedisConnectionException("Unexpected end of stream.");
+        }
+        limit += read;
+        leasedBytes += read;
+      }
+    }
+    borrowed = true;
+    final ByteBuffer view = ByteBuffer.wrap(buf, count, len).slice().asReadOnlyBuffer();
+    count += len;
+    return view;
+  }
+
+  @Override
+  public long skip(final long n) throws JedisConnectionException {
+    long left = n;
+    while (left > 0) {
+      ensureFill();
+      final int length = (int) Math.min(limit - count, left);
+      count += length;
+      left -= length;
+    }
+    return n;
+  }
+
   /**
    * This method assumes there are required bytes to be read. If we cannot read anymore bytes an
    * exception is thrown to quickly ascertain that the stream was smaller than expected.
@@ -253,11 +453,12 @@ public class RedisInputStream extends FilterInputStream {
   private void ensureFill() throws JedisConnectionException {
     if (count >= limit) {
       try {
-        limit = in.read(buf);
+        limit = in.read(ensureBuffer());
         count = 0;
         if (limit == -1) {
           throw new JedisConnectionException("Unexpected end of stream.");
         }
+        leasedBytes += limit;
       } catch (IOException e) {
         throw new JedisConnectionException(e);
       }
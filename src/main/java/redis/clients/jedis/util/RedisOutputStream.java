@@ -1,8 +1,15 @@
 package redis.clients.jedis.util;
 
+import java.io.EOFException;
 import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import redis.clients.jedis.BufferAllocator;
+import redis.clients.jedis.annots.Experimental;
 
 /**
  * The class implements a buffered output stream without synchronization There are also special
@@ -15,10 +22,14 @@ public final class RedisOutputStream extends FilterOutputStream {
       System.getProperty("jedis.bufferSize.output",
           System.getProperty("jedis.bufferSize", "8192")));
 
-  protected final byte[] buf;
+  protected byte[] buf;
 
   protected int count;
 
+  private final BufferAllocator allocator;
+  private final AdaptiveBufferSize leaseSize;
+  private long leasedBytes;
+
   private final static int[] sizeTable = { 9, 99, 999, 9999, 99999, 999999, 9999999, 99999999,
       999999999, Integer.MAX_VALUE };
 
@@ -40,6 +51,8 @@ public final class RedisOutputStream extends FilterOutputStream {
       'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r', 's',
       't', 'u', 'v', 'w', 'x', 'y', 'z' };
 
+  private final static byte[] LONG_MIN_VALUE_BYTES = String.valueOf(Long.MIN_VALUE).getBytes();
+
   public RedisOutputStream(final OutputStream out) {
     this(out, OUTPUT_BUFFER_SIZE);
   }
@@ -50,16 +63,53 @@ public final class RedisOutputStream extends FilterOutputStream {
       throw new IllegalArgumentException("Buffer size <= 0");
     }
     buf = new byte[size];
+    allocator = null;
+    leaseSize = null;
+  }
+
+  /**
+   * The buffer is leased from the allocator when bytes are written, and given back on every
+   * {@link #flush()}. Its size follows the sizes of the commands written lately.
+   */
+  @Experimental
+  public RedisOutputStream(final OutputStream out, final BufferAllocator allocator) {
+    super(out);
+    this.allocator = allocator;
+    this.leaseSize = new AdaptiveBufferSize(OUTPUT_BUFFER_SIZE);
+  }
+
+  private byte[] ensureBuffer() {
+    if (buf == null) {
+      buf = allocator.allocate(leaseSize.next());
+    }
+    return buf;
+  }
+
+  /**
+   * Give the leased buffer back to the allocator, discarding any bytes which are not flushed.
+   */
+  @Experimental
+  public void releaseBuffer() {
+    if (allocator == null || buf == null) {
+      return;
+    }
+    leaseSize.record(leasedBytes);
+    allocator.release(buf);
+    buf = null;
+    count = 0;
+    leasedBytes = 0;
   }
 
   private void flushBuffer() throws IOException {
     if (count > 0) {
       out.write(buf, 0, count);
+      leasedBytes += count;
       count = 0;
     }
   }
 
   public void write(final byte b) throws IOException {
+    final byte[] buf = ensureBuffer();
     if (count == buf.length) {
       flushBuffer();
     }
@@ -73,6 +123,7 @@ public final class RedisOutputStream extends FilterOutputStream {
 
   @Override
   public void write(final byte[] b, final int off, final int len) throws IOException {
+    final byte[] buf = ensureBuffer();
     if (len >= buf.length) {
       flushBuffer();
       out.write(b, off, len);
@@ -86,7 +137,50 @@ public final class RedisOutputStream extends FilterOutputStream {
     }
   }
 
+  /**
+   * Write exactly {@code len} bytes read from the stream. The bytes are read straight into the
+   * internal buffer, so no intermediate copy is made.
+   */
+  @Experimental
+  public void write(final InputStream in, long len) throws IOException {
+    final byte[] buf = ensureBuffer();
+    while (len > 0) {
+      if (count == buf.length) {
+        flushBuffer();
+      }
+      final int read = in.read(buf, count, (int) Math.min(buf.length - count, len));
+      if (read == -1) {
+        throw new EOFException("Stream ended " + len + " bytes before its declared length.");
+      }
+      count += read;
+      len -= read;
+    }
+  }
+
+  /**
+   * Write exactly {@code len} bytes of the file starting at {@code position}. The bytes are read
+   * straight into the internal buffer and the position of the channel is not changed.
+   */
+  @Experimental
+  public void write(final FileChannel channel, long position, long len) throws IOException {
+    final byte[] buf = ensureBuffer();
+    while (len > 0) {
+      if (count == buf.length) {
+        flushBuffer();
+      }
+      final int read = channel.read(ByteBuffer.wrap(buf, count, (int) Math.min(buf.length - count, len)),
+          position);
+      if (read == -1) {
+        throw new EOFException("File ended " + len + " bytes before its declared length.");
+      }
+      count += read;
+      position += read;
+      len -= read;
+    }
+  }
+
   public void writeCrLf() throws IOException {
+    final byte[] buf = ensureBuffer();
     if (2 >= buf.length - count) {
       flushBuffer();
     }
@@ -106,6 +200,7 @@ public final class RedisOutputStream extends FilterOutputStream {
       size++;
 
     size++;
+    final byte[] buf = ensureBuffer();
     if (size >= buf.length - count) {
       flushBuffer();
     }
@@ -133,9 +228,77 @@ public final class RedisOutputStream extends FilterOutputStream {
     writeCrLf();
   }
 
+  /**
+   * @return number of characters of the decimal representation of the value, including the sign
+   */
+  public static int decimalLength(long value) {
+    if (value == Long.MIN_VALUE) {
+      return 20;
+    }
+    int size = 1;
+    if (value < 0) {
+      size++;
+      value = -value;
+    }
+    long bound = 10;
+    for (int i = 1; i < 19 && value >= bound; i++) {
+      bound *= 10;
+      size++;
+    }
+    return size;
+  }
+
+  public void writeLongCrLf(final long value) throws IOException {
+    writeLong(value);
+    writeCrLf();
+  }
+
+  /**
+   * Write the decimal representation of the value, without allocating.
+   */
+  public void writeLong(long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      write(LONG_MIN_VALUE_BYTES);
+      return;
+    }
+    final int size = decimalLength(value);
+    final byte[] buf = ensureBuffer();
+    if (size > buf.length) {
+      // only with a tiny buffer
+      write(String.valueOf(value).getBytes());
+      return;
+    }
+    if (size > buf.length - count) {
+      flushBuffer();
+    }
+
+    if (value < 0) {
+      buf[count] = '-';
+      value = -value;
+    }
+
+    int charPos = count + size;
+    long q;
+    int r;
+    while (value >= 100) {
+      q = value / 100;
+      r = (int) (value - q * 100);
+      value = q;
+      buf[--charPos] = DigitOnes[r];
+      buf[--charPos] = DigitTens[r];
+    }
+    r = (int) value;
+    buf[--charPos] = DigitOnes[r];
+    if (r >= 10) {
+      buf[--charPos] = DigitTens[r];
+    }
+    count += size;
+  }
+
   @Override
   public void flush() throws IOException {
     flushBuffer();
     out.flush();
+    releaseBuffer();
   }
 }
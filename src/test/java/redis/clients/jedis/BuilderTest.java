@@ -1,10 +1,23 @@
 package redis.clients.jedis;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.resps.StreamEntry;
+import redis.clients.jedis.resps.Tuple;
+import redis.clients.jedis.util.RedisInputStream;
+
 public class BuilderTest {
 
   @Test
@@ -25,4 +38,91 @@ public class BuilderTest {
       Assert.assertEquals("empty String", expected.getMessage());
     }
   }
+
+  /**
+   * Reads the reply with the streaming builder, checks that the whole reply is consumed and that
+   * the result is the same as the one built from the reply tree.
+   */
+  private static <T> T read(Builder<T> builder, String reply) {
+    RedisInputStream is = new RedisInputStream(new ByteArrayInputStream((reply + ":0\r\n").getBytes()));
+    T value = ((StreamingBuilder<T>) builder).read(is);
+    assertEquals(0L, Protocol.read(is));
+
+    T built = builder.build(Protocol.read(new RedisInputStream(new ByteArrayInputStream(reply.getBytes()))));
+    assertEquals(String.valueOf(built), String.valueOf(value));
+    return value;
+  }
+
+  @Test
+  public void readStringList() {
+    assertEquals(Arrays.asList("foo", null, "bar"),
+        read(BuilderFactory.STRING_LIST, "*3\r\n$3\r\nfoo\r\n$-1\r\n+bar\r\n"));
+    assertEquals(Arrays.asList("foo", null),
+        read(BuilderFactory.STRING_LIST, "*2\r\n$3\r\nfoo\r\n_\r\n"));
+    assertNull(read(BuilderFactory.STRING_LIST, "*-1\r\n"));
+  }
+
+  @Test
+  public void readStringMap() {
+    Map<String, String> expected = new HashMap<>();
+    expected.put("f1", "v1");
+    expected.put("f2", "v2");
+    assertEquals(expected, read(BuilderFactory.STRING_MAP, "*4\r\n$2\r\nf1\r\n$2\r\nv1\r\n$2\r\nf2\r\n$2\r\nv2\r\n"));
+    assertEquals(expected, read(BuilderFactory.STRING_MAP, "%2\r\n$2\r\nf1\r\n$2\r\nv1\r\n$2\r\nf2\r\n$2\r\nv2\r\n"));
+    assertEquals(Collections.emptyMap(), read(BuilderFactory.STRING_MAP, "*0\r\n"));
+  }
+
+  @Test
+  public void readTupleList() {
+    List<Tuple> expected = Arrays.asList(new Tuple("a", 1.5), new Tuple("b", Double.POSITIVE_INFINITY));
+    assertEquals(expected, read(BuilderFactory.TUPLE_LIST, "*4\r\n$1\r\na\r\n$3\r\n1.5\r\n$1\r\nb\r\n$3\r\ninf\r\n"));
+    assertEquals(expected, read(BuilderFactory.TUPLE_LIST_RESP3,
+        "*2\r\n*2\r\n$1\r\na\r\n,1.5\r\n*2\r\n$1\r\nb\r\n,inf\r\n"));
+    assertEquals(Collections.emptyList(), read(BuilderFactory.TUPLE_LIST_RESP3, "*0\r\n"));
+  }
+
+  @Test
+  public void readTupleListWithNullPair() {
+    RedisInputStream is = new RedisInputStream(new ByteArrayInputStream(
+        "*2\r\n*-1\r\n*2\r\n$1\r\nb\r\n,2\r\n:0\r\n".getBytes()));
+    assertEquals(Arrays.asList(null, new Tuple("b", 2d)),
+        ((StreamingBuilder<List<Tuple>>) BuilderFactory.TUPLE_LIST_RESP3).read(is));
+    assertEquals(0L, Protocol.read(is));
+  }
+
+  @Test
+  public void readErrorElement() {
+    RedisInputStream is = new RedisInputStream(new ByteArrayInputStream(
+        "*3\r\n$3\r\nfoo\r\n-ERR element\r\n$3\r\nbar\r\n:0\r\n".getBytes()));
+    assertEquals(Arrays.asList("foo", null, "bar"),
+        ((StreamingBuilder<List<String>>) BuilderFactory.STRING_LIST).read(is));
+    assertEquals("ERR element", is.takeElementError().getMessage());
+    assertNull(is.takeElementError());
+    // the whole reply has been read
+    assertEquals(0L, Protocol.read(is));
+
+    is = new RedisInputStream(new ByteArrayInputStream(
+        "*2\r\n*2\r\n$1\r\nb\r\n-ERR score\r\n-ERR pair\r\n:0\r\n".getBytes()));
+    assertEquals(Arrays.asList(new Tuple("b", null), null),
+        ((StreamingBuilder<List<Tuple>>) BuilderFactory.TUPLE_LIST_RESP3).read(is));
+    assertEquals("ERR score", is.takeElementError().getMessage());
+    assertEquals(0L, Protocol.read(is));
+  }
+
+  @Test
+  public void readStreamEntryList() {
+    List<StreamEntry> entries = read(BuilderFactory.STREAM_ENTRY_LIST,
+        "*3\r\n*2\r\n$3\r\n1-0\r\n*2\r\n$1\r\nf\r\n$1\r\nv\r\n*-1\r\n*2\r\n$3\r\n2-0\r\n*-1\r\n");
+    assertEquals(3, entries.size());
+    assertEquals(new StreamEntryID(1, 0), entries.get(0).getID());
+    assertEquals(Collections.singletonMap("f", "v"), entries.get(0).getFields());
+    assertNull(entries.get(1));
+    assertNull(entries.get(2).getFields());
+  }
+
+  @Test(expected = JedisDataException.class)
+  public void readErrorReply() {
+    ((StreamingBuilder<?>) BuilderFactory.STRING_MAP).read(new RedisInputStream(
+        new ByteArrayInputStream("-WRONGTYPE Operation against a key holding the wrong kind of value\r\n".getBytes())));
+  }
 }
@@ -6,9 +6,15 @@ import static org.junit.Assert.fail;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongConsumer;
 import org.hamcrest.MatcherAssert;
@@ -21,11 +27,15 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import redis.clients.jedis.exceptions.JedisAskDataException;
+import redis.clients.jedis.exceptions.JedisBroadcastException;
 import redis.clients.jedis.exceptions.JedisClusterOperationException;
 import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.jedis.exceptions.JedisMovedDataException;
 import redis.clients.jedis.executors.ClusterCommandExecutor;
 import redis.clients.jedis.providers.ClusterConnectionProvider;
+import redis.clients.jedis.util.JedisClusterCRC16;
+import redis.clients.jedis.util.SafeEncoder;
 
 public class ClusterCommandExecutorTest {
 
@@ -134,7 +144,7 @@ public class ClusterCommandExecutorTest {
 
     InOrder inOrder = inOrder(connectionHandler);
     inOrder.verify(connectionHandler).getConnection(STR_COM_OBJECT.getArguments());
-    inOrder.verify(connectionHandler).renewSlotCache(ArgumentMatchers.any());
+    inOrder.verify(connectionHandler).applyMovedRedirection(ArgumentMatchers.any());
     inOrder.verify(connectionHandler).getConnection(movedTarget);
     inOrder.verifyNoMoreInteractions();
   }
@@ -172,9 +182,36 @@ public class ClusterCommandExecutorTest {
     InOrder inOrder = inOrder(connectionHandler, connection);
     inOrder.verify(connectionHandler).getConnection(STR_COM_OBJECT.getArguments());
     inOrder.verify(connectionHandler).getConnection(askTarget);
-    // inOrder.verify(connection).asking();
+    inOrder.verify(connection).sendAsking();
     inOrder.verify(connection).close(); // From the finally clause in runWithRetries()
     inOrder.verifyNoMoreInteractions();
+    verify(connectionHandler).applyAskRedirection(ArgumentMatchers.any(), ArgumentMatchers.eq(STR_COM_OBJECT.getArguments()));
+  }
+
+  @Test
+  public void runAskingHint() {
+    ClusterConnectionProvider connectionHandler = mock(ClusterConnectionProvider.class);
+    Connection connection = mock(Connection.class);
+    final HostAndPort importing = new HostAndPort("importing", 7000);
+    when(connectionHandler.getAskingNode(STR_COM_OBJECT.getArguments())).thenReturn(importing);
+    when(connectionHandler.getConnection(importing)).thenReturn(connection);
+
+    ClusterCommandExecutor testMe = new ClusterCommandExecutor(connectionHandler, 10, ONE_SECOND) {
+      @Override
+      public <T> T execute(Connection connection, CommandObject<T> commandObject) {
+        return (T) "foo";
+      }
+    };
+
+    assertEquals("foo", testMe.executeCommand(STR_COM_OBJECT));
+
+    // the command goes straight to the importing node
+    InOrder inOrder = inOrder(connectionHandler, connection);
+    inOrder.verify(connectionHandler).getAskingNode(STR_COM_OBJECT.getArguments());
+    inOrder.verify(connectionHandler).getConnection(importing);
+    inOrder.verify(connection).sendAsking();
+    inOrder.verify(connection).close();
+    inOrder.verifyNoMoreInteractions();
   }
 
   // requires 'execute(Connection connection, CommandObject<T> commandObject)' separately
@@ -229,7 +266,7 @@ public class ClusterCommandExecutorTest {
     }
     InOrder inOrder = inOrder(connectionHandler, sleep);
     inOrder.verify(connectionHandler).getConnection(STR_COM_OBJECT.getArguments());
-    inOrder.verify(connectionHandler).renewSlotCache(redirecter);
+    inOrder.verify(connectionHandler).applyMovedRedirection(ArgumentMatchers.any());
     inOrder.verify(connectionHandler, times(2)).getConnection(movedTarget);
     inOrder.verify(sleep).accept(ArgumentMatchers.anyLong());
     inOrder.verify(connectionHandler).renewSlotCache();
@@ -355,4 +392,136 @@ public class ClusterCommandExecutorTest {
     inOrder.verifyNoMoreInteractions();
     assertEquals(0L, totalSleepMs.get());
   }
+
+  @Test
+  public void executeCommandsInBatchesPerNode() {
+    HostAndPort nodeA = new HostAndPort("a", 7000);
+    HostAndPort nodeB = new HostAndPort("b", 7000);
+    int slotA = JedisClusterCRC16.getSlot("{a}");
+    ClusterConnectionProvider connectionHandler = mock(ClusterConnectionProvider.class);
+    when(connectionHandler.getNode(ArgumentMatchers.anyInt()))
+        .thenAnswer(invocation -> invocation.getArgument(0).equals(slotA) ? nodeA : nodeB);
+    Connection connectionA = mock(Connection.class);
+    when(connectionHandler.getConnection(nodeA)).thenReturn(connectionA);
+    when(connectionA.getMany(2)).thenReturn(Arrays.asList(SafeEncoder.encode("batched"),
+        new JedisMovedDataException("MOVED", nodeB, slotA)));
+
+    ClusterCommandExecutor testMe = new ClusterCommandExecutor(connectionHandler, 10, ONE_SECOND) {
+      @Override
+      public <T> T execute(Connection connection, CommandObject<T> commandObject) {
+        return (T) "alone";
+      }
+    };
+    testMe.setMultiNodeExecutor(Runnable::run);
+
+    ClusterCommandObjects commandObjects = new ClusterCommandObjects();
+    List<String> replies = testMe.executeCommands(Arrays.asList(commandObjects.get("{a}1"),
+        commandObjects.get("{b}1"), commandObjects.get("{a}2")));
+
+    // the command of node b is alone in its batch, the second command of node a is redirected
+    assertEquals(Arrays.asList("batched", "alone", "alone"), replies);
+    verify(connectionA, times(2)).sendCommand(ArgumentMatchers.any(CommandArguments.class));
+    verify(connectionHandler).applyMovedRedirection(ArgumentMatchers.any());
+    verify(connectionA).close();
+  }
+
+  @Test(timeout = 5_000)
+  public void broadcastCommandToAllNodesAtOnce() {
+    Map<String, ConnectionPool> pools = new LinkedHashMap<>();
+    for (int port = 7000; port < 7003; port++) {
+      ConnectionPool pool = mock(ConnectionPool.class);
+      when(pool.getResource()).thenReturn(mock(Connection.class));
+      pools.put("127.0.0.1:" + port, pool);
+    }
+    ClusterConnectionProvider connectionHandler = mock(ClusterConnectionProvider.class);
+    when(connectionHandler.getConnectionMap()).thenReturn(pools);
+
+    CountDownLatch started = new CountDownLatch(pools.size());
+    ClusterCommandExecutor testMe = new ClusterCommandExecutor(connectionHandler, 10, ONE_SECOND) {
+      @Override
+      public <T> T execute(Connection connection, CommandObject<T> commandObject) {
+        started.countDown();
+        try {
+          // the command of a node completes only once it has been sent to all the nodes
+          started.await();
+        } catch (InterruptedException ie) {
+          throw new JedisException(ie);
+        }
+        return (T) "OK";
+      }
+    };
+
+    assertEquals("OK", testMe.broadcastCommand(STR_COM_OBJECT));
+  }
+
+  @Test(timeout = 5_000)
+  public void broadcastCommandDeadline() {
+    Connection slow = mock(Connection.class);
+    Map<String, ConnectionPool> pools = new LinkedHashMap<>();
+    for (int port = 7000; port < 7002; port++) {
+      ConnectionPool pool = mock(ConnectionPool.class);
+      when(pool.getResource()).thenReturn(port == 7000 ? mock(Connection.class) : slow);
+      pools.put("127.0.0.1:" + port, pool);
+    }
+    ClusterConnectionProvider connectionHandler = mock(ClusterConnectionProvider.class);
+    when(connectionHandler.getConnectionMap()).thenReturn(pools);
+
+    CountDownLatch done = new CountDownLatch(1);
+    ClusterCommandExecutor testMe = new ClusterCommandExecutor(connectionHandler, 10, ONE_SECOND) {
+      @Override
+      public <T> T execute(Connection connection, CommandObject<T> commandObject) {
+        if (connection == slow) {
+          try {
+            done.await();
+          } catch (InterruptedException ie) {
+            throw new JedisException(ie);
+          }
+        }
+        return (T) "OK";
+      }
+    };
+    testMe.setBroadcastTimeout(Duration.ofMillis(50));
+
+    try {
+      testMe.broadcastCommand(STR_COM_OBJECT);
+      fail("broadcast should not wait for the slow node");
+    } catch (JedisBroadcastException bcastError) {
+      assertEquals("OK", bcastError.getReplies().get(new HostAndPort("127.0.0.1", 7000)));
+      MatcherAssert.assertThat(bcastError.getReplies().get(new HostAndPort("127.0.0.1", 7001)),
+          Matchers.instanceOf(JedisClusterOperationException.class));
+    } finally {
+      done.countDown();
+    }
+  }
+
+  @Test
+  public void replicaConnectionFailureIsMeasured() {
+    HostAndPort unreachable = new HostAndPort("127.0.0.1", 7000);
+    HostAndPort replica = new HostAndPort("127.0.0.1", 7001);
+    NodeMetrics metrics = new NodeMetrics();
+    ClusterConnectionProvider connectionHandler = mock(ClusterConnectionProvider.class);
+    when(connectionHandler.getNodeMetrics()).thenReturn(metrics);
+    when(connectionHandler.getReplicaNode(ArgumentMatchers.any())).thenReturn(unreachable, replica);
+    when(connectionHandler.getConnection(unreachable)).thenAnswer(invocation -> {
+      // waiting for a connection is outstanding
+      assertEquals(1, metrics.getOutstanding(unreachable));
+      throw new JedisConnectionException("Connection refused");
+    });
+    when(connectionHandler.getConnection(replica)).thenReturn(mock(Connection.class));
+    ClusterCommandExecutor testMe = new ClusterCommandExecutor(connectionHandler, 10, ONE_SECOND) {
+      @Override
+      public <T> T execute(Connection connection, CommandObject<T> commandObject) {
+        return (T) "foo";
+      }
+      @Override
+      protected void sleep(long ignored) {
+      }
+    };
+
+    assertEquals("foo", testMe.executeCommandToReplica(STR_COM_OBJECT));
+    assertEquals(1, metrics.getConsecutiveFailures(unreachable));
+    assertEquals(0, metrics.getOutstanding(unreachable));
+    assertEquals(0, metrics.getConsecutiveFailures(replica));
+    assertEquals(0, metrics.getOutstanding(replica));
+  }
 }
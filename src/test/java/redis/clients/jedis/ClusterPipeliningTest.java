@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 import static redis.clients.jedis.Protocol.CLUSTER_HASHSLOTS;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
@@ -14,6 +15,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import redis.clients.jedis.args.*;
+import redis.clients.jedis.exceptions.JedisAskDataException;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.params.*;
 import redis.clients.jedis.providers.ClusterConnectionProvider;
@@ -21,6 +23,7 @@ import redis.clients.jedis.resps.GeoRadiusResponse;
 import redis.clients.jedis.resps.StreamEntry;
 import redis.clients.jedis.resps.Tuple;
 import redis.clients.jedis.util.AssertUtil;
+import redis.clients.jedis.util.JedisClusterCRC16;
 import redis.clients.jedis.util.JedisClusterTestUtil;
 import redis.clients.jedis.util.SafeEncoder;
 
@@ -1076,6 +1079,65 @@ public class ClusterPipeliningTest {
     }
   }
 
+  @Test
+  public void redirectedCommands() {
+    int slot = JedisClusterCRC16.getSlot("foo");
+    String node2Id = JedisClusterTestUtil.getNodeId(node2.clusterNodes());
+    String node3Id = JedisClusterTestUtil.getNodeId(node3.clusterNodes());
+    try (ClusterPipeline pipe = new ClusterPipeline(nodes, DEFAULT_CLIENT_CONFIG)) {
+      node3.clusterSetSlotMigrating(slot, node2Id);
+      node2.clusterSetSlotImporting(slot, node3Id);
+
+      Response<String> r1 = pipe.set("foo", "bar");
+      Response<Long> r2 = pipe.incr("{foo}counter");
+      Response<String> r3 = pipe.set("key1", "value1");
+      pipe.sync();
+
+      assertEquals("OK", r1.get());
+      assertEquals(Long.valueOf(1), r2.get());
+      assertEquals("OK", r3.get());
+      node2.asking();
+      assertEquals("bar", node2.get("foo"));
+
+      pipe.setMaxRedirections(0);
+      Response<String> r4 = pipe.set("{foo}other", "bar");
+      pipe.sync();
+      assertThrows(JedisAskDataException.class, r4::get);
+    } finally {
+      node2.clusterSetSlotStable(slot);
+      node3.clusterSetSlotStable(slot);
+    }
+  }
+
+  @Test
+  public void syncExecutor() {
+    AtomicInteger tasks = new AtomicInteger();
+    try (ClusterPipeline pipe = new ClusterPipeline(nodes, DEFAULT_CLIENT_CONFIG)) {
+      pipe.setSyncExecutor(task -> {
+        tasks.incrementAndGet();
+        new Thread(task).start();
+      });
+
+      // keys of the three nodes
+      Response<String> r1 = pipe.set("key1", "value1");
+      Response<String> r2 = pipe.set("key2", "value2");
+      Response<String> r3 = pipe.set("foo", "bar");
+      pipe.sync();
+      assertEquals("OK", r1.get());
+      assertEquals("OK", r2.get());
+      assertEquals("OK", r3.get());
+      assertEquals(2, tasks.get());
+
+      pipe.setSyncWorkers(1);
+      Response<String> r4 = pipe.get("key1");
+      Response<String> r5 = pipe.get("key2");
+      pipe.sync();
+      assertEquals("value1", r4.get());
+      assertEquals("value2", r5.get());
+      assertEquals(2, tasks.get());
+    }
+  }
+
   @Test(timeout = 10_000L)
   public void multiple() {
     final int maxTotal = 100;
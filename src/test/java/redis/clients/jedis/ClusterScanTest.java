@@ -0,0 +1,131 @@
+package redis.clients.jedis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+
+import redis.clients.jedis.providers.ClusterConnectionProvider;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class ClusterScanTest {
+
+  private static final HostAndPort NODE_1 = new HostAndPort("127.0.0.1", 7001);
+  private static final HostAndPort NODE_2 = new HostAndPort("127.0.0.1", 7002);
+  private static final HostAndPort NODE_3 = new HostAndPort("127.0.0.1", 7003);
+
+  /** The cursors of the SCAN commands sent to each node. */
+  private final Map<HostAndPort, List<String>> scanned = new ConcurrentHashMap<>();
+
+  /**
+   * A cluster whose nodes serve the slots up to each of the given bounds, and reply to {@code SCAN}
+   * with a single key and a cursor one step further, up to cursor 3.
+   */
+  private ClusterConnectionProvider cluster(Object... nodesAndLastSlots) {
+    ClusterConnectionProvider provider = mock(ClusterConnectionProvider.class);
+    when(provider.getNode(anyInt())).thenAnswer(invocation -> {
+      int slot = invocation.getArgument(0);
+      int i = 0;
+      while (slot > (Integer) nodesAndLastSlots[i + 1]) {
+        i += 2;
+      }
+      return nodesAndLastSlots[i];
+    });
+    for (int i = 0; i < nodesAndLastSlots.length; i += 2) {
+      HostAndPort node = (HostAndPort) nodesAndLastSlots[i];
+      Connection connection = mock(Connection.class);
+      when(connection.executeCommand(any(CommandObject.class))).thenAnswer(invocation -> {
+        CommandObject<?> command = invocation.getArgument(0);
+        List<String> args = new ArrayList<>();
+        command.getArguments().forEach(arg -> args.add(SafeEncoder.encode(arg.getRaw())));
+        String cursor = args.get(1);
+        scanned.computeIfAbsent(node, n -> Collections.synchronizedList(new ArrayList<>())).add(cursor);
+        int next = (Integer.parseInt(cursor) + 1) % 4;
+        return new ScanResult<>(String.valueOf(next), Collections.singletonList(node.getPort() + "-" + cursor));
+      });
+      when(provider.getConnection(node)).thenReturn(connection);
+    }
+    return provider;
+  }
+
+  @Test
+  public void checkpointRoundTrip() {
+    String token = "0-5460,10923-12000:done;5461-10922:17;12001-16383:0";
+    ClusterScan.Checkpoint checkpoint = ClusterScan.Checkpoint.parse(token);
+    assertEquals(token, checkpoint.toString());
+    assertFalse(checkpoint.isCompleted());
+    assertEquals(checkpoint.toString(), ClusterScan.Checkpoint.parse(checkpoint.toString()).toString());
+
+    assertEquals("", ClusterScan.Checkpoint.parse("").toString());
+  }
+
+  @Test
+  public void completedCheckpoint() {
+    assertTrue(ClusterScan.Checkpoint.parse("0-8191:done;8192-16383:done").isCompleted());
+    assertFalse(ClusterScan.Checkpoint.parse("0-8191:done;8192-16383:1").isCompleted());
+
+    ClusterScan scan = new ClusterScan(cluster(NODE_1, 8191, NODE_2, 16383), null);
+    List<String> keys = Collections.synchronizedList(new ArrayList<>());
+    ClusterScan.Checkpoint checkpoint = scan.run(keys::addAll);
+    assertTrue(checkpoint.isCompleted());
+    assertEquals("0-8191:done;8192-16383:done", checkpoint.toString());
+    assertEquals(8, keys.size());
+
+    // nothing is left to scan
+    scanned.clear();
+    assertTrue(scan.run(keys::addAll, ClusterScan.Checkpoint.parse(checkpoint.toString())).isCompleted());
+    assertTrue(scanned.isEmpty());
+  }
+
+  @Test
+  public void malformedCheckpoints() {
+    for (String token : Arrays.asList("0-16383", ":1", "0-16383:", "0-16383:-1", "0-16383:abc",
+        "a-b:1", "0-100,:1", "0-100:1;", ";0-100:1", "0-100:1;;101-200:2", "0-100:1:2")) {
+      try {
+        ClusterScan.Checkpoint.parse(token);
+        fail("Expected an IllegalArgumentException for " + token);
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+  }
+
+  @Test
+  public void resumeFromCheckpoint() {
+    ClusterConnectionProvider provider = cluster(NODE_1, 8191, NODE_2, 16383);
+    ClusterScan.Checkpoint checkpoint = new ClusterScan(provider, null)
+        .run(keys -> { }, ClusterScan.Checkpoint.parse("0-8191:done;8192-16383:2"));
+
+    assertTrue(checkpoint.isCompleted());
+    assertFalse(scanned.containsKey(NODE_1));
+    verify(provider, never()).getConnection(NODE_1);
+    assertEquals(Arrays.asList("2", "3"), scanned.get(NODE_2));
+  }
+
+  @Test
+  public void rescanPrimaryWhoseSlotsChanged() {
+    // 12001-16383 have been moved from the second primary to a new one since the checkpoint
+    ClusterConnectionProvider provider = cluster(NODE_1, 8191, NODE_2, 12000, NODE_3, 16383);
+    ClusterScan.Checkpoint checkpoint = new ClusterScan(provider, null)
+        .run(keys -> { }, ClusterScan.Checkpoint.parse("0-8191:2;8192-16383:done"));
+
+    assertEquals("0-8191:done;8192-12000:done;12001-16383:done", checkpoint.toString());
+    assertEquals(Arrays.asList("2", "3"), scanned.get(NODE_1));
+    assertEquals(Arrays.asList("0", "1", "2", "3"), scanned.get(NODE_2));
+    assertEquals(Arrays.asList("0", "1", "2", "3"), scanned.get(NODE_3));
+  }
+}
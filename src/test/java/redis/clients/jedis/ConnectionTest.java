@@ -1,12 +1,23 @@
 package redis.clients.jedis;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
 import org.hamcrest.Matchers;
 import org.junit.After;
 import org.junit.Test;
 
+import redis.clients.jedis.exceptions.JedisAccessControlException;
 import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.util.SafeEncoder;
 
 public class ConnectionTest {
 
@@ -71,4 +82,124 @@ public class ConnectionTest {
     assertThat(identityString, Matchers.containsString(", L:"));
     assertThat(identityString, Matchers.containsString(" ! R:"));
   }
+
+  @Test
+  public void handshakeInOneRoundTrip() {
+    ScriptedSocket socket = new ScriptedSocket("%2\r\n+server\r\n+redis\r\n+version\r\n+7.4.0\r\n"
+        + "-ERR unknown subcommand\r\n+OK\r\n");
+    client = new Connection(() -> socket, DefaultJedisClientConfig.builder().resp3().user("default")
+        .password("secret").clientName("name").clientSetInfoConfig(ClientSetInfoConfig.DISABLED)
+        .database(2).build());
+
+    assertEquals(1, socket.flushes);
+    assertEquals("*5\r\n$5\r\nHELLO\r\n$1\r\n3\r\n$4\r\nAUTH\r\n$7\r\ndefault\r\n$6\r\nsecret\r\n"
+        + "*3\r\n$6\r\nCLIENT\r\n$7\r\nSETNAME\r\n$4\r\nname\r\n"
+        + "*2\r\n$6\r\nSELECT\r\n$1\r\n2\r\n", SafeEncoder.encode(socket.written.toByteArray()));
+  }
+
+  @Test
+  public void handshakeThrowsErrorOfFailedCommand() {
+    ScriptedSocket socket = new ScriptedSocket("-WRONGPASS invalid username-password pair\r\n"
+        + "-NOAUTH Authentication required.\r\n");
+    try {
+      client = new Connection(() -> socket, DefaultJedisClientConfig.builder().password("wrong")
+          .clientSetInfoConfig(ClientSetInfoConfig.DISABLED).database(1).build());
+      fail("Should throw a WRONGPASS exception");
+    } catch (JedisAccessControlException e) {
+      assertThat(e.getMessage(), Matchers.startsWith("WRONGPASS "));
+    }
+    // SELECT was sent before the reply to AUTH was read
+    assertThat(SafeEncoder.encode(socket.written.toByteArray()), Matchers.endsWith("SELECT\r\n$1\r\n1\r\n"));
+  }
+
+  @Test
+  public void askingFlushedWithCommand() {
+    ScriptedSocket socket = new ScriptedSocket("+OK\r\n$3\r\nbar\r\n-ERR not importing\r\n$3\r\nbaz\r\n");
+    client = new Connection(() -> socket, DefaultJedisClientConfig.builder()
+        .clientSetInfoConfig(ClientSetInfoConfig.DISABLED).build());
+    CommandObject<String> get = new CommandObject<>(new CommandArguments(Protocol.Command.GET).key("foo"),
+        BuilderFactory.STRING);
+
+    client.sendAsking();
+    assertEquals("bar", client.executeCommand(get));
+    assertEquals(1, socket.flushes);
+    assertEquals("*1\r\n$6\r\nASKING\r\n*2\r\n$3\r\nGET\r\n$3\r\nfoo\r\n",
+        SafeEncoder.encode(socket.written.toByteArray()));
+
+    // the error of ASKING is discarded
+    client.sendAsking();
+    assertEquals("baz", client.executeCommand(get));
+  }
+
+  @Test
+  public void askingDiscardedOnDisconnect() {
+    ScriptedSocket socket = new ScriptedSocket("");
+    client = new Connection(() -> socket, DefaultJedisClientConfig.builder()
+        .clientSetInfoConfig(ClientSetInfoConfig.DISABLED).build());
+
+    client.sendAsking();
+    assertTrue(client.isAskingSent());
+    client.disconnect();
+    assertFalse(client.isAskingSent());
+  }
+
+  /**
+   * Replies with a fixed script and records the commands.
+   */
+  private static class ScriptedSocket extends Socket {
+
+    private final InputStream replies;
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    private int flushes;
+    private boolean closed;
+
+    ScriptedSocket(String replies) {
+      this.replies = new ByteArrayInputStream(SafeEncoder.encode(replies));
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return replies;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return new OutputStream() {
+        @Override
+        public void write(int b) {
+          written.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+          written.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+          flushes++;
+        }
+      };
+    }
+
+    @Override
+    public boolean isBound() {
+      return true;
+    }
+
+    @Override
+    public boolean isConnected() {
+      return true;
+    }
+
+    @Override
+    public boolean isClosed() {
+      return closed;
+    }
+
+    @Override
+    public synchronized void close() {
+      closed = true;
+    }
+  }
 }
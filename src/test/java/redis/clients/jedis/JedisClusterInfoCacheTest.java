@@ -0,0 +1,225 @@
+package redis.clients.jedis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+
+import redis.clients.jedis.csc.Cache;
+import redis.clients.jedis.csc.CacheEntry;
+import redis.clients.jedis.csc.CacheKey;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.JedisClusterCRC16;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class JedisClusterInfoCacheTest {
+
+  private static final HostAndPort NODE_1 = new HostAndPort("127.0.0.1", 7001);
+  private static final HostAndPort NODE_2 = new HostAndPort("127.0.0.1", 7002);
+  private static final HostAndPort NODE_3 = new HostAndPort("127.0.0.1", 7003);
+  private static final HostAndPort NODE_4 = new HostAndPort("127.0.0.1", 7004);
+  private static final HostAndPort NODE_5 = new HostAndPort("127.0.0.1", 7005);
+
+  private static final JedisClientConfig CONFIG = DefaultJedisClientConfig.builder().build();
+
+  private static final JedisClientConfig READ_FROM_REPLICAS = DefaultJedisClientConfig.builder()
+      .readOnlyForRedisClusterReplicas().build();
+
+  /**
+   * An element of a {@code CLUSTER SHARDS} reply, serving a single range of slots.
+   */
+  private static List<Object> shard(long from, long to, List<Object>... nodes) {
+    return Arrays.asList(SafeEncoder.encode("slots"), Arrays.asList(from, to),
+        SafeEncoder.encode("nodes"), Arrays.asList((Object[]) nodes));
+  }
+
+  private static List<Object> node(HostAndPort node, String role, String health) {
+    return node(node.getHost(), (long) node.getPort(), null, role, health);
+  }
+
+  private static List<Object> node(String endpoint, Long port, Long tlsPort, String role, String health) {
+    List<Object> info = new ArrayList<>(Arrays.asList(
+        SafeEncoder.encode("id"), SafeEncoder.encode("id-" + port),
+        SafeEncoder.encode("ip"), SafeEncoder.encode("127.0.0.1"),
+        SafeEncoder.encode("endpoint"), SafeEncoder.encode(endpoint)));
+    if (port != null) {
+      info.add(SafeEncoder.encode("port"));
+      info.add(port);
+    }
+    if (tlsPort != null) {
+      info.add(SafeEncoder.encode("tls-port"));
+      info.add(tlsPort);
+    }
+    info.addAll(Arrays.asList(
+        SafeEncoder.encode("role"), SafeEncoder.encode(role),
+        SafeEncoder.encode("replication-offset"), 0L,
+        SafeEncoder.encode("health"), SafeEncoder.encode(health)));
+    return info;
+  }
+
+  /**
+   * An element of a {@code CLUSTER SLOTS} reply.
+   */
+  private static List<Object> slots(long from, long to, HostAndPort... nodes) {
+    List<Object> info = new ArrayList<>(Arrays.asList(from, to));
+    for (HostAndPort node : nodes) {
+      info.add(Arrays.asList(SafeEncoder.encode(node.getHost()), (long) node.getPort(),
+          SafeEncoder.encode("id-" + node.getPort())));
+    }
+    return info;
+  }
+
+  private static Connection connection(List<Object> reply) {
+    Connection connection = mock(Connection.class);
+    when(connection.getObjectMultiBulkReply()).thenReturn(reply);
+    return connection;
+  }
+
+  private static List<Object> topology(HostAndPort first, HostAndPort second) {
+    return Arrays.asList(
+        shard(0, 8191, node(first, "master", "online")),
+        shard(8192, 16383, node(second, "master", "online")));
+  }
+
+  private static CacheEntry<String> cacheEntry(String key) {
+    CommandObject<String> get = new CommandObject<>(
+        new CommandArguments(Protocol.Command.GET).key(key), BuilderFactory.STRING);
+    return new CacheEntry<>(new CacheKey<>(get), "value", null);
+  }
+
+  @Test
+  public void onlineReplicasOfShards() {
+    JedisClusterInfoCache cache = new JedisClusterInfoCache(READ_FROM_REPLICAS, Collections.emptySet());
+    try {
+      cache.discoverClusterNodesAndSlots(connection(Arrays.asList(
+          shard(0, 8191,
+              node(NODE_1, "master", "online"),
+              node(NODE_3, "replica", "online"),
+              node(NODE_4, "replica", "loading"),
+              node(NODE_5, "replica", "fail")),
+          shard(8192, 16383, node(NODE_2, "master", "online")))));
+
+      assertEquals(NODE_1, cache.getSlotNode(0));
+      assertEquals(NODE_1, cache.getSlotNode(8191));
+      assertEquals(NODE_2, cache.getSlotNode(8192));
+      assertEquals(Collections.singletonList(NODE_3), cache.getSlotReplicaNodes(0));
+      assertEquals(new HashSet<>(Arrays.asList(NODE_1.toString(), NODE_2.toString(), NODE_3.toString())),
+          cache.getNodes().keySet());
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void failedPrimaryIsKeptUntilAnotherIsElected() {
+    JedisClusterInfoCache cache = new JedisClusterInfoCache(CONFIG, Collections.emptySet());
+    try {
+      cache.discoverClusterNodesAndSlots(connection(Arrays.asList(
+          shard(0, 8191, node(NODE_1, "master", "fail")),
+          shard(8192, 16383,
+              node(NODE_2, "master", "fail"),
+              node(NODE_3, "master", "online")))));
+
+      assertEquals(NODE_1, cache.getSlotNode(0));
+      assertEquals(NODE_3, cache.getSlotNode(8192));
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void portOfNodes() {
+    List<Object> reply = Arrays.asList(
+        shard(0, 8191, node("?", 7001L, 8001L, "master", "online")),
+        shard(8192, 16383, node("localhost", null, 8002L, "master", "online")));
+
+    JedisClusterInfoCache cache = new JedisClusterInfoCache(CONFIG, Collections.emptySet());
+    try {
+      cache.discoverClusterNodesAndSlots(connection(reply));
+      assertEquals(new HostAndPort("127.0.0.1", 7001), cache.getSlotNode(0));
+      assertEquals(new HostAndPort("localhost", 8002), cache.getSlotNode(8192));
+    } finally {
+      cache.close();
+    }
+
+    cache = new JedisClusterInfoCache(DefaultJedisClientConfig.builder().ssl(true).build(),
+        Collections.emptySet());
+    try {
+      cache.discoverClusterNodesAndSlots(connection(reply));
+      assertEquals(new HostAndPort("127.0.0.1", 8001), cache.getSlotNode(0));
+      assertEquals(new HostAndPort("localhost", 8002), cache.getSlotNode(8192));
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void fallBackToClusterSlots() {
+    Connection connection = mock(Connection.class);
+    when(connection.getObjectMultiBulkReply())
+        .thenThrow(new JedisDataException("ERR unknown subcommand 'SHARDS'"))
+        .thenReturn(Arrays.asList(slots(0, 8191, NODE_1, NODE_3), slots(8192, 16383, NODE_2)));
+
+    JedisClusterInfoCache cache = new JedisClusterInfoCache(READ_FROM_REPLICAS, Collections.emptySet());
+    try {
+      cache.discoverClusterNodesAndSlots(connection);
+      cache.renewClusterSlots(connection);
+
+      assertEquals(NODE_1, cache.getSlotNode(0));
+      assertEquals(NODE_2, cache.getSlotNode(16383));
+      assertEquals(Collections.singletonList(NODE_3), cache.getSlotReplicaNodes(8191));
+      assertNull(cache.getSlotReplicaNodes(8192));
+
+      // CLUSTER SHARDS is not tried again
+      verify(connection, times(1)).sendCommand(Protocol.Command.CLUSTER, Protocol.ClusterKeyword.SHARDS);
+      verify(connection, times(2)).sendCommand(Protocol.Command.CLUSTER, "SLOTS");
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void invalidateOnlyMovedSlots() {
+    CacheEntry<String> low = cacheEntry("bar");
+    CacheEntry<String> high = cacheEntry("foo");
+    assertEquals(5061, JedisClusterCRC16.getSlot("bar"));
+    assertEquals(12182, JedisClusterCRC16.getSlot("foo"));
+
+    Cache clientSideCache = mock(Cache.class);
+    when(clientSideCache.getCacheEntries()).thenReturn(Arrays.asList(low, high));
+
+    JedisClusterInfoCache cache = new JedisClusterInfoCache(CONFIG, clientSideCache, Collections.emptySet());
+    try {
+      cache.discoverClusterNodesAndSlots(connection(topology(NODE_1, NODE_2)));
+      verify(clientSideCache, never()).delete(anyList());
+
+      // the same topology
+      cache.renewClusterSlots(connection(topology(NODE_1, NODE_2)));
+      verify(clientSideCache, never()).delete(anyList());
+
+      cache.renewClusterSlots(connection(topology(NODE_1, NODE_3)));
+      verify(clientSideCache).delete(Collections.singletonList(high.getCacheKey()));
+
+      cache.assignSlotToNode(5061, NODE_3);
+      verify(clientSideCache).delete(Collections.singletonList(low.getCacheKey()));
+      verify(clientSideCache, never()).flush();
+
+      cache.renewClusterSlots(connection(topology(NODE_4, NODE_5)));
+      verify(clientSideCache).flush();
+      verify(clientSideCache, times(2)).delete(anyList());
+    } finally {
+      cache.close();
+    }
+  }
+}
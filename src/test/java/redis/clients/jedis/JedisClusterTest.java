@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -31,6 +32,7 @@ import org.junit.Test;
 
 import redis.clients.jedis.args.ClusterResetType;
 import redis.clients.jedis.exceptions.*;
+import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.util.ClientKillerUtil;
 import redis.clients.jedis.util.JedisClusterTestUtil;
 import redis.clients.jedis.util.JedisClusterCRC16;
@@ -398,6 +400,34 @@ public class JedisClusterTest extends JedisClusterTestBase {
     }
   }
 
+  @Test
+  public void crossSlotMultiKeyCommands() {
+    HostAndPort hp = new HostAndPort("127.0.0.1", 7379);
+    try (JedisCluster jc = new JedisCluster(Collections.singleton(hp), DEFAULT_CLIENT_CONFIG,
+        DEFAULT_REDIRECTIONS, DEFAULT_POOL_CONFIG)) {
+      String[] keys = new String[100];
+      String[] keysvalues = new String[200];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = "key" + i;
+        keysvalues[2 * i] = keys[i];
+        keysvalues[2 * i + 1] = "value" + i;
+      }
+
+      assertEquals("OK", jc.mset(keysvalues));
+      List<String> values = jc.mget(keys);
+      for (int i = 0; i < keys.length; i++) {
+        assertEquals("value" + i, values.get(i));
+      }
+      assertEquals(Arrays.asList("value1", null, "value2"), jc.mget("key1", "none", "key2"));
+
+      assertEquals(100, jc.exists(keys));
+      assertEquals(100, jc.touch(keys));
+      assertEquals(50, jc.del(Arrays.copyOf(keys, 50)));
+      assertEquals(50, jc.unlink(keys));
+      assertEquals(0, jc.exists(keys));
+    }
+  }
+
   @Test
   public void testClusterForgetNode() throws InterruptedException {
     // at first, join node4 to cluster
@@ -795,6 +825,34 @@ public class JedisClusterTest extends JedisClusterTestBase {
     }
   }
 
+  @Test
+  public void clusterScan() {
+    try (JedisCluster cluster = new JedisCluster(Collections.singleton(nodeInfo1), DEFAULT_CLIENT_CONFIG,
+        DEFAULT_REDIRECTIONS, DEFAULT_POOL_CONFIG)) {
+      for (int i = 0; i < 100; i++) {
+        cluster.set("key" + i, "value");
+      }
+
+      Set<String> keys = ConcurrentHashMap.newKeySet();
+      ClusterScan.Checkpoint checkpoint = cluster.clusterScan(new ScanParams().count(5)).run(keys::addAll);
+      assertTrue(checkpoint.isCompleted());
+      assertEquals(100, keys.size());
+
+      keys.clear();
+      ClusterScan scan = cluster.clusterScan(new ScanParams().count(5)).parallelism(1);
+      checkpoint = scan.run(page -> {
+        keys.addAll(page);
+        scan.stop();
+      });
+      assertFalse(checkpoint.isCompleted());
+
+      checkpoint = cluster.clusterScan(new ScanParams().count(5))
+          .run(keys::addAll, ClusterScan.Checkpoint.parse(checkpoint.toString()));
+      assertTrue(checkpoint.isCompleted());
+      assertEquals(100, keys.size());
+    }
+  }
+
   private static String getNodeServingSlotRange(String infoOutput) {
     // f4f3dc4befda352a4e0beccf29f5e8828438705d 127.0.0.1:7380 master - 0
     // 1394372400827 0 connected 5461-10922
@@ -0,0 +1,188 @@
+package redis.clients.jedis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import redis.clients.jedis.util.AdaptiveBufferSize;
+import redis.clients.jedis.util.RedisInputStream;
+import redis.clients.jedis.util.RedisOutputStream;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class PooledBufferAllocatorTest {
+
+  private static final EndpointConfig endpoint = HostAndPorts.getRedisEndpoint("standalone0");
+
+  /**
+   * Counts the buffers which are leased and not released yet.
+   */
+  private static class CountingAllocator extends PooledBufferAllocator {
+
+    private final AtomicInteger leased = new AtomicInteger();
+
+    @Override
+    public byte[] allocate(int size) {
+      leased.incrementAndGet();
+      return super.allocate(size);
+    }
+
+    @Override
+    public void release(byte[] buffer) {
+      leased.decrementAndGet();
+      super.release(buffer);
+    }
+
+    @Override
+    public ByteBuffer allocateDirect(int size) {
+      leased.incrementAndGet();
+      return super.allocateDirect(size);
+    }
+
+    @Override
+    public void release(ByteBuffer buffer) {
+      leased.decrementAndGet();
+      super.release(buffer);
+    }
+  }
+
+  @Test
+  public void reuseReleasedBuffers() {
+    PooledBufferAllocator allocator = new PooledBufferAllocator(256, 4096, 2);
+
+    byte[] buffer = allocator.allocate(300);
+    assertEquals(512, buffer.length);
+    allocator.release(buffer);
+    assertSame(buffer, allocator.allocate(400));
+
+    assertEquals(256, allocator.allocate(1).length);
+
+    ByteBuffer direct = allocator.allocateDirect(1000);
+    assertTrue(direct.isDirect());
+    assertEquals(1024, direct.capacity());
+    direct.put((byte) 1);
+    allocator.release(direct);
+    ByteBuffer reused = allocator.allocateDirect(1024);
+    assertSame(direct, reused);
+    assertEquals(0, reused.position());
+  }
+
+  @Test
+  public void doNotPoolOversizedBuffers() {
+    PooledBufferAllocator allocator = new PooledBufferAllocator(256, 4096, 2);
+
+    byte[] buffer = allocator.allocate(5000);
+    assertEquals(5000, buffer.length);
+    allocator.release(buffer);
+    assertNotSame(buffer, allocator.allocate(5000));
+  }
+
+  @Test
+  public void retainBoundedNumberOfBuffers() {
+    PooledBufferAllocator allocator = new PooledBufferAllocator(256, 4096, 1);
+
+    byte[] first = allocator.allocate(256);
+    byte[] second = allocator.allocate(256);
+    allocator.release(first);
+    allocator.release(second);
+    assertSame(first, allocator.allocate(256));
+    assertNotSame(second, allocator.allocate(256));
+  }
+
+  @Test
+  public void adaptToObservedSizes() {
+    AdaptiveBufferSize size = new AdaptiveBufferSize(512, 8192, 65536);
+    assertEquals(8192, size.next());
+
+    for (int i = 0; i < 50; i++) {
+      size.record(20);
+    }
+    assertEquals(512, size.next());
+
+    for (int i = 0; i < 50; i++) {
+      size.record(30000);
+    }
+    assertEquals(32768, size.next());
+
+    for (int i = 0; i < 50; i++) {
+      size.record(1_000_000);
+    }
+    assertEquals(65536, size.next());
+  }
+
+  @Test
+  public void inputStreamHoldsBufferUntilDrained() {
+    CountingAllocator allocator = new CountingAllocator();
+    RedisInputStream is = new RedisInputStream(
+        new ByteArrayInputStream(SafeEncoder.encode("+OK\r\n:1\r\n")), allocator);
+    assertEquals(0, allocator.leased.get());
+
+    assertEquals("OK", SafeEncoder.encode((byte[]) Protocol.read(is)));
+    is.releaseBufferIfDrained();
+    assertEquals(1, allocator.leased.get());
+
+    assertEquals(1L, Protocol.read(is));
+    is.releaseBufferIfDrained();
+    assertEquals(0, allocator.leased.get());
+  }
+
+  @Test
+  public void inputStreamKeepsBorrowedBuffer() {
+    CountingAllocator allocator = new CountingAllocator();
+    RedisInputStream is = new RedisInputStream(
+        new ByteArrayInputStream(SafeEncoder.encode("$3\r\nbar\r\n:1\r\n")), allocator);
+
+    ByteBuffer borrowed = Protocol.readBorrowedBulkReply(is);
+    assertEquals(3, borrowed.remaining());
+    is.releaseBufferIfDrained();
+    assertEquals(1, allocator.leased.get());
+
+    assertEquals(1L, Protocol.read(is));
+    is.releaseBufferIfDrained();
+    assertEquals(0, allocator.leased.get());
+  }
+
+  @Test
+  public void outputStreamReleasesBufferOnFlush() throws IOException {
+    CountingAllocator allocator = new CountingAllocator();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    RedisOutputStream os = new RedisOutputStream(bytes, allocator);
+
+    Protocol.sendCommand(os, new CommandArguments(Protocol.Command.INCRBY).key("a").add(-123L));
+    assertEquals(1, allocator.leased.get());
+    os.flush();
+    assertEquals(0, allocator.leased.get());
+    assertEquals("*3\r\n$6\r\nINCRBY\r\n$1\r\na\r\n$4\r\n-123\r\n", SafeEncoder.encode(bytes.toByteArray()));
+  }
+
+  @Test
+  public void connectionReleasesBuffersBetweenCommands() {
+    CountingAllocator allocator = new CountingAllocator();
+    try (Jedis jedis = new Jedis(endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().bufferAllocator(allocator).build())) {
+      assertEquals(0, allocator.leased.get());
+
+      jedis.set("foo", "bar");
+      assertEquals(0, allocator.leased.get());
+
+      assertEquals("bar", jedis.get("foo"));
+      assertEquals(0, allocator.leased.get());
+
+      Pipeline pipeline = jedis.pipelined();
+      Response<String> get = pipeline.get("foo");
+      Response<Long> incr = pipeline.incr("counter");
+      pipeline.sync();
+      assertEquals("bar", get.get());
+      assertTrue(incr.get() > 0);
+      assertEquals(0, allocator.leased.get());
+    }
+    assertEquals(0, allocator.leased.get());
+  }
+}
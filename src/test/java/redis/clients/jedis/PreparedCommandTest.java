@@ -0,0 +1,55 @@
+package redis.clients.jedis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+public class PreparedCommandTest {
+
+  private static final EndpointConfig endpoint = HostAndPorts.getRedisEndpoint("standalone0");
+
+  @Test
+  public void frameIsEncodedOnce() {
+    CommandObject<Long> command = new CommandObjects().incrBy("counter", 5);
+    byte[] expected = Protocol.encode(command.getArguments());
+
+    PreparedCommand<Long> prepared = new PreparedCommand<>(command);
+    assertArrayEquals(expected, prepared.getArguments().getPreparedFrame());
+    assertArrayEquals(expected, Protocol.encode(prepared.getArguments()));
+    assertEquals(-1, prepared.getHashSlot());
+
+    // modifying the arguments drops the frame
+    prepared.getArguments().add("extra");
+    assertNull(prepared.getArguments().getPreparedFrame());
+  }
+
+  @Test
+  public void hashSlot() {
+    PreparedCommand<String> prepared = new PreparedCommand<>(new ClusterCommandObjects().get("{user}:config"));
+    assertEquals(JedisClusterCRC16.getSlot("user"), prepared.getHashSlot());
+  }
+
+  @Test
+  public void executeRepeatedly() {
+    try (UnifiedJedis jedis = new UnifiedJedis(endpoint.getHostAndPort(), endpoint.getClientConfigBuilder().build())) {
+      jedis.del("feature:flags");
+      PreparedCommand<Map<String, String>> hgetAll = jedis.prepare(c -> c.hgetAll("feature:flags"));
+      PreparedCommand<Long> incr = jedis.prepare(c -> c.incrBy("feature:count", 2));
+      jedis.del("feature:count");
+
+      Map<String, String> expected = new HashMap<>();
+      for (int i = 0; i < 3; i++) {
+        assertEquals(expected, jedis.executeCommand(hgetAll));
+        jedis.hset("feature:flags", "f" + i, "on");
+        expected.put("f" + i, "on");
+        assertEquals(Long.valueOf(2 * (i + 1)), jedis.executeCommand(incr));
+      }
+    }
+  }
+}
@@ -4,22 +4,34 @@ import redis.clients.jedis.util.FragmentedByteArrayInputStream;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static redis.clients.jedis.util.AssertUtil.assertByteArrayListEquals;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
 
+import redis.clients.jedis.args.RawableFactory;
+import redis.clients.jedis.args.StreamingRawable;
 import redis.clients.jedis.exceptions.JedisBusyException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.jedis.util.RedisInputStream;
 import redis.clients.jedis.util.RedisOutputStream;
 import redis.clients.jedis.util.SafeEncoder;
@@ -47,6 +59,95 @@ public class ProtocolTest {
     assertEquals(expectedCommand, sb.toString());
   }
 
+  @Test
+  public void buildACommandWithStreamedArguments() throws IOException {
+    Path file = Files.createTempFile("jedis", ".bin");
+    try {
+      Files.write(file, "0123456789".getBytes());
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      RedisOutputStream ros = new RedisOutputStream(out, 4);
+
+      try (FileChannel channel = FileChannel.open(file)) {
+        Protocol.sendCommand(ros, new CommandArguments(Protocol.Command.MSET)
+            .add(RawableFactory.from(new ByteArrayInputStream("foobar".getBytes()), 3))
+            .add(RawableFactory.from(file))
+            .add("k")
+            .add(RawableFactory.from(channel, 2, 5)));
+        ros.flush();
+        assertEquals(0, channel.position());
+      }
+
+      assertEquals("*5\r\n$4\r\nMSET\r\n$3\r\nfoo\r\n$10\r\n0123456789\r\n$1\r\nk\r\n$5\r\n23456\r\n",
+          out.toString());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void buildACommandWithNumericArguments() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    RedisOutputStream ros = new RedisOutputStream(out, 16);
+
+    Protocol.sendCommand(ros, new CommandArguments(Protocol.Command.ZADD).add("z")
+        .add(Protocol.Keyword.CH).add(1.5).add(-42).add(Long.MIN_VALUE).add(Long.MAX_VALUE).add(true)
+        .add(RawableFactory.wrap("m".getBytes())));
+    ros.flush();
+
+    assertEquals("*9\r\n$4\r\nZADD\r\n$1\r\nz\r\n$2\r\nCH\r\n$3\r\n1.5\r\n$3\r\n-42\r\n"
+        + "$20\r\n-9223372036854775808\r\n$19\r\n9223372036854775807\r\n$1\r\n1\r\n$1\r\nm\r\n",
+        out.toString());
+  }
+
+  @Test
+  public void numericArgumentsAsRaw() {
+    long[] values = { 0, 7, -7, 10, 99, 100, -100, 65536, Integer.MAX_VALUE, Integer.MIN_VALUE,
+        999_999_999_999_999_999L, 1_000_000_000_000_000_000L, Long.MAX_VALUE, Long.MIN_VALUE };
+    for (long value : values) {
+      StreamingRawable raw = (StreamingRawable) RawableFactory.from(value);
+      assertEquals(String.valueOf(value), SafeEncoder.encode(raw.getRaw()));
+      assertEquals(String.valueOf(value).length(), raw.getLength());
+      assertEquals(raw, RawableFactory.from(value));
+    }
+  }
+
+  @Test
+  public void streamedArgumentAsRaw() throws IOException {
+    StreamingRawable raw = RawableFactory.from(new ByteArrayInputStream("foobar".getBytes()), 6);
+    assertEquals(6, raw.getLength());
+    assertArrayEquals("foobar".getBytes(), raw.getRaw());
+    // the stream is consumed, but the argument can still be sent
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    RedisOutputStream ros = new RedisOutputStream(out);
+    Protocol.sendCommand(ros, new CommandArguments(Protocol.Command.ECHO).add(raw));
+    ros.flush();
+    assertEquals("*2\r\n$4\r\nECHO\r\n$6\r\nfoobar\r\n", out.toString());
+  }
+
+  @Test
+  public void streamedArgumentSentTwice() throws IOException {
+    CommandArguments args = new CommandArguments(Protocol.Command.ECHO)
+        .add(RawableFactory.from(new ByteArrayInputStream("foobar".getBytes()), 6));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    RedisOutputStream ros = new RedisOutputStream(out);
+    Protocol.sendCommand(ros, args);
+    ros.flush();
+    assertEquals("*2\r\n$4\r\nECHO\r\n$6\r\nfoobar\r\n", out.toString());
+    // e.g. a retried command must not send the drained stream
+    try {
+      Protocol.sendCommand(ros, args);
+      fail("The argument has been sent again.");
+    } catch (JedisException expected) {
+    }
+  }
+
+  @Test(expected = JedisConnectionException.class)
+  public void streamedArgumentShorterThanLength() {
+    RedisOutputStream ros = new RedisOutputStream(new ByteArrayOutputStream());
+    Protocol.sendCommand(ros, new CommandArguments(Protocol.Command.ECHO)
+        .add(RawableFactory.from(new ByteArrayInputStream("foo".getBytes()), 6)));
+  }
+
   @Test(expected = IOException.class)
   public void writeOverflow() throws IOException {
     RedisOutputStream ros = new RedisOutputStream(new OutputStream() {
@@ -84,6 +185,84 @@ public class ProtocolTest {
     assertArrayEquals(SafeEncoder.encode("012345678901234567890123456789"), response);
   }
 
+  @Test
+  public void bulkReplyIntoBuffer() {
+    RedisInputStream is = new RedisInputStream(new FragmentedByteArrayInputStream(
+        "$30\r\n012345678901234567890123456789\r\n$-1\r\n$3\r\nfoo\r\n".getBytes()), 8);
+
+    ByteBuffer heap = ByteBuffer.allocate(40);
+    assertEquals(30, Protocol.readBulkReply(is, heap));
+    heap.flip();
+    assertEquals("012345678901234567890123456789", SafeEncoder.encode(toArray(heap)));
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(3);
+    assertEquals(-1, Protocol.readBulkReply(is, direct));
+    assertEquals(3, Protocol.readBulkReply(is, direct));
+    direct.flip();
+    byte[] bytes = new byte[3];
+    direct.get(bytes);
+    assertArrayEquals(SafeEncoder.encode("foo"), bytes);
+  }
+
+  @Test
+  public void bulkReplyIntoTooSmallBuffer() {
+    RedisInputStream is = new RedisInputStream(new ByteArrayInputStream(
+        "$6\r\nfoobar\r\n:1\r\n".getBytes()));
+    ByteBuffer buffer = ByteBuffer.allocate(3);
+    try {
+      Protocol.readBulkReply(is, buffer);
+      fail("Expected a JedisException to be thrown.");
+    } catch (JedisException e) {
+      assertEquals(0, buffer.position());
+    }
+    // the stream is still usable
+    assertEquals(1L, Protocol.read(is));
+  }
+
+  @Test
+  public void bulkReplyIntoChannel() {
+    RedisInputStream is = new RedisInputStream(new FragmentedByteArrayInputStream(
+        "$30\r\n012345678901234567890123456789\r\n".getBytes()), 8);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(30, Protocol.readBulkReply(is, Channels.newChannel(out)));
+    assertEquals("012345678901234567890123456789", out.toString());
+  }
+
+  @Test
+  public void errorInsteadOfBulkReply() {
+    RedisInputStream is = new RedisInputStream(new ByteArrayInputStream(
+        "-WRONGTYPE Operation against a key holding the wrong kind of value\r\n".getBytes()));
+    try {
+      Protocol.readBulkReply(is, ByteBuffer.allocate(8));
+      fail("Expected a JedisDataException to be thrown.");
+    } catch (JedisDataException e) {
+      assertTrue(e.getMessage().startsWith("WRONGTYPE"));
+    }
+  }
+
+  @Test
+  public void borrowedBulkReply() {
+    RedisInputStream is = new RedisInputStream(new FragmentedByteArrayInputStream(
+        "$3\r\nfoo\r\n$6\r\nfoobar\r\n$30\r\n012345678901234567890123456789\r\n$-1\r\n".getBytes()), 12);
+
+    ByteBuffer view = Protocol.readBorrowedBulkReply(is);
+    assertTrue(view.isReadOnly());
+    assertEquals("foo", SafeEncoder.encode(toArray(view)));
+    // the value is compacted to the start of the buffer if it does not fit after the previous one
+    assertEquals("foobar", SafeEncoder.encode(toArray(Protocol.readBorrowedBulkReply(is))));
+    // larger than the input buffer, so it is copied
+    view = Protocol.readBorrowedBulkReply(is);
+    assertTrue(view.isReadOnly());
+    assertEquals("012345678901234567890123456789", SafeEncoder.encode(toArray(view)));
+    assertNull(Protocol.readBorrowedBulkReply(is));
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
   @Test
   public void nullBulkReply() {
     InputStream is = new ByteArrayInputStream("$-1\r\n".getBytes());
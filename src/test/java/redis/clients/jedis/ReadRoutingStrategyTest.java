@@ -0,0 +1,126 @@
+package redis.clients.jedis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class ReadRoutingStrategyTest {
+
+  private final HostAndPort primary = new HostAndPort("primary", 6379);
+  private final HostAndPort replica1 = new HostAndPort("replica1", 6379);
+  private final HostAndPort replica2 = new HostAndPort("replica2", 6379);
+  private final List<HostAndPort> replicas = Arrays.asList(replica1, replica2);
+
+  @Test
+  public void nodeMetrics() {
+    NodeMetrics metrics = new NodeMetrics();
+    assertEquals(0, metrics.getLatencyNanos(replica1));
+
+    metrics.started(replica1);
+    metrics.started(replica1);
+    assertEquals(2, metrics.getOutstanding(replica1));
+
+    metrics.completed(replica1, 800);
+    assertEquals(800, metrics.getLatencyNanos(replica1));
+    metrics.completed(replica1, 1600);
+    assertEquals(900, metrics.getLatencyNanos(replica1));
+    assertEquals(0, metrics.getOutstanding(replica1));
+
+    metrics.started(replica1);
+    metrics.failed(replica1);
+    assertEquals(1, metrics.getConsecutiveFailures(replica1));
+    assertEquals(0, metrics.getOutstanding(replica1));
+  }
+
+  @Test
+  public void random() {
+    ReadRoutingStrategy strategy = ReadRoutingStrategy.random();
+    assertTrue(replicas.contains(strategy.select(primary, replicas, new NodeMetrics())));
+    assertEquals(primary, strategy.select(primary, Collections.emptyList(), new NodeMetrics()));
+  }
+
+  @Test
+  public void primaryPreferred() {
+    ReadRoutingStrategy strategy = ReadRoutingStrategy.primaryPreferred();
+    NodeMetrics metrics = new NodeMetrics();
+    assertEquals(primary, strategy.select(primary, replicas, metrics));
+
+    metrics.started(primary);
+    metrics.failed(primary);
+    assertTrue(replicas.contains(strategy.select(primary, replicas, metrics)));
+    assertEquals(primary, strategy.select(primary, Collections.emptyList(), metrics));
+  }
+
+  @Test
+  public void primaryPreferredRetriesPrimary() throws InterruptedException {
+    ReadRoutingStrategy strategy = ReadRoutingStrategy.primaryPreferred(Duration.ofMillis(50));
+    NodeMetrics metrics = new NodeMetrics();
+    metrics.started(primary);
+    metrics.failed(primary);
+    assertTrue(replicas.contains(strategy.select(primary, replicas, metrics)));
+
+    Thread.sleep(100);
+    // a single command retries the primary
+    assertEquals(primary, strategy.select(primary, replicas, metrics));
+    assertTrue(replicas.contains(strategy.select(primary, replicas, metrics)));
+
+    metrics.started(primary);
+    metrics.completed(primary, 1_000);
+    assertEquals(primary, strategy.select(primary, replicas, metrics));
+    assertEquals(primary, strategy.select(primary, replicas, metrics));
+  }
+
+  @Test
+  public void latencyWeighted() {
+    ReadRoutingStrategy strategy = ReadRoutingStrategy.latencyWeighted();
+    NodeMetrics metrics = new NodeMetrics();
+    metrics.started(replica1);
+    metrics.completed(replica1, 1_000);
+    metrics.started(replica2);
+    metrics.completed(replica2, 99_000);
+
+    Map<HostAndPort, Integer> selected = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      selected.merge(strategy.select(primary, replicas, metrics), 1, Integer::sum);
+    }
+    // 99 to 1
+    assertTrue(selected.get(replica1) > 900);
+  }
+
+  @Test
+  public void leastOutstanding() {
+    ReadRoutingStrategy strategy = ReadRoutingStrategy.leastOutstanding();
+    NodeMetrics metrics = new NodeMetrics();
+    metrics.started(replica1);
+    assertEquals(replica2, strategy.select(primary, replicas, metrics));
+    metrics.started(replica2);
+    metrics.started(replica2);
+    assertEquals(replica1, strategy.select(primary, replicas, metrics));
+  }
+
+  @Test
+  public void preferTag() {
+    Map<HostAndPort, String> zones = new HashMap<>();
+    zones.put(primary, "zone-a");
+    zones.put(replica1, "zone-b");
+    zones.put(replica2, "zone-c");
+
+    NodeMetrics metrics = new NodeMetrics();
+    assertEquals(replica2, ReadRoutingStrategy.preferTag(zones::get, "zone-c", ReadRoutingStrategy.random())
+        .select(primary, replicas, metrics));
+    assertEquals(primary, ReadRoutingStrategy.preferTag(zones::get, "zone-a", ReadRoutingStrategy.random())
+        .select(primary, replicas, metrics));
+    assertTrue(replicas.contains(ReadRoutingStrategy.preferTag(zones::get, "zone-d",
+        ReadRoutingStrategy.random()).select(primary, replicas, metrics)));
+    assertNull(ReadRoutingStrategy.preferTag(zones::get, "zone-d", ReadRoutingStrategy.random())
+        .select(null, Collections.emptyList(), metrics));
+  }
+}
@@ -0,0 +1,175 @@
+package redis.clients.jedis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import redis.clients.jedis.exceptions.JedisAskDataException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.util.KeyValue;
+import redis.clients.jedis.util.RedisInputStream;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class RespDecoderTest {
+
+  private static List<Object> decodeAll(String resp, int sliceSize) {
+    RespDecoder decoder = new RespDecoder();
+    List<Object> replies = new ArrayList<>();
+    byte[] bytes = SafeEncoder.encode(resp);
+    for (int offset = 0; offset < bytes.length; offset += sliceSize) {
+      ByteBuffer slice = ByteBuffer.wrap(bytes, offset, Math.min(sliceSize, bytes.length - offset));
+      while (decoder.decode(slice)) {
+        replies.add(decoder.getReply());
+      }
+      assertFalse(slice.hasRemaining());
+    }
+    assertTrue(decoder.isIdle());
+    return replies;
+  }
+
+  private static Object decode(String resp) {
+    List<Object> whole = decodeAll(resp, Integer.MAX_VALUE);
+    List<Object> fragmented = decodeAll(resp, 1);
+    assertEquals(1, whole.size());
+    assertEquals(1, fragmented.size());
+    return fragmented.get(0);
+  }
+
+  @Test
+  public void simpleReplies() {
+    assertArrayEquals(SafeEncoder.encode("OK"), (byte[]) decode("+OK\r\n"));
+    assertEquals(Long.valueOf(-42), decode(":-42\r\n"));
+    assertEquals(3.25, (Double) decode(",3.25\r\n"), 0);
+    assertEquals(Double.POSITIVE_INFINITY, (Double) decode(",inf\r\n"), 0);
+    assertEquals(Boolean.TRUE, decode("#t\r\n"));
+    assertEquals(new BigInteger("3492890328409238509324850943850943825024385"),
+        decode("(3492890328409238509324850943850943825024385\r\n"));
+    assertNull(decode("_\r\n"));
+  }
+
+  @Test
+  public void bulkReplies() {
+    assertArrayEquals(SafeEncoder.encode("foo\r\nbar"), (byte[]) decode("$8\r\nfoo\r\nbar\r\n"));
+    assertArrayEquals(new byte[0], (byte[]) decode("$0\r\n\r\n"));
+    assertNull(decode("$-1\r\n"));
+    assertArrayEquals(SafeEncoder.encode("txt:Some string"), (byte[]) decode("=15\r\ntxt:Some string\r\n"));
+  }
+
+  @Test
+  public void aggregateReplies() {
+    List<Object> list = (List<Object>) decode("*3\r\n$3\r\nfoo\r\n:1\r\n*2\r\n$-1\r\n-ERR nested\r\n");
+    assertEquals(3, list.size());
+    assertArrayEquals(SafeEncoder.encode("foo"), (byte[]) list.get(0));
+    assertEquals(Long.valueOf(1), list.get(1));
+    List<Object> nested = (List<Object>) list.get(2);
+    assertNull(nested.get(0));
+    assertEquals("ERR nested", ((JedisDataException) nested.get(1)).getMessage());
+
+    assertNull(decode("*-1\r\n"));
+    assertEquals(0, ((List<Object>) decode("*0\r\n")).size());
+    assertSame(Protocol.PROTOCOL_EMPTY_MAP, decode("%0\r\n"));
+
+    List<KeyValue> map = (List<KeyValue>) decode("%2\r\n+first\r\n:1\r\n+second\r\n~1\r\n:2\r\n");
+    assertEquals(2, map.size());
+    assertArrayEquals(SafeEncoder.encode("first"), (byte[]) map.get(0).getKey());
+    assertEquals(Long.valueOf(1), map.get(0).getValue());
+    assertEquals(Long.valueOf(2), ((List<Object>) map.get(1).getValue()).get(0));
+  }
+
+  @Test
+  public void errorReplies() {
+    assertEquals("ERR unknown command", ((JedisDataException) decode("-ERR unknown command\r\n")).getMessage());
+    assertEquals("SYNTAX invalid", ((JedisDataException) decode("!14\r\nSYNTAX invalid\r\n")).getMessage());
+
+    JedisMovedDataException moved = (JedisMovedDataException) decode("-MOVED 3999 127.0.0.1:6381\r\n");
+    assertEquals(3999, moved.getSlot());
+    assertEquals(new HostAndPort("127.0.0.1", 6381), moved.getTargetNode());
+    assertTrue(decode("-ASK 3999 127.0.0.1:6381\r\n") instanceof JedisAskDataException);
+  }
+
+  @Test
+  public void multipleReplies() {
+    List<Object> replies = decodeAll("+OK\r\n:1\r\n$3\r\nbar\r\n*1\r\n:2\r\n", 3);
+    assertEquals(4, replies.size());
+    assertEquals(Long.valueOf(1), replies.get(1));
+    assertArrayEquals(SafeEncoder.encode("bar"), (byte[]) replies.get(2));
+  }
+
+  @Test
+  public void pushBetweenReplies() {
+    RespDecoder decoder = new RespDecoder();
+    ByteBuffer buffer = ByteBuffer.wrap(SafeEncoder.encode(
+        "+OK\r\n>2\r\n$10\r\ninvalidate\r\n*1\r\n$3\r\nfoo\r\n:1\r\n"));
+
+    assertTrue(decoder.decode(buffer));
+    assertFalse(decoder.isPush());
+    decoder.getReply();
+
+    assertTrue(decoder.decode(buffer));
+    assertTrue(decoder.isPush());
+    List<Object> push = (List<Object>) decoder.getReply();
+    assertArrayEquals(SafeEncoder.encode("invalidate"), (byte[]) push.get(0));
+    assertFalse(decoder.isPush());
+
+    assertTrue(decoder.decode(buffer));
+    assertFalse(decoder.isPush());
+    assertEquals(Long.valueOf(1), decoder.getReply());
+  }
+
+  @Test
+  public void captureRawReplies() {
+    String resp = "*3\r\n$3\r\nfoo\r\n%1\r\n+key\r\n:1\r\n*0\r\n$0\r\n\r\n:7\r\n";
+    byte[] bytes = SafeEncoder.encode(resp);
+    for (int sliceSize : new int[] { 1, 5, bytes.length }) {
+      RespDecoder decoder = new RespDecoder();
+      decoder.setRaw(true);
+      List<Object> replies = new ArrayList<>();
+      for (int offset = 0; offset < bytes.length; offset += sliceSize) {
+        ByteBuffer slice = ByteBuffer.wrap(bytes, offset, Math.min(sliceSize, bytes.length - offset));
+        while (decoder.decode(slice)) {
+          replies.add(decoder.getReply());
+          decoder.setRaw(false);
+        }
+      }
+      assertEquals(3, replies.size());
+      ByteBuffer raw = (ByteBuffer) replies.get(0);
+      assertEquals("*3\r\n$3\r\nfoo\r\n%1\r\n+key\r\n:1\r\n*0\r\n",
+          SafeEncoder.encode(Arrays.copyOfRange(raw.array(), raw.position(), raw.limit())));
+      List<Object> parsed = (List<Object>) Protocol.read(
+          new RedisInputStream(raw.array(), raw.position(), raw.remaining()));
+      assertArrayEquals(SafeEncoder.encode("foo"), (byte[]) parsed.get(0));
+      assertEquals(0, ((List<Object>) parsed.get(2)).size());
+
+      // only the reply which started after the change is decoded
+      assertArrayEquals(new byte[0], (byte[]) replies.get(1));
+      assertEquals(Long.valueOf(7), replies.get(2));
+    }
+  }
+
+  @Test
+  public void deeplyNestedReply() {
+    final int depth = 100_000;
+    StringBuilder resp = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      resp.append("*1\r\n");
+    }
+    resp.append(":7\r\n");
+
+    Object reply = decodeAll(resp.toString(), 4096).get(0);
+    for (int i = 0; i < depth; i++) {
+      reply = ((List<Object>) reply).get(0);
+    }
+    assertEquals(Long.valueOf(7), reply);
+  }
+}
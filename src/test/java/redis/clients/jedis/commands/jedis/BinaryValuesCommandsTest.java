@@ -13,6 +13,12 @@ import static redis.clients.jedis.Protocol.Command.SET;
 import static redis.clients.jedis.params.SetParams.setParams;
 import static redis.clients.jedis.util.AssertUtil.assertByteArrayListEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,8 +27,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import redis.clients.jedis.CommandArguments;
 import redis.clients.jedis.Protocol;
 import redis.clients.jedis.RedisProtocol;
+import redis.clients.jedis.args.RawableFactory;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.params.GetExParams;
 import redis.clients.jedis.util.SafeEncoder;
@@ -63,6 +71,51 @@ public class BinaryValuesCommandsTest extends JedisCommandsTestBase {
     assertNull(jedis.get(bbar));
   }
 
+  @Test
+  public void getIntoBuffer() {
+    jedis.set(bfoo, binaryValue);
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(binaryValue.length);
+    assertEquals(binaryValue.length, jedis.get(bfoo, buffer));
+    buffer.flip();
+    assertEquals(ByteBuffer.wrap(binaryValue), buffer);
+    assertEquals(-1, jedis.get(bbar, buffer));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(binaryValue.length, jedis.get(bfoo, Channels.newChannel(out)));
+    assertArrayEquals(binaryValue, out.toByteArray());
+
+    assertEquals(ByteBuffer.wrap(binaryValue), jedis.getBorrowed(bfoo));
+    assertEquals(ByteBuffer.wrap(binaryValue, 1, 3), jedis.getrangeBorrowed(bfoo, 1, 3));
+    assertNull(jedis.getBorrowed(bbar));
+    assertEquals("OK", jedis.set(bbar, bfoo));
+  }
+
+  @Test
+  public void streamValue() throws IOException {
+    byte[] large = new byte[100_000];
+    for (int i = 0; i < large.length; i++) {
+      large[i] = (byte) i;
+    }
+    jedis.getConnection().executeCommand(new CommandArguments(SET).key(bfoo)
+        .add(RawableFactory.from(new ByteArrayInputStream(large), large.length)));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = jedis.getStream(bfoo)) {
+      byte[] chunk = new byte[4096];
+      int read;
+      while ((read = in.read(chunk)) != -1) {
+        out.write(chunk, 0, read);
+      }
+    }
+    assertArrayEquals(large, out.toByteArray());
+
+    // a partially read value is skipped by the next command
+    assertEquals(0, jedis.getStream(bfoo).read());
+    assertNull(jedis.getStream(bbar));
+    assertEquals(large.length, jedis.strlen(bfoo));
+  }
+
   @Test
   public void setNxExAndGet() {
     assertEquals("OK", jedis.set(bfoo, binaryValue, setParams().nx().ex(expireSeconds)));
@@ -13,6 +13,9 @@ import static redis.clients.jedis.Protocol.Command.SET;
 import static redis.clients.jedis.params.SetParams.setParams;
 import static redis.clients.jedis.util.AssertUtil.assertByteArrayListEquals;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -60,6 +63,26 @@ public abstract class BinaryValuesCommandsTestBase extends UnifiedJedisCommandsT
     assertNull(jedis.get(bbar));
   }
 
+  @Test
+  public void getIntoBuffer() {
+    assertEquals("OK", jedis.set(bfoo, binaryValue));
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(binaryValue.length);
+    assertEquals(binaryValue.length, jedis.get(bfoo, buffer));
+    buffer.flip();
+    assertEquals(ByteBuffer.wrap(binaryValue), buffer);
+    assertEquals(-1, jedis.get(bbar, buffer));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(binaryValue.length, jedis.get(bfoo, Channels.newChannel(out)));
+    assertArrayEquals(binaryValue, out.toByteArray());
+
+    buffer.clear();
+    assertEquals(3, jedis.getrange(bfoo, 1, 3, buffer));
+    buffer.flip();
+    assertEquals(ByteBuffer.wrap(binaryValue, 1, 3), buffer);
+  }
+
   @Test
   public void setNxExAndGet() {
     assertEquals("OK", jedis.set(bfoo, binaryValue, setParams().nx().ex(expireSeconds)));
@@ -10,6 +10,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -31,6 +32,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import redis.clients.jedis.CommandObjects;
+import redis.clients.jedis.Connection;
 import redis.clients.jedis.JedisPooled;
 import redis.clients.jedis.UnifiedJedis;
 
@@ -569,4 +571,66 @@ public class ClientSideCacheFunctionalityTest extends ClientSideCacheTestBase {
       assertEquals(1, stats.getMissCount());
     }
   }
+
+  @Test
+  public void expiresWithServerTtl() throws InterruptedException {
+    control.set("foo", "bar");
+    control.pexpire("foo", 300);
+    control.set("baz", "qux");
+
+    try (JedisPooled jedis = new JedisPooled(hnp, clientConfig.get(),
+        CacheConfig.builder().expiry(Expiry.serverTtl(null)).build())) {
+      Cache cache = jedis.getCache();
+      assertEquals("bar", jedis.get("foo"));
+      assertEquals("qux", jedis.get("baz"));
+      assertEquals(2, cache.getSize());
+      assertEquals("bar", jedis.get("foo"));
+      assertEquals(1, cache.getStats().getHitCount());
+
+      Thread.sleep(400);
+      assertNull(jedis.get("foo"));
+      assertEquals("qux", jedis.get("baz"));
+      assertEquals(1, cache.getStats().getExpireCount());
+      assertEquals(2, cache.getStats().getHitCount());
+    }
+  }
+
+  @Test
+  public void expiresStreamedReplyWithServerTtl() throws InterruptedException {
+    control.hset("foo", "bar", "baz");
+    control.pexpire("foo", 300);
+
+    try (JedisPooled jedis = new JedisPooled(hnp, clientConfig.get(),
+        CacheConfig.builder().expiry(Expiry.serverTtl(null)).build())) {
+      Cache cache = jedis.getCache();
+      // the reply of HGETALL is read by a streaming builder
+      assertEquals(Collections.singletonMap("bar", "baz"), jedis.hgetAll("foo"));
+      assertEquals(Collections.singletonMap("bar", "baz"), jedis.hgetAll("foo"));
+      assertEquals(1, cache.getStats().getHitCount());
+
+      Thread.sleep(400);
+      assertEquals(Collections.emptyMap(), jedis.hgetAll("foo"));
+      assertEquals(1, cache.getStats().getExpireCount());
+    }
+  }
+
+  @Test
+  public void askingIsFollowedByTheCommand() {
+    control.set("foo", "bar");
+
+    try (JedisPooled jedis = new JedisPooled(hnp, clientConfig.get(), CacheConfig.builder().build(),
+        singleConnectionPoolConfig.get())) {
+      Cache cache = jedis.getCache();
+      assertEquals("bar", jedis.get("foo"));
+
+      try (Connection connection = jedis.getPool().getResource()) {
+        connection.sendAsking();
+        // not served by the cache, since ASKING would apply to the next command of the connection
+        assertEquals("bar", connection.executeCommand(new CommandObjects().get("foo")));
+      }
+      assertEquals(0, cache.getStats().getHitCount());
+      assertEquals("bar", jedis.get("foo"));
+      assertEquals(1, cache.getStats().getHitCount());
+    }
+  }
 }
@@ -0,0 +1,171 @@
+package redis.clients.jedis.csc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static redis.clients.jedis.csc.TestCache.cacheKey;
+import static redis.clients.jedis.csc.TestCache.set;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    Cache cache = CacheFactory.getCache(CacheConfig.builder().maxSize(2).cacheClass(ConcurrentCache.class).build());
+    set(cache, "a", "value");
+    set(cache, "b", "value");
+    assertNotNull(cache.get(cacheKey("a")));
+    set(cache, "c", "value");
+
+    assertEquals(2, cache.getSize());
+    assertNotNull(cache.get(cacheKey("c")));
+    assertEquals(1, cache.getStats().getEvictCount());
+  }
+
+  @Test
+  public void evictsByWeight() {
+    Cache cache = CacheFactory.getCache(CacheConfig.builder().cacheClass(ConcurrentCache.class)
+        .maxWeight(1000).weigher((cacheKey, value) -> 300).build());
+    set(cache, "a", "value");
+    set(cache, "b", "value");
+    set(cache, "c", "value");
+    assertEquals(900, cache.getWeight());
+
+    set(cache, "d", "value");
+    assertEquals(3, cache.getSize());
+    assertEquals(900, cache.getWeight());
+    assertNull(cache.get(cacheKey("a")));
+
+    cache.delete(cacheKey("b"));
+    assertEquals(600, cache.getWeight());
+    cache.flush();
+    assertEquals(0, cache.getWeight());
+  }
+
+  @Test
+  public void notWeighedWithoutWeightBound() {
+    Cache cache = CacheFactory.getCache(CacheConfig.builder().cacheClass(ConcurrentCache.class).build());
+    set(cache, "a", "value");
+    assertEquals(0, cache.getWeight());
+  }
+
+  @Test
+  public void defaultCacheEvictsByWeight() {
+    Cache cache = CacheFactory.getCache(CacheConfig.builder().maxWeight(3 * (DefaultWeigher.ENTRY_OVERHEAD + 10))
+        .build());
+    set(cache, "a", "value");
+    set(cache, "b", "value");
+    set(cache, "c", "value");
+    // "value" takes 10 bytes
+    assertEquals(3 * (DefaultWeigher.ENTRY_OVERHEAD + 10), cache.getWeight());
+
+    set(cache, "d", "value");
+    assertEquals(3, cache.getSize());
+    assertNull(cache.get(cacheKey("a")));
+    assertEquals(1, cache.getStats().getEvictCount());
+  }
+
+  @Test
+  public void invalidatesByRedisKey() {
+    ConcurrentCache cache = new ConcurrentCache(100);
+    set(cache, "a", "value");
+    set(cache, cacheKey("a", "b"), "value");
+    set(cache, "c", "value");
+
+    List<CacheKey> invalidated = cache.deleteByRedisKeys(Arrays.asList("b".getBytes(), "a".getBytes()));
+    assertEquals(2, invalidated.size());
+    assertNull(cache.get(cacheKey("a")));
+    assertNotNull(cache.get(cacheKey("c")));
+    assertEquals(1, cache.getSize());
+
+    cache.deleteByRedisKeys(null);
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void manyThreads() throws Exception {
+    final int maxSize = 100;
+    final ConcurrentCache cache = new ConcurrentCache(maxSize);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10_000; i++) {
+            CacheKey<Object> cacheKey = cacheKey("key" + (i * 7 + thread) % 300);
+            if (cache.get(cacheKey) == null) {
+              set(cache, cacheKey, "value");
+            }
+            if (i % 10 == thread) {
+              cache.deleteByRedisKey(("key" + i % 300).getBytes());
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    // the last change is drained by the thread which made it
+    assertTrue(cache.getSize() <= maxSize);
+  }
+
+  @Test(timeout = 5_000)
+  public void removeAndAddAgainConcurrently() throws Exception {
+    final int maxSize = 10;
+    final CountDownLatch removed = new CountDownLatch(1);
+    final CountDownLatch added = new CountDownLatch(1);
+    final ConcurrentCache cache = new ConcurrentCache(maxSize) {
+      @Override
+      protected void onRemoval(CacheEntry entry) {
+        if (removed.getCount() > 0) {
+          // the entry is stored again meanwhile by another thread
+          removed.countDown();
+          try {
+            added.await();
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    };
+    set(cache, "key", "value");
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> remover = executor.submit(() -> cache.delete(cacheKey("key")));
+      removed.await();
+      set(cache, "key", "value");
+      added.countDown();
+      remover.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    // the entry stored again must still be known to the eviction policy, to be evicted
+    Set<CacheKey> others = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      others.add(set(cache, "other" + i, "value").getCacheKey());
+    }
+    assertEquals(maxSize, cache.getSize());
+    for (CacheEntry entry : cache.getCacheEntries()) {
+      assertTrue(others.contains(entry.getCacheKey()));
+    }
+  }
+}
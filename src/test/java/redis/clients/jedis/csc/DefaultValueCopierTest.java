@@ -0,0 +1,85 @@
+package redis.clients.jedis.csc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import redis.clients.jedis.exceptions.JedisCacheException;
+import redis.clients.jedis.resps.Tuple;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class DefaultValueCopierTest {
+
+  private final ValueCopier copier = DefaultValueCopier.INSTANCE;
+
+  @Test
+  public void immutableValuesAreNotCopied() {
+    String string = "value";
+    Long number = 1234567L;
+    assertSame(string, copier.copy(string));
+    assertSame(number, copier.copy(number));
+    assertSame(Boolean.TRUE, copier.copy(Boolean.TRUE));
+    assertEquals(null, copier.copy(null));
+  }
+
+  @Test
+  public void binaryValuesAreCloned() {
+    byte[] bytes = SafeEncoder.encode("value");
+    byte[] copy = (byte[]) copier.copy(bytes);
+    assertNotSame(bytes, copy);
+    assertArrayEquals(bytes, copy);
+
+    List<byte[]> list = Arrays.asList(bytes, SafeEncoder.encode("other"));
+    @SuppressWarnings("unchecked")
+    List<byte[]> listCopy = (List<byte[]>) copier.copy(list);
+    assertNotSame(list.get(0), listCopy.get(0));
+    assertArrayEquals(list.get(1), listCopy.get(1));
+  }
+
+  @Test
+  public void mapsAreCopied() {
+    Map<String, String> map = new HashMap<>();
+    map.put("field", "value");
+    @SuppressWarnings("unchecked")
+    Map<String, String> copy = (Map<String, String>) copier.copy(map);
+    copy.put("field", "changed");
+    assertEquals("value", map.get("field"));
+
+    Tuple tuple = new Tuple("member", 1.5);
+    Tuple tupleCopy = (Tuple) copier.copy(tuple);
+    assertEquals(tuple, tupleCopy);
+    assertNotSame(tuple.getBinaryElement(), tupleCopy.getBinaryElement());
+  }
+
+  @Test
+  public void registeredCopier() {
+    Object value = new Object();
+    Object copy = new Object();
+    ValueCopier registered = DefaultValueCopier.INSTANCE.register(Object.class, v -> copy);
+    assertSame(copy, registered.copy(value));
+    assertEquals(Collections.singletonList(copy), registered.copy(Collections.singletonList(value)));
+  }
+
+  @Test(expected = JedisCacheException.class)
+  public void unknownType() {
+    copier.copy(new Object());
+  }
+
+  @Test
+  public void cacheEntryHoldsItsOwnCopy() {
+    byte[] bytes = SafeEncoder.encode("value");
+    CacheEntry<byte[]> entry = new CacheEntry<>(null, bytes, null, copier);
+    bytes[0] = 'V';
+    entry.getValue()[1] = 'A';
+    assertArrayEquals(SafeEncoder.encode("value"), entry.getValue());
+  }
+}
@@ -0,0 +1,155 @@
+package redis.clients.jedis.csc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static redis.clients.jedis.csc.TestCache.cacheKey;
+import static redis.clients.jedis.csc.TestCache.set;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class ExpiryTest {
+
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  // far from 0, as System.nanoTime()
+  private final AtomicLong time = new AtomicLong(-123_456_789_000L);
+
+  private static void setWithServerTtl(Cache cache, String key, long serverTtl) {
+    CacheEntry<Object> entry = new CacheEntry<>(cacheKey(key), "value", null);
+    entry.setServerTtl(serverTtl);
+    cache.set(cacheKey(key), entry);
+  }
+
+  private AbstractCache cache(CacheConfig.Builder builder) {
+    AbstractCache cache = (AbstractCache) CacheFactory.getCache(builder.build());
+    cache.setTicker(time::get);
+    return cache;
+  }
+
+  private void sleep(long millis) {
+    time.addAndGet(millis * MILLIS);
+  }
+
+  @Test
+  public void expireAfterWrite() {
+    Cache cache = cache(CacheConfig.builder().expireAfterWrite(Duration.ofSeconds(1)));
+    set(cache, "a", "value");
+    sleep(999);
+    assertNotNull(cache.get(cacheKey("a")));
+    sleep(1);
+    assertNull(cache.get(cacheKey("a")));
+    assertEquals(0, cache.getSize());
+    assertEquals(1, cache.getStats().getExpireCount());
+  }
+
+  @Test
+  public void expireAfterAccess() {
+    Cache cache = cache(CacheConfig.builder().cacheClass(ConcurrentCache.class)
+        .expireAfterAccess(Duration.ofSeconds(1)));
+    set(cache, "a", "value");
+    set(cache, "b", "value");
+    for (int i = 0; i < 5; i++) {
+      sleep(600);
+      assertNotNull(cache.get(cacheKey("a")));
+    }
+    // b is removed by the timer wheel, without being read
+    set(cache, "c", "value");
+    assertEquals(2, cache.getSize());
+    assertEquals(1, cache.getStats().getExpireCount());
+
+    sleep(1000);
+    assertNull(cache.get(cacheKey("a")));
+  }
+
+  @Test
+  public void maxStaleness() {
+    Cache cache = cache(CacheConfig.builder().expireAfterAccess(Duration.ofSeconds(1))
+        .maxStaleness(Duration.ofSeconds(2)));
+    set(cache, "a", "value");
+    for (int i = 0; i < 3; i++) {
+      sleep(600);
+      assertNotNull(cache.get(cacheKey("a")));
+    }
+    sleep(600);
+    assertNull(cache.get(cacheKey("a")));
+  }
+
+  @Test
+  public void serverTtl() {
+    for (Class<?> cacheClass : new Class<?>[] { null, ConcurrentCache.class, OffHeapCache.class }) {
+      Cache cache = cache(CacheConfig.builder().cacheClass(cacheClass)
+          .expiry(Expiry.serverTtl(Duration.ofSeconds(10))));
+      assertTrue(cache.getExpiry().usesServerTtl());
+      setWithServerTtl(cache, "short", 500);
+      setWithServerTtl(cache, "long", 60_000);
+      set(cache, "none", "value");
+
+      sleep(500);
+      assertNull(cache.get(cacheKey("short")));
+      sleep(9499);
+      assertNotNull(cache.get(cacheKey("long")));
+      assertNotNull(cache.get(cacheKey("none")));
+      sleep(1);
+      set(cache, "other", "value");
+      assertEquals(1, cache.getSize());
+      time.set(-123_456_789_000L);
+    }
+  }
+
+  @Test
+  public void replacedEntriesAreDescheduled() {
+    Cache cache = cache(CacheConfig.builder().cacheClass(ConcurrentCache.class)
+        .expireAfterWrite(Duration.ofSeconds(1)));
+    set(cache, "a", "value");
+    sleep(800);
+    set(cache, "a", "value");
+    sleep(800);
+    set(cache, "b", "value");
+    assertNotNull(cache.get(cacheKey("a")));
+    assertEquals(0, cache.getStats().getExpireCount());
+    cache.flush();
+    sleep(1000);
+    set(cache, "c", "value");
+    assertEquals(0, cache.getStats().getExpireCount());
+  }
+
+  @Test
+  public void timerWheel() {
+    final long start = time.get();
+    final long step = 10 * MILLIS;
+    TimerWheel wheel = new TimerWheel(start);
+    Random random = new Random(42);
+    List<TimerWheel.Node> nodes = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      // up to 100 h, beyond the last wheel
+      long delay = (long) (Math.pow(random.nextDouble(), 4) * TimeUnit.HOURS.toNanos(100));
+      nodes.add(wheel.schedule(null, start + delay));
+    }
+    wheel.deschedule(nodes.get(0));
+
+    List<TimerWheel.Node> fired = new ArrayList<>();
+    long previous = start;
+    for (long now = start; now - start <= TimeUnit.HOURS.toNanos(101); ) {
+      // faster, once the nodes of the first wheels have expired
+      now += now - start < TimeUnit.MINUTES.toNanos(1) ? step : 100 * step;
+      final long current = now;
+      final long lag = (1L << 24) + now - previous;
+      wheel.advance(now, node -> {
+        assertTrue(current - node.deadline >= 0);
+        assertTrue(current - node.deadline < lag);
+        fired.add(node);
+      });
+      previous = now;
+    }
+    assertEquals(999, fired.size());
+  }
+}
@@ -0,0 +1,163 @@
+package redis.clients.jedis.csc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static redis.clients.jedis.csc.TestCache.cacheKey;
+import static redis.clients.jedis.csc.TestCache.set;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class OffHeapCacheTest {
+
+  private static final int MIB = 1 << 20;
+
+  private static String text(int length) {
+    char[] chars = new char[length];
+    Arrays.fill(chars, 'x');
+    return new String(chars);
+  }
+
+  @Test
+  public void readsValuesFromDirectMemory() {
+    OffHeapCache cache = new OffHeapCache(100);
+    cache.setOffHeapThreshold(1);
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("field", "välue");
+    map.put("count", 3L);
+    List<Object> list = Arrays.asList("a", 1.5, true, null, Collections.singletonList(map));
+    set(cache, "list", list);
+    set(cache, "bytes", new byte[] { 1, 2, 3 });
+    assertTrue(cache.getOffHeapMemory() > 0);
+
+    Object value = cache.get(cacheKey("list")).getValue();
+    assertEquals(list, value);
+    assertTrue(value != cache.get(cacheKey("list")).getValue());
+    assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) cache.get(cacheKey("bytes")).getValue());
+    assertEquals(list, cache.getCacheEntries().stream()
+        .filter(entry -> entry.getCacheKey().equals(cacheKey("list"))).findAny().get().getValue());
+  }
+
+  @Test
+  public void keepsSmallValuesOnHeap() {
+    OffHeapCache cache = new OffHeapCache(100);
+    set(cache, "small", "value");
+    assertEquals(0, cache.getOffHeapMemory());
+    assertEquals("value", cache.get(cacheKey("small")).getValue());
+
+    set(cache, "large", text(1000));
+    assertEquals(MIB, cache.getOffHeapMemory());
+    assertEquals(text(1000), cache.get(cacheKey("large")).getValue());
+  }
+
+  @Test
+  public void expiresOffHeapEntries() {
+    OffHeapCache cache = new OffHeapCache(100);
+    AtomicLong time = new AtomicLong();
+    cache.setTicker(time::get);
+    List<Object> values = new ArrayList<>();
+    cache.setExpiry((cacheKey, value, serverTtl) -> {
+      values.add(value);
+      return Duration.ofSeconds(1);
+    });
+    set(cache, "large", text(1000));
+    assertEquals(MIB, cache.getOffHeapMemory());
+    assertEquals(Collections.singletonList(text(1000)), values);
+    assertEquals(text(1000), cache.get(cacheKey("large")).getValue());
+
+    time.addAndGet(Duration.ofSeconds(2).toNanos());
+    assertNull(cache.get(cacheKey("large")));
+  }
+
+  @Test
+  public void reusesFreedChunks() {
+    OffHeapCache cache = new OffHeapCache(10_000);
+    for (int i = 0; i < 1000; i++) {
+      set(cache, "key" + i, text(1000));
+    }
+    assertEquals(MIB, cache.getOffHeapMemory());
+    assertEquals(1000 * (DefaultWeigher.ENTRY_OVERHEAD + 1024), cache.getWeight());
+
+    cache.flush();
+    assertEquals(0, cache.getWeight());
+    for (int i = 0; i < 1000; i++) {
+      set(cache, "key" + i, text(5000));
+    }
+    // 1000 chunks of 8 KiB take 8 slabs, one of which is the slab of the 1 KiB chunks
+    assertEquals(8 * MIB, cache.getOffHeapMemory());
+    assertEquals(text(5000), cache.get(cacheKey("key999")).getValue());
+  }
+
+  @Test
+  public void storesValuesLargerThanSlabs() {
+    OffHeapCache cache = new OffHeapCache(100);
+    set(cache, "huge", new byte[3 * MIB]);
+    assertEquals(3 * MIB + 5, cache.getOffHeapMemory());
+    assertEquals(3 * MIB, ((byte[]) cache.get(cacheKey("huge")).getValue()).length);
+
+    cache.delete(cacheKey("huge"));
+    assertEquals(0, cache.getOffHeapMemory());
+  }
+
+  @Test
+  public void boundedByMaxWeight() {
+    Cache cache = CacheFactory.getCache(CacheConfig.builder().cacheClass(OffHeapCache.class)
+        .maxWeight(2 * MIB).build());
+    for (int i = 0; i < 10_000; i++) {
+      set(cache, "key" + i, text(1000));
+    }
+    assertTrue(cache.getWeight() <= 2 * MIB);
+    assertTrue(((OffHeapCache) cache).getOffHeapMemory() <= 2 * MIB);
+    assertNotNull(cache.get(cacheKey("key9999")));
+    assertNull(cache.get(cacheKey("key0")));
+  }
+
+  @Test
+  public void readsWhileInvalidating() throws Exception {
+    OffHeapCache cache = new OffHeapCache(1000);
+    cache.setMaxWeight(4 * MIB);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10_000; i++) {
+            String key = "key" + (i % 100);
+            if (thread == 0) {
+              set(cache, key, text(300 + i % 100));
+            } else if (thread == 1) {
+              cache.deleteByRedisKey(key);
+            } else {
+              CacheEntry entry = cache.get(cacheKey(key));
+              if (entry != null) {
+                assertEquals(300 + i % 100, ((String) entry.getValue()).length());
+              }
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    cache.flush();
+    assertEquals(0, cache.getWeight());
+  }
+}
@@ -3,6 +3,11 @@ package redis.clients.jedis.csc;
 import java.util.HashMap;
 import java.util.Map;
 
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.Protocol;
+
 public class TestCache extends DefaultCache {
 
   public TestCache() {
@@ -25,4 +30,25 @@ public class TestCache extends DefaultCache {
     super(maximumSize, new HashMap<CacheKey, CacheEntry>(), cacheable, evictionPolicy);
   }
 
+  /**
+   * @return the key of a GET of the given Redis key, or of an MGET of the given Redis keys
+   */
+  public static CacheKey<Object> cacheKey(String... keys) {
+    CommandArguments args = new CommandArguments(keys.length == 1 ? Protocol.Command.GET : Protocol.Command.MGET);
+    for (String key : keys) {
+      args.key(key);
+    }
+    return new CacheKey<>(new CommandObject<>(args, BuilderFactory.RAW_OBJECT));
+  }
+
+  public static CacheEntry<Object> set(Cache cache, CacheKey<Object> cacheKey, Object value) {
+    CacheEntry<Object> entry = new CacheEntry<>(cacheKey, value, null);
+    cache.set(cacheKey, entry);
+    return entry;
+  }
+
+  public static CacheEntry<Object> set(Cache cache, String key, Object value) {
+    return set(cache, cacheKey(key), value);
+  }
+
 }
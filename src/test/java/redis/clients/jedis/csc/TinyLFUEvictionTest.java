@@ -0,0 +1,91 @@
+package redis.clients.jedis.csc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static redis.clients.jedis.csc.TestCache.cacheKey;
+import static redis.clients.jedis.csc.TestCache.set;
+
+import org.junit.Test;
+
+public class TinyLFUEvictionTest {
+
+  /**
+   * @return whether it was a hit
+   */
+  private static boolean read(Cache cache, String key) {
+    CacheKey<Object> cacheKey = cacheKey(key);
+    if (cache.get(cacheKey) != null) {
+      return true;
+    }
+    set(cache, cacheKey, "value");
+    return false;
+  }
+
+  private static int readHotKeys(Cache cache) {
+    int hits = 0;
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 80; i++) {
+        hits += read(cache, "hot" + i) ? 1 : 0;
+      }
+    }
+    return hits;
+  }
+
+  @Test
+  public void scanDoesNotFlushFrequentKeys() {
+    Cache cache = CacheFactory.getCache(CacheConfig.builder().maxSize(100)
+        .evictionPolicy(new TinyLFUEviction(100)).build());
+    readHotKeys(cache);
+    for (int i = 0; i < 1000; i++) {
+      read(cache, "cold" + i);
+    }
+    assertEquals(100, cache.getSize());
+
+    int hits = 0;
+    for (int i = 0; i < 80; i++) {
+      hits += read(cache, "hot" + i) ? 1 : 0;
+    }
+    assertTrue("hits: " + hits, hits >= 75);
+  }
+
+  @Test
+  public void lruIsFlushedByScan() {
+    Cache cache = CacheFactory.getCache(CacheConfig.builder().maxSize(100).build());
+    readHotKeys(cache);
+    for (int i = 0; i < 1000; i++) {
+      read(cache, "cold" + i);
+    }
+    int hits = 0;
+    for (int i = 0; i < 80; i++) {
+      hits += read(cache, "hot" + i) ? 1 : 0;
+    }
+    assertEquals(0, hits);
+  }
+
+  @Test
+  public void frequencySketch() {
+    TinyLFUEviction.FrequencySketch sketch = new TinyLFUEviction.FrequencySketch(16);
+    CacheKey<Object> key = cacheKey("key");
+    for (int i = 0; i < 20; i++) {
+      sketch.increment(key);
+    }
+    // 4-bit counters
+    assertEquals(15, sketch.frequency(key));
+    // halved after 160 increments
+    for (int i = 0; i < 200; i++) {
+      sketch.increment(cacheKey("other" + i));
+    }
+    assertTrue(sketch.frequency(key) <= 7);
+  }
+
+  @Test
+  public void worksWithConcurrentCache() {
+    Cache cache = new ConcurrentCache(100, new TinyLFUEviction(100));
+    readHotKeys(cache);
+    for (int i = 0; i < 1000; i++) {
+      read(cache, "cold" + i);
+    }
+    assertTrue(cache.getSize() <= 100);
+    assertTrue(readHotKeys(cache) >= 300);
+  }
+}
@@ -0,0 +1,312 @@
+package redis.clients.jedis.nio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.ClientSetInfoConfig;
+import redis.clients.jedis.CommandObjects;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.EndpointConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.HostAndPorts;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.PooledBufferAllocator;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.StreamingBuilder;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisAccessControlException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.providers.NioConnectionProvider;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class NioConnectionTest {
+
+  private static final EndpointConfig endpoint = HostAndPorts.getRedisEndpoint("standalone0");
+
+  private static final JedisClientConfig NO_HANDSHAKE = DefaultJedisClientConfig.builder()
+      .clientSetInfoConfig(ClientSetInfoConfig.DISABLED).build();
+
+  private final CommandObjects commandObjects = new CommandObjects();
+  private NioEventLoop eventLoop;
+
+  @Before
+  public void setUp() {
+    eventLoop = new NioEventLoop();
+  }
+
+  @After
+  public void tearDown() {
+    eventLoop.close();
+  }
+
+  @Test
+  public void executeCommand() {
+    try (NioConnection connection = new NioConnection(eventLoop, endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().build())) {
+      assertTrue(connection.ping());
+      assertEquals("OK", connection.executeCommand(commandObjects.set("foo", "bar")));
+      assertEquals("bar", connection.executeCommand(commandObjects.get("foo")));
+    }
+  }
+
+  @Test
+  public void leaseDirectReadBuffers() {
+    try (NioConnection connection = new NioConnection(eventLoop, endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().bufferAllocator(new PooledBufferAllocator()).build())) {
+      StringBuilder value = new StringBuilder();
+      for (int i = 0; i < 10_000; i++) {
+        value.append(i % 10);
+      }
+      assertEquals("OK", connection.executeCommand(commandObjects.set("foo", value.toString())));
+      for (int i = 0; i < 10; i++) {
+        assertEquals(value.toString(), connection.executeCommand(commandObjects.get("foo")));
+      }
+    }
+  }
+
+  @Test
+  public void executeCommandAsync() {
+    try (NioConnection connection = new NioConnection(eventLoop, endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().build())) {
+      connection.executeCommand(commandObjects.del("counter"));
+
+      List<CompletableFuture<Long>> futures = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        futures.add(connection.executeCommandAsync(commandObjects.incr("counter")));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        assertEquals(Long.valueOf(i + 1), futures.get(i).join());
+      }
+    }
+  }
+
+  @Test
+  public void asyncError() {
+    try (NioConnection connection = new NioConnection(eventLoop, endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().build())) {
+      connection.executeCommand(commandObjects.set("foo", "bar"));
+      try {
+        connection.executeCommandAsync(commandObjects.incr("foo")).join();
+        fail("Should throw exception");
+      } catch (CompletionException ce) {
+        assertTrue(ce.getCause() instanceof JedisDataException);
+      }
+      // the connection is still usable
+      assertEquals("bar", connection.executeCommand(commandObjects.get("foo")));
+    }
+  }
+
+  @Test
+  public void pipeline() {
+    try (NioConnection connection = new NioConnection(eventLoop, endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().build())) {
+      Pipeline pipeline = new Pipeline(connection);
+      Response<String> set = pipeline.set("foo", "bar");
+      Response<String> get = pipeline.get("foo");
+      Response<String> none = pipeline.get("none");
+      pipeline.sync();
+      assertEquals("OK", set.get());
+      assertEquals("bar", get.get());
+      assertNull(none.get());
+    }
+  }
+
+  @Test
+  public void unifiedJedis() {
+    try (UnifiedJedis jedis = new UnifiedJedis(new NioConnectionProvider(endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().build()))) {
+      jedis.set("foo", "bar");
+      assertEquals("bar", jedis.get("foo"));
+      assertEquals("bar", jedis.executeCommandAsync(commandObjects.get("foo")).join());
+    }
+  }
+
+  @Test
+  public void streamingBuilder() {
+    try (NioConnection connection = new NioConnection(eventLoop, endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().build())) {
+      connection.executeCommand(commandObjects.del("hash"));
+      connection.executeCommand(commandObjects.hset("hash", "field", "value"));
+      connection.sendCommand(commandObjects.hgetAll("hash").getArguments());
+      Map<String, String> hash = connection.readProtocolWithCheckingBroken(
+          ((StreamingBuilder<Map<String, String>>) BuilderFactory.STRING_MAP)::read);
+      assertEquals(Collections.singletonMap("field", "value"), hash);
+    }
+  }
+
+  @Test
+  public void bulkReplyIntoBuffer() {
+    try (NioConnection connection = new NioConnection(eventLoop, endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().build())) {
+      connection.executeCommand(commandObjects.set("foo", "bar"));
+      connection.sendCommand(commandObjects.get("foo").getArguments());
+      ByteBuffer buffer = ByteBuffer.allocate(8);
+      assertEquals(3, connection.getBulkReply(buffer));
+      assertEquals("bar", new String(buffer.array(), 0, buffer.position()));
+
+      connection.sendCommand(commandObjects.get("foo").getArguments());
+      assertEquals(ByteBuffer.wrap("bar".getBytes()), connection.getBorrowedBulkReply());
+    }
+  }
+
+  @Test
+  public void asyncCommandsDoNotHoldPooledConnections() {
+    GenericObjectPoolConfig<Connection> poolConfig = new GenericObjectPoolConfig<>();
+    poolConfig.setMaxTotal(1);
+    poolConfig.setMaxWait(Duration.ofMillis(100));
+    try (NioConnectionProvider provider = new NioConnectionProvider(eventLoop, endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().build(), poolConfig);
+        UnifiedJedis jedis = new UnifiedJedis(provider);
+        Connection exclusive = provider.getConnection()) {
+      jedis.executeCommandAsync(commandObjects.del("counter")).join();
+      List<CompletableFuture<Long>> futures = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        futures.add(jedis.executeCommandAsync(commandObjects.incr("counter")));
+      }
+      for (CompletableFuture<Long> future : futures) {
+        future.join();
+      }
+      assertEquals("100", exclusive.executeCommand(commandObjects.get("counter")));
+    }
+  }
+
+  /**
+   * Accept one connection, wait until the given number of commands is received and then write the
+   * replies at once.
+   */
+  private static Thread serve(ServerSocket server, int commands, String replies) {
+    Thread thread = new Thread(() -> {
+      try (Socket socket = server.accept()) {
+        InputStream in = socket.getInputStream();
+        int received = 0;
+        while (received < commands) {
+          int b = in.read();
+          if (b < 0) {
+            return;
+          }
+          if (b == '*') {
+            received++;
+          }
+        }
+        socket.getOutputStream().write(SafeEncoder.encode(replies));
+        socket.getOutputStream().flush();
+        // keep the connection open until the client closes it
+        while (in.read() >= 0) {
+        }
+      } catch (IOException ioe) {
+        // the test fails on the client side
+      }
+    });
+    thread.start();
+    return thread;
+  }
+
+  @Test
+  public void pushBetweenReplies() throws Exception {
+    try (ServerSocket server = new ServerSocket(0)) {
+      Thread serving = serve(server, 2,
+          "$1\r\na\r\n>2\r\n$10\r\ninvalidate\r\n*1\r\n$3\r\nfoo\r\n$1\r\nb\r\n");
+      try (NioConnection connection = new NioConnection(eventLoop,
+          new HostAndPort("localhost", server.getLocalPort()), NO_HANDSHAKE)) {
+        CompletableFuture<String> a = connection.executeCommandAsync(commandObjects.get("a"));
+        CompletableFuture<String> b = connection.executeCommandAsync(commandObjects.get("b"));
+        assertEquals("a", a.join());
+        assertEquals("b", b.join());
+
+        List<Object> push = (List<Object>) connection.getUnflushedObject();
+        assertEquals("invalidate", SafeEncoder.encode((byte[]) push.get(0)));
+      }
+      serving.join();
+    }
+  }
+
+  @Test
+  public void subscribeAnsweredByPush() throws Exception {
+    try (ServerSocket server = new ServerSocket(0)) {
+      Thread serving = serve(server, 1,
+          ">3\r\n$9\r\nsubscribe\r\n$2\r\nch\r\n:1\r\n"
+          + ">3\r\n$7\r\nmessage\r\n$2\r\nch\r\n$5\r\nhello\r\n");
+      try (NioConnection connection = new NioConnection(eventLoop,
+          new HostAndPort("localhost", server.getLocalPort()), NO_HANDSHAKE)) {
+        connection.sendCommand(Protocol.Command.SUBSCRIBE, "ch");
+        assertEquals("subscribe", SafeEncoder.encode((byte[]) ((List<Object>) connection.getUnflushedObject()).get(0)));
+        assertEquals("message", SafeEncoder.encode((byte[]) ((List<Object>) connection.getUnflushedObject()).get(0)));
+      }
+      serving.join();
+    }
+  }
+
+  @Test
+  public void connectionRefused() throws Exception {
+    int port;
+    try (ServerSocket server = new ServerSocket(0)) {
+      port = server.getLocalPort();
+    }
+    try (NioConnection connection = new NioConnection(eventLoop, new HostAndPort("localhost", port),
+        NO_HANDSHAKE)) {
+      fail("Should throw exception");
+    } catch (JedisConnectionException jce) {
+      assertTrue(jce.getSuppressed().length > 0);
+    }
+  }
+
+  @Test
+  public void failedHandshakeFailsQueuedCommands() throws Exception {
+    try (ServerSocket server = new ServerSocket(0)) {
+      // nothing is replied before the command queued after the handshake is received
+      Thread serving = serve(server, 2, "-WRONGPASS invalid password\r\n$1\r\na\r\n");
+      JedisClientConfig config = DefaultJedisClientConfig.builder().password("secret")
+          .clientSetInfoConfig(ClientSetInfoConfig.DISABLED).build();
+      try (NioConnection connection = new NioConnection(eventLoop,
+          new HostAndPort("localhost", server.getLocalPort()), config, false)) {
+        try {
+          connection.executeCommandAsync(commandObjects.get("a")).join();
+          fail("Should throw exception");
+        } catch (CompletionException ce) {
+          assertTrue(ce.getCause() instanceof JedisConnectionException);
+          assertTrue(ce.getCause().getCause() instanceof JedisAccessControlException);
+        }
+      }
+      serving.join();
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void sharedConnectionDoesNotAwaitHandshake() throws Exception {
+    try (ServerSocket server = new ServerSocket(0)) {
+      Thread serving = serve(server, 2, "+OK\r\n$1\r\na\r\n");
+      JedisClientConfig config = DefaultJedisClientConfig.builder().password("secret")
+          .clientSetInfoConfig(ClientSetInfoConfig.DISABLED).build();
+      try (NioConnectionProvider provider = new NioConnectionProvider(eventLoop,
+          new HostAndPort("localhost", server.getLocalPort()), config, new GenericObjectPoolConfig<>())) {
+        // the handshake is only answered once the command is received
+        assertEquals("a", provider.getSharedConnection().executeCommandAsync(commandObjects.get("a")).join());
+      }
+      serving.join();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package redis.clients.jedis.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.CommandObjects;
+import redis.clients.jedis.EndpointConfig;
+import redis.clients.jedis.HostAndPorts;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.nio.NioConnection;
+
+/**
+ * @see MultiplexedConnectionProvider
+ */
+public class MultiplexedConnectionProviderTest {
+
+  private static final EndpointConfig endpoint = HostAndPorts.getRedisEndpoint("standalone0");
+
+  private MultiplexedConnectionProvider provider;
+
+  @Before
+  public void setUp() {
+    provider = new MultiplexedConnectionProvider(endpoint.getHostAndPort(),
+        endpoint.getClientConfigBuilder().build(), 2);
+  }
+
+  @After
+  public void tearDown() {
+    provider.close();
+  }
+
+  @Test
+  public void sharedConnections() {
+    NioConnection first = provider.getSharedConnection();
+    NioConnection second = provider.getSharedConnection();
+    assertNotSame(first, second);
+    assertSame(first, provider.getSharedConnection());
+
+    first.disconnect();
+    assertSame(second, provider.getSharedConnection());
+    NioConnection replaced = provider.getSharedConnection();
+    assertNotSame(first, replaced);
+    assertTrue(replaced.ping());
+  }
+
+  @Test
+  public void concurrentCommands() throws Exception {
+    UnifiedJedis jedis = new UnifiedJedis(provider);
+    jedis.del("counter");
+
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 16; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 500; i++) {
+            jedis.incr("counter");
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals("8000", jedis.get("counter"));
+  }
+
+  @Test
+  public void asyncCommands() {
+    UnifiedJedis jedis = new UnifiedJedis(provider);
+    CommandObjects commandObjects = new CommandObjects();
+    jedis.del("counter");
+
+    List<CompletableFuture<Long>> futures = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      futures.add(jedis.executeCommandAsync(commandObjects.incr("counter")));
+    }
+    Set<Long> replies = new HashSet<>();
+    for (CompletableFuture<Long> future : futures) {
+      replies.add(future.join());
+    }
+    assertEquals(1000, replies.size());
+    assertEquals("1000", jedis.get("counter"));
+  }
+
+  @Test
+  public void pipelineUsesExclusiveConnection() {
+    try (Pipeline pipeline = new Pipeline(provider.getConnection(), true)) {
+      Response<String> set = pipeline.set("foo", "bar");
+      Response<String> get = pipeline.get("foo");
+      pipeline.sync();
+      assertEquals("OK", set.get());
+      assertEquals("bar", get.get());
+    }
+    assertEquals("bar", provider.getSharedConnection().executeCommand(new CommandObjects().get("foo")));
+  }
+}
@@ -93,7 +93,7 @@ public class ClusterTopologyRefreshTest {
         assertTrue(client.exists(String.valueOf(i)));
       }
 
-      verify(spyProvider, atLeast(2)).renewSlotCache(any(Connection.class));
+      verify(spyProvider, atLeast(2)).applyMovedRedirection(any());
     }
   }
 